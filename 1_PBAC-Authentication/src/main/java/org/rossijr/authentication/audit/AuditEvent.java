@@ -0,0 +1,69 @@
+package org.rossijr.authentication.audit;
+
+/**
+ * An audit event, as a slot of the {@link AuditRingBuffer}.
+ *
+ * <p>The slots are allocated once, with the buffer, and overwritten by each event published into them, so publishing
+ * an event does not allocate. An {@link AuditSink} must therefore copy what it needs from the event during
+ * {@link AuditSink#append(AuditEvent)}, and never keep a reference to it.</p>
+ */
+public final class AuditEvent {
+    // Sequence of the event held by the slot, written last by the producer (and read first by the consumer), so the
+    // other fields are visible once it is
+    private volatile long sequence = -1;
+
+    private AuditEventType type;
+    private long timestamp;
+    private String subject;
+    private String clientAddress;
+    private String detail;
+
+    void set(AuditEventType type, long timestamp, String subject, String clientAddress, String detail) {
+        this.type = type;
+        this.timestamp = timestamp;
+        this.subject = subject;
+        this.clientAddress = clientAddress;
+        this.detail = detail;
+    }
+
+    void publish(long sequence) {
+        this.sequence = sequence;
+    }
+
+    long getSequence() {
+        return sequence;
+    }
+
+    public AuditEventType getType() {
+        return type;
+    }
+
+    /**
+     * @return the time of the event, in milliseconds since the epoch
+     */
+    public long getTimestamp() {
+        return timestamp;
+    }
+
+    /**
+     * @return the email of the user (the attempted one for a failed login, the subject of the token for a token
+     * validation), or {@code null} if unknown
+     */
+    public String getSubject() {
+        return subject;
+    }
+
+    /**
+     * @return the IP of the client, or {@code null} if unknown
+     */
+    public String getClientAddress() {
+        return clientAddress;
+    }
+
+    /**
+     * @return the reason of a failure, or {@code null}
+     */
+    public String getDetail() {
+        return detail;
+    }
+}
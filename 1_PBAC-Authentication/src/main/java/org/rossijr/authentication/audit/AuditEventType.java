@@ -0,0 +1,11 @@
+package org.rossijr.authentication.audit;
+
+/**
+ * Types of the events recorded by the {@link AuditLog}.
+ */
+public enum AuditEventType {
+    LOGIN_SUCCEEDED,
+    LOGIN_FAILED,
+    TOKEN_VALIDATED,
+    TOKEN_REJECTED
+}
@@ -0,0 +1,264 @@
+package org.rossijr.authentication.audit;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Audit trail of the authentication events (logins and token validations), written off the request thread.
+ *
+ * <p>Recording an event only publishes it into a pre-allocated, lock-free {@link AuditRingBuffer}. A single background
+ * thread reads the events in batches and writes them to the sinks: a rotated, memory-mapped file
+ * ({@link MappedFileAuditSink}) and/or the {@code tb_audit_event} table ({@link JdbcAuditSink}).</p>
+ *
+ * <h3>Behaviour:</h3>
+ * <ul>
+ *   <li><b>Batches:</b> the consumer writes the published events every {@code audit.flush.interval} milliseconds, or as
+ *   soon as {@code audit.batch.size} events are waiting, in batches of at most {@code audit.batch.size} events.</li>
+ *   <li><b>Overflow:</b> when the buffer ({@code audit.buffer.capacity} events) can not take an event, it is dropped,
+ *   waited for or sampled, depending on {@code audit.overflow.policy} (see {@link OverflowPolicy}).</li>
+ *   <li><b>Failures:</b> a batch that a sink fails to write is lost for that sink (the other sinks still get it), so a
+ *   slow or broken sink can not hold the buffer.</li>
+ *   <li><b>Shutdown:</b> the published events are written before the application stops.</li>
+ *   <li><b>Metrics:</b> the dropped events ({@code audit.events.dropped}, tagged by {@code reason}: {@code full} or
+ *   {@code sampled}), the events lost by a sink ({@code audit.events.lost}, tagged by {@code sink}), the events in the
+ *   buffer ({@code audit.buffer.size}) and the write latency of each sink ({@code audit.flush}) are published.</li>
+ * </ul>
+ *
+ * <p>When no sink is enabled, the events are ignored.</p>
+ */
+@Component
+public class AuditLog {
+    private final Logger logger = LoggerFactory.getLogger(AuditLog.class);
+
+    // Pause of a caller waiting for room in the buffer (BLOCK policy)
+    private static final long BLOCK_PAUSE_NANOS = TimeUnit.MICROSECONDS.toNanos(100);
+
+    private final AuditRingBuffer buffer;
+    private final int batchSize;
+    private final long flushIntervalNanos;
+    private final OverflowPolicy overflowPolicy;
+    private final long blockTimeoutNanos;
+    private final int sampleRate;
+    private final AuditSink[] sinks;
+
+    private final Counter droppedFull;
+    private final Counter droppedSampled;
+    private final Counter[] lost;
+    private final Timer[] flushTimers;
+    // Failure of each sink in the current batch, only used by the consumer thread
+    private final Exception[] failures;
+
+    private final Thread consumer;
+    private volatile boolean running = true;
+    private volatile boolean consumerWaiting;
+
+    @Autowired
+    public AuditLog(@Value("${audit.buffer.capacity}") int capacity,
+                    @Value("${audit.batch.size}") int batchSize,
+                    @Value("${audit.flush.interval}") long flushInterval,
+                    @Value("${audit.overflow.policy}") OverflowPolicy overflowPolicy,
+                    @Value("${audit.overflow.block.timeout}") long blockTimeout,
+                    @Value("${audit.overflow.sample.rate}") int sampleRate,
+                    @Value("${audit.file.enabled}") boolean fileEnabled,
+                    @Value("${audit.file.directory}") String fileDirectory,
+                    @Value("${audit.file.segment.size}") int fileSegmentSize,
+                    @Value("${audit.file.max.files}") int fileMaxFiles,
+                    @Value("${audit.jdbc.enabled}") boolean jdbcEnabled,
+                    JdbcTemplate jdbcTemplate,
+                    MeterRegistry meterRegistry) throws IOException {
+        this(capacity, batchSize, flushInterval, overflowPolicy, blockTimeout, sampleRate,
+                sinks(fileEnabled, fileDirectory, fileSegmentSize, fileMaxFiles, jdbcEnabled, jdbcTemplate, batchSize),
+                meterRegistry);
+    }
+
+    AuditLog(int capacity, int batchSize, long flushInterval, OverflowPolicy overflowPolicy, long blockTimeout,
+             int sampleRate, List<AuditSink> sinks, MeterRegistry meterRegistry) {
+        if (batchSize <= 0 || flushInterval <= 0 || blockTimeout < 0 || sampleRate <= 0) {
+            throw new IllegalArgumentException("Audit batch size, flush interval and sample rate must be positive, and block timeout must not be negative");
+        }
+        this.buffer = new AuditRingBuffer(capacity);
+        this.batchSize = batchSize;
+        this.flushIntervalNanos = TimeUnit.MILLISECONDS.toNanos(flushInterval);
+        this.overflowPolicy = overflowPolicy;
+        this.blockTimeoutNanos = TimeUnit.MILLISECONDS.toNanos(blockTimeout);
+        this.sampleRate = sampleRate;
+        this.sinks = sinks.toArray(new AuditSink[0]);
+
+        this.droppedFull = Counter.builder("audit.events.dropped").tag("reason", "full").register(meterRegistry);
+        this.droppedSampled = Counter.builder("audit.events.dropped").tag("reason", "sampled").register(meterRegistry);
+        this.lost = new Counter[this.sinks.length];
+        this.flushTimers = new Timer[this.sinks.length];
+        for (int i = 0; i < this.sinks.length; i++) {
+            lost[i] = Counter.builder("audit.events.lost").tag("sink", this.sinks[i].name()).register(meterRegistry);
+            flushTimers[i] = Timer.builder("audit.flush").tag("sink", this.sinks[i].name()).register(meterRegistry);
+        }
+        this.failures = new Exception[this.sinks.length];
+        Gauge.builder("audit.buffer.size", buffer, AuditRingBuffer::size).register(meterRegistry);
+
+        if (this.sinks.length == 0) {
+            this.consumer = null;
+        } else {
+            this.consumer = new Thread(this::consume, "audit-writer");
+            consumer.setDaemon(true);
+            consumer.start();
+        }
+    }
+
+    private static List<AuditSink> sinks(boolean fileEnabled, String fileDirectory, int fileSegmentSize, int fileMaxFiles,
+                                         boolean jdbcEnabled, JdbcTemplate jdbcTemplate, int batchSize) throws IOException {
+        List<AuditSink> sinks = new ArrayList<>(2);
+        if (fileEnabled) {
+            if (fileDirectory == null || fileDirectory.isBlank()) {
+                throw new IllegalArgumentException("Audit file directory (audit.file.directory) is required when the audit file sink is enabled");
+            }
+            sinks.add(new MappedFileAuditSink(Path.of(fileDirectory), fileSegmentSize, fileMaxFiles));
+        }
+        if (jdbcEnabled) {
+            sinks.add(new JdbcAuditSink(jdbcTemplate, batchSize));
+        }
+        return sinks;
+    }
+
+    /**
+     * Records an event, to be written by the consumer thread. It does not wait, unless the buffer is full and the
+     * overflow policy is {@link OverflowPolicy#BLOCK}.
+     *
+     * @param type          the type of the event
+     * @param subject       the email of the user, or {@code null} if unknown
+     * @param clientAddress the IP of the client, or {@code null} if unknown
+     * @param detail        the reason of a failure, or {@code null}
+     */
+    public void record(AuditEventType type, String subject, String clientAddress, String detail) {
+        if (consumer == null) {
+            return;
+        }
+        long timestamp = System.currentTimeMillis();
+        if (overflowPolicy == OverflowPolicy.SAMPLE && buffer.size() >= buffer.capacity() / 2
+                && ThreadLocalRandom.current().nextInt(sampleRate) != 0) {
+            droppedSampled.increment();
+            return;
+        }
+        if (buffer.tryPublish(type, timestamp, subject, clientAddress, detail)) {
+            published();
+            return;
+        }
+        if (overflowPolicy == OverflowPolicy.BLOCK) {
+            long deadline = System.nanoTime() + blockTimeoutNanos;
+            while (System.nanoTime() - deadline < 0) {
+                LockSupport.unpark(consumer);
+                LockSupport.parkNanos(BLOCK_PAUSE_NANOS);
+                if (buffer.tryPublish(type, timestamp, subject, clientAddress, detail)) {
+                    published();
+                    return;
+                }
+            }
+        }
+        droppedFull.increment();
+    }
+
+    private void published() {
+        // Wakes the consumer up before the end of its interval once a full batch is waiting
+        if (consumerWaiting && buffer.size() >= batchSize) {
+            LockSupport.unpark(consumer);
+        }
+    }
+
+    /**
+     * Loop of the consumer thread: writes the published events in batches until the application stops, then writes the
+     * remaining ones and closes the sinks.
+     */
+    private void consume() {
+        while (true) {
+            // Read before the batch, so the events published before the shutdown are all written
+            boolean stopping = !running;
+            int count = buffer.read(batchSize, this::append);
+            if (count > 0) {
+                flush(count);
+                buffer.release(count);
+                continue;
+            }
+            if (stopping) {
+                break;
+            }
+            consumerWaiting = true;
+            if (buffer.size() < batchSize) {
+                LockSupport.parkNanos(this, flushIntervalNanos);
+            }
+            consumerWaiting = false;
+        }
+        for (AuditSink sink : sinks) {
+            try {
+                sink.close();
+            } catch (Exception e) {
+                logger.error("An unexpected error occurred while closing the {} audit sink: {}", sink.name(), e.getMessage());
+            }
+        }
+    }
+
+    private void append(AuditEvent event) {
+        for (int i = 0; i < sinks.length; i++) {
+            if (failures[i] != null) {
+                continue;
+            }
+            try {
+                sinks[i].append(event);
+            } catch (Exception e) {
+                failures[i] = e;
+            }
+        }
+    }
+
+    private void flush(int count) {
+        for (int i = 0; i < sinks.length; i++) {
+            if (failures[i] == null) {
+                long start = System.nanoTime();
+                try {
+                    sinks[i].flush();
+                } catch (Exception e) {
+                    failures[i] = e;
+                }
+                flushTimers[i].record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            }
+            if (failures[i] != null) {
+                logger.error("An unexpected error occurred while writing {} audit events to the {} sink: {}", count,
+                        sinks[i].name(), failures[i].getMessage());
+                lost[i].increment(count);
+                failures[i] = null;
+            }
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (consumer == null) {
+            return;
+        }
+        running = false;
+        LockSupport.unpark(consumer);
+        try {
+            consumer.join(TimeUnit.SECONDS.toMillis(10));
+            if (consumer.isAlive()) {
+                logger.warn("Audit writer did not terminate in time, {} events were not written", buffer.size());
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,110 @@
+package org.rossijr.authentication.audit;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+/**
+ * Bounded, lock-free ring buffer of {@link AuditEvent}s, with any number of producers and a single consumer.
+ *
+ * <p>All the slots are allocated up front. A producer claims the next sequence with a compare-and-set, fills the slot
+ * of that sequence and then publishes it, so producers never wait for each other (beyond a retry of the compare-and-set)
+ * nor for the consumer. When the consumer has not released the slot yet, the buffer is full and the event is
+ * refused.</p>
+ *
+ * <h3>Sequences:</h3>
+ * <ul>
+ *   <li><b>claimed:</b> the next sequence to be claimed by a producer.</li>
+ *   <li><b>released:</b> the next sequence to be read by the consumer. The slots of the sequences below it are free.</li>
+ *   <li>The slot of sequence {@code n} is {@code n & (capacity - 1)}, and it holds event {@code n} once the sequence
+ *   stored in the slot is {@code n}.</li>
+ * </ul>
+ */
+public class AuditRingBuffer {
+    private final AuditEvent[] slots;
+    private final int mask;
+
+    private final AtomicLong claimed = new AtomicLong();
+    // Only written by the consumer
+    private volatile long released;
+
+    /**
+     * @param capacity the number of slots, a power of two
+     */
+    public AuditRingBuffer(int capacity) {
+        if (capacity <= 0 || Integer.bitCount(capacity) != 1) {
+            throw new IllegalArgumentException("Audit buffer capacity must be a positive power of two");
+        }
+        this.slots = new AuditEvent[capacity];
+        for (int i = 0; i < capacity; i++) {
+            slots[i] = new AuditEvent();
+        }
+        this.mask = capacity - 1;
+    }
+
+    /**
+     * Publishes an event, unless the buffer is full.
+     *
+     * @return {@code true} if the event was published, {@code false} if the buffer is full
+     */
+    public boolean tryPublish(AuditEventType type, long timestamp, String subject, String clientAddress, String detail) {
+        long sequence;
+        do {
+            sequence = claimed.get();
+            if (sequence - released >= slots.length) {
+                return false;
+            }
+        } while (!claimed.compareAndSet(sequence, sequence + 1));
+
+        AuditEvent slot = slots[(int) sequence & mask];
+        slot.set(type, timestamp, subject, clientAddress, detail);
+        slot.publish(sequence);
+        return true;
+    }
+
+    /**
+     * Hands the next published events, in order, to the given handler, without releasing them. Must only be called by
+     * the consumer, which then calls {@link #release(int)} once it is done with them.
+     *
+     * <p>It stops at the first claimed event that is not published yet, even if later ones are.</p>
+     *
+     * @param maxEvents the maximum number of events to read
+     * @param handler   the handler of the events
+     * @return the number of events read
+     */
+    public int read(int maxEvents, Consumer<AuditEvent> handler) {
+        long next = released;
+        int count = 0;
+        while (count < maxEvents) {
+            AuditEvent slot = slots[(int) next & mask];
+            if (slot.getSequence() != next) {
+                break;
+            }
+            handler.accept(slot);
+            next++;
+            count++;
+        }
+        return count;
+    }
+
+    /**
+     * Frees the slots of the events read by the last call to {@link #read(int, Consumer)}.
+     *
+     * @param count the number of events read
+     */
+    public void release(int count) {
+        released = released + count;
+    }
+
+    /**
+     * @return the number of claimed events not released yet
+     */
+    public int size() {
+        // Released first, as it never goes past the claimed sequence
+        long released = this.released;
+        return (int) (claimed.get() - released);
+    }
+
+    public int capacity() {
+        return slots.length;
+    }
+}
@@ -0,0 +1,30 @@
+package org.rossijr.authentication.audit;
+
+/**
+ * Destination of the audit events, written by the consumer thread of the {@link AuditLog} (so an implementation does
+ * not need to be thread-safe).
+ *
+ * <p>The events are handed over in batches: {@link #append(AuditEvent)} for each event of the batch, then
+ * {@link #flush()}. The slots of the batch are reused as soon as {@link #flush()} returns.</p>
+ */
+public interface AuditSink extends AutoCloseable {
+
+    /**
+     * Adds an event to the current batch. The event must not be kept once this method returns.
+     *
+     * @param event the event
+     */
+    void append(AuditEvent event);
+
+    /**
+     * Writes the current batch.
+     *
+     * @throws Exception if the batch could not be written (its events are lost for this sink)
+     */
+    void flush() throws Exception;
+
+    /**
+     * @return the name of the sink, used in the logs and in the metric tags
+     */
+    String name();
+}
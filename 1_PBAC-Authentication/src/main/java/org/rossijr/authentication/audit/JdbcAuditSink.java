@@ -0,0 +1,63 @@
+package org.rossijr.authentication.audit;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * {@link AuditSink} inserting the events into the {@code tb_audit_event} table (see
+ * {@link org.rossijr.authentication.model.AuditLogEntry}), one JDBC batch per batch of events.
+ */
+public class JdbcAuditSink implements AuditSink {
+    private static final String INSERT_EVENT =
+            "INSERT INTO tb_audit_event (occurred_at, type, subject, client_address, detail) VALUES (?, ?, ?, ?, ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final List<Object[]> batch;
+
+    /**
+     * @param jdbcTemplate the template of the database of the table
+     * @param batchSize    the maximum number of events of a batch
+     */
+    public JdbcAuditSink(JdbcTemplate jdbcTemplate, int batchSize) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.batch = new ArrayList<>(batchSize);
+    }
+
+    @Override
+    public void append(AuditEvent event) {
+        batch.add(new Object[]{
+                OffsetDateTime.ofInstant(Instant.ofEpochMilli(event.getTimestamp()), ZoneOffset.UTC),
+                event.getType().name(),
+                event.getSubject(),
+                event.getClientAddress(),
+                event.getDetail()
+        });
+    }
+
+    @Override
+    public void flush() {
+        if (batch.isEmpty()) {
+            return;
+        }
+        try {
+            jdbcTemplate.batchUpdate(INSERT_EVENT, batch);
+        } finally {
+            batch.clear();
+        }
+    }
+
+    @Override
+    public String name() {
+        return "jdbc";
+    }
+
+    @Override
+    public void close() {
+        batch.clear();
+    }
+}
@@ -0,0 +1,180 @@
+package org.rossijr.authentication.audit;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * {@link AuditSink} appending the events, as JSON lines, to memory-mapped files rotated by size.
+ *
+ * <p>Each file (a segment) is created in {@code audit.file.directory} and mapped whole ({@code audit.file.segment.size}
+ * bytes), so appending an event is a copy into memory, with no system call. The pages are written back by the OS, and
+ * also survive a crash of the application (not of the OS). Files are never rewritten: when the next event does not
+ * fit, the segment is forced to disk, truncated to its content and closed, and a new one is created.</p>
+ *
+ * <h3>Files:</h3>
+ * <ul>
+ *   <li><b>Names:</b> {@code audit-<UTC creation time>-<n>.log} ({@code n} tells apart the segments created within the
+ *   same millisecond), so they sort in chronological order.</li>
+ *   <li><b>Retention:</b> only the latest {@code audit.file.max.files} segments are kept, the older ones are deleted on
+ *   rotation.</li>
+ *   <li>A segment left by a crash keeps its mapped size, its content ends at the first NUL byte.</li>
+ * </ul>
+ */
+public class MappedFileAuditSink implements AuditSink {
+    private final Logger logger = LoggerFactory.getLogger(MappedFileAuditSink.class);
+
+    private static final String PREFIX = "audit-";
+    private static final String SUFFIX = ".log";
+    private static final DateTimeFormatter NAME_FORMAT = DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss-SSS").withZone(ZoneOffset.UTC);
+    // Longer values are cut, so any event fits in a segment
+    private static final int MAX_VALUE_LENGTH = 512;
+    private static final int MIN_SEGMENT_SIZE = 64 * 1024;
+
+    private final Path directory;
+    private final int segmentSize;
+    private final int maxFiles;
+    private final StringBuilder line = new StringBuilder(256);
+
+    private FileChannel channel;
+    private MappedByteBuffer segment;
+
+    /**
+     * @param directory   the directory of the segments, created if needed
+     * @param segmentSize the size of a segment, in bytes
+     * @param maxFiles    the number of segments kept
+     * @throws IOException if the first segment can not be created
+     */
+    public MappedFileAuditSink(Path directory, int segmentSize, int maxFiles) throws IOException {
+        if (segmentSize < MIN_SEGMENT_SIZE || maxFiles <= 0) {
+            throw new IllegalArgumentException("Audit segment size must be at least " + MIN_SEGMENT_SIZE + " bytes and max files must be positive");
+        }
+        this.directory = directory;
+        this.segmentSize = segmentSize;
+        this.maxFiles = maxFiles;
+        Files.createDirectories(directory);
+        openSegment();
+    }
+
+    @Override
+    public void append(AuditEvent event) {
+        line.setLength(0);
+        line.append("{\"timestamp\":\"").append(Instant.ofEpochMilli(event.getTimestamp()))
+                .append("\",\"type\":\"").append(event.getType()).append('"');
+        appendField("subject", event.getSubject());
+        appendField("clientAddress", event.getClientAddress());
+        appendField("detail", event.getDetail());
+        line.append("}\n");
+
+        byte[] bytes = line.toString().getBytes(StandardCharsets.UTF_8);
+        // No segment if the last rotation failed
+        if (segment == null || bytes.length > segment.remaining()) {
+            try {
+                rotate();
+            } catch (IOException e) {
+                throw new IllegalStateException("Audit segment could not be rotated", e);
+            }
+        }
+        segment.put(bytes);
+    }
+
+    /**
+     * Nothing to do, the events are in the mapped pages as soon as they are appended.
+     */
+    @Override
+    public void flush() {
+    }
+
+    @Override
+    public String name() {
+        return "file";
+    }
+
+    @Override
+    public void close() throws IOException {
+        closeSegment();
+    }
+
+    private void appendField(String name, String value) {
+        if (value == null) {
+            return;
+        }
+        line.append(",\"").append(name).append("\":\"");
+        int length = Math.min(value.length(), MAX_VALUE_LENGTH);
+        for (int i = 0; i < length; i++) {
+            char c = value.charAt(i);
+            switch (c) {
+                case '"' -> line.append("\\\"");
+                case '\\' -> line.append("\\\\");
+                case '\n' -> line.append("\\n");
+                case '\r' -> line.append("\\r");
+                case '\t' -> line.append("\\t");
+                default -> {
+                    if (c < 0x20) {
+                        line.append(String.format("\\u%04x", (int) c));
+                    } else {
+                        line.append(c);
+                    }
+                }
+            }
+        }
+        line.append('"');
+    }
+
+    private void rotate() throws IOException {
+        closeSegment();
+        openSegment();
+        deleteOldSegments();
+    }
+
+    private void openSegment() throws IOException {
+        String name = NAME_FORMAT.format(Instant.now());
+        for (int attempt = 0; ; attempt++) {
+            Path file = directory.resolve(PREFIX + name + "-" + attempt + SUFFIX);
+            try {
+                channel = FileChannel.open(file, StandardOpenOption.CREATE_NEW, StandardOpenOption.READ, StandardOpenOption.WRITE);
+                segment = channel.map(FileChannel.MapMode.READ_WRITE, 0, segmentSize);
+                logger.debug("Audit segment created: {}", file);
+                return;
+            } catch (FileAlreadyExistsException e) {
+                // Two segments created within the same millisecond
+            }
+        }
+    }
+
+    private void closeSegment() throws IOException {
+        if (channel == null) {
+            return;
+        }
+        segment.force();
+        channel.truncate(segment.position());
+        channel.close();
+        channel = null;
+        segment = null;
+    }
+
+    private void deleteOldSegments() throws IOException {
+        List<Path> files = new ArrayList<>();
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory, PREFIX + "*" + SUFFIX)) {
+            stream.forEach(files::add);
+        }
+        files.sort(null);
+        for (int i = 0; i < files.size() - maxFiles; i++) {
+            Files.deleteIfExists(files.get(i));
+        }
+    }
+}
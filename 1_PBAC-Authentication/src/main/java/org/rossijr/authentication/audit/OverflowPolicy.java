@@ -0,0 +1,21 @@
+package org.rossijr.authentication.audit;
+
+/**
+ * What the {@link AuditLog} does with an event when its ring buffer can not take it right away.
+ */
+public enum OverflowPolicy {
+    /**
+     * The event is dropped when the buffer is full, the caller never waits.
+     */
+    DROP,
+    /**
+     * The caller waits for room in the buffer, up to {@code audit.overflow.block.timeout} milliseconds, then the event is
+     * dropped.
+     */
+    BLOCK,
+    /**
+     * Once the buffer is half full, only one event in {@code audit.overflow.sample.rate} is kept (at random), and the
+     * event is dropped when the buffer is full. The caller never waits.
+     */
+    SAMPLE
+}
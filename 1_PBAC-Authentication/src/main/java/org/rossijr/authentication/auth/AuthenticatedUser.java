@@ -0,0 +1,61 @@
+package org.rossijr.authentication.auth;
+
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.userdetails.UserDetails;
+
+import java.util.Collection;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * Immutable {@link UserDetails} built by the {@link CustomUserDetailsService}.
+ *
+ * <p>Unlike {@link org.springframework.security.core.userdetails.User}, this class does not implement
+ * {@link org.springframework.security.core.CredentialsContainer}, so Spring Security never erases its password after
+ * a login. That makes it safe to share the same instance between requests (see {@link UserDetailsCache}).</p>
+ *
+ * <p>When it is built from a stateless token (see {@link JwtUtil#createToken(String, UUID, Collection, long)}), the
+ * password is {@code null}, as it is never needed after the login.</p>
+ *
+ * <p>Besides the authorities, it carries the same permissions compiled into a {@link PermissionSet}, which is what the
+ * {@link PermissionAuthorizationManager} checks.</p>
+ */
+public final class AuthenticatedUser implements UserDetails {
+    private final UUID id;
+    private final String email;
+    private final String password;
+    private final Set<GrantedAuthority> authorities;
+    private final PermissionSet permissions;
+
+    public AuthenticatedUser(UUID id, String email, String password, Collection<? extends GrantedAuthority> authorities,
+                             PermissionSet permissions) {
+        this.id = id;
+        this.email = email;
+        this.password = password;
+        this.authorities = Set.copyOf(authorities);
+        this.permissions = permissions;
+    }
+
+    @Override
+    public Collection<? extends GrantedAuthority> getAuthorities() {
+        return authorities;
+    }
+
+    @Override
+    public String getPassword() {
+        return password;
+    }
+
+    @Override
+    public String getUsername() {
+        return email;
+    }
+
+    public UUID getId() {
+        return id;
+    }
+
+    public PermissionSet getPermissions() {
+        return permissions;
+    }
+}
@@ -1,24 +1,43 @@
 package org.rossijr.authentication.auth;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.Valid;
 import org.rossijr.authentication.auth.dto.AuthenticationRequestDTO;
 import org.rossijr.authentication.auth.dto.AuthenticationResponseDTO;
+import org.rossijr.authentication.auth.dto.BatchValidateRequestDTO;
 import org.rossijr.authentication.auth.dto.ValidateRequestDTO;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.NativeWebRequest;
+import org.springframework.web.context.request.async.CallableProcessingInterceptor;
+import org.springframework.web.context.request.async.WebAsyncUtils;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.concurrent.Callable;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 @RestController
 @RequestMapping("/api/v1/authentication")
 public class AuthenticationController {
+    private static final Object BATCH_SLOT_INTERCEPTOR_KEY = AuthenticationController.class.getName() + ".batchSlot";
+
     private final AuthenticationService authenticationService;
+    private final ObjectMapper objectMapper;
 
     @Autowired
-    public AuthenticationController(AuthenticationService authenticationService) {
+    public AuthenticationController(AuthenticationService authenticationService, ObjectMapper objectMapper) {
         this.authenticationService = authenticationService;
+        this.objectMapper = objectMapper;
     }
 
     /**
@@ -30,11 +49,26 @@ public class AuthenticationController {
      * class, alongside with the user ID. If the authentication fails, the method returns an error response.</p>
      *
      * @param authenticationRequestDTO the authentication request containing username and password
+     * @param request                  the request, whose remote address is used by the login rate limit
      * @return a {@link AuthenticationResponseDTO} containing the JWT token and user ID
      */
     @PostMapping("/login")
-    public ResponseEntity<AuthenticationResponseDTO> authenticate(@Valid @RequestBody AuthenticationRequestDTO authenticationRequestDTO) {
-        return ResponseEntity.ok(authenticationService.authenticate(authenticationRequestDTO));
+    public ResponseEntity<AuthenticationResponseDTO> authenticate(@Valid @RequestBody AuthenticationRequestDTO authenticationRequestDTO,
+                                                                  HttpServletRequest request) {
+        return ResponseEntity.ok(authenticationService.authenticate(authenticationRequestDTO, request.getRemoteAddr()));
+    }
+
+    /**
+     * Logs the authenticated user out, revoking the token used by the request until its expiration.
+     *
+     * @param authorizationHeader the {@code Authorization} header of the request, holding the token to be revoked
+     * @return an empty response
+     */
+    @PostMapping("/logout")
+    public ResponseEntity<Void> logout(@RequestHeader(HttpHeaders.AUTHORIZATION) String authorizationHeader) {
+        // The request already passed the JwtRequestFilter, so the header holds a verified bearer token
+        authenticationService.logout(authorizationHeader.substring("Bearer ".length()));
+        return ResponseEntity.noContent().build();
     }
 
     /**
@@ -52,4 +86,57 @@ public class AuthenticationController {
         return ResponseEntity.ok(authenticationService.validateToken(token.getToken()));
 
     }
+
+    /**
+     * Validates a batch of JWT tokens at once (e.g. coalesced by an API gateway).
+     *
+     * <p>The tokens are validated in parallel by the {@link AuthenticationService}, and the response is streamed as
+     * newline-delimited JSON (one {@link org.rossijr.authentication.auth.dto.TokenValidationResultDTO} per line, in the
+     * order of the request), so large batches are never fully buffered in memory. An invalid token does not fail the
+     * request, its line carries the reason instead.</p>
+     *
+     * <p>If too many batches are already being validated, the request is rejected with {@code 503} and a
+     * {@code Retry-After} header before anything is streamed. The slot of the batch is given back once the stream ends,
+     * or once the asynchronous request completes if the stream never runs (e.g. timeout, client gone, or the streaming
+     * task rejected).</p>
+     *
+     * @param request        the tokens to be validated (at most {@link BatchValidateRequestDTO#MAX_TOKENS})
+     * @param servletRequest the request, whose asynchronous completion gives back the slot of the batch
+     * @return the stream of validation results
+     */
+    @PostMapping(value = "/validate/batch", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> validateTokens(@Valid @RequestBody BatchValidateRequestDTO request,
+                                                                HttpServletRequest servletRequest) {
+        authenticationService.reserveBatch();
+        AtomicBoolean released = new AtomicBoolean();
+        Runnable release = () -> {
+            if (released.compareAndSet(false, true)) {
+                authenticationService.releaseBatch();
+            }
+        };
+        WebAsyncUtils.getAsyncManager(servletRequest).registerCallableInterceptor(BATCH_SLOT_INTERCEPTOR_KEY,
+                new CallableProcessingInterceptor() {
+                    @Override
+                    public <T> void afterCompletion(NativeWebRequest webRequest, Callable<T> task) {
+                        release.run();
+                    }
+                });
+
+        StreamingResponseBody body = outputStream -> {
+            try {
+                authenticationService.validateTokens(request.getTokens(), result -> {
+                    try {
+                        outputStream.write(objectMapper.writeValueAsBytes(result));
+                        outputStream.write('\n');
+                        outputStream.flush();
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+            } finally {
+                release.run();
+            }
+        };
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_NDJSON).body(body);
+    }
 }
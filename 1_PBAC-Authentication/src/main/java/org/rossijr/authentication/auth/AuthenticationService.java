@@ -1,20 +1,42 @@
 package org.rossijr.authentication.auth;
 
 import com.auth0.jwt.exceptions.JWTVerificationException;
+import com.auth0.jwt.interfaces.Claim;
+import com.auth0.jwt.interfaces.DecodedJWT;
+import jakarta.annotation.PreDestroy;
+import org.rossijr.authentication.audit.AuditEventType;
+import org.rossijr.authentication.audit.AuditLog;
 import org.rossijr.authentication.auth.dto.AuthenticationRequestDTO;
 import org.rossijr.authentication.auth.dto.AuthenticationResponseDTO;
-import org.rossijr.authentication.repository.UserRepository;
+import org.rossijr.authentication.auth.dto.TokenValidationResultDTO;
+import org.rossijr.authentication.exception.ServiceOverloadedException;
+import org.rossijr.authentication.exception.TooManyLoginAttemptsException;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.BadCredentialsException;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.AuthenticationException;
-import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.GrantedAuthority;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.stereotype.Service;
 
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
 @Service
 public class AuthenticationService {
     private final Logger logger = LoggerFactory.getLogger(AuthenticationService.class);
@@ -22,29 +44,73 @@ public class AuthenticationService {
     private final AuthenticationManager authenticationManager;
     private final CustomUserDetailsService customUserDetailsService;
     private final JwtUtil jwtUtil;
-    private final UserRepository userRepository;
+    private final LastLoginWriter lastLoginWriter;
+    private final AuthorityEpochRegistry authorityEpochRegistry;
+    private final LoginRateLimiter loginRateLimiter;
+    private final ThreadPoolExecutor tokenValidationExecutor;
+    private final Semaphore batchPermits;
+    private final long batchRetryAfterSeconds;
+    private final AuditLog auditLog;
 
     @Autowired
     public AuthenticationService(AuthenticationManager authenticationManager, CustomUserDetailsService customUserDetailsService,
-                                 JwtUtil jwtUtil, UserRepository userRepository) {
+                                 JwtUtil jwtUtil, LastLoginWriter lastLoginWriter, AuthorityEpochRegistry authorityEpochRegistry,
+                                 LoginRateLimiter loginRateLimiter,
+                                 @Value("${token.validation.batch.threads}") int batchThreads,
+                                 @Value("${token.validation.batch.queue.capacity}") int batchQueueCapacity,
+                                 @Value("${token.validation.batch.max.in.flight}") int maxBatchesInFlight,
+                                 @Value("${token.validation.batch.retry.after}") long batchRetryAfterSeconds,
+                                 AuditLog auditLog) {
+        if (batchThreads <= 0 || batchQueueCapacity <= 0 || maxBatchesInFlight <= 0) {
+            throw new IllegalArgumentException("Batch token validation threads, queue capacity and batches in flight must be positive");
+        }
         this.authenticationManager = authenticationManager;
         this.customUserDetailsService = customUserDetailsService;
         this.jwtUtil = jwtUtil;
-        this.userRepository = userRepository;
+        this.lastLoginWriter = lastLoginWriter;
+        this.authorityEpochRegistry = authorityEpochRegistry;
+        this.loginRateLimiter = loginRateLimiter;
+        this.batchPermits = new Semaphore(maxBatchesInFlight);
+        this.batchRetryAfterSeconds = batchRetryAfterSeconds;
+        this.auditLog = auditLog;
+
+        AtomicInteger threadCount = new AtomicInteger();
+        this.tokenValidationExecutor = new ThreadPoolExecutor(batchThreads, batchThreads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(batchQueueCapacity),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "token-validation-" + threadCount.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.AbortPolicy());
     }
 
     /**
-     * Updates the last login date for the user with the provided email.
+     * Records the last login date for the user with the provided email.
+     *
+     * <p>The date is written asynchronously, in batches, by the {@link LastLoginWriter}.</p>
      *
      * @param email the email of the user
      */
     private void updateLastLogin(String email) {
-        try {
-            userRepository.updateLastLogin(email);
-        } catch (Exception e) {
-            logger.error("An unexpected error occurred while updating the last login for user: {}", email);
-            throw e;
+        lastLoginWriter.record(email);
+    }
+
+    /**
+     * Creates the JWT token for the given user, according to the configured token mode.
+     *
+     * @param user           the authenticated user
+     * @param authorityEpoch the authority epoch of the user, read before its authorities were loaded
+     * @return the generated JWT token
+     */
+    private String createToken(AuthenticatedUser user, long authorityEpoch) {
+        if (!jwtUtil.isStatelessEnabled()) {
+            return jwtUtil.createToken(user.getUsername());
         }
+        List<String> permissions = user.getAuthorities().stream()
+                .map(GrantedAuthority::getAuthority)
+                .toList();
+        return jwtUtil.createToken(user.getUsername(), user.getId(), permissions, authorityEpoch);
     }
 
     /**
@@ -55,26 +121,45 @@ public class AuthenticationService {
      * successfully authenticated, the method creates a JWT token by invoking the {@link JwtUtil#createToken} method, updates
      * the last login date for the user, and returns the token and user ID wrapped inside the {@link AuthenticationResponseDTO}
      * class. If the authentication fails, the method throws an exception.</p>
+     * <p>When the stateless token mode is enabled, the token also carries the user ID, the permissions and the
+     * authority epoch of the user (see {@link JwtUtil#createToken(String, UUID, java.util.Collection, long)}).</p>
+     * <p>Before any password is compared, the attempt is checked against the {@link LoginRateLimiter}.</p>
+     * <p>Successful and failed attempts are recorded in the {@link AuditLog}.</p>
      *
      * @param authenticationRequestDTO the authentication request containing the user email and password
+     * @param clientAddress            the IP of the client making the attempt
      * @return an {@link AuthenticationResponseDTO} containing the JWT token and user ID
+     * @throws org.rossijr.authentication.exception.TooManyLoginAttemptsException if the client or the email made too
+     *                                                                            many attempts recently
      */
-    public AuthenticationResponseDTO authenticate(AuthenticationRequestDTO authenticationRequestDTO) {
+    public AuthenticationResponseDTO authenticate(AuthenticationRequestDTO authenticationRequestDTO, String clientAddress) {
+        try {
+            loginRateLimiter.acquire(clientAddress, authenticationRequestDTO.getEmail());
+        } catch (TooManyLoginAttemptsException e) {
+            auditLog.record(AuditEventType.LOGIN_FAILED, authenticationRequestDTO.getEmail(), clientAddress, "Too many login attempts");
+            throw e;
+        }
         try {
             authenticationManager.authenticate(
                     new UsernamePasswordAuthenticationToken(authenticationRequestDTO.getEmail(), authenticationRequestDTO.getPassword())
             );
-            UserDetails userDetails = customUserDetailsService.loadUserByUsername(authenticationRequestDTO.getEmail());
-            String jwt = jwtUtil.createToken(userDetails.getUsername());
-            updateLastLogin(userDetails.getUsername());
-            return new AuthenticationResponseDTO(jwt, userRepository.findByEmail(userDetails.getUsername()).getId());
-        } catch (IllegalArgumentException e) {
+            // The epoch is read before the authorities, so a change happening in between makes the token stale (not wrong)
+            long authorityEpoch = authorityEpochRegistry.currentEpoch(authenticationRequestDTO.getEmail());
+            // Answered by the cache (or a single query), as the user was just loaded by the authentication manager
+            AuthenticatedUser user = customUserDetailsService.loadUserByUsername(authenticationRequestDTO.getEmail());
+            String jwt = createToken(user, authorityEpoch);
+            updateLastLogin(user.getUsername());
+            auditLog.record(AuditEventType.LOGIN_SUCCEEDED, user.getUsername(), clientAddress, null);
+            return new AuthenticationResponseDTO(jwt, user.getId());
+        } catch (IllegalArgumentException | ServiceOverloadedException e) {
             throw e;
         } catch (BadCredentialsException | UsernameNotFoundException e) {
             logger.warn("Invalid credentials for user: {}", authenticationRequestDTO.getEmail());
+            auditLog.record(AuditEventType.LOGIN_FAILED, authenticationRequestDTO.getEmail(), clientAddress, "Invalid credentials");
             throw new BadCredentialsException(e.getMessage());
         } catch (AuthenticationException e) {
             logger.error("Authentication failed for user: {}", authenticationRequestDTO.getEmail());
+            auditLog.record(AuditEventType.LOGIN_FAILED, authenticationRequestDTO.getEmail(), clientAddress, e.getMessage());
             throw e;
         } catch (Exception e) {
             logger.error("An unexpected error occurred while authenticating user: {}", authenticationRequestDTO.getEmail());
@@ -87,6 +172,7 @@ public class AuthenticationService {
      *
      * <p>The method validates the provided JWT token by invoking the {@link JwtUtil#verifyToken} method. If the token is valid,
      * the method returns a success message. If the token is invalid, the method throws an exception.</p>
+     * <p>The outcome is recorded in the {@link AuditLog}.</p>
      *
      * @param jwtToken the JWT token to be validated
      * @return a success message if the token is valid
@@ -96,16 +182,142 @@ public class AuthenticationService {
             if (jwtToken == null || jwtToken.trim().isEmpty()) {
                 throw new IllegalArgumentException("Token is required");
             }
-            jwtUtil.verifyToken(jwtToken);
+            DecodedJWT decodedJWT = jwtUtil.verifyToken(jwtToken);
+            auditLog.record(AuditEventType.TOKEN_VALIDATED, decodedJWT.getSubject(), null, null);
             return "Token is valid";
         } catch (IllegalArgumentException e) {
             throw e;
         } catch (JWTVerificationException e) {
             logger.warn("Token validation failed: {}", e.getMessage());
+            auditLog.record(AuditEventType.TOKEN_REJECTED, null, null, e.getMessage());
             throw e;
         } catch (Exception e) {
             logger.error("An unexpected error occurred while validating the token: {}", e.getMessage());
             throw e;
         }
     }
+
+    /**
+     * Logs the user out, by revoking its token until the token expires (see {@link TokenRevocationList}).
+     *
+     * @param jwtToken the JWT token to be revoked
+     * @throws JWTVerificationException if the token is not valid (or already revoked)
+     * @throws IllegalArgumentException if the token can not be revoked, as it has no ID
+     */
+    public void logout(String jwtToken) {
+        DecodedJWT decodedJWT = jwtUtil.verifyToken(jwtToken);
+        jwtUtil.revokeToken(decodedJWT);
+        logger.info("Token revoked for user: {}", decodedJWT.getSubject());
+    }
+
+    /**
+     * Reserves a slot for a batch token validation, to be given back with {@link #releaseBatch()} once the batch is
+     * validated.
+     *
+     * <p>At most {@code token.validation.batch.max.in.flight} batches are validated at once, so anonymous callers can not
+     * pile up user loads (or take every thread streaming the responses).</p>
+     *
+     * @throws ServiceOverloadedException if every slot is taken
+     */
+    public void reserveBatch() {
+        if (!batchPermits.tryAcquire()) {
+            throw new ServiceOverloadedException("Too many concurrent batch token validations, try again later", batchRetryAfterSeconds);
+        }
+    }
+
+    /**
+     * Gives back the slot taken by {@link #reserveBatch()}.
+     */
+    public void releaseBatch() {
+        batchPermits.release();
+    }
+
+    /**
+     * Validates the provided JWT tokens in parallel.
+     *
+     * <p>Each token is verified on a dedicated, bounded executor, whose threads never wait on each other, so the calling
+     * thread (which only waits for the results) can not starve them. If the queue of the executor is full, the token is
+     * verified on the calling thread instead, which slows the batch down instead of failing it. The results are handed to
+     * the given consumer in the same order as the tokens, as soon as each one is available, so the caller can stream them
+     * to the client without waiting for the whole batch. Invalid tokens do not fail the batch, they are reported in their
+     * result.</p>
+     *
+     * @param jwtTokens      the JWT tokens to be validated
+     * @param resultConsumer the consumer of the result of each token
+     */
+    public void validateTokens(List<String> jwtTokens, Consumer<TokenValidationResultDTO> resultConsumer) {
+        List<CompletableFuture<TokenValidationResultDTO>> results = new ArrayList<>(jwtTokens.size());
+        for (int i = 0; i < jwtTokens.size(); i++) {
+            int index = i;
+            String token = jwtTokens.get(i);
+            CompletableFuture<TokenValidationResultDTO> result;
+            try {
+                result = CompletableFuture.supplyAsync(() -> validateTokenInBatch(index, token), tokenValidationExecutor);
+            } catch (RejectedExecutionException e) {
+                result = CompletableFuture.completedFuture(validateTokenInBatch(index, token));
+            }
+            results.add(result);
+        }
+
+        try {
+            for (CompletableFuture<TokenValidationResultDTO> result : results) {
+                resultConsumer.accept(result.join());
+            }
+        } catch (Exception e) {
+            // The consumer failed (e.g. the client disconnected), so the remaining results are not needed anymore
+            results.forEach(result -> result.cancel(false));
+            logger.warn("Batch token validation interrupted: {}", e.getMessage());
+            throw e;
+        }
+    }
+
+    /**
+     * Validates a single token of a batch, returning the result instead of throwing an exception.
+     *
+     * @param index the position of the token in the batch
+     * @param token the JWT token to be validated
+     * @return the result of the validation
+     */
+    private TokenValidationResultDTO validateTokenInBatch(int index, String token) {
+        if (token == null || token.trim().isEmpty()) {
+            return TokenValidationResultDTO.invalid(index, "Token is required");
+        }
+        try {
+            DecodedJWT decodedJWT = jwtUtil.verifyToken(token);
+            ZonedDateTime expiresAt = decodedJWT.getExpiresAtAsInstant() == null ? null
+                    : ZonedDateTime.ofInstant(decodedJWT.getExpiresAtAsInstant(), ZoneOffset.UTC);
+            return TokenValidationResultDTO.valid(index, decodedJWT.getSubject(), expiresAt, getPermissions(decodedJWT));
+        } catch (JWTVerificationException e) {
+            return TokenValidationResultDTO.invalid(index, e.getMessage());
+        } catch (UsernameNotFoundException e) {
+            return TokenValidationResultDTO.invalid(index, "User not found");
+        } catch (Exception e) {
+            logger.error("An unexpected error occurred while validating a token of a batch: {}", e.getMessage());
+            return TokenValidationResultDTO.invalid(index, "Token could not be validated");
+        }
+    }
+
+    /**
+     * Returns the permissions of the subject of a verified token: from its claims for up-to-date stateless tokens,
+     * otherwise from the {@link CustomUserDetailsService} (usually answered by its cache).
+     *
+     * @param decodedJWT the verified token
+     * @return the names of the permissions of the user
+     */
+    private List<String> getPermissions(DecodedJWT decodedJWT) {
+        Claim permissions = decodedJWT.getClaim(JwtUtil.PERMISSIONS_CLAIM);
+        Claim authorityEpoch = decodedJWT.getClaim(JwtUtil.AUTHORITY_EPOCH_CLAIM);
+        if (jwtUtil.isStatelessEnabled() && !permissions.isMissing() && !authorityEpoch.isMissing()
+                && authorityEpochRegistry.isCurrent(decodedJWT.getSubject(), authorityEpoch.asLong())) {
+            return permissions.asList(String.class);
+        }
+        return customUserDetailsService.loadUserByUsername(decodedJWT.getSubject()).getAuthorities().stream()
+                .map(GrantedAuthority::getAuthority)
+                .toList();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        tokenValidationExecutor.shutdown();
+    }
 }
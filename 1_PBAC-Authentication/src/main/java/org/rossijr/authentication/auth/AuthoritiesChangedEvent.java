@@ -0,0 +1,48 @@
+package org.rossijr.authentication.auth;
+
+import org.springframework.context.ApplicationEvent;
+
+/**
+ * Event published whenever the User → Role → Permission graph changes.
+ *
+ * <p>Components that keep resolved authorities in memory (e.g. {@link UserDetailsCache}) listen to this event to drop
+ * stale data. When {@link #getEmail()} is {@code null} the change may affect any user (e.g. a permission was assigned to
+ * a role), otherwise only the user with the given email is affected.</p>
+ */
+public class AuthoritiesChangedEvent extends ApplicationEvent {
+    private final String email;
+
+    private AuthoritiesChangedEvent(Object source, String email) {
+        super(source);
+        this.email = email;
+    }
+
+    /**
+     * Creates an event for a change that only affects the given user.
+     *
+     * @param source the object that changed the graph
+     * @param email  the email of the affected user
+     * @return the event to be published
+     */
+    public static AuthoritiesChangedEvent forUser(Object source, String email) {
+        return new AuthoritiesChangedEvent(source, email);
+    }
+
+    /**
+     * Creates an event for a change that may affect every user.
+     *
+     * @param source the object that changed the graph
+     * @return the event to be published
+     */
+    public static AuthoritiesChangedEvent forAllUsers(Object source) {
+        return new AuthoritiesChangedEvent(source, null);
+    }
+
+    public String getEmail() {
+        return email;
+    }
+
+    public boolean affectsAllUsers() {
+        return email == null;
+    }
+}
@@ -0,0 +1,66 @@
+package org.rossijr.authentication.auth;
+
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * In-memory table of "authority epochs", used to detect stale self-contained (stateless) tokens.
+ *
+ * <p>A stateless token carries the permissions of the user at the moment it was issued, alongside the epoch returned
+ * by {@link #currentEpoch(String)} at that time. Whenever the authorities of a user change, the epoch of that user (or
+ * the global one, when the change may affect every user) is bumped, so every token issued before the change carries an
+ * older epoch and is no longer trusted by {@link JwtRequestFilter}.</p>
+ *
+ * <p>Epochs are taken from a single monotonic counter, so a user epoch and the global epoch can be compared directly.
+ * When the global epoch is bumped the per-user entries it supersedes are removed, which keeps the table small.</p>
+ *
+ * <p><b>Important:</b> the table lives in the memory of a single instance. When running more than one instance, the
+ * changes must be propagated between them (e.g. through a message broker) for the check to be reliable.</p>
+ */
+@Component
+public class AuthorityEpochRegistry {
+
+    // Starts from the startup time, so tokens issued by a previous run of the application are never trusted (the table
+    // of that run is lost on restart)
+    private final AtomicLong counter = new AtomicLong(System.currentTimeMillis());
+    private final Map<String, Long> userEpochs = new ConcurrentHashMap<>();
+    private volatile long globalEpoch = counter.get();
+
+    /**
+     * Returns the epoch that tokens issued now for the given user must carry.
+     *
+     * @param email the email of the user
+     * @return the current authority epoch of the user
+     */
+    public long currentEpoch(String email) {
+        Long userEpoch = userEpochs.get(email);
+        return userEpoch == null ? globalEpoch : Math.max(userEpoch, globalEpoch);
+    }
+
+    /**
+     * Checks if a token issued with the given epoch still reflects the current authorities of the user.
+     *
+     * @param email      the email of the user
+     * @param tokenEpoch the epoch carried by the token
+     * @return {@code true} if no authority change happened after the token was issued
+     */
+    public boolean isCurrent(String email, long tokenEpoch) {
+        return tokenEpoch >= currentEpoch(email);
+    }
+
+    @EventListener
+    public void onAuthoritiesChanged(AuthoritiesChangedEvent event) {
+        if (event.affectsAllUsers()) {
+            long epoch = counter.incrementAndGet();
+            globalEpoch = epoch;
+            // Entries bumped concurrently after the global epoch must be kept
+            userEpochs.values().removeIf(userEpoch -> userEpoch <= epoch);
+        } else {
+            userEpochs.put(event.getEmail(), counter.incrementAndGet());
+        }
+    }
+}
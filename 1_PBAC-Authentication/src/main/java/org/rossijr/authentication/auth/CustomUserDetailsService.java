@@ -2,6 +2,7 @@ package org.rossijr.authentication.auth;
 
 import org.rossijr.authentication.model.User;
 import org.rossijr.authentication.repository.UserRepository;
+import org.rossijr.authentication.repository.projection.UserAuthorities;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.security.core.GrantedAuthority;
 import org.springframework.security.core.authority.SimpleGrantedAuthority;
@@ -23,27 +24,37 @@ import java.util.stream.Collectors;
  * <h3>Key Responsibilities:</h3>
  * <ul>
  *   <li>Validates the input username (email).</li>
- *   <li>Fetches the user details from the database using the {@link UserRepository}.</li>
- *   <li>Converts the {@link User} entity into a {@link UserDetails} object.</li>
+ *   <li>Fetches the user details from the database using the {@link UserRepository}, in a single query that only
+ *   returns the credentials and permissions of the user (the {@link User} entity and its eager graph are not loaded).</li>
+ *   <li>Converts the {@link UserAuthorities} projection into a {@link UserDetails} object.</li>
  *   <li>Throws a {@link UsernameNotFoundException} if the user is not found.</li>
+ *   <li>Keeps the resolved users in the {@link UserDetailsCache}, so that the database is not hit on every request.</li>
  * </ul>
  *
  * @see UserDetailsService
  * @see UserRepository
+ * @see UserDetailsCache
  **/
 @Service
 public class CustomUserDetailsService implements UserDetailsService {
 
     private final UserRepository userRepository;
+    private final UserDetailsCache userDetailsCache;
+    private final PermissionIndex permissionIndex;
 
     /**
-     * Constructor for injecting the {@link UserRepository}.
+     * Constructor for injecting the {@link UserRepository}, the {@link UserDetailsCache} and the {@link PermissionIndex}.
      *
-     * @param userRepository the repository used to fetch user data
+     * @param userRepository   the repository used to fetch user data
+     * @param userDetailsCache the cache of already resolved users
+     * @param permissionIndex  the index used to compile the permissions of the user into a bitset
      */
     @Autowired
-    public CustomUserDetailsService(UserRepository userRepository) {
+    public CustomUserDetailsService(UserRepository userRepository, UserDetailsCache userDetailsCache,
+                                    PermissionIndex permissionIndex) {
         this.userRepository = userRepository;
+        this.userDetailsCache = userDetailsCache;
+        this.permissionIndex = permissionIndex;
     }
 
     /**
@@ -52,30 +63,43 @@ public class CustomUserDetailsService implements UserDetailsService {
      * <p>This method retrieves user details from the {@link UserRepository} based on the provided
      * username, which is an email field. If the username is null or blank, it throws an {@link IllegalArgumentException}.
      * If the user is not found in the database, it throws a {@link UsernameNotFoundException}.
-     * Otherwise, it converts the user entity into a {@link UserDetails} object containing the user's credentials
-     * and authorities for authentication and authorization.</p>
+     * Otherwise, it converts the fetched {@link UserAuthorities} into a {@link UserDetails} object containing the user's
+     * credentials and authorities for authentication and authorization.</p>
+     *
+     * <p>The resolved user is stored in the {@link UserDetailsCache}, and following calls for the same username are
+     * answered from there (without touching the database) until the entry expires or is invalidated. If the user is
+     * invalidated while it is being loaded, it is returned but not stored.</p>
      *
      * @param username the email of the user to load
-     * @return a {@link UserDetails} object containing the user's credentials and authorities
+     * @return an {@link AuthenticatedUser} object containing the user's ID, credentials and authorities
      * @throws IllegalArgumentException  if the username is null or blank
      * @throws UsernameNotFoundException if no user is found with the given username
      */
     @Override
-    public UserDetails loadUserByUsername(String username) throws UsernameNotFoundException {
+    public AuthenticatedUser loadUserByUsername(String username) throws UsernameNotFoundException {
         if (username == null || username.trim().isEmpty() || username.length() > 255) {
             throw new IllegalArgumentException("Invalid username format");
         }
-        User user = userRepository.findByEmail(username);
+        AuthenticatedUser cachedUser = userDetailsCache.get(username);
+        if (cachedUser != null) {
+            return cachedUser;
+        }
+        // Read before the query, so a user loaded before an invalidation is not cached after it
+        long generation = userDetailsCache.generation(username);
+
+        UserAuthorities user = userRepository.findAuthoritiesByEmail(username);
         if (user == null) {
             throw new UsernameNotFoundException("Invalid credentials");
         }
 
-        List<GrantedAuthority> authorities = user.getRoles().stream()
-                .flatMap(role -> role.getRole().getPermissions().stream())
-                .map(rolePermission -> new SimpleGrantedAuthority(rolePermission.getPermission().getName()))
+        List<GrantedAuthority> authorities = user.getPermissions().stream()
+                .map(SimpleGrantedAuthority::new)
                 .collect(Collectors.toList());
 
-        return new org.springframework.security.core.userdetails.User(user.getUsername(), user.getPassword(), authorities);
+        AuthenticatedUser authenticatedUser = new AuthenticatedUser(user.getId(), user.getEmail(), user.getPassword(),
+                authorities, permissionIndex.compile(user.getPermissions()));
+        userDetailsCache.put(authenticatedUser, generation);
+        return authenticatedUser;
     }
 
 }
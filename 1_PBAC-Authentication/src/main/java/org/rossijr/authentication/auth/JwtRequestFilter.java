@@ -1,14 +1,21 @@
 package org.rossijr.authentication.auth;
 
 import com.auth0.jwt.exceptions.JWTVerificationException;
+import com.auth0.jwt.interfaces.Claim;
 import com.auth0.jwt.interfaces.DecodedJWT;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
+import org.rossijr.authentication.auth.SecurityPhaseRecorder.Outcome;
+import org.rossijr.authentication.auth.SecurityPhaseRecorder.Phase;
+import org.rossijr.authentication.auth.VerifiedTokenCache.ClaimsUser;
+import org.rossijr.authentication.config.ConnectionAdmissionException;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.core.userdetails.UserDetailsService;
@@ -17,6 +24,9 @@ import org.springframework.stereotype.Component;
 import org.springframework.web.filter.OncePerRequestFilter;
 
 import java.io.IOException;
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.Collectors;
 
 @Component
 public class JwtRequestFilter extends OncePerRequestFilter {
@@ -25,12 +35,24 @@ public class JwtRequestFilter extends OncePerRequestFilter {
 
     private final UserDetailsService userDetailsService;
     private final JwtUtil jwtUtil;
+    private final AuthorityEpochRegistry authorityEpochRegistry;
+    private final PermissionIndex permissionIndex;
+    private final VerifiedTokenCache verifiedTokenCache;
+    private final SecurityPhaseRecorder phaseRecorder;
 
     @Autowired
     public JwtRequestFilter(UserDetailsService userDetailsService,
-                            JwtUtil jwtUtil) {
+                            JwtUtil jwtUtil,
+                            AuthorityEpochRegistry authorityEpochRegistry,
+                            PermissionIndex permissionIndex,
+                            VerifiedTokenCache verifiedTokenCache,
+                            SecurityPhaseRecorder phaseRecorder) {
         this.userDetailsService = userDetailsService;
         this.jwtUtil = jwtUtil;
+        this.authorityEpochRegistry = authorityEpochRegistry;
+        this.permissionIndex = permissionIndex;
+        this.verifiedTokenCache = verifiedTokenCache;
+        this.phaseRecorder = phaseRecorder;
     }
 
     /**
@@ -41,6 +63,12 @@ public class JwtRequestFilter extends OncePerRequestFilter {
      * If the token is invalid or missing, the filter simply allows the request to proceed without authentication (this is important when having public endpoints).
      * </p>
      *
+     * <p>When the stateless token mode is enabled and the token carries up-to-date claims, the user is built straight
+     * from them (see {@link #loadUserFromClaims(DecodedJWT)}), otherwise it is loaded through the {@link UserDetailsService}.</p>
+     *
+     * <p>The latency and outcome of the token verification, the user loading and the details building are recorded by
+     * the {@link SecurityPhaseRecorder}.</p>
+     *
      * @param request  the incoming HTTP request
      * @param response the outgoing HTTP response
      * @param chain    the filter chain to pass the request and response to the next filter
@@ -53,6 +81,7 @@ public class JwtRequestFilter extends OncePerRequestFilter {
 
         String username = null;
         String jwt;
+        DecodedJWT decodedJWT = null;
 
         try {
             // Check if Authorization header exists and starts with "Bearer "
@@ -61,20 +90,41 @@ public class JwtRequestFilter extends OncePerRequestFilter {
                 jwt = authorizationHeader.substring(7);
 
                 // Verify and decode the JWT
-                DecodedJWT decodedJWT = jwtUtil.verifyToken(jwt);
+                long start = phaseRecorder.start();
+                try {
+                    decodedJWT = jwtUtil.verifyToken(jwt);
+                } catch (RuntimeException e) {
+                    phaseRecorder.record(Phase.TOKEN_VERIFICATION, SecurityPhaseRecorder.outcomeOf(e), start);
+                    throw e;
+                }
+                phaseRecorder.record(Phase.TOKEN_VERIFICATION, Outcome.VALID, start);
                 username = decodedJWT.getSubject();
             }
 
             // Checks if the username exists and ensures the user is not authenticated more than one time (other parts of the chain may rely on this object, so it's important to keep it consistent)
             if (username != null && SecurityContextHolder.getContext().getAuthentication() == null) {
-                UserDetails userDetails = this.userDetailsService.loadUserByUsername(username);
+                // Stateless tokens are trusted as they are, the other ones (or stale stateless ones) need the database
+                long start = phaseRecorder.start();
+                UserDetails userDetails;
+                try {
+                    userDetails = loadUserFromClaims(decodedJWT);
+                    if (userDetails == null) {
+                        userDetails = this.userDetailsService.loadUserByUsername(username);
+                    }
+                } catch (RuntimeException e) {
+                    phaseRecorder.record(Phase.USER_LOADING, SecurityPhaseRecorder.outcomeOf(e), start);
+                    throw e;
+                }
+                phaseRecorder.record(Phase.USER_LOADING, userDetails != null ? Outcome.VALID : Outcome.USER_MISSING, start);
 
                 // If the user exists, creates an authentication token and sets it in the Security Context
                 if (userDetails != null) {
                     // "credentials" must be null, as there's no need (and it is not safe) to store the password in the token
                     UsernamePasswordAuthenticationToken authToken = new UsernamePasswordAuthenticationToken(
                             userDetails, null, userDetails.getAuthorities());
+                    start = phaseRecorder.start();
                     authToken.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
+                    phaseRecorder.record(Phase.AUTHENTICATION_DETAILS, Outcome.VALID, start);
                     SecurityContextHolder.getContext().setAuthentication(authToken);
                 }
             }
@@ -86,10 +136,70 @@ public class JwtRequestFilter extends OncePerRequestFilter {
             logger.error("Invalid JWT: {}", e.getMessage());
             response.sendError(HttpServletResponse.SC_UNAUTHORIZED, "Invalid JWT token");
         } catch (Exception e) {
+            ConnectionAdmissionException admissionException = ConnectionAdmissionException.findIn(e);
+            if (admissionException != null) {
+                // The user could not be loaded due to overload, the client should try again later
+                response.setHeader(HttpHeaders.RETRY_AFTER, String.valueOf(admissionException.getRetryAfterSeconds()));
+                response.sendError(HttpServletResponse.SC_SERVICE_UNAVAILABLE, admissionException.getMessage());
+                return;
+            }
             // Handle general errors
             logger.error("Unexpected error during authentication: {}", e.getMessage());
             response.sendError(HttpServletResponse.SC_INTERNAL_SERVER_ERROR, "Authentication processing error, please contact the administrator");
         }
     }
 
+    /**
+     * Builds the user straight from the claims of a stateless token, without querying the database.
+     *
+     * <p>The claims are only trusted if the stateless token mode is enabled and no authority change happened for the
+     * user after the token was issued (checked against the {@link AuthorityEpochRegistry}).</p>
+     *
+     * <p>The user is built once per token and kept in the {@link VerifiedTokenCache}, so the following requests with the
+     * same token share it (and its {@link PermissionSet}) instead of parsing the claims again.</p>
+     *
+     * @param decodedJWT the verified token
+     * @return the user described by the token, or {@code null} if the token is not stateless or its claims are stale
+     */
+    private UserDetails loadUserFromClaims(DecodedJWT decodedJWT) {
+        if (!jwtUtil.isStatelessEnabled()) {
+            return null;
+        }
+        ClaimsUser claimsUser = verifiedTokenCache.getClaimsUser(decodedJWT);
+        if (claimsUser == null) {
+            claimsUser = buildUserFromClaims(decodedJWT);
+            if (claimsUser == null) {
+                return null;
+            }
+            verifiedTokenCache.putClaimsUser(decodedJWT, claimsUser);
+        }
+        if (!authorityEpochRegistry.isCurrent(decodedJWT.getSubject(), claimsUser.authorityEpoch())) {
+            logger.debug("Stale authorities in token for user: {}", decodedJWT.getSubject());
+            return null;
+        }
+        return claimsUser.user();
+    }
+
+    /**
+     * Parses the claims of a stateless token into a user.
+     *
+     * @param decodedJWT the verified token
+     * @return the user described by the token, or {@code null} if the token is not stateless
+     */
+    private ClaimsUser buildUserFromClaims(DecodedJWT decodedJWT) {
+        Claim userId = decodedJWT.getClaim(JwtUtil.USER_ID_CLAIM);
+        Claim permissions = decodedJWT.getClaim(JwtUtil.PERMISSIONS_CLAIM);
+        Claim authorityEpoch = decodedJWT.getClaim(JwtUtil.AUTHORITY_EPOCH_CLAIM);
+        if (userId.isMissing() || permissions.isMissing() || authorityEpoch.isMissing()) {
+            return null;
+        }
+
+        List<String> permissionNames = permissions.asList(String.class);
+        List<SimpleGrantedAuthority> authorities = permissionNames.stream()
+                .map(SimpleGrantedAuthority::new)
+                .collect(Collectors.toList());
+        return new ClaimsUser(new AuthenticatedUser(UUID.fromString(userId.asString()), decodedJWT.getSubject(), null,
+                authorities, permissionIndex.compile(permissionNames)), authorityEpoch.asLong());
+    }
+
 }
@@ -6,27 +6,54 @@ import com.auth0.jwt.exceptions.JWTVerificationException;
 import com.auth0.jwt.interfaces.DecodedJWT;
 import com.auth0.jwt.interfaces.JWTVerifier;
 import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
 
+import java.util.Collection;
 import java.util.Date;
+import java.util.UUID;
 
 @Component
 public class JwtUtil {
 
+    // Claims written by the stateless token mode
+    public static final String USER_ID_CLAIM = "uid";
+    public static final String PERMISSIONS_CLAIM = "perms";
+    public static final String AUTHORITY_EPOCH_CLAIM = "epoch";
+
+    // Request attribute holding the last token verified during the current request
+    private static final String VERIFIED_TOKEN_ATTRIBUTE = JwtUtil.class.getName() + ".VERIFIED_TOKEN";
+
     // Inject the secret and expiration time from the application.properties file
     @Value("${jwt.secret}")
     private String SECRET;
     @Value("${jwt.expire.time}")
     private long expireTime;
+    @Value("${jwt.stateless.enabled}")
+    private boolean statelessEnabled;
+
+    private final VerifiedTokenCache verifiedTokenCache;
+    private final TokenRevocationList tokenRevocationList;
 
     private Algorithm algorithm;
+    // The verifier is thread-safe, so it is built only once
+    private JWTVerifier verifier;
+
+    @Autowired
+    public JwtUtil(VerifiedTokenCache verifiedTokenCache, TokenRevocationList tokenRevocationList) {
+        this.verifiedTokenCache = verifiedTokenCache;
+        this.tokenRevocationList = tokenRevocationList;
+    }
 
     // Initialize the algorithm with the secret key, it is @PostConstruct to ensure that the SECRET is initialized after
     // the SECRET is injected
     @PostConstruct
     public void init() {
         this.algorithm = Algorithm.HMAC256(SECRET);
+        this.verifier = JWT.require(algorithm).build();
     }
 
     /**
@@ -36,23 +63,54 @@ public class JwtUtil {
      * structure, and claims. If the token is invalid, expired, or tampered with, the method
      * will throw a {@link JWTVerificationException}.</p>
      *
+     * <p>The verification is done at most once per token:</p>
+     * <ul>
+     *     <li>Within a request, the verified token is kept as a request attribute, so verifying it again (e.g. from the
+     *     {@code @PreAuthorize} expressions, after the {@link JwtRequestFilter}) returns it right away.</li>
+     *     <li>Across requests, verified tokens are kept in the {@link VerifiedTokenCache} until they expire.</li>
+     * </ul>
+     *
+     * <p>Tokens revoked before their expiration (see {@link TokenRevocationList}) are rejected, even if they are cached or
+     * were already verified during the request.</p>
+     *
      * @param token the JWT token to be verified
      * @return a {@link DecodedJWT} object representing the verified token and its claims
      * @throws JWTVerificationException if the token verification fails
+     * @throws TokenRevokedException    if the token was revoked
      */
-
     public DecodedJWT verifyToken(String token) {
         if (token == null || token.trim().isEmpty()) {
             throw new IllegalArgumentException("Token is required");
         }
 
-        JWTVerifier verifier = JWT.require(algorithm).build();
-        return verifier.verify(token);
+        RequestAttributes requestAttributes = RequestContextHolder.getRequestAttributes();
+        DecodedJWT decodedJWT;
+        if (requestAttributes != null
+                && requestAttributes.getAttribute(VERIFIED_TOKEN_ATTRIBUTE, RequestAttributes.SCOPE_REQUEST) instanceof DecodedJWT memo
+                && memo.getToken().equals(token)) {
+            decodedJWT = memo;
+        } else {
+            decodedJWT = verifiedTokenCache.get(token);
+            if (decodedJWT == null) {
+                decodedJWT = verifier.verify(token);
+                verifiedTokenCache.put(decodedJWT);
+            }
+            if (requestAttributes != null) {
+                requestAttributes.setAttribute(VERIFIED_TOKEN_ATTRIBUTE, decodedJWT, RequestAttributes.SCOPE_REQUEST);
+            }
+        }
+        // Checked on every call (it is a cheap lookup), so a token revoked meanwhile is never trusted again
+        if (tokenRevocationList.isRevoked(decodedJWT.getId(), decodedJWT.getExpiresAtAsInstant())) {
+            throw new TokenRevokedException("The Token has been revoked.");
+        }
+        return decodedJWT;
     }
 
     /**
      * Creates a JWT token with the specified subject.
      *
+     * <p>Every token carries a random UUID as ID ({@code jti} claim), so it can be revoked (see {@link #revokeToken(DecodedJWT)}).</p>
+     *
      * @param subject the subject for the token (typically a unique identifier for the user)
      * @return the generated JWT token as a String
      * @throws IllegalArgumentException if the subject is null or blank
@@ -65,9 +123,67 @@ public class JwtUtil {
         Date expiresAt = new Date(issuedAt.getTime() + expireTime);
 
         return JWT.create()
+                .withJWTId(UUID.randomUUID().toString())
                 .withSubject(subject)
                 .withIssuedAt(issuedAt)
                 .withExpiresAt(expiresAt)
                 .sign(algorithm);
     }
+
+    /**
+     * Creates a self-contained (stateless) JWT token, which carries everything needed to authenticate the user.
+     *
+     * <p>Besides the subject, the token carries the user ID, the names of the permissions granted to the user and the
+     * authority epoch of the user (see {@link AuthorityEpochRegistry}). This allows the {@link JwtRequestFilter} to
+     * build the authentication straight from the claims, without querying the database.</p>
+     *
+     * @param subject        the subject for the token (the email of the user)
+     * @param userId         the ID of the user
+     * @param permissions    the names of the permissions granted to the user
+     * @param authorityEpoch the authority epoch of the user at the moment the token is issued
+     * @return the generated JWT token as a String
+     * @throws IllegalArgumentException if the subject is null or blank, or the user ID is null
+     */
+    public String createToken(String subject, UUID userId, Collection<String> permissions, long authorityEpoch) {
+        if (subject == null || subject.trim().isEmpty()) {
+            throw new IllegalArgumentException("Subject cannot be null or blank");
+        }
+        if (userId == null) {
+            throw new IllegalArgumentException("User ID cannot be null");
+        }
+        Date issuedAt = new Date();
+        Date expiresAt = new Date(issuedAt.getTime() + expireTime);
+
+        return JWT.create()
+                .withJWTId(UUID.randomUUID().toString())
+                .withSubject(subject)
+                .withClaim(USER_ID_CLAIM, userId.toString())
+                .withArrayClaim(PERMISSIONS_CLAIM, permissions.toArray(new String[0]))
+                .withClaim(AUTHORITY_EPOCH_CLAIM, authorityEpoch)
+                .withIssuedAt(issuedAt)
+                .withExpiresAt(expiresAt)
+                .sign(algorithm);
+    }
+
+    /**
+     * Revokes a verified token until its expiration, so following calls of {@link #verifyToken(String)} reject it.
+     *
+     * @param decodedJWT the verified token
+     * @throws IllegalArgumentException if the token has no ID or expiration (e.g. issued before tokens had an ID)
+     */
+    public void revokeToken(DecodedJWT decodedJWT) {
+        if (decodedJWT.getId() == null) {
+            throw new IllegalArgumentException("Token can not be revoked, as it has no ID");
+        }
+        tokenRevocationList.revoke(decodedJWT.getId(), decodedJWT.getExpiresAtAsInstant());
+    }
+
+    /**
+     * Checks if the stateless token mode is enabled (property {@code jwt.stateless.enabled}).
+     *
+     * @return {@code true} if tokens must be created through {@link #createToken(String, UUID, Collection, long)}
+     */
+    public boolean isStatelessEnabled() {
+        return statelessEnabled;
+    }
 }
@@ -0,0 +1,145 @@
+package org.rossijr.authentication.auth;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Write-behind component for the last login date of the users.
+ *
+ * <p>Instead of running one {@code UPDATE} per login (in its own transaction, on the request thread), the logins are
+ * recorded in memory (only the latest one per email is kept) and written to the database in JDBC batches by a
+ * background thread.</p>
+ *
+ * <h3>Behaviour:</h3>
+ * <ul>
+ *   <li><b>Flush interval:</b> pending logins are written every {@code last.login.flush.interval} milliseconds.</li>
+ *   <li><b>Flush threshold:</b> a flush is triggered earlier when {@code last.login.flush.batch.size} logins are pending.</li>
+ *   <li><b>Shutdown:</b> pending logins are written before the application stops, and a batch filled while it stops
+ *   is written on the thread of the login.</li>
+ *   <li><b>Metrics:</b> the number of pending logins ({@code last.login.pending}) and the flush latency
+ *   ({@code last.login.flush}) are published.</li>
+ * </ul>
+ *
+ * <p>As the date is only informative, a login may be lost if the application crashes before the next flush.</p>
+ */
+@Component
+public class LastLoginWriter {
+    private final Logger logger = LoggerFactory.getLogger(LastLoginWriter.class);
+
+    private static final String UPDATE_LAST_LOGIN = "UPDATE tb_user SET last_login = ? WHERE email = ?";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final int batchSize;
+    private final Timer flushTimer;
+
+    private final Map<String, OffsetDateTime> pending = new ConcurrentHashMap<>();
+    private final AtomicBoolean flushRequested = new AtomicBoolean();
+    private final ScheduledExecutorService executor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "last-login-writer");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    @Autowired
+    public LastLoginWriter(JdbcTemplate jdbcTemplate,
+                           @Value("${last.login.flush.interval}") long flushInterval,
+                           @Value("${last.login.flush.batch.size}") int batchSize,
+                           MeterRegistry meterRegistry) {
+        if (flushInterval <= 0 || batchSize <= 0) {
+            throw new IllegalArgumentException("Last login flush interval and batch size must be positive");
+        }
+        this.jdbcTemplate = jdbcTemplate;
+        this.batchSize = batchSize;
+        this.flushTimer = Timer.builder("last.login.flush").register(meterRegistry);
+        Gauge.builder("last.login.pending", pending, Map::size).register(meterRegistry);
+
+        executor.scheduleWithFixedDelay(this::flush, flushInterval, flushInterval, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Records a login of the user with the given email, to be written by the next flush.
+     *
+     * @param email the email of the user
+     */
+    public void record(String email) {
+        pending.put(email, OffsetDateTime.now());
+        if (pending.size() >= batchSize && flushRequested.compareAndSet(false, true)) {
+            try {
+                executor.execute(this::flush);
+            } catch (RejectedExecutionException e) {
+                // The application is stopping, so the batch is written on the caller thread instead of failing the login
+                flush();
+            }
+        }
+    }
+
+    /**
+     * Writes every pending login to the database, in batches of at most {@code last.login.flush.batch.size} updates.
+     */
+    synchronized void flush() {
+        flushRequested.set(false);
+        if (pending.isEmpty()) {
+            return;
+        }
+        flushTimer.record(() -> {
+            List<Object[]> batch = new ArrayList<>(batchSize);
+            for (Map.Entry<String, OffsetDateTime> entry : pending.entrySet()) {
+                // If a newer login was recorded meanwhile, it is kept for the next flush
+                if (pending.remove(entry.getKey(), entry.getValue())) {
+                    batch.add(new Object[]{entry.getValue(), entry.getKey()});
+                }
+                if (batch.size() == batchSize) {
+                    write(batch);
+                    batch = new ArrayList<>(batchSize);
+                }
+            }
+            if (!batch.isEmpty()) {
+                write(batch);
+            }
+        });
+    }
+
+    private void write(List<Object[]> batch) {
+        try {
+            jdbcTemplate.batchUpdate(UPDATE_LAST_LOGIN, batch);
+        } catch (Exception e) {
+            logger.error("An unexpected error occurred while writing {} last logins: {}", batch.size(), e.getMessage());
+            // Puts the logins back (unless a newer one was recorded meanwhile), so they are retried by the next flush
+            for (Object[] login : batch) {
+                pending.putIfAbsent((String) login[1], (OffsetDateTime) login[0]);
+            }
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdown();
+        try {
+            if (!executor.awaitTermination(10, TimeUnit.SECONDS)) {
+                logger.warn("Last login writer did not terminate in time");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        flush();
+    }
+}
@@ -0,0 +1,258 @@
+package org.rossijr.authentication.auth;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.rossijr.authentication.exception.TooManyLoginAttemptsException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+/**
+ * Rate limit of the login attempts, checked before the password is compared, so a credential stuffing burst can not use
+ * up the CPU budget of the password hashing.
+ *
+ * <p>Each client IP and each target email has a token bucket: an attempt takes a token, the bucket holds at most
+ * {@code capacity} tokens (the burst) and regains {@code refill.per.minute} tokens per minute. An attempt is rejected
+ * with {@link TooManyLoginAttemptsException} when the bucket of the IP or of the email is empty.</p>
+ *
+ * <h3>Implementation:</h3>
+ * <ul>
+ *   <li><b>Lock-free buckets:</b> a bucket is a single {@link AtomicLong} holding the time at which it will be full again
+ *   (the "generic cell rate algorithm" form of the token bucket), updated with a compare-and-set loop.</li>
+ *   <li><b>Striping:</b> the buckets are spread over 64 maps by the hash of their key, holding at most
+ *   {@code login.rate.limit.max.keys} buckets of each kind in total. When a stripe is full (e.g. an attack with random
+ *   emails), a new key replaces the bucket of the stripe with the most tokens left, so memory stays bounded, every key
+ *   keeps a bucket of its own, and the drained buckets of the keys under attack are the last ones to go.</li>
+ *   <li><b>Reclamation:</b> every {@code login.rate.limit.sweep.interval} milliseconds, the full buckets (which are
+ *   equivalent to absent ones) are removed by a background thread.</li>
+ *   <li><b>Metrics:</b> the rejections ({@code login.rate.limit.rejections}, tagged by {@code key}) and the number of
+ *   tracked buckets ({@code login.rate.limit.keys}) are published.</li>
+ * </ul>
+ *
+ * <p>The client IP is the remote address of the request. Behind a reverse proxy, {@code server.forward-headers-strategy}
+ * must be set so it is the address of the client and not the one of the proxy.</p>
+ */
+@Component
+public class LoginRateLimiter {
+    private final Logger logger = LoggerFactory.getLogger(LoginRateLimiter.class);
+
+    private static final int STRIPES = 64;
+
+    private final boolean enabled;
+    private final BucketTable ipBuckets;
+    private final BucketTable emailBuckets;
+    private final LongSupplier nanoClock;
+    private final Counter ipRejections;
+    private final Counter emailRejections;
+    private final ScheduledExecutorService executor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "login-rate-limit-sweeper");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    @Autowired
+    public LoginRateLimiter(@Value("${login.rate.limit.enabled}") boolean enabled,
+                            @Value("${login.rate.limit.ip.capacity}") int ipCapacity,
+                            @Value("${login.rate.limit.ip.refill.per.minute}") int ipRefillPerMinute,
+                            @Value("${login.rate.limit.email.capacity}") int emailCapacity,
+                            @Value("${login.rate.limit.email.refill.per.minute}") int emailRefillPerMinute,
+                            @Value("${login.rate.limit.max.keys}") int maxKeys,
+                            @Value("${login.rate.limit.sweep.interval}") long sweepInterval,
+                            MeterRegistry meterRegistry) {
+        this(enabled, ipCapacity, ipRefillPerMinute, emailCapacity, emailRefillPerMinute, maxKeys, sweepInterval,
+                meterRegistry, System::nanoTime);
+    }
+
+    LoginRateLimiter(boolean enabled, int ipCapacity, int ipRefillPerMinute, int emailCapacity, int emailRefillPerMinute,
+                     int maxKeys, long sweepInterval, MeterRegistry meterRegistry, LongSupplier nanoClock) {
+        if (ipCapacity <= 0 || ipRefillPerMinute <= 0 || emailCapacity <= 0 || emailRefillPerMinute <= 0) {
+            throw new IllegalArgumentException("Login rate limit capacities and refill rates must be positive");
+        }
+        if (maxKeys < STRIPES || sweepInterval <= 0) {
+            throw new IllegalArgumentException("Login rate limit max keys must be at least " + STRIPES + " and sweep interval must be positive");
+        }
+        this.enabled = enabled;
+        this.nanoClock = nanoClock;
+        long now = nanoClock.getAsLong();
+        this.ipBuckets = new BucketTable(ipCapacity, ipRefillPerMinute, maxKeys / STRIPES, now);
+        this.emailBuckets = new BucketTable(emailCapacity, emailRefillPerMinute, maxKeys / STRIPES, now);
+        this.ipRejections = Counter.builder("login.rate.limit.rejections").tag("key", "ip").register(meterRegistry);
+        this.emailRejections = Counter.builder("login.rate.limit.rejections").tag("key", "email").register(meterRegistry);
+        Gauge.builder("login.rate.limit.keys", ipBuckets, BucketTable::size).tag("key", "ip").register(meterRegistry);
+        Gauge.builder("login.rate.limit.keys", emailBuckets, BucketTable::size).tag("key", "email").register(meterRegistry);
+
+        if (enabled) {
+            executor.scheduleWithFixedDelay(this::sweep, sweepInterval, sweepInterval, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    /**
+     * Takes a token from the buckets of the client and of the email of a login attempt.
+     *
+     * @param clientAddress the IP of the client, ignored if {@code null}
+     * @param email         the email the client is trying to log in as, ignored if {@code null}
+     * @throws TooManyLoginAttemptsException if one of the buckets is empty
+     */
+    public void acquire(String clientAddress, String email) {
+        if (!enabled) {
+            return;
+        }
+        long now = nanoClock.getAsLong();
+        if (clientAddress != null) {
+            long wait = ipBuckets.tryAcquire(clientAddress, now);
+            if (wait > 0) {
+                ipRejections.increment();
+                // Debug level, as an attack would otherwise flood the logs (the rejections are counted)
+                logger.debug("Too many login attempts from: {}", clientAddress);
+                throw new TooManyLoginAttemptsException("Too many login attempts, please try again later", toRetryAfterSeconds(wait));
+            }
+        }
+        if (email != null) {
+            long wait = emailBuckets.tryAcquire(email.trim().toLowerCase(Locale.ROOT), now);
+            if (wait > 0) {
+                emailRejections.increment();
+                logger.debug("Too many login attempts for user: {}", email);
+                throw new TooManyLoginAttemptsException("Too many login attempts, please try again later", toRetryAfterSeconds(wait));
+            }
+        }
+    }
+
+    /**
+     * Removes the full buckets.
+     */
+    void sweep() {
+        long now = nanoClock.getAsLong();
+        ipBuckets.sweep(now);
+        emailBuckets.sweep(now);
+    }
+
+    /**
+     * @return the number of tracked buckets, of IPs and emails
+     */
+    int size() {
+        return ipBuckets.size() + emailBuckets.size();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    private static long toRetryAfterSeconds(long waitNanos) {
+        return Math.max(1, TimeUnit.NANOSECONDS.toSeconds(waitNanos + TimeUnit.SECONDS.toNanos(1) - 1));
+    }
+
+    /**
+     * Token buckets of one kind of key, striped by the hash of the key.
+     */
+    private static final class BucketTable {
+        // Time (in nanoseconds) to regain one token
+        private final long emissionInterval;
+        // How far in the future the "full again" time may be, i.e. the capacity expressed as time
+        private final long tolerance;
+        private final int maxKeysPerStripe;
+        private final ConcurrentHashMap<String, AtomicLong>[] stripes;
+
+        @SuppressWarnings("unchecked")
+        private BucketTable(int capacity, int refillPerMinute, int maxKeysPerStripe, long now) {
+            this.emissionInterval = TimeUnit.MINUTES.toNanos(1) / refillPerMinute;
+            this.tolerance = emissionInterval * capacity;
+            this.maxKeysPerStripe = maxKeysPerStripe;
+            this.stripes = new ConcurrentHashMap[STRIPES];
+            for (int i = 0; i < STRIPES; i++) {
+                stripes[i] = new ConcurrentHashMap<>();
+            }
+        }
+
+        /**
+         * Takes a token from the bucket of the key.
+         *
+         * @return {@code 0} if a token was taken, otherwise the time (in nanoseconds) until one is available
+         */
+        private long tryAcquire(String key, long now) {
+            int stripe = (key.hashCode() ^ (key.hashCode() >>> 16)) & (STRIPES - 1);
+            ConcurrentHashMap<String, AtomicLong> buckets = stripes[stripe];
+            AtomicLong bucket = buckets.get(key);
+            if (bucket == null) {
+                bucket = buckets.size() < maxKeysPerStripe
+                        ? buckets.computeIfAbsent(key, k -> new AtomicLong(now))
+                        : replaceFullestBucket(buckets, key, now);
+            }
+            while (true) {
+                long fullAt = bucket.get();
+                long next = (fullAt - now > 0 ? fullAt : now) + emissionInterval;
+                if (next - now > tolerance) {
+                    return next - now - tolerance;
+                }
+                if (bucket.compareAndSet(fullAt, next)) {
+                    return 0;
+                }
+            }
+        }
+
+        /**
+         * Adds the bucket of a new key to a full stripe, removing the bucket with the most tokens left (the one full
+         * again the earliest). A full bucket is equivalent to an absent one, and a barely used one only loses the few
+         * tokens it spent, while the drained buckets of the keys under attack are kept.
+         *
+         * <p>Only called when the stripe is full, so the scan (of at most {@code max.keys / 64} buckets) and the lock do
+         * not slow down the usual attempts.</p>
+         */
+        private AtomicLong replaceFullestBucket(ConcurrentHashMap<String, AtomicLong> buckets, String key, long now) {
+            synchronized (buckets) {
+                AtomicLong existing = buckets.get(key);
+                if (existing != null) {
+                    return existing;
+                }
+                if (buckets.size() >= maxKeysPerStripe) {
+                    String fullestKey = null;
+                    long fullestAt = 0;
+                    for (Map.Entry<String, AtomicLong> entry : buckets.entrySet()) {
+                        long fullAt = entry.getValue().get();
+                        if (fullestKey == null || fullAt - fullestAt < 0) {
+                            fullestKey = entry.getKey();
+                            fullestAt = fullAt;
+                        }
+                        if (fullAt - now <= 0) {
+                            break;
+                        }
+                    }
+                    if (fullestKey != null) {
+                        buckets.remove(fullestKey);
+                    }
+                }
+                AtomicLong bucket = new AtomicLong(now);
+                buckets.put(key, bucket);
+                return bucket;
+            }
+        }
+
+        private void sweep(long now) {
+            for (ConcurrentHashMap<String, AtomicLong> buckets : stripes) {
+                // An attempt racing with the removal may be lost, which only gives the (full) bucket one more token
+                buckets.values().removeIf(bucket -> bucket.get() - now <= 0);
+            }
+        }
+
+        private int size() {
+            int size = 0;
+            for (ConcurrentHashMap<String, AtomicLong> buckets : stripes) {
+                size += buckets.size();
+            }
+            return size;
+        }
+    }
+}
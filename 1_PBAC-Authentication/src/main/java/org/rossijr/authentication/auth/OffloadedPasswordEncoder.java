@@ -0,0 +1,171 @@
+package org.rossijr.authentication.auth;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.rossijr.authentication.exception.ServiceOverloadedException;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * {@link PasswordEncoder} that runs the (CPU-bound) hashing and verification of the delegate encoder on a dedicated,
+ * bounded executor instead of the request thread.
+ *
+ * <p>The executor has one thread per core and a bounded queue. When the queue is full, the operation is rejected right
+ * away with a {@link ServiceOverloadedException} (answered with {@code 503} and a {@code Retry-After} header), so a burst
+ * of logins can not take every servlet thread and starve cheap endpoints.</p>
+ *
+ * <p>The time spent waiting in the queue ({@code password.hash.wait}) and the time spent hashing
+ * ({@code password.hash.time}) are published as separate timers, tagged by operation ({@code encode} or {@code matches}).</p>
+ *
+ * <p>Bulk callers (e.g. the import of users) use {@link #encodeAll(List)}, which spreads the passwords over the
+ * hashing threads and waits for room in the queue instead of being rejected.</p>
+ */
+public class OffloadedPasswordEncoder implements PasswordEncoder, DisposableBean {
+
+    private final PasswordEncoder delegate;
+    private final ThreadPoolExecutor executor;
+    private final long retryAfterSeconds;
+
+    private final Timer encodeWaitTimer;
+    private final Timer encodeTimer;
+    private final Timer matchesWaitTimer;
+    private final Timer matchesTimer;
+
+    /**
+     * @param delegate          the encoder doing the actual work
+     * @param threads           the number of hashing threads
+     * @param queueCapacity     the maximum number of operations waiting for a thread
+     * @param retryAfterSeconds the value of the {@code Retry-After} header sent when an operation is rejected
+     * @param meterRegistry     the registry where the timers are published
+     */
+    public OffloadedPasswordEncoder(PasswordEncoder delegate, int threads, int queueCapacity, long retryAfterSeconds,
+                                    MeterRegistry meterRegistry) {
+        if (threads <= 0 || queueCapacity <= 0) {
+            throw new IllegalArgumentException("Password hashing threads and queue capacity must be positive");
+        }
+        this.delegate = delegate;
+        this.retryAfterSeconds = retryAfterSeconds;
+
+        AtomicInteger threadCount = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "password-hashing-" + threadCount.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.AbortPolicy());
+
+        this.encodeWaitTimer = Timer.builder("password.hash.wait").tag("operation", "encode").register(meterRegistry);
+        this.encodeTimer = Timer.builder("password.hash.time").tag("operation", "encode").register(meterRegistry);
+        this.matchesWaitTimer = Timer.builder("password.hash.wait").tag("operation", "matches").register(meterRegistry);
+        this.matchesTimer = Timer.builder("password.hash.time").tag("operation", "matches").register(meterRegistry);
+    }
+
+    @Override
+    public String encode(CharSequence rawPassword) {
+        return submit(() -> delegate.encode(rawPassword), encodeWaitTimer, encodeTimer);
+    }
+
+    @Override
+    public boolean matches(CharSequence rawPassword, String encodedPassword) {
+        return submit(() -> delegate.matches(rawPassword, encodedPassword), matchesWaitTimer, matchesTimer);
+    }
+
+    /**
+     * Encodes every given password, in parallel on the hashing threads.
+     *
+     * <p>The passwords are split into one slice per thread and each slice is submitted as a single operation, so a
+     * large batch takes a few places of the queue instead of one per password. If the queue is full, the slice is
+     * encoded on the calling thread, which slows the caller down instead of rejecting it.</p>
+     *
+     * @param rawPasswords the passwords to be encoded
+     * @return the encoded passwords, in the same order
+     */
+    public List<String> encodeAll(List<? extends CharSequence> rawPasswords) {
+        String[] encodedPasswords = new String[rawPasswords.size()];
+        int sliceSize = Math.max(1, (rawPasswords.size() + executor.getMaximumPoolSize() - 1) / executor.getMaximumPoolSize());
+
+        List<Future<?>> futures = new ArrayList<>();
+        for (int from = 0; from < rawPasswords.size(); from += sliceSize) {
+            int start = from;
+            int end = Math.min(from + sliceSize, rawPasswords.size());
+            Runnable slice = () -> encodeSlice(rawPasswords, encodedPasswords, start, end);
+            try {
+                futures.add(executor.submit(slice));
+            } catch (RejectedExecutionException e) {
+                slice.run();
+            }
+        }
+        for (Future<?> future : futures) {
+            await(future);
+        }
+        return Arrays.asList(encodedPasswords);
+    }
+
+    private void encodeSlice(List<? extends CharSequence> rawPasswords, String[] encodedPasswords, int start, int end) {
+        for (int i = start; i < end; i++) {
+            CharSequence rawPassword = rawPasswords.get(i);
+            encodedPasswords[i] = encodeTimer.record(() -> delegate.encode(rawPassword));
+        }
+    }
+
+    @Override
+    public boolean upgradeEncoding(String encodedPassword) {
+        return delegate.upgradeEncoding(encodedPassword);
+    }
+
+    /**
+     * Runs the given operation on the hashing executor and waits for its result.
+     *
+     * @throws ServiceOverloadedException if the queue of the executor is full
+     */
+    private <T> T submit(Callable<T> operation, Timer waitTimer, Timer timer) {
+        long submittedAt = System.nanoTime();
+        Future<T> future;
+        try {
+            future = executor.submit(() -> {
+                waitTimer.record(System.nanoTime() - submittedAt, TimeUnit.NANOSECONDS);
+                return timer.recordCallable(operation);
+            });
+        } catch (RejectedExecutionException e) {
+            throw new ServiceOverloadedException("Too many concurrent authentication requests, try again later", retryAfterSeconds);
+        }
+        return await(future);
+    }
+
+    /**
+     * Waits for the result of an operation submitted to the hashing executor.
+     */
+    private <T> T await(Future<T> future) {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            future.cancel(true);
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for password hashing", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            throw new IllegalStateException("Password hashing failed", e.getCause());
+        }
+    }
+
+    @Override
+    public void destroy() {
+        executor.shutdown();
+    }
+}
@@ -0,0 +1,36 @@
+package org.rossijr.authentication.auth;
+
+import org.springframework.security.core.Authentication;
+import org.springframework.stereotype.Component;
+
+import java.util.UUID;
+
+/**
+ * Checks, from {@code @PreAuthorize} expressions, that the authenticated user is the owner of the requested data (e.g.
+ * {@code @PreAuthorize("@ownershipChecker.isAuthenticatedUser(authentication, #id)")}).
+ *
+ * <p>The check compares against the {@link AuthenticatedUser} set as principal by the {@link JwtRequestFilter}, so it
+ * neither parses the token again nor queries the database.</p>
+ */
+@Component
+public class OwnershipChecker {
+
+    /**
+     * Checks if the given user ID is the ID of the authenticated user.
+     *
+     * @param authentication the authentication of the request
+     * @param userId         the user ID, as received by the endpoint
+     * @return {@code true} if the ID belongs to the authenticated user, {@code false} otherwise (including malformed IDs
+     * and requests not authenticated by the {@link JwtRequestFilter})
+     */
+    public boolean isAuthenticatedUser(Authentication authentication, String userId) {
+        if (userId == null || authentication == null || !(authentication.getPrincipal() instanceof AuthenticatedUser user)) {
+            return false;
+        }
+        try {
+            return user.getId().equals(UUID.fromString(userId));
+        } catch (IllegalArgumentException e) {
+            return false;
+        }
+    }
+}
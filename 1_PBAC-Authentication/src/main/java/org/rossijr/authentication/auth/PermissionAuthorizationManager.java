@@ -0,0 +1,78 @@
+package org.rossijr.authentication.auth;
+
+import org.aopalliance.intercept.MethodInvocation;
+import org.springframework.core.annotation.AnnotationUtils;
+import org.springframework.security.authorization.AuthorizationDecision;
+import org.springframework.security.authorization.AuthorizationManager;
+import org.springframework.security.authorization.AuthorizationResult;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.GrantedAuthority;
+
+import java.lang.reflect.Method;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * {@link AuthorizationManager} that checks the {@link RequiresPermission} annotation of the invoked method.
+ *
+ * <p>The permission required by each method is resolved only once. After that, each check is a lookup of the bit index
+ * of the permission in the {@link PermissionIndex} and a bitwise test over the {@link PermissionSet} carried by the
+ * {@link AuthenticatedUser}, which does not allocate. Principals of other types (which should not happen in this
+ * application) are checked against their authorities, as Spring Security would do.</p>
+ */
+public class PermissionAuthorizationManager implements AuthorizationManager<MethodInvocation> {
+    private static final AuthorizationDecision GRANTED = new AuthorizationDecision(true);
+    private static final AuthorizationDecision DENIED = new AuthorizationDecision(false);
+
+    private final Supplier<PermissionIndex> permissionIndex;
+    private final Map<Method, String> requiredPermissions = new ConcurrentHashMap<>();
+
+    /**
+     * @param permissionIndex supplier of the {@link PermissionIndex}, resolved lazily as this manager is created while
+     *                        the method security infrastructure is being set up
+     */
+    public PermissionAuthorizationManager(Supplier<PermissionIndex> permissionIndex) {
+        this.permissionIndex = permissionIndex;
+    }
+
+    @Override
+    public AuthorizationResult authorize(Supplier<Authentication> authentication, MethodInvocation invocation) {
+        return decide(authentication, invocation);
+    }
+
+    @Override
+    @SuppressWarnings("deprecation")
+    public AuthorizationDecision check(Supplier<Authentication> authentication, MethodInvocation invocation) {
+        return decide(authentication, invocation);
+    }
+
+    private AuthorizationDecision decide(Supplier<Authentication> authentication, MethodInvocation invocation) {
+        String permission = requiredPermissions.get(invocation.getMethod());
+        if (permission == null) {
+            permission = requiredPermissions.computeIfAbsent(invocation.getMethod(), this::resolveRequiredPermission);
+        }
+
+        Authentication auth = authentication.get();
+        if (auth == null || !auth.isAuthenticated()) {
+            return DENIED;
+        }
+        if (auth.getPrincipal() instanceof AuthenticatedUser user) {
+            return user.getPermissions().contains(permissionIndex.get().indexOf(permission)) ? GRANTED : DENIED;
+        }
+        for (GrantedAuthority authority : auth.getAuthorities()) {
+            if (permission.equals(authority.getAuthority())) {
+                return GRANTED;
+            }
+        }
+        return DENIED;
+    }
+
+    private String resolveRequiredPermission(Method method) {
+        RequiresPermission annotation = AnnotationUtils.findAnnotation(method, RequiresPermission.class);
+        if (annotation == null) {
+            throw new IllegalStateException("Method " + method + " is not annotated with @RequiresPermission");
+        }
+        return annotation.value();
+    }
+}
@@ -0,0 +1,41 @@
+package org.rossijr.authentication.auth;
+
+import org.rossijr.authentication.service.EffectivePermissionService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.security.core.Authentication;
+import org.springframework.stereotype.Component;
+
+/**
+ * Checks, from {@code @PreAuthorize} expressions, that the authenticated user currently holds a permission (e.g.
+ * {@code @PreAuthorize("@permissionChecker.hasPermission(authentication, 'MANAGE_ROLES')")}).
+ *
+ * <p>Unlike {@link RequiresPermission}, which tests the permissions loaded with the user (possibly from a cache or a
+ * stateless token), it probes the effective permissions stored in the database (see
+ * {@link EffectivePermissionService#hasPermission(java.util.UUID, String)}), so a revoked permission is denied right
+ * away. It costs a single key lookup, and is meant for the endpoints where that matters.</p>
+ */
+@Component
+public class PermissionChecker {
+    private final EffectivePermissionService effectivePermissionService;
+
+    @Autowired
+    public PermissionChecker(EffectivePermissionService effectivePermissionService) {
+        this.effectivePermissionService = effectivePermissionService;
+    }
+
+    /**
+     * Checks if the authenticated user holds the permission.
+     *
+     * @param authentication the authentication of the request
+     * @param permission     the name of the permission
+     * @return {@code true} if the user holds the permission, {@code false} otherwise (including requests not
+     * authenticated by the {@link JwtRequestFilter})
+     */
+    public boolean hasPermission(Authentication authentication, String permission) {
+        if (authentication == null || !authentication.isAuthenticated()
+                || !(authentication.getPrincipal() instanceof AuthenticatedUser user)) {
+            return false;
+        }
+        return effectivePermissionService.hasPermission(user.getId(), permission);
+    }
+}
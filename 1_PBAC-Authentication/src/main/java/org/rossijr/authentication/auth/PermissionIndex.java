@@ -0,0 +1,88 @@
+package org.rossijr.authentication.auth;
+
+import jakarta.annotation.PostConstruct;
+import org.rossijr.authentication.model.Permission;
+import org.rossijr.authentication.repository.PermissionRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Sort;
+import org.springframework.stereotype.Component;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.Supplier;
+
+/**
+ * Maps every {@link Permission} to a dense bit index, used to build {@link PermissionSet} bitsets.
+ *
+ * <p>The index is loaded from the {@code tb_permission} table at startup and refreshed whenever an
+ * {@link AuthoritiesChangedEvent} affecting all users is published (e.g. a permission is created). Indexes are never
+ * reassigned: new permissions are appended after the existing ones, so bitsets that were already built stay valid.</p>
+ */
+@Component
+public class PermissionIndex {
+
+    // Permissions ordered by ID
+    private final Supplier<? extends Iterable<Permission>> permissions;
+
+    // Replaced as a whole on every refresh, so readers never need to lock
+    private volatile Map<String, Integer> indexes = Map.of();
+
+    @Autowired
+    public PermissionIndex(PermissionRepository permissionRepository) {
+        this(() -> permissionRepository.findAll(Sort.by("id")));
+    }
+
+    PermissionIndex(Supplier<? extends Iterable<Permission>> permissions) {
+        this.permissions = permissions;
+    }
+
+    /**
+     * Loads the permissions that are not indexed yet, appending them after the existing ones.
+     */
+    @PostConstruct
+    public synchronized void refresh() {
+        Map<String, Integer> refreshed = new HashMap<>(indexes);
+        for (Permission permission : permissions.get()) {
+            refreshed.putIfAbsent(permission.getName(), refreshed.size());
+        }
+        indexes = refreshed;
+    }
+
+    @EventListener
+    public void onAuthoritiesChanged(AuthoritiesChangedEvent event) {
+        if (event.affectsAllUsers()) {
+            refresh();
+        }
+    }
+
+    /**
+     * Returns the bit index of the permission with the given name.
+     *
+     * @param name the name of the permission
+     * @return the index of the permission, or {@code -1} if there is no permission with this name
+     */
+    public int indexOf(String name) {
+        Integer index = indexes.get(name);
+        return index == null ? -1 : index;
+    }
+
+    /**
+     * Builds the bitset of the given permissions. Unknown permission names are ignored.
+     *
+     * @param names the names of the permissions
+     * @return the bitset containing the given permissions
+     */
+    public PermissionSet compile(Collection<String> names) {
+        Map<String, Integer> current = indexes;
+        long[] words = new long[(current.size() + 63) >>> 6];
+        for (String name : names) {
+            Integer index = current.get(name);
+            if (index != null) {
+                words[index >>> 6] |= 1L << index;
+            }
+        }
+        return new PermissionSet(words);
+    }
+}
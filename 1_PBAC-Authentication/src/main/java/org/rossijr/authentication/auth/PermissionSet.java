@@ -0,0 +1,32 @@
+package org.rossijr.authentication.auth;
+
+/**
+ * Immutable bitset of permissions, where each bit is the index of a permission in the {@link PermissionIndex}.
+ *
+ * <p>It is carried by every {@link AuthenticatedUser}, so that checking a permission is a single array access and a
+ * bitwise operation, instead of a linear comparison of strings over the user's authorities.</p>
+ */
+public final class PermissionSet {
+    public static final PermissionSet EMPTY = new PermissionSet(new long[0]);
+
+    private final long[] words;
+
+    // The array is owned by this instance, callers must not keep a reference to it
+    PermissionSet(long[] words) {
+        this.words = words;
+    }
+
+    /**
+     * Checks if the permission with the given index is part of this set.
+     *
+     * @param index the index of the permission (see {@link PermissionIndex#indexOf(String)})
+     * @return {@code true} if the permission is part of this set, {@code false} otherwise (or if the index is negative)
+     */
+    public boolean contains(int index) {
+        if (index < 0) {
+            return false;
+        }
+        int word = index >>> 6;
+        return word < words.length && (words[word] & (1L << index)) != 0;
+    }
+}
@@ -0,0 +1,24 @@
+package org.rossijr.authentication.auth;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Restricts the access to a method to users holding the given permission.
+ *
+ * <p>It is the equivalent of {@code @PreAuthorize("hasAuthority('...')")}, but it is checked by the
+ * {@link PermissionAuthorizationManager} against the {@link PermissionSet} of the user, without any SpEL evaluation.</p>
+ */
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+@Documented
+public @interface RequiresPermission {
+
+    /**
+     * @return the name of the permission required to invoke the method
+     */
+    String value();
+}
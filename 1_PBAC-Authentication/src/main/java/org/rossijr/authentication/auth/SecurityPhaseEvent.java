@@ -0,0 +1,37 @@
+package org.rossijr.authentication.auth;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Enabled;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Timespan;
+
+/**
+ * JFR event recorded for each phase of the authentication and authorization of a request (see
+ * {@link SecurityPhaseRecorder}).
+ *
+ * <p>It is disabled by default, even while a recording is running: it must be enabled in the settings of the recording
+ * (e.g. a custom {@code .jfc} file with the {@code enabled} setting of {@code org.rossijr.authentication.SecurityPhase}
+ * set to {@code true}).</p>
+ */
+@Name("org.rossijr.authentication.SecurityPhase")
+@Label("Security Phase")
+@Category({"Authentication", "Security"})
+@Description("Duration of a phase of the JWT filter or of the method security checks")
+@StackTrace(false)
+@Enabled(false)
+class SecurityPhaseEvent extends Event {
+
+    @Label("Phase")
+    String phase;
+
+    @Label("Outcome")
+    String outcome;
+
+    @Label("Elapsed")
+    @Timespan(Timespan.NANOSECONDS)
+    long elapsed;
+}
@@ -0,0 +1,181 @@
+package org.rossijr.authentication.auth;
+
+import com.auth0.jwt.exceptions.JWTDecodeException;
+import com.auth0.jwt.exceptions.JWTVerificationException;
+import com.auth0.jwt.exceptions.TokenExpiredException;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jdk.jfr.EventType;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Records the latency of each phase of the authentication ({@link JwtRequestFilter}) and authorization (method security)
+ * of the requests, so a latency spike can be attributed to the phase causing it.
+ *
+ * <h3>Published data:</h3>
+ * <ul>
+ *   <li><b>Metrics:</b> a {@code security.phase} timer, tagged by {@code phase} and {@code outcome} (available at
+ *   {@code /actuator/metrics/security.phase}), when {@code security.phase.metrics.enabled} is {@code true}.</li>
+ *   <li><b>JFR:</b> a {@link SecurityPhaseEvent} per phase, when the event is enabled in a running recording.</li>
+ * </ul>
+ *
+ * <p>When both are disabled, {@link #start()} does not even read the clock, so the cost is a couple of branches per
+ * phase.</p>
+ */
+@Component
+public class SecurityPhaseRecorder {
+    /**
+     * Returned by {@link #start()} when nothing is recorded.
+     */
+    static final long NOT_TIMED = Long.MIN_VALUE;
+
+    private static final EventType JFR_EVENT_TYPE = EventType.getEventType(SecurityPhaseEvent.class);
+
+    /**
+     * Timed phases, in the order they happen in a request.
+     */
+    public enum Phase {
+        /**
+         * Verification (signature and claims) of the JWT, see {@link JwtUtil#verifyToken(String)}.
+         */
+        TOKEN_VERIFICATION("token_verification"),
+        /**
+         * Loading of the user, from the claims of a stateless token or through the {@link CustomUserDetailsService}.
+         */
+        USER_LOADING("user_loading"),
+        /**
+         * Building of the details (remote address) of the authentication.
+         */
+        AUTHENTICATION_DETAILS("authentication_details"),
+        /**
+         * Check of a {@link RequiresPermission} annotation.
+         */
+        PERMISSION_CHECK("permission_check"),
+        /**
+         * Evaluation of a {@code @PreAuthorize} expression.
+         */
+        EXPRESSION_CHECK("expression_check");
+
+        private final String tag;
+
+        Phase(String tag) {
+            this.tag = tag;
+        }
+    }
+
+    /**
+     * Outcomes of a phase.
+     */
+    public enum Outcome {
+        VALID("valid"),
+        EXPIRED("expired"),
+        MALFORMED("malformed"),
+        /**
+         * Verification failures other than expiration and malformation (e.g. a bad signature).
+         */
+        INVALID("invalid"),
+        REVOKED("revoked"),
+        USER_MISSING("user-missing"),
+        GRANTED("granted"),
+        DENIED("denied"),
+        /**
+         * Unexpected exceptions.
+         */
+        ERROR("error");
+
+        private final String tag;
+
+        Outcome(String tag) {
+            this.tag = tag;
+        }
+    }
+
+    private final MeterRegistry meterRegistry;
+    private final boolean metricsEnabled;
+    // Timers by phase and outcome, registered on first use (registering twice returns the same timer, so races are harmless)
+    private final Timer[][] timers = new Timer[Phase.values().length][Outcome.values().length];
+
+    @Autowired
+    public SecurityPhaseRecorder(MeterRegistry meterRegistry,
+                                 @Value("${security.phase.metrics.enabled}") boolean metricsEnabled) {
+        this.meterRegistry = meterRegistry;
+        this.metricsEnabled = metricsEnabled;
+    }
+
+    /**
+     * Starts timing a phase.
+     *
+     * @return the start time to be passed to {@link #record(Phase, Outcome, long)}, or {@link #NOT_TIMED} if nothing is
+     * being recorded
+     */
+    public long start() {
+        return metricsEnabled || JFR_EVENT_TYPE.isEnabled() ? System.nanoTime() : NOT_TIMED;
+    }
+
+    /**
+     * Records the end of a phase.
+     *
+     * @param phase   the phase
+     * @param outcome the outcome of the phase
+     * @param start   the value returned by {@link #start()} when the phase began
+     */
+    public void record(Phase phase, Outcome outcome, long start) {
+        if (start == NOT_TIMED) {
+            return;
+        }
+        long elapsed = System.nanoTime() - start;
+        if (metricsEnabled) {
+            timer(phase, outcome).record(elapsed, TimeUnit.NANOSECONDS);
+        }
+        if (JFR_EVENT_TYPE.isEnabled()) {
+            SecurityPhaseEvent event = new SecurityPhaseEvent();
+            event.phase = phase.tag;
+            event.outcome = outcome.tag;
+            event.elapsed = elapsed;
+            event.commit();
+        }
+    }
+
+    /**
+     * Maps an exception thrown by a phase to its outcome.
+     *
+     * @param e the exception
+     * @return the outcome
+     */
+    public static Outcome outcomeOf(RuntimeException e) {
+        if (e instanceof TokenRevokedException) {
+            return Outcome.REVOKED;
+        }
+        if (e instanceof TokenExpiredException) {
+            return Outcome.EXPIRED;
+        }
+        if (e instanceof JWTDecodeException) {
+            return Outcome.MALFORMED;
+        }
+        if (e instanceof JWTVerificationException) {
+            return Outcome.INVALID;
+        }
+        if (e instanceof UsernameNotFoundException) {
+            return Outcome.USER_MISSING;
+        }
+        return Outcome.ERROR;
+    }
+
+    private Timer timer(Phase phase, Outcome outcome) {
+        Timer timer = timers[phase.ordinal()][outcome.ordinal()];
+        if (timer == null) {
+            timer = Timer.builder("security.phase")
+                    .description("Latency of the phases of the authentication and authorization of the requests")
+                    .tag("phase", phase.tag)
+                    .tag("outcome", outcome.tag)
+                    .register(meterRegistry);
+            timers[phase.ordinal()][outcome.ordinal()] = timer;
+        }
+        return timer;
+    }
+}
@@ -0,0 +1,86 @@
+package org.rossijr.authentication.auth;
+
+import org.aopalliance.intercept.MethodInvocation;
+import org.springframework.security.authorization.AuthorizationDecision;
+import org.springframework.security.authorization.AuthorizationManager;
+import org.springframework.security.authorization.AuthorizationResult;
+import org.springframework.security.authorization.method.MethodAuthorizationDeniedHandler;
+import org.springframework.security.authorization.method.MethodInvocationResult;
+import org.springframework.security.authorization.method.ThrowingMethodAuthorizationDeniedHandler;
+import org.springframework.security.core.Authentication;
+
+import java.util.function.Supplier;
+
+/**
+ * {@link AuthorizationManager} that records the latency and outcome of the checks of another one through the
+ * {@link SecurityPhaseRecorder}.
+ *
+ * <p>Denied method invocations are handled by the delegate when it is a {@link MethodAuthorizationDeniedHandler} (as
+ * the {@code @PreAuthorize} manager is, for {@code @HandleAuthorizationDenied}), so wrapping it changes nothing but the
+ * timing.</p>
+ *
+ * @param <T> the type of the secured object
+ */
+public class TimedAuthorizationManager<T> implements AuthorizationManager<T>, MethodAuthorizationDeniedHandler {
+    private static final MethodAuthorizationDeniedHandler THROWING_HANDLER = new ThrowingMethodAuthorizationDeniedHandler();
+
+    private final AuthorizationManager<T> delegate;
+    private final SecurityPhaseRecorder.Phase phase;
+    private final Supplier<SecurityPhaseRecorder> phaseRecorder;
+
+    /**
+     * @param delegate      the manager doing the checks
+     * @param phase         the phase the checks are recorded as
+     * @param phaseRecorder supplier of the {@link SecurityPhaseRecorder}, resolved lazily as this manager is created while
+     *                      the method security infrastructure is being set up
+     */
+    public TimedAuthorizationManager(AuthorizationManager<T> delegate, SecurityPhaseRecorder.Phase phase,
+                                     Supplier<SecurityPhaseRecorder> phaseRecorder) {
+        this.delegate = delegate;
+        this.phase = phase;
+        this.phaseRecorder = phaseRecorder;
+    }
+
+    @Override
+    public AuthorizationResult authorize(Supplier<Authentication> authentication, T object) {
+        return timed(() -> delegate.authorize(authentication, object));
+    }
+
+    @Override
+    @SuppressWarnings("deprecation")
+    public AuthorizationDecision check(Supplier<Authentication> authentication, T object) {
+        return timed(() -> delegate.check(authentication, object));
+    }
+
+    @Override
+    public Object handleDeniedInvocation(MethodInvocation methodInvocation, AuthorizationResult authorizationResult) {
+        if (delegate instanceof MethodAuthorizationDeniedHandler handler) {
+            return handler.handleDeniedInvocation(methodInvocation, authorizationResult);
+        }
+        return THROWING_HANDLER.handleDeniedInvocation(methodInvocation, authorizationResult);
+    }
+
+    @Override
+    public Object handleDeniedInvocationResult(MethodInvocationResult methodInvocationResult,
+                                               AuthorizationResult authorizationResult) {
+        if (delegate instanceof MethodAuthorizationDeniedHandler handler) {
+            return handler.handleDeniedInvocationResult(methodInvocationResult, authorizationResult);
+        }
+        return THROWING_HANDLER.handleDeniedInvocationResult(methodInvocationResult, authorizationResult);
+    }
+
+    private <R extends AuthorizationResult> R timed(Supplier<R> check) {
+        SecurityPhaseRecorder recorder = phaseRecorder.get();
+        long start = recorder.start();
+        R result;
+        try {
+            result = check.get();
+        } catch (RuntimeException e) {
+            recorder.record(phase, SecurityPhaseRecorder.Outcome.ERROR, start);
+            throw e;
+        }
+        recorder.record(phase, result != null && result.isGranted()
+                ? SecurityPhaseRecorder.Outcome.GRANTED : SecurityPhaseRecorder.Outcome.DENIED, start);
+        return result;
+    }
+}
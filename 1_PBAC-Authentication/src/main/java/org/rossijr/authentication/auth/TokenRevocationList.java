@@ -0,0 +1,305 @@
+package org.rossijr.authentication.auth;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * In-memory list of revoked tokens (e.g. after a logout), checked by {@link JwtUtil#verifyToken(String)} on every
+ * request without querying the database.
+ *
+ * <p>Tokens are identified by their {@code jti} claim (a random UUID, see {@link JwtUtil#createToken(String)}), and only
+ * need to be remembered until they expire.</p>
+ *
+ * <h3>Structure:</h3>
+ * <ul>
+ *   <li><b>Time buckets:</b> revoked tokens are grouped by expiration, in buckets of {@code jwt.revocation.bucket.duration}
+ *   milliseconds. Once every token of a bucket is expired, the whole bucket is dropped (checked every bucket duration),
+ *   so nothing is removed entry by entry.</li>
+ *   <li><b>Bloom filter:</b> each bucket has a bloom filter sized for {@code jwt.revocation.bucket.expected.tokens}
+ *   tokens with a 1% false positive rate. A token that is not revoked (the usual case) is answered by at most 7 bit
+ *   tests, without locking.</li>
+ *   <li><b>Exact set:</b> the positives of the filter are confirmed in a set of the UUIDs stored as pairs of
+ *   {@code long} (16 bytes per token, with open addressing), so a false positive never rejects a valid token.</li>
+ * </ul>
+ *
+ * <p>The list lives in the memory of each instance: with several instances, a revocation is only seen by the instance
+ * that received it. The estimated memory used is published as {@code jwt.revocation.memory}, and the number of revoked
+ * tokens as {@code jwt.revocation.tokens}.</p>
+ */
+@Component
+public class TokenRevocationList {
+    private final Logger logger = LoggerFactory.getLogger(TokenRevocationList.class);
+
+    private final long bucketDuration;
+    private final int expectedTokensPerBucket;
+    private final Map<Long, Bucket> buckets = new ConcurrentHashMap<>();
+    private final ScheduledExecutorService executor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "token-revocation-purger");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    @Autowired
+    public TokenRevocationList(@Value("${jwt.revocation.bucket.duration}") long bucketDuration,
+                               @Value("${jwt.revocation.bucket.expected.tokens}") int expectedTokensPerBucket,
+                               MeterRegistry meterRegistry) {
+        if (bucketDuration <= 0 || expectedTokensPerBucket <= 0) {
+            throw new IllegalArgumentException("Revocation bucket duration and expected tokens must be positive");
+        }
+        this.bucketDuration = bucketDuration;
+        this.expectedTokensPerBucket = expectedTokensPerBucket;
+        Gauge.builder("jwt.revocation.tokens", this, TokenRevocationList::size).register(meterRegistry);
+        Gauge.builder("jwt.revocation.memory", this, TokenRevocationList::estimatedMemoryBytes)
+                .baseUnit("bytes")
+                .register(meterRegistry);
+
+        executor.scheduleWithFixedDelay(this::purgeExpired, bucketDuration, bucketDuration, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Revokes a token until its expiration.
+     *
+     * @param tokenId   the {@code jti} of the token
+     * @param expiresAt the expiration of the token
+     * @throws IllegalArgumentException if the ID is not a UUID, or the expiration is missing
+     */
+    public void revoke(String tokenId, Instant expiresAt) {
+        if (expiresAt == null) {
+            throw new IllegalArgumentException("Only tokens with an expiration can be revoked");
+        }
+        UUID id = parse(tokenId);
+        if (id == null) {
+            throw new IllegalArgumentException("Only tokens with a UUID as ID can be revoked");
+        }
+        if (!expiresAt.isAfter(Instant.now())) {
+            return;
+        }
+        buckets.computeIfAbsent(bucketOf(expiresAt), key -> new Bucket(expectedTokensPerBucket))
+                .add(id.getMostSignificantBits(), id.getLeastSignificantBits());
+    }
+
+    /**
+     * Checks if a token was revoked.
+     *
+     * @param tokenId   the {@code jti} of the token, tokens without one are never revoked
+     * @param expiresAt the expiration of the token, tokens without one are never revoked
+     * @return {@code true} if the token was revoked
+     */
+    public boolean isRevoked(String tokenId, Instant expiresAt) {
+        if (buckets.isEmpty() || tokenId == null || expiresAt == null) {
+            return false;
+        }
+        Bucket bucket = buckets.get(bucketOf(expiresAt));
+        if (bucket == null) {
+            return false;
+        }
+        UUID id = parse(tokenId);
+        return id != null && bucket.contains(id.getMostSignificantBits(), id.getLeastSignificantBits());
+    }
+
+    /**
+     * @return the number of revoked (and not yet expired) tokens
+     */
+    public long size() {
+        long size = 0;
+        for (Bucket bucket : buckets.values()) {
+            size += bucket.size();
+        }
+        return size;
+    }
+
+    /**
+     * @return the estimated memory used by the bloom filters and the exact sets, in bytes
+     */
+    public long estimatedMemoryBytes() {
+        long bytes = 0;
+        for (Bucket bucket : buckets.values()) {
+            bytes += bucket.estimatedMemoryBytes();
+        }
+        return bytes;
+    }
+
+    /**
+     * Drops the buckets whose tokens are all expired.
+     */
+    void purgeExpired() {
+        long current = bucketOf(Instant.now());
+        buckets.keySet().removeIf(bucket -> bucket < current);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    private long bucketOf(Instant expiresAt) {
+        return Math.floorDiv(expiresAt.toEpochMilli(), bucketDuration);
+    }
+
+    private UUID parse(String tokenId) {
+        if (tokenId == null || tokenId.length() != 36) {
+            return null;
+        }
+        try {
+            UUID id = UUID.fromString(tokenId);
+            // The nil UUID marks the empty slots of the exact sets
+            return id.getMostSignificantBits() == 0 && id.getLeastSignificantBits() == 0 ? null : id;
+        } catch (IllegalArgumentException e) {
+            logger.debug("Token ID is not a UUID: {}", tokenId);
+            return null;
+        }
+    }
+
+    /**
+     * Revoked tokens expiring in the same time bucket: a bloom filter in front of an exact set.
+     */
+    private static final class Bucket {
+        private static final int HASHES = 7;
+
+        private final AtomicLongArray bloom;
+        private final int bloomBits;
+        private final LongPairSet exact = new LongPairSet();
+
+        private Bucket(int expectedTokens) {
+            // m = -n * ln(p) / ln(2)^2 bits for a false positive rate p of 1%, i.e. ~9.6 bits per token
+            long bits = (long) Math.ceil(-expectedTokens * Math.log(0.01) / (Math.log(2) * Math.log(2)));
+            this.bloomBits = (int) Math.min(Integer.MAX_VALUE - 63, Math.max(64, bits));
+            this.bloom = new AtomicLongArray((bloomBits + 63) / 64);
+        }
+
+        private void add(long mostSignificantBits, long leastSignificantBits) {
+            // The exact set is updated first, so a reader seeing the bits always finds the token in the set
+            synchronized (exact) {
+                exact.add(mostSignificantBits, leastSignificantBits);
+            }
+            // The UUID is random, so its two halves are used as the two hashes of the double hashing scheme
+            long hash = mostSignificantBits;
+            for (int i = 0; i < HASHES; i++) {
+                int bit = (int) Math.floorMod(hash, (long) bloomBits);
+                long mask = 1L << bit;
+                int word = bit >>> 6;
+                long current;
+                while (((current = bloom.get(word)) & mask) == 0 && !bloom.compareAndSet(word, current, current | mask)) {
+                    Thread.onSpinWait();
+                }
+                hash += leastSignificantBits;
+            }
+        }
+
+        private boolean contains(long mostSignificantBits, long leastSignificantBits) {
+            long hash = mostSignificantBits;
+            for (int i = 0; i < HASHES; i++) {
+                int bit = (int) Math.floorMod(hash, (long) bloomBits);
+                if ((bloom.get(bit >>> 6) & (1L << bit)) == 0) {
+                    return false;
+                }
+                hash += leastSignificantBits;
+            }
+            synchronized (exact) {
+                return exact.contains(mostSignificantBits, leastSignificantBits);
+            }
+        }
+
+        private int size() {
+            synchronized (exact) {
+                return exact.size();
+            }
+        }
+
+        private long estimatedMemoryBytes() {
+            synchronized (exact) {
+                return bloom.length() * 8L + exact.estimatedMemoryBytes();
+            }
+        }
+    }
+
+    /**
+     * Set of 128-bit values (UUIDs) stored as pairs of {@code long}, with open addressing and linear probing. A slot is
+     * empty when both halves are zero, so the nil UUID can not be stored. It is not thread-safe.
+     */
+    static final class LongPairSet {
+        private static final int INITIAL_CAPACITY = 16;
+
+        private long[] slots = new long[INITIAL_CAPACITY * 2];
+        private int size;
+
+        boolean add(long high, long low) {
+            if ((size + 1) * 4L > (slots.length / 2) * 3L) {
+                resize();
+            }
+            if (insert(slots, high, low)) {
+                size++;
+                return true;
+            }
+            return false;
+        }
+
+        boolean contains(long high, long low) {
+            int mask = slots.length / 2 - 1;
+            for (int slot = indexOf(high, low, mask); ; slot = (slot + 1) & mask) {
+                long slotHigh = slots[slot * 2];
+                long slotLow = slots[slot * 2 + 1];
+                if (slotHigh == 0 && slotLow == 0) {
+                    return false;
+                }
+                if (slotHigh == high && slotLow == low) {
+                    return true;
+                }
+            }
+        }
+
+        int size() {
+            return size;
+        }
+
+        long estimatedMemoryBytes() {
+            return slots.length * 8L;
+        }
+
+        private void resize() {
+            long[] resized = new long[slots.length * 2];
+            for (int i = 0; i < slots.length; i += 2) {
+                if (slots[i] != 0 || slots[i + 1] != 0) {
+                    insert(resized, slots[i], slots[i + 1]);
+                }
+            }
+            slots = resized;
+        }
+
+        private static boolean insert(long[] slots, long high, long low) {
+            int mask = slots.length / 2 - 1;
+            for (int slot = indexOf(high, low, mask); ; slot = (slot + 1) & mask) {
+                long slotHigh = slots[slot * 2];
+                long slotLow = slots[slot * 2 + 1];
+                if (slotHigh == 0 && slotLow == 0) {
+                    slots[slot * 2] = high;
+                    slots[slot * 2 + 1] = low;
+                    return true;
+                }
+                if (slotHigh == high && slotLow == low) {
+                    return false;
+                }
+            }
+        }
+
+        private static int indexOf(long high, long low, int mask) {
+            long hash = (high ^ low) * 0x9E3779B97F4A7C15L;
+            return (int) (hash >>> 32) & mask;
+        }
+    }
+}
@@ -0,0 +1,13 @@
+package org.rossijr.authentication.auth;
+
+import com.auth0.jwt.exceptions.JWTVerificationException;
+
+/**
+ * Exception thrown when a token is valid but was revoked before its expiration (see {@link TokenRevocationList}).
+ */
+public class TokenRevokedException extends JWTVerificationException {
+
+    public TokenRevokedException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,208 @@
+package org.rossijr.authentication.auth;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+
+/**
+ * Bounded, TTL-based in-process cache of resolved {@link AuthenticatedUser} objects, keyed by email.
+ *
+ * <p>Every authenticated request goes through {@link JwtRequestFilter}, which loads the user and walks the
+ * User → Role → Permission graph. This cache keeps the result of that walk for a short period of time so that the
+ * database is not hit on every request.</p>
+ *
+ * <h3>Behaviour:</h3>
+ * <ul>
+ *   <li><b>TTL:</b> entries expire {@code user.cache.ttl} milliseconds after they are stored.</li>
+ *   <li><b>Bound:</b> when more than {@code user.cache.max.size} entries are stored, the oldest ones are evicted first.</li>
+ *   <li><b>Invalidation:</b> entries are dropped whenever an {@link AuthoritiesChangedEvent} is published. A user loaded
+ *   before an invalidation is not stored afterwards: the loader reads the {@link #generation(String)} of the user before
+ *   loading it, and {@link #put(AuthenticatedUser, long)} drops the user if an invalidation happened since.</li>
+ *   <li><b>Metrics:</b> hits, misses, evictions and size are published as {@code user.details.cache.*} meters.</li>
+ * </ul>
+ */
+@Component
+public class UserDetailsCache {
+
+    private final Map<String, Entry> entries = new ConcurrentHashMap<>();
+    // Insertion order of the entries, used to evict the oldest ones when the cache is full. Replaced or invalidated
+    // entries stay in the queue until they are polled, so the queue length (not the map size) is what gets bounded
+    private final Queue<Entry> insertionOrder = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger insertionOrderLength = new AtomicInteger();
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    // Generations of the invalidations, taken from a single counter so a user generation and the global one can be
+    // compared directly (like the epochs of the AuthorityEpochRegistry)
+    private final AtomicLong generationCounter = new AtomicLong();
+    private final Map<String, Long> userGenerations = new ConcurrentHashMap<>();
+    private volatile long globalGeneration;
+
+    private final long ttl;
+    private final int maxSize;
+    private final LongSupplier clock;
+
+    @Autowired
+    public UserDetailsCache(@Value("${user.cache.ttl}") long ttl,
+                            @Value("${user.cache.max.size}") int maxSize,
+                            MeterRegistry meterRegistry) {
+        this(ttl, maxSize, meterRegistry, System::currentTimeMillis);
+    }
+
+    UserDetailsCache(long ttl, int maxSize, MeterRegistry meterRegistry, LongSupplier clock) {
+        if (ttl <= 0 || maxSize <= 0) {
+            throw new IllegalArgumentException("User cache TTL and max size must be positive");
+        }
+        this.ttl = ttl;
+        this.maxSize = maxSize;
+        this.clock = clock;
+
+        FunctionCounter.builder("user.details.cache.requests", hits, LongAdder::sum)
+                .tag("result", "hit")
+                .register(meterRegistry);
+        FunctionCounter.builder("user.details.cache.requests", misses, LongAdder::sum)
+                .tag("result", "miss")
+                .register(meterRegistry);
+        FunctionCounter.builder("user.details.cache.evictions", evictions, LongAdder::sum)
+                .register(meterRegistry);
+        Gauge.builder("user.details.cache.size", entries, Map::size)
+                .register(meterRegistry);
+    }
+
+    /**
+     * Returns the cached user for the given email, or {@code null} if there is no (valid) entry for it.
+     *
+     * @param email the email of the user
+     * @return the cached user, or {@code null} on a miss
+     */
+    public AuthenticatedUser get(String email) {
+        Entry entry = entries.get(email);
+        if (entry == null) {
+            misses.increment();
+            return null;
+        }
+        if (entry.expiresAt <= clock.getAsLong()) {
+            // Only removes the entry if it was not replaced by a fresh one in the meantime
+            if (entries.remove(email, entry)) {
+                evictions.increment();
+            }
+            misses.increment();
+            return null;
+        }
+        hits.increment();
+        return entry.user;
+    }
+
+    /**
+     * Returns the current generation of the given user, to be read before loading it and passed to
+     * {@link #put(AuthenticatedUser, long)}.
+     *
+     * @param email the email of the user
+     * @return the generation of the user, which changes whenever the user is invalidated
+     */
+    public long generation(String email) {
+        Long userGeneration = userGenerations.get(email);
+        return userGeneration == null ? globalGeneration : Math.max(userGeneration, globalGeneration);
+    }
+
+    /**
+     * Stores the given user in the cache, evicting the oldest entries if the cache is full.
+     *
+     * <p>The user is not stored if it was invalidated after the given generation was read, as it may have been loaded
+     * with the authorities of before the change.</p>
+     *
+     * @param user       the user to be cached
+     * @param generation the generation of the user, read before it was loaded (see {@link #generation(String)})
+     */
+    public void put(AuthenticatedUser user, long generation) {
+        Entry entry = new Entry(user.getUsername(), user, clock.getAsLong() + ttl);
+        if (generation(entry.email) != generation) {
+            return;
+        }
+        entries.put(entry.email, entry);
+        // Checked again after the entry is visible: an invalidation bumps the generation before removing the entries,
+        // so either it removed this entry or this check sees the new generation
+        if (generation(entry.email) != generation) {
+            entries.remove(entry.email, entry);
+            return;
+        }
+        insertionOrder.add(entry);
+
+        int length = insertionOrderLength.incrementAndGet();
+        while (length > maxSize) {
+            Entry oldest = insertionOrder.poll();
+            if (oldest == null) {
+                break;
+            }
+            length = insertionOrderLength.decrementAndGet();
+            // Only counts as an eviction if the polled entry is still the current one for its email
+            if (entries.remove(oldest.email, oldest)) {
+                evictions.increment();
+            }
+        }
+    }
+
+    /**
+     * Removes the given user from the cache.
+     *
+     * @param email the email of the user
+     */
+    public void invalidate(String email) {
+        userGenerations.put(email, generationCounter.incrementAndGet());
+        entries.remove(email);
+    }
+
+    /**
+     * Removes every user from the cache.
+     */
+    public void invalidateAll() {
+        long generation = generationCounter.incrementAndGet();
+        globalGeneration = generation;
+        // Entries bumped concurrently after the global generation must be kept
+        userGenerations.values().removeIf(userGeneration -> userGeneration <= generation);
+        entries.clear();
+    }
+
+    /**
+     * @return the number of cached users
+     */
+    int size() {
+        return entries.size();
+    }
+
+    @EventListener
+    public void onAuthoritiesChanged(AuthoritiesChangedEvent event) {
+        if (event.affectsAllUsers()) {
+            invalidateAll();
+        } else {
+            invalidate(event.getEmail());
+        }
+    }
+
+    private static final class Entry {
+        private final String email;
+        private final AuthenticatedUser user;
+        private final long expiresAt;
+
+        private Entry(String email, AuthenticatedUser user, long expiresAt) {
+            this.email = email;
+            this.user = user;
+            this.expiresAt = expiresAt;
+        }
+    }
+}
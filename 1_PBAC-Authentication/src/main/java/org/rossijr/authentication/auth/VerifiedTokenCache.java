@@ -0,0 +1,155 @@
+package org.rossijr.authentication.auth;
+
+import com.auth0.jwt.interfaces.DecodedJWT;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Date;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+/**
+ * Bounded cache of already verified JWT tokens, used by {@link JwtUtil#verifyToken(String)} to skip the signature
+ * verification and the parsing of tokens that were seen before.
+ *
+ * <h3>Behaviour:</h3>
+ * <ul>
+ *   <li><b>Key:</b> the token itself. Its hash is cheaper to compute than a cryptographic digest, and a hit requires the
+ *   whole token to be equal, so a tampered token never matches a cached one.</li>
+ *   <li><b>Expiry:</b> an entry is never returned after the {@code exp} of its token, and expired entries are removed.</li>
+ *   <li><b>Bound:</b> at most {@code jwt.cache.max.size} tokens are kept. When the cache is full, expired entries are
+ *   purged (at most once per second) and, if it is still full, new tokens are simply not cached.</li>
+ *   <li><b>Claims user:</b> the user built from the claims of a stateless token (see {@link ClaimsUser}) can be kept
+ *   with its entry, so that it is built once per token instead of once per request.</li>
+ * </ul>
+ */
+@Component
+public class VerifiedTokenCache {
+    private static final long PURGE_INTERVAL_MILLIS = 1000;
+
+    private final Map<String, Entry> entries = new ConcurrentHashMap<>();
+    private final AtomicLong lastPurge = new AtomicLong();
+    private final int maxSize;
+    private final LongSupplier clock;
+
+    @Autowired
+    public VerifiedTokenCache(@Value("${jwt.cache.max.size}") int maxSize) {
+        this(maxSize, System::currentTimeMillis);
+    }
+
+    VerifiedTokenCache(int maxSize, LongSupplier clock) {
+        if (maxSize <= 0) {
+            throw new IllegalArgumentException("JWT cache max size must be positive");
+        }
+        this.maxSize = maxSize;
+        this.clock = clock;
+    }
+
+    /**
+     * Returns the decoded token if it was already verified and it is not expired.
+     *
+     * @param token the raw JWT token
+     * @return the decoded token, or {@code null} if it is not cached (or expired)
+     */
+    public DecodedJWT get(String token) {
+        Entry entry = entries.get(token);
+        if (entry == null) {
+            return null;
+        }
+        if (isExpired(entry.decodedJWT, clock.getAsLong())) {
+            entries.remove(token, entry);
+            return null;
+        }
+        return entry.decodedJWT;
+    }
+
+    /**
+     * Stores a token that was just verified. Tokens without expiration are not cached.
+     *
+     * @param decodedJWT the verified token
+     */
+    public void put(DecodedJWT decodedJWT) {
+        if (decodedJWT.getExpiresAt() == null) {
+            return;
+        }
+        if (entries.size() >= maxSize && !purgeExpired()) {
+            return;
+        }
+        entries.put(decodedJWT.getToken(), new Entry(decodedJWT));
+    }
+
+    /**
+     * Returns the user kept with the given token by {@link #putClaimsUser(DecodedJWT, ClaimsUser)}.
+     *
+     * @param decodedJWT the verified token, as returned by {@link #get(String)}
+     * @return the user built from the claims of the token, or {@code null} if there is none (or the token is not cached)
+     */
+    public ClaimsUser getClaimsUser(DecodedJWT decodedJWT) {
+        Entry entry = entries.get(decodedJWT.getToken());
+        return entry != null && entry.decodedJWT == decodedJWT ? entry.claimsUser : null;
+    }
+
+    /**
+     * Keeps the user built from the claims of a token with its entry. Nothing is kept if the token is not cached.
+     *
+     * @param decodedJWT the verified token, as returned by {@link #get(String)}
+     * @param claimsUser the user built from the claims of the token
+     */
+    public void putClaimsUser(DecodedJWT decodedJWT, ClaimsUser claimsUser) {
+        Entry entry = entries.get(decodedJWT.getToken());
+        // Only with the very instance that was cached, so the user always matches the token it was built from
+        if (entry != null && entry.decodedJWT == decodedJWT) {
+            entry.claimsUser = claimsUser;
+        }
+    }
+
+    /**
+     * Removes the expired entries, if no purge happened in the last second.
+     *
+     * @return {@code true} if there is room for a new entry after the purge
+     */
+    private boolean purgeExpired() {
+        long now = clock.getAsLong();
+        long last = lastPurge.get();
+        if (now - last >= PURGE_INTERVAL_MILLIS && lastPurge.compareAndSet(last, now)) {
+            entries.values().removeIf(entry -> isExpired(entry.decodedJWT, now));
+        }
+        return entries.size() < maxSize;
+    }
+
+    /**
+     * @return the number of cached tokens
+     */
+    int size() {
+        return entries.size();
+    }
+
+    private static boolean isExpired(DecodedJWT decodedJWT, long now) {
+        Date expiresAt = decodedJWT.getExpiresAt();
+        return expiresAt.getTime() <= now;
+    }
+
+    /**
+     * The user described by the claims of a stateless token, with the authority epoch the token was issued at.
+     *
+     * <p>The claims of a token never change, so the user (and its compiled {@link PermissionSet}) can be shared by every
+     * request carrying the token. The epoch is kept so that it can still be checked on every request.</p>
+     *
+     * @param user           the user built from the claims
+     * @param authorityEpoch the authority epoch of the token (see {@link AuthorityEpochRegistry})
+     */
+    public record ClaimsUser(AuthenticatedUser user, long authorityEpoch) {
+    }
+
+    private static final class Entry {
+        private final DecodedJWT decodedJWT;
+        private volatile ClaimsUser claimsUser;
+
+        private Entry(DecodedJWT decodedJWT) {
+            this.decodedJWT = decodedJWT;
+        }
+    }
+}
@@ -0,0 +1,29 @@
+package org.rossijr.authentication.auth.dto;
+
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
+
+import java.util.List;
+
+/**
+ * This class is used to handle the data from the batch validate request.
+ */
+public class BatchValidateRequestDTO {
+    // Maximum number of tokens accepted in a single request
+    public static final int MAX_TOKENS = 500;
+
+    @NotEmpty(message = "At least one token is required")
+    @Size(max = MAX_TOKENS, message = "At most " + MAX_TOKENS + " tokens can be validated at once")
+    private List<String> tokens;
+
+    public BatchValidateRequestDTO() {
+    }
+
+    public List<String> getTokens() {
+        return tokens;
+    }
+
+    public void setTokens(List<String> tokens) {
+        this.tokens = tokens;
+    }
+}
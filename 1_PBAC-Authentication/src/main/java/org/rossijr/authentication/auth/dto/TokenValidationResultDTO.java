@@ -0,0 +1,64 @@
+package org.rossijr.authentication.auth.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+import java.time.ZonedDateTime;
+import java.util.List;
+
+/**
+ * This class is used to return the result of the validation of a single token from a batch validate request.
+ *
+ * <p>The {@code index} is the position of the token in the request. For valid tokens, the subject, the expiration and
+ * the permissions of the user are returned; for invalid ones, only the reason.</p>
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class TokenValidationResultDTO {
+    private final int index;
+    private final boolean valid;
+    private final String subject;
+    private final ZonedDateTime expiresAt;
+    private final List<String> permissions;
+    private final String error;
+
+    private TokenValidationResultDTO(int index, boolean valid, String subject, ZonedDateTime expiresAt,
+                                     List<String> permissions, String error) {
+        this.index = index;
+        this.valid = valid;
+        this.subject = subject;
+        this.expiresAt = expiresAt;
+        this.permissions = permissions;
+        this.error = error;
+    }
+
+    public static TokenValidationResultDTO valid(int index, String subject, ZonedDateTime expiresAt, List<String> permissions) {
+        return new TokenValidationResultDTO(index, true, subject, expiresAt, permissions, null);
+    }
+
+    public static TokenValidationResultDTO invalid(int index, String error) {
+        return new TokenValidationResultDTO(index, false, null, null, null, error);
+    }
+
+    public int getIndex() {
+        return index;
+    }
+
+    public boolean isValid() {
+        return valid;
+    }
+
+    public String getSubject() {
+        return subject;
+    }
+
+    public ZonedDateTime getExpiresAt() {
+        return expiresAt;
+    }
+
+    public List<String> getPermissions() {
+        return permissions;
+    }
+
+    public String getError() {
+        return error;
+    }
+}
@@ -0,0 +1,186 @@
+package org.rossijr.authentication.config;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.jdbc.datasource.ConnectionProxy;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * {@link DataSource} admitting a bounded number of threads to the connection pool, so thousands of virtual threads do
+ * not all queue up inside the pool (see {@link ExecutionModeConfig}).
+ *
+ * <h3>Behaviour:</h3>
+ * <ul>
+ *   <li><b>Permits:</b> a thread takes a permit before taking a connection and gives it back when the connection is
+ *   closed, so at most {@code datasource.admission.permits} connections are in use at once (it should match the size of
+ *   the pool).</li>
+ *   <li><b>Bounded wait:</b> at most {@code datasource.admission.max.waiting} threads wait for a permit, in arrival order,
+ *   for up to {@code datasource.admission.timeout} milliseconds. Beyond that, the connection is refused right away with a
+ *   {@link ConnectionAdmissionException} (answered with {@code 503} and a {@code Retry-After} header), so an overload
+ *   is shed in microseconds instead of piling up until the pool timeout.</li>
+ *   <li><b>Metrics:</b> the connections in use ({@code datasource.admission.active}), the waiting threads
+ *   ({@code datasource.admission.waiting}), the time spent waiting ({@code datasource.admission.wait}) and the refusals
+ *   ({@code datasource.admission.rejections}, tagged by {@code reason}) are published.</li>
+ * </ul>
+ *
+ * <p>The permits are taken with a {@link Semaphore}, which parks virtual threads without pinning their carrier.</p>
+ */
+public class AdmissionLimitingDataSource extends DelegatingDataSource implements DisposableBean {
+    private final Logger logger = LoggerFactory.getLogger(AdmissionLimitingDataSource.class);
+
+    private final int permits;
+    private final Semaphore semaphore;
+    private final int maxWaiting;
+    private final long timeout;
+    private final long retryAfterSeconds;
+    private final AtomicInteger waiting = new AtomicInteger();
+    private final Timer waitTimer;
+    private final Counter queueFullRejections;
+    private final Counter timeoutRejections;
+
+    /**
+     * @param delegate          the data source whose connections are limited
+     * @param permits           the maximum number of connections in use at once
+     * @param maxWaiting        the maximum number of threads waiting for a connection
+     * @param timeout           the maximum time, in milliseconds, a thread waits for a connection
+     * @param retryAfterSeconds the value of the {@code Retry-After} header sent when a connection is refused
+     * @param meterRegistry     the registry where the admission metrics are published
+     */
+    public AdmissionLimitingDataSource(DataSource delegate, int permits, int maxWaiting, long timeout,
+                                       long retryAfterSeconds, MeterRegistry meterRegistry) {
+        super(delegate);
+        if (permits <= 0 || maxWaiting < 0 || timeout < 0) {
+            throw new IllegalArgumentException("Connection admission permits must be positive, max waiting and timeout must not be negative");
+        }
+        this.permits = permits;
+        this.semaphore = new Semaphore(permits, true);
+        this.maxWaiting = maxWaiting;
+        this.timeout = timeout;
+        this.retryAfterSeconds = retryAfterSeconds;
+        this.waitTimer = Timer.builder("datasource.admission.wait").register(meterRegistry);
+        this.queueFullRejections = Counter.builder("datasource.admission.rejections").tag("reason", "queue_full").register(meterRegistry);
+        this.timeoutRejections = Counter.builder("datasource.admission.rejections").tag("reason", "timeout").register(meterRegistry);
+        Gauge.builder("datasource.admission.active", this, AdmissionLimitingDataSource::getActive).register(meterRegistry);
+        Gauge.builder("datasource.admission.waiting", waiting, AtomicInteger::get).register(meterRegistry);
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        acquire();
+        try {
+            return releasingOnClose(obtainTargetDataSource().getConnection());
+        } catch (SQLException | RuntimeException | Error e) {
+            semaphore.release();
+            throw e;
+        }
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        acquire();
+        try {
+            return releasingOnClose(obtainTargetDataSource().getConnection(username, password));
+        } catch (SQLException | RuntimeException | Error e) {
+            semaphore.release();
+            throw e;
+        }
+    }
+
+    /**
+     * @return the number of connections in use
+     */
+    public int getActive() {
+        return permits - semaphore.availablePermits();
+    }
+
+    /**
+     * Closes the delegate if it is a pool, as it is exposed (and destroyed) through this data source.
+     */
+    @Override
+    public void destroy() throws Exception {
+        if (obtainTargetDataSource() instanceof AutoCloseable closeable) {
+            closeable.close();
+        }
+    }
+
+    /**
+     * Takes a permit, waiting for one only if there is room in the queue.
+     *
+     * @throws ConnectionAdmissionException if the queue is full or no permit was given back in time
+     */
+    private void acquire() throws SQLException {
+        if (semaphore.tryAcquire()) {
+            return;
+        }
+        if (waiting.incrementAndGet() > maxWaiting) {
+            waiting.decrementAndGet();
+            queueFullRejections.increment();
+            // Debug level, as an overload would otherwise flood the logs (the rejections are counted)
+            logger.debug("Connection refused, {} threads are already waiting", maxWaiting);
+            throw new ConnectionAdmissionException("Too many threads waiting for a database connection", retryAfterSeconds);
+        }
+        long start = System.nanoTime();
+        boolean acquired;
+        try {
+            acquired = semaphore.tryAcquire(timeout, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SQLException("Interrupted while waiting for a database connection", e);
+        } finally {
+            waiting.decrementAndGet();
+            waitTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+        if (!acquired) {
+            timeoutRejections.increment();
+            logger.debug("Connection refused, none was available within {} ms", timeout);
+            throw new ConnectionAdmissionException("No database connection available within " + timeout + " ms", retryAfterSeconds);
+        }
+    }
+
+    /**
+     * Wraps a connection so its permit is given back (once) when it is closed.
+     */
+    private Connection releasingOnClose(Connection target) {
+        AtomicBoolean closed = new AtomicBoolean();
+        return (Connection) Proxy.newProxyInstance(ConnectionProxy.class.getClassLoader(),
+                new Class<?>[]{ConnectionProxy.class},
+                (proxy, method, args) -> switch (method.getName()) {
+                    case "equals" -> proxy == args[0];
+                    case "hashCode" -> System.identityHashCode(proxy);
+                    case "toString" -> "Admission-limited connection [" + target + "]";
+                    case "getTargetConnection" -> target;
+                    case "close" -> {
+                        try {
+                            target.close();
+                        } finally {
+                            if (closed.compareAndSet(false, true)) {
+                                semaphore.release();
+                            }
+                        }
+                        yield null;
+                    }
+                    default -> {
+                        try {
+                            yield method.invoke(target, args);
+                        } catch (InvocationTargetException e) {
+                            throw e.getTargetException();
+                        }
+                    }
+                });
+    }
+}
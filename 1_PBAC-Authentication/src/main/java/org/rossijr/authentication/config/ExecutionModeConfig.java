@@ -0,0 +1,61 @@
+package org.rossijr.authentication.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+
+import javax.sql.DataSource;
+
+/**
+ * Execution mode of the requests: platform threads (the Tomcat pool) or virtual threads.
+ *
+ * <p>With {@code spring.threads.virtual.enabled=true}, Spring Boot runs the Tomcat requests and the work of the
+ * {@code applicationTaskExecutor} (e.g. the batch token validation) on virtual threads, which are parked instead of held
+ * while waiting on JDBC or on the password hashing executor.</p>
+ *
+ * <p>As virtual threads are not bounded by the Tomcat pool, the data source is wrapped in an
+ * {@link AdmissionLimitingDataSource} when {@code datasource.admission.enabled} is set (by default, when the virtual
+ * threads are), so a burst of requests waits in a short, bounded queue instead of stampeding the connection pool.</p>
+ */
+@Configuration
+public class ExecutionModeConfig {
+    private final Logger logger = LoggerFactory.getLogger(ExecutionModeConfig.class);
+
+    public ExecutionModeConfig(Environment environment) {
+        boolean virtualThreads = environment.getProperty("spring.threads.virtual.enabled", Boolean.class, false);
+        logger.info("Requests run on {} threads", virtualThreads ? "virtual" : "platform");
+    }
+
+    /**
+     * Wraps the data source of the application in an {@link AdmissionLimitingDataSource}.
+     *
+     * <p>It is static, as a {@link BeanPostProcessor} must be created before the other beans, and the meter registry is
+     * only resolved when the data source is wrapped.</p>
+     */
+    @Bean
+    @ConditionalOnProperty(name = "datasource.admission.enabled", havingValue = "true")
+    public static BeanPostProcessor connectionAdmissionPostProcessor(Environment environment,
+                                                                     ObjectProvider<MeterRegistry> meterRegistry) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (!"dataSource".equals(beanName) || !(bean instanceof DataSource dataSource)
+                        || bean instanceof AdmissionLimitingDataSource) {
+                    return bean;
+                }
+                return new AdmissionLimitingDataSource(dataSource,
+                        environment.getRequiredProperty("datasource.admission.permits", Integer.class),
+                        environment.getRequiredProperty("datasource.admission.max.waiting", Integer.class),
+                        environment.getRequiredProperty("datasource.admission.timeout", Long.class),
+                        environment.getRequiredProperty("datasource.admission.retry.after", Long.class),
+                        meterRegistry.getObject());
+            }
+        };
+    }
+}
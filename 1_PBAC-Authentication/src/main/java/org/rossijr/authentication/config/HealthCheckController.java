@@ -1,8 +1,8 @@
 package org.rossijr.authentication.config;
 
 
+import org.rossijr.authentication.auth.RequiresPermission;
 import org.springframework.http.ResponseEntity;
-import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
@@ -19,7 +19,7 @@ public class HealthCheckController {
      *
      * @return a mock response indicating the server health status.
      */
-    @PreAuthorize("hasAuthority('VIEW_USER')")
+    @RequiresPermission("VIEW_USER")
     @GetMapping("/user")
     public ResponseEntity<String> userHealthCheck() {
         return ResponseEntity.ok("Public Health Check: Server is running and accessible to USER role.");
@@ -30,7 +30,7 @@ public class HealthCheckController {
      *
      * @return a mock response indicating the server health status.
      */
-    @PreAuthorize("hasAuthority('HEALTH_CHECK')")
+    @RequiresPermission("HEALTH_CHECK")
     @GetMapping("/admin")
     public ResponseEntity<String> adminHealthCheck() {
         return ResponseEntity.ok("Admin Health Check: Server is running and accessible to ADMIN role.");
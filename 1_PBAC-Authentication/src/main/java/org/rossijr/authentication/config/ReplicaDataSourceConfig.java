@@ -0,0 +1,114 @@
+package org.rossijr.authentication.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.hibernate.cfg.AvailableSettings;
+import org.hibernate.resource.jdbc.spi.PhysicalConnectionHandlingMode;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Routes the read-only transactions ({@code @Transactional(readOnly = true)}) to the read replicas, and everything else
+ * to the primary database.
+ *
+ * <p>It is only active when {@code datasource.replica.urls} lists at least one replica (otherwise the data source is
+ * configured by Spring Boot as usual). The replicas share the credentials and driver of the primary
+ * ({@code spring.datasource.*}).</p>
+ *
+ * <h3>How it works:</h3>
+ * <ul>
+ *   <li>The application uses a {@link LazyConnectionDataSourceProxy}, which only takes a real connection when the first
+ *   statement runs, after the transaction manager flagged the connection as read-only.</li>
+ *   <li>Read-only connections are taken from the {@link ReplicaRoutingDataSource} (which skips lagging replicas and falls
+ *   back to the primary), the other ones from the primary.</li>
+ *   <li>Hibernate releases the connection after each transaction (see {@link #releaseConnectionAfterTransaction()}),
+ *   so a request running a read-only and then a read-write transaction does not keep using the replica connection.</li>
+ * </ul>
+ *
+ * <p>Reads served by a replica may miss writes made less than {@code datasource.replica.max.lag} milliseconds before
+ * (e.g. logging in right after creating a user).</p>
+ */
+@Configuration
+@ConditionalOnExpression("!'${datasource.replica.urls:}'.isBlank()")
+public class ReplicaDataSourceConfig {
+
+    /**
+     * Connection pool of the primary database, configured by the {@code spring.datasource.*} properties.
+     */
+    @Bean
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariDataSource primaryDataSource(DataSourceProperties properties) {
+        return properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+    }
+
+    /**
+     * Connection pools of the replicas, behind the lag-aware {@link ReplicaRoutingDataSource}.
+     *
+     * @param properties        the properties of the primary data source, whose credentials and driver are reused
+     * @param primaryDataSource the pool used when no replica is available
+     * @param urls              the JDBC URLs of the replicas, separated by comma
+     * @param maxPoolSize       the maximum number of connections of each replica pool
+     * @param maxLag            the maximum replication lag (in milliseconds) of a replica to be used
+     * @param lagQuery          the query returning the replication lag (in milliseconds) of a replica
+     * @param checkInterval     the interval (in milliseconds) between two checks of the replicas
+     * @param meterRegistry     the registry where the replica metrics are published
+     * @return the data source of the read-only connections
+     */
+    @Bean
+    public ReplicaRoutingDataSource replicaDataSource(DataSourceProperties properties,
+                                                      HikariDataSource primaryDataSource,
+                                                      @Value("${datasource.replica.urls}") String urls,
+                                                      @Value("${datasource.replica.pool.size}") int maxPoolSize,
+                                                      @Value("${datasource.replica.max.lag}") long maxLag,
+                                                      @Value("${datasource.replica.lag.query}") String lagQuery,
+                                                      @Value("${datasource.replica.check.interval}") long checkInterval,
+                                                      MeterRegistry meterRegistry) {
+        List<String> replicaUrls = Arrays.stream(urls.split(",")).map(String::trim).filter(url -> !url.isEmpty()).toList();
+        List<DataSource> replicas = new ArrayList<>(replicaUrls.size());
+        for (int i = 0; i < replicaUrls.size(); i++) {
+            HikariDataSource replica = properties.initializeDataSourceBuilder()
+                    .type(HikariDataSource.class)
+                    .url(replicaUrls.get(i))
+                    .build();
+            replica.setPoolName("replica-" + i);
+            replica.setMaximumPoolSize(maxPoolSize);
+            replica.setReadOnly(true);
+            replicas.add(replica);
+        }
+        return new ReplicaRoutingDataSource(primaryDataSource, replicas, maxLag, lagQuery, checkInterval, meterRegistry);
+    }
+
+    /**
+     * The data source used by the application (JPA, {@code JdbcTemplate}), routing read-only connections to the replicas.
+     */
+    @Bean
+    @Primary
+    public DataSource dataSource(HikariDataSource primaryDataSource, ReplicaRoutingDataSource replicaDataSource) {
+        LazyConnectionDataSourceProxy dataSource = new LazyConnectionDataSourceProxy(primaryDataSource);
+        dataSource.setReadOnlyDataSource(replicaDataSource);
+        return dataSource;
+    }
+
+    /**
+     * Makes Hibernate release the connection after each transaction, instead of holding it until the session is closed
+     * (with open-in-view, the end of the request). Only needed with replicas, as the connection of a transaction depends
+     * on its read-only flag.
+     */
+    @Bean
+    public HibernatePropertiesCustomizer releaseConnectionAfterTransaction() {
+        return properties -> properties.put(AvailableSettings.CONNECTION_HANDLING,
+                PhysicalConnectionHandlingMode.DELAYED_ACQUISITION_AND_RELEASE_AFTER_TRANSACTION);
+    }
+}
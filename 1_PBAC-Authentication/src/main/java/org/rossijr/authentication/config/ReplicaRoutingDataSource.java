@@ -0,0 +1,180 @@
+package org.rossijr.authentication.config;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.jdbc.datasource.AbstractDataSource;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * {@link DataSource} spreading the read-only work over a set of replicas (see {@link ReplicaDataSourceConfig}).
+ *
+ * <h3>Behaviour:</h3>
+ * <ul>
+ *   <li><b>Balancing:</b> connections are taken from the available replicas in turn.</li>
+ *   <li><b>Lag check:</b> every {@code datasource.replica.check.interval} milliseconds, the replication lag (in
+ *   milliseconds) of each replica is read with the {@code datasource.replica.lag.query}. A replica lagging more than
+ *   {@code datasource.replica.max.lag} milliseconds, or failing the check, is not used until a later check passes.</li>
+ *   <li><b>Fallback:</b> when no replica is available (or none hands out a connection), the connection is taken from the
+ *   primary. Connections asked with explicit credentials are always taken from the primary.</li>
+ *   <li><b>Metrics:</b> the lag and availability of each replica ({@code datasource.replica.lag} and
+ *   {@code datasource.replica.available}, tagged by {@code replica}) and the number of fallbacks to the primary
+ *   ({@code datasource.replica.fallbacks}) are published.</li>
+ * </ul>
+ */
+public class ReplicaRoutingDataSource extends AbstractDataSource implements DisposableBean {
+    private final Logger logger = LoggerFactory.getLogger(ReplicaRoutingDataSource.class);
+
+    private final DataSource primary;
+    private final List<Replica> replicas;
+    private final long maxLag;
+    private final String lagQuery;
+    private final Counter fallbackCounter;
+    private final AtomicInteger next = new AtomicInteger();
+    private final ScheduledExecutorService executor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "replica-lag-checker");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    /**
+     * Creates the data source and checks the replicas a first time, so they can be used right away.
+     *
+     * @param primary       the data source used when no replica is available
+     * @param replicas      the data sources of the replicas (owned by this data source, which closes them)
+     * @param maxLag        the maximum replication lag, in milliseconds, of a replica to be used
+     * @param lagQuery      the query returning the replication lag of a replica, in milliseconds
+     * @param checkInterval the interval, in milliseconds, between two checks of the replicas
+     * @param meterRegistry the registry where the replica metrics are published
+     */
+    public ReplicaRoutingDataSource(DataSource primary, List<DataSource> replicas, long maxLag, String lagQuery,
+                                    long checkInterval, MeterRegistry meterRegistry) {
+        if (replicas.isEmpty()) {
+            throw new IllegalArgumentException("At least one replica is required");
+        }
+        if (maxLag < 0 || checkInterval <= 0) {
+            throw new IllegalArgumentException("Replica max lag must not be negative and check interval must be positive");
+        }
+        this.primary = primary;
+        this.maxLag = maxLag;
+        this.lagQuery = lagQuery;
+        this.fallbackCounter = Counter.builder("datasource.replica.fallbacks")
+                .description("Read-only connections taken from the primary as no replica was available")
+                .register(meterRegistry);
+
+        List<Replica> replicaList = new ArrayList<>(replicas.size());
+        for (int i = 0; i < replicas.size(); i++) {
+            Replica replica = new Replica(String.valueOf(i), replicas.get(i));
+            Gauge.builder("datasource.replica.lag", replica, r -> r.lag)
+                    .tag("replica", replica.name)
+                    .baseUnit("milliseconds")
+                    .register(meterRegistry);
+            Gauge.builder("datasource.replica.available", replica, r -> r.available ? 1 : 0)
+                    .tag("replica", replica.name)
+                    .register(meterRegistry);
+            replicaList.add(replica);
+        }
+        this.replicas = List.copyOf(replicaList);
+
+        checkReplicas();
+        executor.scheduleWithFixedDelay(this::checkReplicas, checkInterval, checkInterval, TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        int start = Math.floorMod(next.getAndIncrement(), replicas.size());
+        for (int i = 0; i < replicas.size(); i++) {
+            Replica replica = replicas.get((start + i) % replicas.size());
+            if (!replica.available) {
+                continue;
+            }
+            try {
+                return replica.dataSource.getConnection();
+            } catch (SQLException e) {
+                logger.warn("Replica {} is not handing out connections, it will not be used until the next check: {}",
+                        replica.name, e.getMessage());
+                replica.available = false;
+            }
+        }
+        fallbackCounter.increment();
+        return primary.getConnection();
+    }
+
+    /**
+     * Takes the connection from the primary, as the replica pools only hand out connections with their own credentials.
+     */
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        return primary.getConnection(username, password);
+    }
+
+    /**
+     * Reads the replication lag of every replica, and updates their availability.
+     */
+    void checkReplicas() {
+        for (Replica replica : replicas) {
+            boolean wasAvailable = replica.available;
+            boolean firstCheck = !replica.checked;
+            replica.checked = true;
+            try (Connection connection = replica.dataSource.getConnection();
+                 Statement statement = connection.createStatement();
+                 ResultSet resultSet = statement.executeQuery(lagQuery)) {
+                replica.lag = resultSet.next() ? resultSet.getLong(1) : 0;
+                replica.available = replica.lag <= maxLag;
+            } catch (Exception e) {
+                replica.lag = -1;
+                replica.available = false;
+                if (wasAvailable || firstCheck) {
+                    logger.error("An unexpected error occurred while checking the lag of replica {}: {}", replica.name, e.getMessage());
+                }
+            }
+            if (wasAvailable != replica.available) {
+                logger.info("Replica {} is now {} (lag: {} ms)", replica.name, replica.available ? "available" : "unavailable", replica.lag);
+            }
+        }
+    }
+
+    /**
+     * Stops the checks and closes the data sources of the replicas.
+     */
+    @Override
+    public void destroy() {
+        executor.shutdownNow();
+        for (Replica replica : replicas) {
+            if (replica.dataSource instanceof AutoCloseable closeable) {
+                try {
+                    closeable.close();
+                } catch (Exception e) {
+                    logger.error("An unexpected error occurred while closing replica {}: {}", replica.name, e.getMessage());
+                }
+            }
+        }
+    }
+
+    private static final class Replica {
+        private final String name;
+        private final DataSource dataSource;
+        private volatile long lag = -1;
+        private volatile boolean available;
+        private volatile boolean checked;
+
+        private Replica(String name, DataSource dataSource) {
+            this.name = name;
+            this.dataSource = dataSource;
+        }
+    }
+}
@@ -0,0 +1,69 @@
+package org.rossijr.authentication.config;
+
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.CacheRegionStatistics;
+import org.hibernate.stat.Statistics;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Selector;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Actuator endpoint ({@code /actuator/secondlevelcache}) publishing the statistics of the Hibernate second-level cache.
+ *
+ * <p>It returns the hits, misses and puts of every region declared in {@code ehcache.xml} (and of the query cache as a
+ * whole), which is what tells if the sizing of the regions is right. {@code /actuator/secondlevelcache/{region}}
+ * returns the statistics of a single region.</p>
+ *
+ * <p>The statistics are only collected when {@code hibernate.generate_statistics} is enabled.</p>
+ */
+@Component
+@Endpoint(id = "secondlevelcache")
+public class SecondLevelCacheEndpoint {
+    private final Statistics statistics;
+
+    @Autowired
+    public SecondLevelCacheEndpoint(EntityManagerFactory entityManagerFactory) {
+        this.statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+    }
+
+    @ReadOperation
+    public Map<String, Object> statistics() {
+        Map<String, Object> regions = new TreeMap<>();
+        for (String region : statistics.getSecondLevelCacheRegionNames()) {
+            regions.put(region, toMap(statistics.getCacheRegionStatistics(region)));
+        }
+
+        Map<String, Object> queries = new LinkedHashMap<>();
+        queries.put("hitCount", statistics.getQueryCacheHitCount());
+        queries.put("missCount", statistics.getQueryCacheMissCount());
+        queries.put("putCount", statistics.getQueryCachePutCount());
+
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("enabled", statistics.isStatisticsEnabled());
+        result.put("regions", regions);
+        result.put("queries", queries);
+        return result;
+    }
+
+    @ReadOperation
+    public Map<String, Object> region(@Selector String region) {
+        CacheRegionStatistics regionStatistics = statistics.getCacheRegionStatistics(region);
+        return regionStatistics == null ? null : toMap(regionStatistics);
+    }
+
+    private static Map<String, Object> toMap(CacheRegionStatistics regionStatistics) {
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("hitCount", regionStatistics.getHitCount());
+        result.put("missCount", regionStatistics.getMissCount());
+        result.put("putCount", regionStatistics.getPutCount());
+        result.put("elementCountInMemory", regionStatistics.getElementCountInMemory());
+        return result;
+    }
+}
@@ -1,13 +1,32 @@
 package org.rossijr.authentication.config;
 
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.DispatcherType;
+import org.aopalliance.intercept.MethodInvocation;
 import org.rossijr.authentication.auth.CustomAuthenticationEntryPoint;
 import org.rossijr.authentication.auth.JwtRequestFilter;
+import org.rossijr.authentication.auth.OffloadedPasswordEncoder;
+import org.rossijr.authentication.auth.PermissionAuthorizationManager;
+import org.rossijr.authentication.auth.PermissionIndex;
+import org.rossijr.authentication.auth.RequiresPermission;
+import org.rossijr.authentication.auth.SecurityPhaseRecorder;
+import org.rossijr.authentication.auth.TimedAuthorizationManager;
+import org.springframework.aop.Advisor;
+import org.springframework.aop.support.annotation.AnnotationMatchingPointcut;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.beans.factory.config.BeanDefinition;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.context.annotation.Role;
 import org.springframework.http.HttpMethod;
 import org.springframework.security.authentication.AuthenticationManager;
+import org.springframework.security.authorization.AuthorizationManager;
+import org.springframework.security.authorization.method.AuthorizationInterceptorsOrder;
+import org.springframework.security.authorization.method.AuthorizationManagerBeforeMethodInterceptor;
+import org.springframework.security.config.ObjectPostProcessor;
 import org.springframework.security.config.annotation.authentication.configuration.AuthenticationConfiguration;
 import org.springframework.security.config.annotation.method.configuration.EnableMethodSecurity;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
@@ -15,12 +34,14 @@ import org.springframework.security.config.annotation.web.configurers.AbstractHt
 import org.springframework.security.config.annotation.web.configurers.HeadersConfigurer;
 import org.springframework.security.config.http.SessionCreationPolicy;
 import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
-import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.security.web.SecurityFilterChain;
 import org.springframework.security.web.authentication.UsernamePasswordAuthenticationFilter;
+import org.springframework.util.function.SingletonSupplier;
 import org.springframework.web.servlet.config.annotation.CorsRegistry;
 import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
 
+import java.util.function.Supplier;
+
 @Configuration
 @EnableMethodSecurity
 public class SecurityConfig {
@@ -38,9 +59,20 @@ public class SecurityConfig {
         this.customAuthenticationEntryPoint = customAuthenticationEntryPoint;
     }
 
+    /**
+     * BCrypt password encoder, running on a dedicated executor with one thread per core (see {@link OffloadedPasswordEncoder}).
+     *
+     * @param queueCapacity     the maximum number of hashing operations waiting for a thread, from the application.properties
+     * @param retryAfterSeconds the {@code Retry-After} sent when an operation is rejected, from the application.properties
+     * @param meterRegistry     the registry where the hashing timers are published
+     * @return the password encoder used by the application
+     */
     @Bean
-    public PasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder();
+    public OffloadedPasswordEncoder passwordEncoder(@Value("${password.hashing.queue.capacity}") int queueCapacity,
+                                                    @Value("${password.hashing.retry.after}") long retryAfterSeconds,
+                                                    MeterRegistry meterRegistry) {
+        return new OffloadedPasswordEncoder(new BCryptPasswordEncoder(), Runtime.getRuntime().availableProcessors(),
+                queueCapacity, retryAfterSeconds, meterRegistry);
     }
 
     @Bean
@@ -48,6 +80,65 @@ public class SecurityConfig {
         return authenticationConfiguration.getAuthenticationManager();
     }
 
+    /**
+     * Registers the method interceptor that enforces the {@link RequiresPermission} annotation.
+     *
+     * <p>It runs at the same position as the {@code @PreAuthorize} interceptor, but the check is done by the
+     * {@link PermissionAuthorizationManager} over the permission bitset of the user, instead of evaluating SpEL.</p>
+     *
+     * <p>The method is static (and the {@link PermissionIndex} is resolved lazily) because advisors are created very early,
+     * before regular beans such as repositories are ready.</p>
+     *
+     * @param permissionIndex provider of the {@link PermissionIndex}
+     * @param phaseRecorder   provider of the {@link SecurityPhaseRecorder} timing the checks
+     * @return the advisor enforcing {@link RequiresPermission}
+     */
+    @Bean
+    @Role(BeanDefinition.ROLE_INFRASTRUCTURE)
+    static Advisor requiresPermissionAuthorizationAdvisor(ObjectProvider<PermissionIndex> permissionIndex,
+                                                          ObjectProvider<SecurityPhaseRecorder> phaseRecorder) {
+        AuthorizationManagerBeforeMethodInterceptor interceptor = new AuthorizationManagerBeforeMethodInterceptor(
+                new AnnotationMatchingPointcut(null, RequiresPermission.class, true),
+                new TimedAuthorizationManager<>(
+                        new PermissionAuthorizationManager(SingletonSupplier.of(permissionIndex::getObject)),
+                        SecurityPhaseRecorder.Phase.PERMISSION_CHECK, SingletonSupplier.of(phaseRecorder::getObject)));
+        interceptor.setOrder(AuthorizationInterceptorsOrder.PRE_AUTHORIZE.getOrder());
+        return interceptor;
+    }
+
+    /**
+     * Wraps the manager of the default {@code @PreAuthorize} interceptor, so the evaluation of the expressions is timed
+     * by the {@link SecurityPhaseRecorder}. The interceptor itself is left as Spring Security builds it (expression
+     * handler, role hierarchy, {@code @HandleAuthorizationDenied}).
+     *
+     * <p>Spring Security only applies a post processor if it is the only one (or the primary one), so this one is primary
+     * and applies the others first, such as the one observing the checks when there is an {@code ObservationRegistry}.</p>
+     *
+     * @param postProcessors the post processors of the method authorization managers, including this one
+     * @param phaseRecorder  provider of the {@link SecurityPhaseRecorder} timing the evaluations
+     * @return the post processor of the {@code @PreAuthorize} manager
+     */
+    @Bean
+    @Primary
+    @Role(BeanDefinition.ROLE_INFRASTRUCTURE)
+    static ObjectPostProcessor<AuthorizationManager<MethodInvocation>> preAuthorizeAuthorizationManagerPostProcessor(
+            ObjectProvider<ObjectPostProcessor<AuthorizationManager<MethodInvocation>>> postProcessors,
+            ObjectProvider<SecurityPhaseRecorder> phaseRecorder) {
+        Supplier<SecurityPhaseRecorder> recorder = SingletonSupplier.of(phaseRecorder::getObject);
+        return new ObjectPostProcessor<>() {
+            @Override
+            @SuppressWarnings("unchecked")
+            public <O extends AuthorizationManager<MethodInvocation>> O postProcess(O manager) {
+                O processed = manager;
+                for (ObjectPostProcessor<AuthorizationManager<MethodInvocation>> postProcessor : postProcessors) {
+                    if (postProcessor != this) {
+                        processed = postProcessor.postProcess(processed);
+                    }
+                }
+                return (O) new TimedAuthorizationManager<>(processed, SecurityPhaseRecorder.Phase.EXPRESSION_CHECK, recorder);
+            }
+        };
+    }
 
     /**
      * Method to configure the security pattern (filter chain) for the application.
@@ -75,8 +166,11 @@ public class SecurityConfig {
                 .headers(headers -> headers.frameOptions(HeadersConfigurer.FrameOptionsConfig::disable))
                 .authorizeHttpRequests(auth -> auth
                         // Matches the authentication endpoint and the validation endpoint
-                        .requestMatchers("/api/v1/authentication/login", "/api/v1/authentication/validate").permitAll()
+                        .requestMatchers("/api/v1/authentication/login", "/api/v1/authentication/validate",
+                                "/api/v1/authentication/validate/batch").permitAll()
                         .requestMatchers(HttpMethod.OPTIONS, "/**").permitAll()
+                        // The error page rendered for a rejected request (e.g. an invalid batch), keeping its status
+                        .dispatcherTypeMatchers(DispatcherType.ERROR).permitAll()
                         .anyRequest().authenticated()          // Require authentication for all other requests
                 )
                 .exceptionHandling(exceptions -> exceptions.authenticationEntryPoint(customAuthenticationEntryPoint))
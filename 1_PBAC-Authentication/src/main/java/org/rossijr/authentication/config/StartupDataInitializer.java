@@ -1,23 +1,29 @@
 package org.rossijr.authentication.config;
 
+import org.rossijr.authentication.auth.AuthoritiesChangedEvent;
 import org.rossijr.authentication.model.Permission;
 import org.rossijr.authentication.model.Role;
 import org.rossijr.authentication.model.User;
 import org.rossijr.authentication.model.UserRole;
 import org.rossijr.authentication.repository.RoleRepository;
 import org.rossijr.authentication.repository.UserRepository;
+import org.rossijr.authentication.service.EffectivePermissionService;
 import org.rossijr.authentication.service.PermissionService;
 import org.rossijr.authentication.service.RolePermissionService;
 import org.rossijr.authentication.service.RoleService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.CommandLineRunner;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.time.ZonedDateTime;
 import java.util.HashSet;
+import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 
 /**
  * Initializes the application with some default data
@@ -28,14 +34,23 @@ public class StartupDataInitializer {
     private final RoleRepository roleRepository;
     private final UserRepository userRepository;
     private final PasswordEncoder passwordEncoder;
+    private final EffectivePermissionService effectivePermissionService;
+    private final ApplicationEventPublisher eventPublisher;
+    private final TransactionTemplate transactionTemplate;
 
     @Autowired
     public StartupDataInitializer(RoleRepository roleRepository,
                                   UserRepository userRepository,
-                                  PasswordEncoder passwordEncoder) {
+                                  PasswordEncoder passwordEncoder,
+                                  EffectivePermissionService effectivePermissionService,
+                                  ApplicationEventPublisher eventPublisher,
+                                  TransactionTemplate transactionTemplate) {
         this.roleRepository = roleRepository;
         this.userRepository = userRepository;
         this.passwordEncoder = passwordEncoder;
+        this.effectivePermissionService = effectivePermissionService;
+        this.eventPublisher = eventPublisher;
+        this.transactionTemplate = transactionTemplate;
     }
 
     @Bean
@@ -48,30 +63,35 @@ public class StartupDataInitializer {
             Permission viewUser = Optional.ofNullable(permissionService.findByName("VIEW_USER"))
                     .orElseGet(() -> permissionService.save(new Permission("VIEW_USER", "Permission to view users")));
 
+            Permission manageRoles = Optional.ofNullable(permissionService.findByName("MANAGE_ROLES"))
+                    .orElseGet(() -> permissionService.save(new Permission("MANAGE_ROLES", "Permission to manage the permissions of roles")));
+
+            Permission createUser = Optional.ofNullable(permissionService.findByName("CREATE_USER"))
+                    .orElseGet(() -> permissionService.save(new Permission("CREATE_USER", "Permission to create users")));
+
 
-            User user = new User();
-            User admin = new User();
             // Create admin user if not exists
-            if (!userRepository.existsByEmail("admin@example.com")) {
-                admin.setEmail("admin@example.com");
-                admin.setPassword(passwordEncoder.encode("admin123"));
-                admin.setCreatedAt(ZonedDateTime.now());
-                admin.setUpdatedAt(ZonedDateTime.now());
-                admin.setRoles(new HashSet<>());
-                userRepository.save(admin);
-            }
+            User admin = Optional.ofNullable(userRepository.findByEmail("admin@example.com")).orElseGet(() -> {
+                User newAdmin = new User();
+                newAdmin.setEmail("admin@example.com");
+                newAdmin.setPassword(passwordEncoder.encode("admin123"));
+                newAdmin.setCreatedAt(ZonedDateTime.now());
+                newAdmin.setUpdatedAt(ZonedDateTime.now());
+                newAdmin.setRoles(new HashSet<>());
+                return userRepository.save(newAdmin);
+            });
 
 
             // Create regular user if not exists
-            if (!userRepository.existsByEmail("user@example.com")) {
-                user.setEmail("user@example.com");
-                user.setPassword(passwordEncoder.encode("user123"));
-                user.setCreatedAt(ZonedDateTime.now());
-                user.setUpdatedAt(ZonedDateTime.now());
-                user.setRoles(new HashSet<>());
-
-                userRepository.save(user);
-            }
+            User user = Optional.ofNullable(userRepository.findByEmail("user@example.com")).orElseGet(() -> {
+                User newUser = new User();
+                newUser.setEmail("user@example.com");
+                newUser.setPassword(passwordEncoder.encode("user123"));
+                newUser.setCreatedAt(ZonedDateTime.now());
+                newUser.setUpdatedAt(ZonedDateTime.now());
+                newUser.setRoles(new HashSet<>());
+                return userRepository.save(newUser);
+            });
 
             // Create roles and assign permissions
             Role adminRole = Optional.ofNullable(roleService.getRoleByName("ROLE_ADMIN")).orElseGet(() -> {
@@ -90,21 +110,31 @@ public class StartupDataInitializer {
                 return roleService.save(role);
             });
 
-            // Assign permissions to roles
-            roleService.assignPermissionToRole(adminRole.getId(), healthCheck.getId(), admin.getId());
-            roleService.assignPermissionToRole(adminRole.getId(), viewUser.getId(), admin.getId());
+            // Assign permissions to roles (permissions the roles already have are skipped, so restarts add nothing)
+            roleService.assignPermissionsToRole(adminRole.getId(),
+                    Set.of(healthCheck.getId(), viewUser.getId(), manageRoles.getId(), createUser.getId()), admin.getId());
 
+            roleService.assignPermissionsToRole(userRole.getId(), Set.of(viewUser.getId()), admin.getId());
 
-            roleService.assignPermissionToRole(userRole.getId(), viewUser.getId(), admin.getId());
-
-            UserRole userRoleAdmin = new UserRole(admin, roleRepository.findByName("ROLE_ADMIN"));
-            UserRole userRoleUser = new UserRole(user, roleRepository.findByName("ROLE_USER"));
-
-            user.getRoles().add(userRoleUser);
-            admin.getRoles().add(userRoleAdmin);
-            userRepository.save(admin);
-            userRepository.save(user);
+            // Assign roles to users, unless they already have them
+            assignRoleIfMissing(admin, adminRole, roleService);
+            assignRoleIfMissing(user, userRole, roleService);
 
         };
     }
+
+    /**
+     * Gives the role to the user, saving the user and its effective permissions together (as {@code UserService} does).
+     */
+    private void assignRoleIfMissing(User user, Role role, RoleService roleService) {
+        if (user.getRoles().stream().noneMatch(userRole -> userRole.getRole().getId().equals(role.getId()))) {
+            user.getRoles().add(new UserRole(user, role));
+            transactionTemplate.executeWithoutResult(status -> {
+                roleService.lockRoleShared(role.getId());
+                userRepository.save(user);
+                effectivePermissionService.userRolesChanged(List.of(user.getId()));
+            });
+            eventPublisher.publishEvent(AuthoritiesChangedEvent.forUser(this, user.getUsername()));
+        }
+    }
 }
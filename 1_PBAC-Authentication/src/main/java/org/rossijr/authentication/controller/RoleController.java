@@ -0,0 +1,62 @@
+package org.rossijr.authentication.controller;
+
+import jakarta.validation.Valid;
+import org.rossijr.authentication.auth.AuthenticatedUser;
+import org.rossijr.authentication.dto.RolePermissionsDeltaDTO;
+import org.rossijr.authentication.dto.RolePermissionsRequestDTO;
+import org.rossijr.authentication.service.RoleService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
+import org.springframework.web.bind.annotation.*;
+
+@RestController
+@RequestMapping("/api/v1/role")
+public class RoleController {
+    private final RoleService roleService;
+
+    @Autowired
+    public RoleController(RoleService roleService) {
+        this.roleService = roleService;
+    }
+
+    /**
+     * Assigns a set of permissions to a role.
+     *
+     * <p>Restricted to users with the {@code MANAGE_ROLES} permission, checked against the database by the
+     * {@link org.rossijr.authentication.auth.PermissionChecker}, so a user whose permission was just revoked can not use
+     * a cached or stateless one. Permissions the role already has are ignored, so the request can be safely
+     * repeated.</p>
+     *
+     * @param roleId  the ID of the role
+     * @param request the IDs of the permissions to be assigned
+     * @param user    the authenticated user, recorded as the one who assigned the permissions
+     * @return the permissions that were actually added
+     */
+    @PreAuthorize("@permissionChecker.hasPermission(authentication, 'MANAGE_ROLES')")
+    @PostMapping("/{roleId}/permissions")
+    public ResponseEntity<RolePermissionsDeltaDTO> assignPermissions(@PathVariable Long roleId,
+                                                                     @Valid @RequestBody RolePermissionsRequestDTO request,
+                                                                     @AuthenticationPrincipal AuthenticatedUser user) {
+        return ResponseEntity.ok(roleService.assignPermissionsToRole(roleId, request.getPermissionIds(), user.getId()));
+    }
+
+    /**
+     * Revokes a set of permissions from a role.
+     *
+     * <p>Restricted to users with the {@code MANAGE_ROLES} permission, checked against the database like
+     * {@link #assignPermissions(Long, RolePermissionsRequestDTO, AuthenticatedUser)}. Permissions the role does not have
+     * are ignored.</p>
+     *
+     * @param roleId  the ID of the role
+     * @param request the IDs of the permissions to be revoked
+     * @return the permissions that were actually removed
+     */
+    @PreAuthorize("@permissionChecker.hasPermission(authentication, 'MANAGE_ROLES')")
+    @DeleteMapping("/{roleId}/permissions")
+    public ResponseEntity<RolePermissionsDeltaDTO> revokePermissions(@PathVariable Long roleId,
+                                                                     @Valid @RequestBody RolePermissionsRequestDTO request) {
+        return ResponseEntity.ok(roleService.revokePermissionsFromRole(roleId, request.getPermissionIds()));
+    }
+}
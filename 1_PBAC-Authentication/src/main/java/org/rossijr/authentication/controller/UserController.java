@@ -1,33 +1,52 @@
 package org.rossijr.authentication.controller;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.Valid;
 import jakarta.validation.constraints.NotBlank;
+import org.rossijr.authentication.auth.RequiresPermission;
+import org.rossijr.authentication.dto.BulkCreateUserResultDTO;
 import org.rossijr.authentication.dto.CreateUserRequestDTO;
 import org.rossijr.authentication.dto.CreateUserResponseDTO;
 import org.rossijr.authentication.dto.GetUserResponseDTO;
+import org.rossijr.authentication.service.UserImportService;
 import org.rossijr.authentication.service.UserService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
 import java.util.UUID;
 
 @RestController
 @RequestMapping("/api/v1/user")
 public class UserController {
+    private static final String TEXT_CSV_VALUE = "text/csv";
+
     private final UserService userService;
+    private final UserImportService userImportService;
+    private final ObjectMapper objectMapper;
 
     @Autowired
-    public UserController(UserService userService) {
+    public UserController(UserService userService, UserImportService userImportService, ObjectMapper objectMapper) {
         this.userService = userService;
+        this.userImportService = userImportService;
+        this.objectMapper = objectMapper;
     }
 
     /**
      * Creates a new user in the system.
      *
-     * <p>This method is secured using the {@code @PreAuthorize} annotation to restrict access to users
+     * <p>This method is secured using the {@link RequiresPermission} annotation to restrict access to users
      * with the {@code CREATE_USER} permission. Only authenticated users with this permission can perform
      * this operation.</p>
      *
@@ -36,36 +55,68 @@ public class UserController {
      * @return a {@link ResponseEntity} containing the details of the newly created user wrapped in a
      * {@link CreateUserResponseDTO} object, along with an HTTP status of {@code 201 CREATED}.
      */
-    @PreAuthorize("hasAuthority('CREATE_USER')")
+    @RequiresPermission("CREATE_USER")
     @PostMapping
     public ResponseEntity<CreateUserResponseDTO> createUser(@Valid @RequestBody CreateUserRequestDTO userRequestDTO) {
         CreateUserResponseDTO userResponseDTO = userService.createUser(userRequestDTO);
         return ResponseEntity.status(HttpStatus.CREATED).body(userResponseDTO);
     }
 
+    /**
+     * Creates users in bulk from an NDJSON ({@code application/x-ndjson}, one {@link CreateUserRequestDTO} per line) or
+     * CSV ({@code text/csv}, {@code email,password} per line) body.
+     *
+     * <p>Like {@link #createUser(CreateUserRequestDTO)}, it requires the {@code CREATE_USER} permission. The body is
+     * read as a stream and the result of each line is streamed back as newline-delimited JSON (one
+     * {@link BulkCreateUserResultDTO} per line, in the order of the body), so neither the file nor the results are
+     * fully held in memory. See {@link UserImportService} for the details.</p>
+     *
+     * @param request the request, whose body holds the users to be created
+     * @return the stream of results, one per line of the body
+     * @throws IOException if the body can not be opened
+     */
+    @RequiresPermission("CREATE_USER")
+    @PostMapping(value = "/bulk", consumes = {MediaType.APPLICATION_NDJSON_VALUE, TEXT_CSV_VALUE},
+            produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> createUsers(HttpServletRequest request) throws IOException {
+        MediaType contentType = MediaType.parseMediaType(request.getContentType());
+        UserImportService.Format format = MediaType.APPLICATION_NDJSON.isCompatibleWith(contentType)
+                ? UserImportService.Format.NDJSON : UserImportService.Format.CSV;
+        Charset charset = contentType.getCharset() == null ? StandardCharsets.UTF_8 : contentType.getCharset();
+        InputStream body = request.getInputStream();
+
+        StreamingResponseBody results = outputStream -> userImportService.importUsers(
+                new InputStreamReader(body, charset), format, result -> {
+                    try {
+                        outputStream.write(objectMapper.writeValueAsBytes(result));
+                        outputStream.write('\n');
+                        outputStream.flush();
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_NDJSON).body(results);
+    }
+
     /**
      * Retrieves user data based on the provided user ID.
      *
      * <p>This method is secured using the {@code @PreAuthorize} annotation to ensure that only the
-     * authenticated user can access their own data. The method checks whether the provided user ID
-     * matches the ID of the authenticated user - it is possible to create your own annotation to
-     * check this constraint (the user accessing only its own data) you can read more about it in the
-     * Spring Security documentation.</p>
+     * authenticated user can access their own data. The {@link org.rossijr.authentication.auth.OwnershipChecker} compares
+     * the provided user ID with the ID of the principal set by the JWT filter, so neither the token nor the database is
+     * touched again.</p>
      *
      * <p>The method uses a UUID-based ID for user identification. If the provided ID does not match
-     * the authenticated user's ID, the request will result in a {@code 403 Forbidden} response.</p>
+     * the authenticated user's ID (or is not a valid UUID), the request will result in a {@code 403 Forbidden} response.</p>
      *
-     * @param id    the UUID of the user whose data is being requested, provided as a path variable.
-     *              This value must be non-blank and valid.
-     * @param token the authentication token of the user making the request, provided as a header (it extracts
-     *              automatically from the request header).
+     * @param id the UUID of the user whose data is being requested, provided as a path variable.
+     *           This value must be non-blank and valid.
      * @return a {@link ResponseEntity} containing the user's data wrapped in a
      * {@link GetUserResponseDTO} object.
-     * @throws IllegalArgumentException if the provided {@code id} is not a valid UUID.
      */
-    @PreAuthorize("T(java.util.UUID).fromString(#id).equals(@securityUtils.getAuthenticatedUserId(#token))")
+    @PreAuthorize("@ownershipChecker.isAuthenticatedUser(authentication, #id)")
     @GetMapping("/{id}")
-    public ResponseEntity<GetUserResponseDTO> getUser(@RequestHeader("Authorization") String token, @Valid @NotBlank @PathVariable String id) {
+    public ResponseEntity<GetUserResponseDTO> getUser(@Valid @NotBlank @PathVariable String id) {
         return ResponseEntity.ok(userService.getUser(UUID.fromString(id)));
     }
 }
@@ -0,0 +1,56 @@
+package org.rossijr.authentication.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+import java.util.UUID;
+
+/**
+ * DTO for the result of a single row of the bulk create users endpoint.
+ *
+ * <p>The {@code line} is the line of the row in the imported file (starting at 1). For created users, their ID is
+ * returned; for rejected rows, the reason.</p>
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class BulkCreateUserResultDTO {
+    private final long line;
+    private final boolean created;
+    private final String email;
+    private final UUID id;
+    private final String error;
+
+    private BulkCreateUserResultDTO(long line, boolean created, String email, UUID id, String error) {
+        this.line = line;
+        this.created = created;
+        this.email = email;
+        this.id = id;
+        this.error = error;
+    }
+
+    public static BulkCreateUserResultDTO created(long line, String email, UUID id) {
+        return new BulkCreateUserResultDTO(line, true, email, id, null);
+    }
+
+    public static BulkCreateUserResultDTO rejected(long line, String email, String error) {
+        return new BulkCreateUserResultDTO(line, false, email, null, error);
+    }
+
+    public long getLine() {
+        return line;
+    }
+
+    public boolean isCreated() {
+        return created;
+    }
+
+    public String getEmail() {
+        return email;
+    }
+
+    public UUID getId() {
+        return id;
+    }
+
+    public String getError() {
+        return error;
+    }
+}
@@ -0,0 +1,40 @@
+package org.rossijr.authentication.dto;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+
+import java.util.Set;
+
+/**
+ * DTO for the response of the assign and revoke role permissions endpoints.
+ *
+ * <p>It only contains what actually changed: permissions that were already assigned (or already missing) are not
+ * listed.</p>
+ */
+public class RolePermissionsDeltaDTO {
+    private final Long roleId;
+    private final Set<Long> added;
+    private final Set<Long> removed;
+
+    public RolePermissionsDeltaDTO(Long roleId, Set<Long> added, Set<Long> removed) {
+        this.roleId = roleId;
+        this.added = added;
+        this.removed = removed;
+    }
+
+    public Long getRoleId() {
+        return roleId;
+    }
+
+    public Set<Long> getAdded() {
+        return added;
+    }
+
+    public Set<Long> getRemoved() {
+        return removed;
+    }
+
+    @JsonIgnore
+    public boolean isEmpty() {
+        return added.isEmpty() && removed.isEmpty();
+    }
+}
@@ -0,0 +1,25 @@
+package org.rossijr.authentication.dto;
+
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+
+import java.util.Set;
+
+/**
+ * DTO for the request of the assign and revoke role permissions endpoints.
+ */
+public class RolePermissionsRequestDTO {
+    @NotEmpty(message = "At least one permission ID is required")
+    private Set<@NotNull Long> permissionIds;
+
+    public RolePermissionsRequestDTO() {
+    }
+
+    public Set<Long> getPermissionIds() {
+        return permissionIds;
+    }
+
+    public void setPermissionIds(Set<Long> permissionIds) {
+        this.permissionIds = permissionIds;
+    }
+}
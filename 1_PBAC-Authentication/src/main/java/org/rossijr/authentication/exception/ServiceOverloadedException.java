@@ -0,0 +1,25 @@
+package org.rossijr.authentication.exception;
+
+import org.springframework.http.HttpStatus;
+
+/**
+ * Exception thrown when a request is rejected because the service is overloaded, and the client should try again after
+ * the given number of seconds (sent in the {@code Retry-After} header).
+ */
+public class ServiceOverloadedException extends ApplicationWebGeneralException {
+    private final long retryAfterSeconds;
+
+    public ServiceOverloadedException(String message, long retryAfterSeconds) {
+        super(message, HttpStatus.SERVICE_UNAVAILABLE);
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+
+    protected ServiceOverloadedException(String message, HttpStatus status, long retryAfterSeconds) {
+        super(message, status);
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+
+    public long getRetryAfterSeconds() {
+        return retryAfterSeconds;
+    }
+}
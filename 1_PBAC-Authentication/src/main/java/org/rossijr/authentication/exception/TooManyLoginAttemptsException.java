@@ -0,0 +1,14 @@
+package org.rossijr.authentication.exception;
+
+import org.springframework.http.HttpStatus;
+
+/**
+ * Exception thrown when a login attempt is rejected by the login rate limit (of the client or of the target email),
+ * answered with {@code 429 Too Many Requests} and a {@code Retry-After} header.
+ */
+public class TooManyLoginAttemptsException extends ServiceOverloadedException {
+
+    public TooManyLoginAttemptsException(String message, long retryAfterSeconds) {
+        super(message, HttpStatus.TOO_MANY_REQUESTS, retryAfterSeconds);
+    }
+}
@@ -0,0 +1,74 @@
+package org.rossijr.authentication.model;
+
+import jakarta.persistence.*;
+import org.rossijr.authentication.audit.AuditEventType;
+
+import java.time.ZonedDateTime;
+
+/**
+ * Represents an entry of the audit trail of the authentication events (logins and token validations).
+ *
+ * <p>This entity maps to the <b>tb_audit_event</b> table, an append-only table written when
+ * {@code audit.jdbc.enabled} is set. It is never written through JPA: the
+ * {@link org.rossijr.authentication.audit.JdbcAuditSink} inserts the events in JDBC batches, from the consumer thread
+ * of the {@link org.rossijr.authentication.audit.AuditLog}.</p>
+ *
+ * <h3>Database Mapping:</h3>
+ * <ul>
+ *   <li><b>Table Name:</b> tb_audit_event</li>
+ *   <li><b>Primary Key:</b> id (auto-generated)</li>
+ *   <li><b>Index:</b> (subject, occurred_at), to list the events of a user</li>
+ * </ul>
+ */
+@Entity
+@Table(name = "tb_audit_event",
+        indexes = @Index(name = "idx_audit_event_subject", columnList = "subject, occurred_at"))
+public class AuditLogEntry {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "occurred_at", nullable = false, columnDefinition = "TIMESTAMP WITH TIME ZONE")
+    private ZonedDateTime occurredAt;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "type", nullable = false, length = 32)
+    private AuditEventType type;
+
+    @Column(name = "subject", columnDefinition = "TEXT")
+    private String subject;
+
+    @Column(name = "client_address", length = 64)
+    private String clientAddress;
+
+    @Column(name = "detail", columnDefinition = "TEXT")
+    private String detail;
+
+    public AuditLogEntry() {
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public ZonedDateTime getOccurredAt() {
+        return occurredAt;
+    }
+
+    public AuditEventType getType() {
+        return type;
+    }
+
+    public String getSubject() {
+        return subject;
+    }
+
+    public String getClientAddress() {
+        return clientAddress;
+    }
+
+    public String getDetail() {
+        return detail;
+    }
+}
@@ -1,6 +1,8 @@
 package org.rossijr.authentication.model;
 
 import jakarta.persistence.*;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 import org.springframework.security.core.GrantedAuthority;
 
 import java.io.Serializable;
@@ -26,6 +28,8 @@ import java.io.Serializable;
  */
 @Entity
 @Table(name = "tb_permission")
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "permission")
 public class Permission implements Serializable, GrantedAuthority {
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
@@ -2,6 +2,8 @@ package org.rossijr.authentication.model;
 
 import com.fasterxml.jackson.annotation.JsonIgnore;
 import jakarta.persistence.*;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 
 import java.time.ZonedDateTime;
 import java.util.HashSet;
@@ -37,12 +39,18 @@ import java.util.Set;
  *   </li>
  * </ul>
  *
+ * <p>Roles and their permissions are read-mostly reference data, so they are kept in the Hibernate second-level
+ * cache (region {@code role} and {@code role.permissions}, see {@code ehcache.xml}). Writes made through Hibernate
+ * update or evict the cached entries.</p>
+ *
  * @see UserRole
  * @see Permission
  * @see RolePermission
  */
 @Entity
 @Table(name = "tb_role")
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "role")
 public class Role {
 
     @Id
@@ -68,12 +76,13 @@ public class Role {
     private ZonedDateTime updatedAt;
 
     @JsonIgnore
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "created_by", nullable = false)
     private User createdBy;
 
     @JsonIgnore
     @OneToMany(mappedBy = "role", cascade = CascadeType.ALL, fetch = FetchType.EAGER, orphanRemoval = true)
+    @Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "role.permissions")
     private Set<RolePermission> permissions = new HashSet<>();
 
     public Role(String name) {
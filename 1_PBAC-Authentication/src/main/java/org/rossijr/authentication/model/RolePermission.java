@@ -1,6 +1,8 @@
 package org.rossijr.authentication.model;
 
 import jakarta.persistence.*;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 
 import java.time.ZonedDateTime;
 
@@ -15,6 +17,7 @@ import java.time.ZonedDateTime;
  * <ul>
  *   <li><b>Table Name:</b> tb_mm_role_permission</li>
  *   <li><b>Primary Key:</b> id (auto-generated)</li>
+ *   <li><b>Unique Constraint:</b> (role_id, permission_id), a permission is assigned to a role at most once</li>
  *   <li><b>Foreign Keys:</b>
  *     <ul>
  *       <li>role_id: References the {@link Role} entity</li>
@@ -25,11 +28,17 @@ import java.time.ZonedDateTime;
  *   </li>
  * </ul>
  *
+ * <p>Like {@link Role} and {@link Permission}, it is kept in the Hibernate second-level cache (region
+ * {@code role.permission}).</p>
+ *
  * @see Role
  * @see Permission
  */
 @Entity
-@Table(name = "tb_mm_role_permission")
+@Table(name = "tb_mm_role_permission", uniqueConstraints = @UniqueConstraint(name = "uk_role_permission",
+        columnNames = {"role_id", "permission_id"}))
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "role.permission")
 public class RolePermission {
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
@@ -43,7 +52,7 @@ public class RolePermission {
     @JoinColumn(name = "permission_id", nullable = false)
     private Permission permission;
 
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "assigned_by", nullable = false)
     private User assignedBy;
 
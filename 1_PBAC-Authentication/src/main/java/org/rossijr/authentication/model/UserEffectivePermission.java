@@ -0,0 +1,42 @@
+package org.rossijr.authentication.model;
+
+import jakarta.persistence.*;
+
+/**
+ * Represents a permission that a user holds through any of its roles (the "effective" permissions of the user).
+ *
+ * <p>This entity maps to the <b>tb_user_effective_permission</b> table, a materialization of the
+ * User → UserRole → Role → RolePermission → Permission graph with one row per (user, permission) pair. It is never
+ * written through JPA: the {@link org.rossijr.authentication.service.EffectivePermissionService} keeps it up to date
+ * with set-based statements whenever a {@link UserRole} or a {@link RolePermission} changes, so checking a permission
+ * is a single primary key probe regardless of the number of roles and permissions.</p>
+ *
+ * <h3>Database Mapping:</h3>
+ * <ul>
+ *   <li><b>Table Name:</b> tb_user_effective_permission</li>
+ *   <li><b>Primary Key:</b> (user_id, permission_id)</li>
+ *   <li><b>Index:</b> permission_id, used when a permission is revoked from a role or deleted</li>
+ * </ul>
+ *
+ * @see UserRole
+ * @see RolePermission
+ */
+@Entity
+@Table(name = "tb_user_effective_permission",
+        indexes = @Index(name = "idx_user_effective_permission_permission", columnList = "permission_id"))
+public class UserEffectivePermission {
+
+    @EmbeddedId
+    private UserEffectivePermissionId id;
+
+    public UserEffectivePermission() {
+    }
+
+    public UserEffectivePermission(UserEffectivePermissionId id) {
+        this.id = id;
+    }
+
+    public UserEffectivePermissionId getId() {
+        return id;
+    }
+}
@@ -0,0 +1,53 @@
+package org.rossijr.authentication.model;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Embeddable;
+
+import java.io.Serializable;
+import java.util.Objects;
+import java.util.UUID;
+
+/**
+ * Composite primary key of {@link UserEffectivePermission}: the user and one of the permissions it holds.
+ */
+@Embeddable
+public class UserEffectivePermissionId implements Serializable {
+
+    @Column(name = "user_id", nullable = false)
+    private UUID userId;
+
+    @Column(name = "permission_id", nullable = false)
+    private Long permissionId;
+
+    public UserEffectivePermissionId() {
+    }
+
+    public UserEffectivePermissionId(UUID userId, Long permissionId) {
+        this.userId = userId;
+        this.permissionId = permissionId;
+    }
+
+    public UUID getUserId() {
+        return userId;
+    }
+
+    public Long getPermissionId() {
+        return permissionId;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof UserEffectivePermissionId that)) {
+            return false;
+        }
+        return Objects.equals(userId, that.userId) && Objects.equals(permissionId, that.permissionId);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(userId, permissionId);
+    }
+}
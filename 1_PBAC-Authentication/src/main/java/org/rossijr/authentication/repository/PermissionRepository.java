@@ -1,13 +1,35 @@
 package org.rossijr.authentication.repository;
 
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.rossijr.authentication.model.Permission;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
+import java.util.Set;
+
 /**
  * Repository for Permission entity
+ *
+ * <p>The results of {@link #findByName(String)} are kept in the query cache (region {@code reference.queries}).</p>
  */
 @Repository
 public interface PermissionRepository extends JpaRepository<Permission, Long> {
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"),
+            @QueryHint(name = HibernateHints.HINT_CACHE_REGION, value = "reference.queries")
+    })
     Permission findByName(String name);
+
+    /**
+     * Returns which of the given permission IDs exist, in a single statement.
+     *
+     * @param ids the IDs to be checked
+     * @return the subset of the IDs that belong to existing permissions
+     */
+    @Query("SELECT p.id FROM Permission p WHERE p.id IN :ids")
+    Set<Long> findExistingIds(Collection<Long> ids);
 }
@@ -1,12 +1,71 @@
 package org.rossijr.authentication.repository;
 
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.rossijr.authentication.model.RolePermission;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.Set;
+import java.util.UUID;
 
 /**
  * Repository for RolePermission entity
+ *
+ * <p>The bulk statements declare {@code tb_mm_role_permission} as their query space, so Hibernate only evicts the
+ * second-level cache regions backed by that table ({@code role.permission} and {@code role.permissions}) after they
+ * run, instead of the whole cache.</p>
  */
 @Repository
 public interface RolePermissionRepository extends JpaRepository<RolePermission, Long> {
+
+    /**
+     * Returns which of the given permissions are already assigned to the role.
+     *
+     * @param roleId        the ID of the role
+     * @param permissionIds the IDs of the permissions to be checked
+     * @return the subset of the permission IDs assigned to the role
+     */
+    @Query(value = "SELECT rp.permission_id FROM tb_mm_role_permission rp " +
+            "WHERE rp.role_id = :roleId AND rp.permission_id IN (:permissionIds)", nativeQuery = true)
+    Set<Long> findAssignedPermissionIds(Long roleId, Collection<Long> permissionIds);
+
+    /**
+     * Assigns the given permissions to the role with a single statement, skipping the ones it already has.
+     *
+     * @param roleId        the ID of the role
+     * @param permissionIds the IDs of the permissions to be assigned
+     * @param assignedBy    the ID of the user assigning the permissions
+     * @param assignedAt    the date of the assignment
+     * @return the number of assigned permissions
+     */
+    @Transactional
+    @Modifying
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "tb_mm_role_permission"))
+    @Query(value = "INSERT INTO tb_mm_role_permission (role_id, permission_id, assigned_by, assigned_at) " +
+            "SELECT :roleId, p.id, :assignedBy, :assignedAt FROM tb_permission p " +
+            "WHERE p.id IN (:permissionIds) AND NOT EXISTS (" +
+            "SELECT 1 FROM tb_mm_role_permission rp WHERE rp.role_id = :roleId AND rp.permission_id = p.id)",
+            nativeQuery = true)
+    int insertMissing(Long roleId, Collection<Long> permissionIds, UUID assignedBy, LocalDateTime assignedAt);
+
+    /**
+     * Revokes the given permissions from the role with a single statement.
+     *
+     * @param roleId        the ID of the role
+     * @param permissionIds the IDs of the permissions to be revoked
+     * @return the number of revoked permissions
+     */
+    @Transactional
+    @Modifying
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "tb_mm_role_permission"))
+    @Query(value = "DELETE FROM tb_mm_role_permission WHERE role_id = :roleId AND permission_id IN (:permissionIds)",
+            nativeQuery = true)
+    int deleteByRoleIdAndPermissionIds(Long roleId, Collection<Long> permissionIds);
 }
@@ -1,15 +1,50 @@
 package org.rossijr.authentication.repository;
 
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.rossijr.authentication.model.Role;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.stereotype.Repository;
 
 /**
  * Repository for Role entity
+ *
+ * <p>The results of {@link #findByName(String)} are kept in the query cache (region {@code reference.queries}), which
+ * Hibernate invalidates whenever the {@code tb_role} table is written through it.</p>
  */
 @Repository
 public interface RoleRepository extends JpaRepository<Role, Long> {
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"),
+            @QueryHint(name = HibernateHints.HINT_CACHE_REGION, value = "reference.queries")
+    })
     Role findByName(String name);
 
     boolean existsByName(String name);
+
+    /**
+     * Locks the row of the role exclusively until the end of the current transaction, so concurrent changes to its
+     * permissions are applied one after the other, and after the users being given the role meanwhile.
+     *
+     * @param id the ID of the role
+     * @return the ID of the role, or {@code null} if it does not exist
+     */
+    @Query(value = "SELECT id FROM tb_role WHERE id = :id FOR UPDATE", nativeQuery = true)
+    Long lockById(Long id);
+
+    /**
+     * Locks the row of the role in shared mode ({@code FOR SHARE} on PostgreSQL) until the end of the current
+     * transaction. Users can be given the role concurrently, but not while its permissions are being changed (see
+     * {@link #lockById(Long)}).
+     *
+     * @param id the ID of the role
+     * @return the ID of the role, or {@code null} if it does not exist
+     */
+    @Lock(LockModeType.PESSIMISTIC_READ)
+    @Query("SELECT r.id FROM Role r WHERE r.id = :id")
+    Long lockSharedById(Long id);
 }
@@ -0,0 +1,164 @@
+package org.rossijr.authentication.repository;
+
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.rossijr.authentication.model.UserEffectivePermission;
+import org.rossijr.authentication.model.UserEffectivePermissionId;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Repository for UserEffectivePermission entity
+ *
+ * <p>Every statement derives the rows from the association tables ({@code tb_mm_user_role} and
+ * {@code tb_mm_role_permission}), so running one of them again is harmless: rows that already exist are not inserted
+ * and rows that are still granted by another role are not deleted.</p>
+ */
+@Repository
+public interface UserEffectivePermissionRepository extends JpaRepository<UserEffectivePermission, UserEffectivePermissionId> {
+
+    /**
+     * Checks if the user holds the permission, with a probe on the primary key of the table (and on the unique name of
+     * the permission).
+     *
+     * @param userId         the ID of the user
+     * @param permissionName the name of the permission
+     * @return {@code true} if any role of the user grants the permission
+     */
+    @Query("SELECT CASE WHEN COUNT(e) > 0 THEN true ELSE false END " +
+            "FROM UserEffectivePermission e JOIN Permission p ON p.id = e.id.permissionId " +
+            "WHERE e.id.userId = :userId AND p.name = :permissionName")
+    boolean existsByUserIdAndPermissionName(UUID userId, String permissionName);
+
+    /**
+     * Locks the rows of the given users until the end of the current transaction, in the order of their IDs (so two
+     * transactions locking overlapping sets of users can not deadlock).
+     *
+     * @param userIds the IDs of the users
+     * @return the IDs of the locked users
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT u.id FROM User u WHERE u.id IN :userIds ORDER BY u.id")
+    List<UUID> lockUsers(Collection<UUID> userIds);
+
+    /**
+     * Locks the rows of the users holding the role until the end of the current transaction, in the order of their IDs
+     * (see {@link #lockUsers(Collection)}).
+     *
+     * @param roleId the ID of the role
+     * @return the IDs of the locked users
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT u.id FROM User u " +
+            "WHERE u.id IN (SELECT ur.user.id FROM UserRole ur WHERE ur.role.id = :roleId) " +
+            "ORDER BY u.id")
+    List<UUID> lockUsersOfRole(Long roleId);
+
+    /**
+     * Adds the missing permissions of the given users, granted by any of their roles.
+     *
+     * @param userIds the IDs of the users whose roles changed
+     * @return the number of added rows
+     */
+    @Transactional
+    @Modifying
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "tb_user_effective_permission"))
+    @Query(value = "INSERT INTO tb_user_effective_permission (user_id, permission_id) " +
+            "SELECT DISTINCT ur.user_id, rp.permission_id FROM tb_mm_user_role ur " +
+            "JOIN tb_mm_role_permission rp ON rp.role_id = ur.role_id " +
+            "WHERE ur.user_id IN (:userIds) AND NOT EXISTS (" +
+            "SELECT 1 FROM tb_user_effective_permission e WHERE e.user_id = ur.user_id AND e.permission_id = rp.permission_id)",
+            nativeQuery = true)
+    int insertMissingForUsers(Collection<UUID> userIds);
+
+    /**
+     * Removes the permissions of the given users that none of their roles grants anymore.
+     *
+     * @param userIds the IDs of the users whose roles changed
+     * @return the number of removed rows
+     */
+    @Transactional
+    @Modifying
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "tb_user_effective_permission"))
+    @Query(value = "DELETE FROM tb_user_effective_permission e " +
+            "WHERE e.user_id IN (:userIds) AND NOT EXISTS (" +
+            "SELECT 1 FROM tb_mm_user_role ur JOIN tb_mm_role_permission rp ON rp.role_id = ur.role_id " +
+            "WHERE ur.user_id = e.user_id AND rp.permission_id = e.permission_id)",
+            nativeQuery = true)
+    int deleteStaleForUsers(Collection<UUID> userIds);
+
+    /**
+     * Adds the given permissions to every user holding the role.
+     *
+     * @param roleId        the ID of the role that received the permissions
+     * @param permissionIds the IDs of the permissions
+     * @return the number of added rows
+     */
+    @Transactional
+    @Modifying
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "tb_user_effective_permission"))
+    @Query(value = "INSERT INTO tb_user_effective_permission (user_id, permission_id) " +
+            "SELECT DISTINCT ur.user_id, rp.permission_id FROM tb_mm_user_role ur " +
+            "JOIN tb_mm_role_permission rp ON rp.role_id = ur.role_id " +
+            "WHERE ur.role_id = :roleId AND rp.permission_id IN (:permissionIds) AND NOT EXISTS (" +
+            "SELECT 1 FROM tb_user_effective_permission e WHERE e.user_id = ur.user_id AND e.permission_id = rp.permission_id)",
+            nativeQuery = true)
+    int insertMissingForRole(Long roleId, Collection<Long> permissionIds);
+
+    /**
+     * Removes the given permissions from the users holding the role, unless another of their roles still grants them.
+     *
+     * @param roleId        the ID of the role that lost the permissions
+     * @param permissionIds the IDs of the permissions
+     * @return the number of removed rows
+     */
+    @Transactional
+    @Modifying
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "tb_user_effective_permission"))
+    @Query(value = "DELETE FROM tb_user_effective_permission e " +
+            "WHERE e.permission_id IN (:permissionIds) " +
+            "AND e.user_id IN (SELECT ur.user_id FROM tb_mm_user_role ur WHERE ur.role_id = :roleId) " +
+            "AND NOT EXISTS (" +
+            "SELECT 1 FROM tb_mm_user_role ur JOIN tb_mm_role_permission rp ON rp.role_id = ur.role_id " +
+            "WHERE ur.user_id = e.user_id AND rp.permission_id = e.permission_id)",
+            nativeQuery = true)
+    int deleteStaleForRole(Long roleId, Collection<Long> permissionIds);
+
+    /**
+     * Removes every row of the permission (before the permission itself is deleted).
+     *
+     * @param permissionId the ID of the permission
+     * @return the number of removed rows
+     */
+    @Transactional
+    @Modifying
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "tb_user_effective_permission"))
+    @Query(value = "DELETE FROM tb_user_effective_permission WHERE permission_id = :permissionId", nativeQuery = true)
+    int deleteByPermissionId(Long permissionId);
+
+    /**
+     * Adds every missing row, for every user (used to build the table from existing data).
+     *
+     * @return the number of added rows
+     */
+    @Transactional
+    @Modifying
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "tb_user_effective_permission"))
+    @Query(value = "INSERT INTO tb_user_effective_permission (user_id, permission_id) " +
+            "SELECT DISTINCT ur.user_id, rp.permission_id FROM tb_mm_user_role ur " +
+            "JOIN tb_mm_role_permission rp ON rp.role_id = ur.role_id " +
+            "WHERE NOT EXISTS (" +
+            "SELECT 1 FROM tb_user_effective_permission e WHERE e.user_id = ur.user_id AND e.permission_id = rp.permission_id)",
+            nativeQuery = true)
+    int insertAllMissing();
+}
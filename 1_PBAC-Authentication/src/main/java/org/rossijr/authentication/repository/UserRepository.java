@@ -1,12 +1,16 @@
 package org.rossijr.authentication.repository;
 
 import org.rossijr.authentication.model.User;
+import org.rossijr.authentication.repository.projection.UserAuthorities;
+import org.rossijr.authentication.repository.projection.UserAuthorityRow;
 import org.springframework.data.jpa.repository.JpaRepository;
-import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
 import java.util.UUID;
 
 /**
@@ -18,8 +22,44 @@ public interface UserRepository extends JpaRepository<User, UUID> {
 
     boolean existsByEmail(String email);
 
-    @Transactional
-    @Modifying
-    @Query(value = "UPDATE tb_user SET last_login = now() WHERE email = :email", nativeQuery = true)
-    void updateLastLogin(String email);
+    /**
+     * Returns which of the given emails are already in use, in a single statement.
+     *
+     * @param emails the emails to be checked
+     * @return the subset of the emails that belong to existing users
+     */
+    @Query("SELECT u.email FROM User u WHERE u.email IN :emails")
+    Set<String> findExistingEmails(Collection<String> emails);
+
+    /**
+     * Fetches the credentials and the permission names of a user in a single statement, one row per permission.
+     *
+     * <p>It joins the user directly to its permissions through the materialized effective permissions
+     * ({@code tb_user_effective_permission}, see {@link org.rossijr.authentication.model.UserEffectivePermission}), so
+     * neither the roles of the user nor the permissions of each role are traversed, and none of the eager associations
+     * of {@link User} are loaded.</p>
+     *
+     * <p>It runs in a read-only transaction, so it is served by a read replica when they are configured (see
+     * {@link org.rossijr.authentication.config.ReplicaDataSourceConfig}).</p>
+     *
+     * @param email the email of the user
+     * @return the rows of the user, empty if the user does not exist
+     */
+    @Transactional(readOnly = true)
+    @Query("SELECT u.id AS id, u.email AS email, u.password AS password, p.name AS permission " +
+            "FROM User u " +
+            "LEFT JOIN UserEffectivePermission e ON e.id.userId = u.id " +
+            "LEFT JOIN Permission p ON p.id = e.id.permissionId " +
+            "WHERE u.email = :email")
+    List<UserAuthorityRow> findAuthorityRowsByEmail(String email);
+
+    /**
+     * Fetches the credentials and the permission names of a user (see {@link #findAuthorityRowsByEmail(String)}).
+     *
+     * @param email the email of the user
+     * @return the authorities of the user, or {@code null} if the user does not exist
+     */
+    default UserAuthorities findAuthoritiesByEmail(String email) {
+        return UserAuthorities.fromRows(findAuthorityRowsByEmail(email));
+    }
 }
\ No newline at end of file
@@ -0,0 +1,63 @@
+package org.rossijr.authentication.repository.projection;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+/**
+ * Lightweight view of a user with just what is needed to authenticate them: ID, email, password hash and the names of
+ * the permissions granted through their roles.
+ *
+ * <p>It is built from the {@link UserAuthorityRow} rows of a single query, instead of loading the {@code User} entity
+ * and walking its (eager) User → Role → Permission graph.</p>
+ */
+public final class UserAuthorities {
+    private final UUID id;
+    private final String email;
+    private final String password;
+    private final Set<String> permissions;
+
+    public UserAuthorities(UUID id, String email, String password, Set<String> permissions) {
+        this.id = id;
+        this.email = email;
+        this.password = password;
+        this.permissions = Collections.unmodifiableSet(permissions);
+    }
+
+    /**
+     * Folds the rows returned for a single user into one object.
+     *
+     * @param rows the rows of the user (all of them share the same ID, email and password)
+     * @return the authorities of the user, or {@code null} if there is no row (user not found)
+     */
+    public static UserAuthorities fromRows(List<UserAuthorityRow> rows) {
+        if (rows.isEmpty()) {
+            return null;
+        }
+        UserAuthorityRow first = rows.get(0);
+        Set<String> permissions = rows.stream()
+                .map(UserAuthorityRow::getPermission)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toSet());
+        return new UserAuthorities(first.getId(), first.getEmail(), first.getPassword(), permissions);
+    }
+
+    public UUID getId() {
+        return id;
+    }
+
+    public String getEmail() {
+        return email;
+    }
+
+    public String getPassword() {
+        return password;
+    }
+
+    public Set<String> getPermissions() {
+        return permissions;
+    }
+}
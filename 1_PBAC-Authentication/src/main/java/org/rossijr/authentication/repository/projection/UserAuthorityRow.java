@@ -0,0 +1,19 @@
+package org.rossijr.authentication.repository.projection;
+
+import java.util.UUID;
+
+/**
+ * Projection of a single row returned by {@code UserRepository.findAuthorityRowsByEmail}.
+ *
+ * <p>Each row holds the credentials of the user and one of the permissions granted to them (or {@code null} if the user
+ * has no permission at all), so a user with N permissions is returned as N rows.</p>
+ */
+public interface UserAuthorityRow {
+    UUID getId();
+
+    String getEmail();
+
+    String getPassword();
+
+    String getPermission();
+}
@@ -0,0 +1,127 @@
+package org.rossijr.authentication.service;
+
+import org.rossijr.authentication.repository.UserEffectivePermissionRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Collection;
+import java.util.UUID;
+
+/**
+ * Service for the effective permissions of the users (see {@link org.rossijr.authentication.model.UserEffectivePermission}).
+ *
+ * <p>The table is maintained incrementally: every change to the roles of a user or to the permissions of a role must
+ * call the matching method of this service in the same transaction, so only the affected rows are touched.</p>
+ *
+ * <h3>Consistency:</h3>
+ * <ul>
+ *   <li>Writers of {@code tb_mm_role_permission} lock the row of the role involved exclusively first (see
+ *   {@link org.rossijr.authentication.repository.RoleRepository#lockById(Long)}), and writers of {@code tb_mm_user_role}
+ *   in shared mode (see {@link org.rossijr.authentication.repository.RoleRepository#lockSharedById(Long)}), so a user
+ *   receiving a role can not miss a permission assigned to that role at the same time, while users can still be given
+ *   the same role concurrently.</li>
+ *   <li>Before touching the table, every change locks the rows of the affected users in {@code tb_user} (in the order
+ *   of their IDs). The rows of a user depend on all of its roles, so two changes to different roles held by the same
+ *   user are serialized there: otherwise, as neither sees the uncommitted association rows of the other, one could
+ *   remove a permission the user still holds through the other role, or keep one it no longer holds. As each statement
+ *   of a {@code READ COMMITTED} transaction sees the data committed before it started, the second change, once it gets
+ *   the locks, derives the rows from the changes of the first one.</li>
+ *   <li>If the table is empty at startup while roles are assigned (e.g. an existing database), it is built from
+ *   scratch.</li>
+ * </ul>
+ */
+@Service
+public class EffectivePermissionService {
+    private final Logger logger = LoggerFactory.getLogger(EffectivePermissionService.class);
+
+    private final UserEffectivePermissionRepository effectivePermissionRepository;
+
+    @Autowired
+    public EffectivePermissionService(UserEffectivePermissionRepository effectivePermissionRepository) {
+        this.effectivePermissionRepository = effectivePermissionRepository;
+    }
+
+    /**
+     * Checks if the user holds the permission through any of its roles, as currently stored (see
+     * {@link org.rossijr.authentication.auth.PermissionChecker}).
+     *
+     * @param userId         the ID of the user
+     * @param permissionName the name of the permission
+     * @return {@code true} if the user holds the permission
+     */
+    public boolean hasPermission(UUID userId, String permissionName) {
+        if (userId == null || permissionName == null || permissionName.trim().isEmpty()) {
+            throw new IllegalArgumentException("User ID and permission name are required");
+        }
+        return effectivePermissionRepository.existsByUserIdAndPermissionName(userId, permissionName);
+    }
+
+    /**
+     * Updates the permissions of users whose roles changed.
+     *
+     * @param userIds the IDs of the users
+     */
+    @Transactional
+    public void userRolesChanged(Collection<UUID> userIds) {
+        if (userIds.isEmpty()) {
+            return;
+        }
+        effectivePermissionRepository.lockUsers(userIds);
+        effectivePermissionRepository.deleteStaleForUsers(userIds);
+        effectivePermissionRepository.insertMissingForUsers(userIds);
+    }
+
+    /**
+     * Adds permissions assigned to a role to the users holding it.
+     *
+     * @param roleId        the ID of the role
+     * @param permissionIds the IDs of the assigned permissions
+     */
+    @Transactional
+    public void rolePermissionsAssigned(Long roleId, Collection<Long> permissionIds) {
+        if (!permissionIds.isEmpty()) {
+            effectivePermissionRepository.lockUsersOfRole(roleId);
+            effectivePermissionRepository.insertMissingForRole(roleId, permissionIds);
+        }
+    }
+
+    /**
+     * Removes permissions revoked from a role from the users holding it, unless another role still grants them.
+     *
+     * @param roleId        the ID of the role
+     * @param permissionIds the IDs of the revoked permissions
+     */
+    @Transactional
+    public void rolePermissionsRevoked(Long roleId, Collection<Long> permissionIds) {
+        if (!permissionIds.isEmpty()) {
+            effectivePermissionRepository.lockUsersOfRole(roleId);
+            effectivePermissionRepository.deleteStaleForRole(roleId, permissionIds);
+        }
+    }
+
+    /**
+     * Removes a permission from every user, before it is deleted.
+     *
+     * @param permissionId the ID of the permission
+     */
+    @Transactional
+    public void permissionDeleted(Long permissionId) {
+        effectivePermissionRepository.deleteByPermissionId(permissionId);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional
+    public void buildIfEmpty() {
+        if (effectivePermissionRepository.count() == 0) {
+            int rows = effectivePermissionRepository.insertAllMissing();
+            if (rows > 0) {
+                logger.info("Built the effective permissions table with {} rows", rows);
+            }
+        }
+    }
+}
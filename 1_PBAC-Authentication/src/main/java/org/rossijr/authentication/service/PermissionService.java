@@ -1,10 +1,16 @@
 package org.rossijr.authentication.service;
 
+import org.rossijr.authentication.auth.AuthoritiesChangedEvent;
 import org.rossijr.authentication.exception.ObjectNotFoundException;
 import org.rossijr.authentication.model.Permission;
 import org.rossijr.authentication.repository.PermissionRepository;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Collection;
+import java.util.Set;
 
 /**
  * Service for Permission entity
@@ -17,10 +23,15 @@ import org.springframework.stereotype.Service;
 public class PermissionService {
 
     private final PermissionRepository permissionRepository;
+    private final EffectivePermissionService effectivePermissionService;
+    private final ApplicationEventPublisher eventPublisher;
 
     @Autowired
-    public PermissionService(PermissionRepository permissionRepository) {
+    public PermissionService(PermissionRepository permissionRepository, EffectivePermissionService effectivePermissionService,
+                             ApplicationEventPublisher eventPublisher) {
         this.permissionRepository = permissionRepository;
+        this.effectivePermissionService = effectivePermissionService;
+        this.eventPublisher = eventPublisher;
     }
 
 
@@ -35,12 +46,21 @@ public class PermissionService {
 //                .orElseThrow(() -> new ObjectNotFoundException("Permission not found"));
     }
 
+    public Set<Long> findExistingIds(Collection<Long> permissionIds) {
+        return permissionRepository.findExistingIds(permissionIds);
+    }
+
     public Permission save(Permission permission) {
-        return permissionRepository.save(permission);
+        Permission savedPermission = permissionRepository.save(permission);
+        eventPublisher.publishEvent(AuthoritiesChangedEvent.forAllUsers(this));
+        return savedPermission;
     }
 
+    @Transactional
     public void deletePermission(Long permissionId) {
+        effectivePermissionService.permissionDeleted(permissionId);
         permissionRepository.deleteById(permissionId);
+        eventPublisher.publishEvent(AuthoritiesChangedEvent.forAllUsers(this));
     }
 }
 
@@ -5,6 +5,11 @@ import org.rossijr.authentication.repository.RolePermissionRepository;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.Set;
+import java.util.UUID;
+
 /**
  * Service for RolePermission entity
  *
@@ -25,4 +30,16 @@ public class RolePermissionService {
         return rolePermissionRepository.save(rolePermission);
     }
 
+    public Set<Long> findAssignedPermissionIds(Long roleId, Collection<Long> permissionIds) {
+        return rolePermissionRepository.findAssignedPermissionIds(roleId, permissionIds);
+    }
+
+    public int assign(Long roleId, Collection<Long> permissionIds, UUID assignedBy) {
+        return rolePermissionRepository.insertMissing(roleId, permissionIds, assignedBy, LocalDateTime.now());
+    }
+
+    public int revoke(Long roleId, Collection<Long> permissionIds) {
+        return rolePermissionRepository.deleteByRoleIdAndPermissionIds(roleId, permissionIds);
+    }
+
 }
\ No newline at end of file
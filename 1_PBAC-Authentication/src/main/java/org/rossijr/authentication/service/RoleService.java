@@ -1,14 +1,19 @@
 package org.rossijr.authentication.service;
 
-import org.rossijr.authentication.model.Permission;
+import org.rossijr.authentication.auth.AuthoritiesChangedEvent;
+import org.rossijr.authentication.dto.RolePermissionsDeltaDTO;
+import org.rossijr.authentication.exception.ObjectNotFoundException;
 import org.rossijr.authentication.model.Role;
-import org.rossijr.authentication.model.RolePermission;
-import org.rossijr.authentication.model.User;
 import org.rossijr.authentication.repository.RoleRepository;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
 
-import java.time.ZonedDateTime;
+import java.util.Collections;
+import java.util.Objects;
+import java.util.Set;
+import java.util.TreeSet;
 import java.util.UUID;
 
 /**
@@ -19,13 +24,20 @@ public class RoleService {
     private final RoleRepository roleRepository;
     private final RolePermissionService rolePermissionService;
     private final PermissionService permissionService;
+    private final EffectivePermissionService effectivePermissionService;
+    private final ApplicationEventPublisher eventPublisher;
+    private final TransactionTemplate transactionTemplate;
 
     @Autowired
     public RoleService(RoleRepository roleRepository, PermissionService permissionService,
-                       RolePermissionService rolePermissionService) {
+                       RolePermissionService rolePermissionService, EffectivePermissionService effectivePermissionService,
+                       ApplicationEventPublisher eventPublisher, TransactionTemplate transactionTemplate) {
         this.roleRepository = roleRepository;
         this.permissionService = permissionService;
         this.rolePermissionService = rolePermissionService;
+        this.effectivePermissionService = effectivePermissionService;
+        this.eventPublisher = eventPublisher;
+        this.transactionTemplate = transactionTemplate;
     }
 
     /**
@@ -47,20 +59,128 @@ public class RoleService {
      * @param roleId       role that is going to receive the permission
      * @param permissionId permission that is going to be assigned to the role
      * @param userId       user that is assigning the permission
+     * @see #assignPermissionsToRole(Long, Set, UUID)
      */
     public void assignPermissionToRole(Long roleId, Long permissionId, UUID userId) {
-        Role role = roleRepository.findById(roleId)
-                .orElseThrow(() -> new RuntimeException("Role not found"));
+        assignPermissionsToRole(roleId, Set.of(permissionId), userId);
+    }
+
+    /**
+     * Assign permissions to role
+     *
+     * <p>The change is applied with set-based statements in a single transaction: the permissions already assigned to
+     * the role are found with one query and the missing ones are inserted with one statement (the unique
+     * {@code (role_id, permission_id)} constraint guarantees no duplicate is ever stored). The row of the role is locked
+     * meanwhile, so the returned delta is exact even with concurrent changes. The effective permissions of the users
+     * holding the role are updated in the same transaction.</p>
+     *
+     * <p>As every user holding the role gains the permissions, a single {@link AuthoritiesChangedEvent} affecting all
+     * users is published after the commit (and only if something changed), so that cached authorities are dropped.</p>
+     *
+     * @param roleId        role that is going to receive the permissions
+     * @param permissionIds permissions that are going to be assigned to the role
+     * @param userId        user that is assigning the permissions
+     * @return the permissions that were actually added
+     * @throws IllegalArgumentException if the role or the permissions are not provided
+     * @throws ObjectNotFoundException  if the role or any of the permissions does not exist
+     */
+    public RolePermissionsDeltaDTO assignPermissionsToRole(Long roleId, Set<Long> permissionIds, UUID userId) {
+        validatePermissionChange(roleId, permissionIds);
+
+        Set<Long> added = transactionTemplate.execute(status -> {
+            lockRole(roleId);
+
+            Set<Long> missingPermissionIds = new TreeSet<>(permissionIds);
+            missingPermissionIds.removeAll(permissionService.findExistingIds(permissionIds));
+            if (!missingPermissionIds.isEmpty()) {
+                throw new ObjectNotFoundException("Permissions not found: " + missingPermissionIds);
+            }
+
+            Set<Long> newPermissionIds = new TreeSet<>(permissionIds);
+            newPermissionIds.removeAll(rolePermissionService.findAssignedPermissionIds(roleId, permissionIds));
+            if (!newPermissionIds.isEmpty()) {
+                rolePermissionService.assign(roleId, newPermissionIds, userId);
+                effectivePermissionService.rolePermissionsAssigned(roleId, newPermissionIds);
+            }
+            return newPermissionIds;
+        });
+
+        RolePermissionsDeltaDTO delta = new RolePermissionsDeltaDTO(roleId, added, Collections.emptySet());
+        publishIfChanged(delta);
+        return delta;
+    }
+
+    /**
+     * Revoke permissions from role
+     *
+     * <p>Like {@link #assignPermissionsToRole(Long, Set, UUID)}, the change is applied with set-based statements while
+     * the row of the role is locked, and a single {@link AuthoritiesChangedEvent} is published if something changed.
+     * Permissions that are not assigned to the role are ignored.</p>
+     *
+     * @param roleId        role that is going to lose the permissions
+     * @param permissionIds permissions that are going to be revoked from the role
+     * @return the permissions that were actually removed
+     * @throws IllegalArgumentException if the role or the permissions are not provided
+     * @throws ObjectNotFoundException  if the role does not exist
+     */
+    public RolePermissionsDeltaDTO revokePermissionsFromRole(Long roleId, Set<Long> permissionIds) {
+        validatePermissionChange(roleId, permissionIds);
+
+        Set<Long> removed = transactionTemplate.execute(status -> {
+            lockRole(roleId);
 
-        Permission permission = permissionService.findById(permissionId);
+            Set<Long> assignedPermissionIds = new TreeSet<>(rolePermissionService.findAssignedPermissionIds(roleId, permissionIds));
+            if (!assignedPermissionIds.isEmpty()) {
+                rolePermissionService.revoke(roleId, assignedPermissionIds);
+                effectivePermissionService.rolePermissionsRevoked(roleId, assignedPermissionIds);
+            }
+            return assignedPermissionIds;
+        });
 
-        RolePermission rolePermission = new RolePermission();
-        rolePermission.setRole(role);
-        rolePermission.setPermission(permission);
-        rolePermission.setAssignedAt(ZonedDateTime.now());
-        rolePermission.setAssignedBy(new User(userId));
+        RolePermissionsDeltaDTO delta = new RolePermissionsDeltaDTO(roleId, Collections.emptySet(), removed);
+        publishIfChanged(delta);
+        return delta;
+    }
+
+    private void validatePermissionChange(Long roleId, Set<Long> permissionIds) {
+        if (roleId == null) {
+            throw new IllegalArgumentException("Role ID is required");
+        }
+        if (permissionIds == null || permissionIds.isEmpty() || permissionIds.stream().anyMatch(Objects::isNull)) {
+            throw new IllegalArgumentException("Permission IDs are required");
+        }
+    }
+
+    /**
+     * Locks the row of the role exclusively until the end of the current transaction. Must be called before changing
+     * the permissions of the role (see {@link EffectivePermissionService}).
+     *
+     * @param roleId the ID of the role
+     * @throws ObjectNotFoundException if the role does not exist
+     */
+    void lockRole(Long roleId) {
+        if (roleRepository.lockById(roleId) == null) {
+            throw new ObjectNotFoundException("Role not found");
+        }
+    }
 
-        rolePermissionService.save(rolePermission);
+    /**
+     * Locks the row of the role in shared mode until the end of the current transaction. Must be called before giving
+     * the role to users, which can then be done concurrently (see {@link EffectivePermissionService}).
+     *
+     * @param roleId the ID of the role
+     * @throws ObjectNotFoundException if the role does not exist
+     */
+    public void lockRoleShared(Long roleId) {
+        if (roleRepository.lockSharedById(roleId) == null) {
+            throw new ObjectNotFoundException("Role not found");
+        }
+    }
+
+    private void publishIfChanged(RolePermissionsDeltaDTO delta) {
+        if (!delta.isEmpty()) {
+            eventPublisher.publishEvent(AuthoritiesChangedEvent.forAllUsers(this));
+        }
     }
 
     /**
@@ -0,0 +1,338 @@
+package org.rossijr.authentication.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import org.rossijr.authentication.auth.OffloadedPasswordEncoder;
+import org.rossijr.authentication.dto.BulkCreateUserResultDTO;
+import org.rossijr.authentication.dto.CreateUserRequestDTO;
+import org.rossijr.authentication.model.Role;
+import org.rossijr.authentication.repository.UserRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.sql.Timestamp;
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+
+/**
+ * Service for the bulk creation of users (e.g. when onboarding a customer).
+ *
+ * <p>The input is read as a stream and processed in chunks of {@code user.import.chunk.size} rows, so the whole file is
+ * never held in memory. For each chunk:</p>
+ * <ul>
+ *   <li>the rows are parsed and validated (same rules as {@link UserService#createUser(CreateUserRequestDTO)});</li>
+ *   <li>the emails already in use are found with a single query;</li>
+ *   <li>the passwords are hashed in parallel on the hashing threads (see {@link OffloadedPasswordEncoder#encodeAll(List)});</li>
+ *   <li>the users and their {@code ROLE_USER} role are inserted with two JDBC batches, and their effective permissions
+ *   with one statement, in a single transaction.</li>
+ * </ul>
+ *
+ * <p>The result of each row is handed to the caller as soon as its chunk is processed, in the order of the input. A
+ * rejected row does not fail the import.</p>
+ *
+ * <p>No {@link org.rossijr.authentication.auth.AuthoritiesChangedEvent} is published: new users have neither cached
+ * authorities nor tokens to invalidate.</p>
+ */
+@Service
+public class UserImportService {
+    private final Logger logger = LoggerFactory.getLogger(UserImportService.class);
+
+    private static final String INSERT_USER =
+            "INSERT INTO tb_user (id, email, password, created_at, updated_at) VALUES (?, ?, ?, ?, ?)";
+    private static final String INSERT_USER_ROLE =
+            "INSERT INTO tb_mm_user_role (user_id, role_id, assigned_at) VALUES (?, ?, ?)";
+    private static final String CSV_HEADER = "email,password";
+
+    /**
+     * Supported formats of the input.
+     */
+    public enum Format {
+        /**
+         * One JSON object per line, with the same fields as {@link CreateUserRequestDTO}.
+         */
+        NDJSON,
+        /**
+         * Two columns ({@code email,password}) per line, with an optional header. Fields may be quoted.
+         */
+        CSV
+    }
+
+    private final UserRepository userRepository;
+    private final RoleService roleService;
+    private final EffectivePermissionService effectivePermissionService;
+    private final OffloadedPasswordEncoder passwordEncoder;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final ObjectMapper objectMapper;
+    private final Validator validator;
+    private final int chunkSize;
+
+    @Autowired
+    public UserImportService(UserRepository userRepository, RoleService roleService,
+                             EffectivePermissionService effectivePermissionService,
+                             OffloadedPasswordEncoder passwordEncoder, JdbcTemplate jdbcTemplate,
+                             TransactionTemplate transactionTemplate, ObjectMapper objectMapper,
+                             Validator validator, @Value("${user.import.chunk.size}") int chunkSize) {
+        if (chunkSize <= 0) {
+            throw new IllegalArgumentException("User import chunk size must be positive");
+        }
+        this.userRepository = userRepository;
+        this.roleService = roleService;
+        this.effectivePermissionService = effectivePermissionService;
+        this.passwordEncoder = passwordEncoder;
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.objectMapper = objectMapper;
+        this.validator = validator;
+        this.chunkSize = chunkSize;
+    }
+
+    /**
+     * Creates a user for every row of the input.
+     *
+     * @param input          the rows to be imported
+     * @param format         the format of the rows
+     * @param resultConsumer the consumer of the result of each row, called in the order of the input
+     * @throws IOException if the input can not be read
+     */
+    public void importUsers(Reader input, Format format, Consumer<BulkCreateUserResultDTO> resultConsumer) throws IOException {
+        Role userRole = roleService.getRoleByName("ROLE_USER");
+        if (userRole == null) {
+            throw new IllegalStateException("ROLE_USER does not exist");
+        }
+
+        BufferedReader reader = new BufferedReader(input);
+        List<Row> chunk = new ArrayList<>(chunkSize);
+        long lineNumber = 0;
+        long created = 0;
+        String line;
+        while ((line = reader.readLine()) != null) {
+            lineNumber++;
+            if (line.isBlank() || (format == Format.CSV && lineNumber == 1 && CSV_HEADER.equalsIgnoreCase(line.trim()))) {
+                continue;
+            }
+            chunk.add(parse(lineNumber, line, format));
+            if (chunk.size() == chunkSize) {
+                created += importChunk(chunk, userRole.getId(), resultConsumer);
+                chunk = new ArrayList<>(chunkSize);
+            }
+        }
+        if (!chunk.isEmpty()) {
+            created += importChunk(chunk, userRole.getId(), resultConsumer);
+        }
+        logger.info("Bulk import created {} users out of {} lines", created, lineNumber);
+    }
+
+    /**
+     * Imports a chunk of rows and hands their results to the consumer.
+     *
+     * @return the number of created users
+     */
+    private int importChunk(List<Row> rows, Long roleId, Consumer<BulkCreateUserResultDTO> resultConsumer) {
+        // Rows whose email appears earlier in the same chunk (earlier chunks are already committed, so their emails are
+        // found by the query below)
+        Set<String> chunkEmails = new HashSet<>();
+        for (Row row : rows) {
+            if (row.error == null && !chunkEmails.add(row.email)) {
+                row.error = "Duplicate email in the import";
+            }
+        }
+
+        List<Row> candidates = rejectExistingEmails(rows);
+        if (!candidates.isEmpty()) {
+            List<String> hashedPasswords = passwordEncoder.encodeAll(candidates.stream().map(row -> row.password).toList());
+            for (int i = 0; i < candidates.size(); i++) {
+                candidates.get(i).hashedPassword = hashedPasswords.get(i);
+            }
+
+            insertRejectingConcurrentDuplicates(candidates, roleId);
+        }
+
+        int created = 0;
+        for (Row row : rows) {
+            if (row.error == null) {
+                created++;
+                resultConsumer.accept(BulkCreateUserResultDTO.created(row.line, row.email, row.id));
+            } else {
+                resultConsumer.accept(BulkCreateUserResultDTO.rejected(row.line, row.email, row.error));
+            }
+        }
+        return created;
+    }
+
+    /**
+     * Rejects the valid rows whose email is already in use, with a single query.
+     *
+     * @return the rows that can still be inserted
+     */
+    private List<Row> rejectExistingEmails(List<Row> rows) {
+        List<Row> candidates = rows.stream().filter(row -> row.error == null).collect(Collectors.toList());
+        if (candidates.isEmpty()) {
+            return candidates;
+        }
+        Set<String> existingEmails = userRepository.findExistingEmails(
+                candidates.stream().map(row -> row.email).toList());
+        if (existingEmails.isEmpty()) {
+            return candidates;
+        }
+        for (Row row : candidates) {
+            if (existingEmails.contains(row.email)) {
+                row.error = "This email is already in use";
+            }
+        }
+        return candidates.stream().filter(row -> row.error == null).collect(Collectors.toList());
+    }
+
+    /**
+     * Inserts the rows, rejecting the ones whose email was taken by a concurrent request after the check.
+     *
+     * <p>On a conflict, the emails are checked again and the chunk is retried without the ones now in use, until it is
+     * inserted. If the conflict is not found by the check, the rows are inserted one at a time, so only the conflicting
+     * ones are rejected.</p>
+     */
+    private void insertRejectingConcurrentDuplicates(List<Row> candidates, Long roleId) {
+        while (true) {
+            try {
+                insert(candidates, roleId);
+                return;
+            } catch (DuplicateKeyException e) {
+                logger.warn("Email taken concurrently during a bulk import, retrying the chunk");
+                int attempted = candidates.size();
+                candidates = rejectExistingEmails(candidates);
+                if (candidates.size() == attempted) {
+                    break;
+                }
+            }
+        }
+        for (Row row : candidates) {
+            try {
+                insert(List.of(row), roleId);
+            } catch (DuplicateKeyException e) {
+                row.error = "This email is already in use";
+            }
+        }
+    }
+
+    private void insert(List<Row> rows, Long roleId) {
+        if (rows.isEmpty()) {
+            return;
+        }
+        OffsetDateTime now = OffsetDateTime.now();
+        Timestamp assignedAt = Timestamp.from(now.toInstant());
+        List<Object[]> users = new ArrayList<>(rows.size());
+        List<Object[]> userRoles = new ArrayList<>(rows.size());
+        for (Row row : rows) {
+            row.id = UUID.randomUUID();
+            users.add(new Object[]{row.id, row.email, row.hashedPassword, now, now});
+            userRoles.add(new Object[]{row.id, roleId, assignedAt});
+        }
+
+        transactionTemplate.executeWithoutResult(status -> {
+            roleService.lockRoleShared(roleId);
+            jdbcTemplate.batchUpdate(INSERT_USER, users);
+            jdbcTemplate.batchUpdate(INSERT_USER_ROLE, userRoles);
+            effectivePermissionService.userRolesChanged(rows.stream().map(row -> row.id).toList());
+        });
+    }
+
+    private Row parse(long lineNumber, String line, Format format) {
+        CreateUserRequestDTO user;
+        if (format == Format.NDJSON) {
+            try {
+                user = objectMapper.readValue(line, CreateUserRequestDTO.class);
+            } catch (JsonProcessingException e) {
+                return Row.rejected(lineNumber, null, "Malformed JSON line");
+            }
+        } else {
+            List<String> fields = parseCsvLine(line);
+            if (fields == null || fields.size() != 2) {
+                return Row.rejected(lineNumber, null, "Expected two columns (" + CSV_HEADER + ")");
+            }
+            user = new CreateUserRequestDTO();
+            user.setEmail(fields.get(0).trim());
+            user.setPassword(fields.get(1));
+        }
+
+        Set<ConstraintViolation<CreateUserRequestDTO>> violations = validator.validate(user);
+        if (!violations.isEmpty()) {
+            String error = violations.stream().map(ConstraintViolation::getMessage).sorted().collect(Collectors.joining(", "));
+            return Row.rejected(lineNumber, user.getEmail(), error);
+        }
+        return new Row(lineNumber, user.getEmail(), user.getPassword());
+    }
+
+    /**
+     * Splits a CSV line into its fields. Fields may be enclosed in double quotes (to contain commas), and a double quote
+     * inside a quoted field is escaped by another one.
+     *
+     * @return the fields, or {@code null} if a quoted field is not closed
+     */
+    static List<String> parseCsvLine(String line) {
+        List<String> fields = new ArrayList<>(2);
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (quoted) {
+                if (c == '"' && i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                    field.append('"');
+                    i++;
+                } else if (c == '"') {
+                    quoted = false;
+                } else {
+                    field.append(c);
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                fields.add(field.toString());
+                field.setLength(0);
+            } else {
+                field.append(c);
+            }
+        }
+        if (quoted) {
+            return null;
+        }
+        fields.add(field.toString());
+        return fields;
+    }
+
+    private static final class Row {
+        private final long line;
+        private final String email;
+        private final String password;
+        private String hashedPassword;
+        private UUID id;
+        private String error;
+
+        private Row(long line, String email, String password) {
+            this.line = line;
+            this.email = email;
+            this.password = password;
+        }
+
+        private static Row rejected(long line, String email, String error) {
+            Row row = new Row(line, email, null);
+            row.error = error;
+            return row;
+        }
+    }
+}
@@ -1,21 +1,28 @@
 package org.rossijr.authentication.service;
 
+import org.rossijr.authentication.auth.AuthoritiesChangedEvent;
 import org.rossijr.authentication.dto.CreateUserRequestDTO;
 import org.rossijr.authentication.dto.CreateUserResponseDTO;
 import org.rossijr.authentication.dto.GetUserResponseDTO;
 import org.rossijr.authentication.exception.EmailAlreadyInUseExceptionWeb;
 import org.rossijr.authentication.exception.ObjectNotFoundException;
+import org.rossijr.authentication.exception.ServiceOverloadedException;
+import org.rossijr.authentication.model.Role;
 import org.rossijr.authentication.model.User;
 import org.rossijr.authentication.model.UserRole;
 import org.rossijr.authentication.repository.UserRepository;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.time.ZonedDateTime;
 import java.util.HashSet;
+import java.util.List;
 import java.util.UUID;
 import java.util.stream.Collectors;
 
@@ -29,6 +36,12 @@ public class UserService {
     PasswordEncoder passwordEncoder;
     @Autowired
     private RoleService roleService;
+    @Autowired
+    private EffectivePermissionService effectivePermissionService;
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+    @Autowired
+    private TransactionTemplate transactionTemplate;
 
     private boolean isEmailUnique(String email) {
         return userRepository.findByEmail(email) == null;
@@ -45,6 +58,7 @@ public class UserService {
      * @return a data transfer object containing the created user's details
      * @throws IllegalArgumentException      if the provided user details are invalid
      * @throws EmailAlreadyInUseExceptionWeb if the email is already associated with an existing user
+     * @throws ServiceOverloadedException    if the password can not be hashed right now due to overload
      */
     public CreateUserResponseDTO createUser(CreateUserRequestDTO userRequestDTO) {
         try {
@@ -64,14 +78,24 @@ public class UserService {
             user.setRoles(new HashSet<>());
 
             // Assign roles
-            UserRole userRole = new UserRole(user, roleService.getRoleByName("ROLE_USER"));
+            Role role = roleService.getRoleByName("ROLE_USER");
+            UserRole userRole = new UserRole(user, role);
 
             user.getRoles().add(userRole);
 
+            // Save the user and its effective permissions together (the password is hashed before, so the transaction
+            // does not hold a connection while hashing)
+            User savedUser = transactionTemplate.execute(status -> {
+                roleService.lockRoleShared(role.getId());
+                User saved = userRepository.save(user);
+                effectivePermissionService.userRolesChanged(List.of(saved.getId()));
+                return saved;
+            });
+
             // Map entity to DTO
-            User savedUser = userRepository.save(user);
+            eventPublisher.publishEvent(AuthoritiesChangedEvent.forUser(this, savedUser.getUsername()));
             return new CreateUserResponseDTO(savedUser.getId(), savedUser.getUsername(), savedUser.getCreatedAt());
-        } catch (IllegalArgumentException | EmailAlreadyInUseExceptionWeb e) {
+        } catch (IllegalArgumentException | EmailAlreadyInUseExceptionWeb | ServiceOverloadedException e) {
             throw e;
         } catch (Exception e) {
             logger.error("An unexpected error occurred while creating the user: {}", e.getMessage());
@@ -86,6 +110,7 @@ public class UserService {
      * @return a data transfer object containing the user's details
      * @throws IllegalArgumentException if the user with the provided ID does not exist
      */
+    @Transactional(readOnly = true)
     public GetUserResponseDTO getUser(UUID id) {
         User user = userRepository.findById(id).orElse(null);
 
@@ -0,0 +1,105 @@
+package org.rossijr.authentication;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Batch token validation ({@code POST /api/v1/authentication/validate/batch}) when the response is never streamed.
+ *
+ * <p>The responses are streamed by a pool of two threads without a queue, so while both threads are busy the streaming
+ * of a batch is rejected and the request ends before its body runs.</p>
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+        // A database of its own, as the other contexts of the test run share the default one
+        "spring.datasource.url=jdbc:h2:mem:batchabort;MODE=PostgreSQL;DB_CLOSE_DELAY=-1;DB_CLOSE_ON_EXIT=FALSE",
+        "spring.task.execution.pool.core-size=2",
+        "spring.task.execution.pool.max-size=2",
+        "spring.task.execution.pool.queue-capacity=0",
+        "token.validation.batch.max.in.flight=" + BatchTokenValidationAbortTest.MAX_BATCHES
+})
+@ActiveProfiles("test")
+class BatchTokenValidationAbortTest {
+    static final int MAX_BATCHES = 2;
+
+    @LocalServerPort
+    private int port;
+    @Autowired
+    private ObjectMapper objectMapper;
+    @Autowired
+    @Qualifier("applicationTaskExecutor")
+    private ThreadPoolTaskExecutor applicationTaskExecutor;
+
+    private final HttpClient client = HttpClient.newHttpClient();
+    private final CountDownLatch gate = new CountDownLatch(1);
+
+    @AfterEach
+    void openGate() {
+        gate.countDown();
+    }
+
+    @Test
+    void batchesAbortedBeforeStreamingGiveBackTheirSlot() throws Exception {
+        CountDownLatch started = new CountDownLatch(2);
+        for (int i = 0; i < 2; i++) {
+            applicationTaskExecutor.execute(() -> {
+                started.countDown();
+                try {
+                    gate.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            });
+        }
+        assertTrue(started.await(10, TimeUnit.SECONDS));
+
+        // More aborted batches than slots: before the slot was given back on completion, each of them kept its slot
+        for (int i = 0; i <= MAX_BATCHES; i++) {
+            HttpResponse<String> response = client.send(batch(), HttpResponse.BodyHandlers.ofString());
+            assertNotEquals(200, response.statusCode());
+            assertTrue(response.headers().firstValue(HttpHeaders.RETRY_AFTER).isEmpty(),
+                    "The batch was rejected for lack of a slot");
+        }
+
+        gate.countDown();
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (applicationTaskExecutor.getActiveCount() > 0) {
+            assertTrue(System.nanoTime() < deadline, "The streaming threads were not freed");
+            Thread.sleep(10);
+        }
+        assertEquals(200, client.send(batch(), HttpResponse.BodyHandlers.ofString()).statusCode());
+    }
+
+    private HttpRequest batch() throws Exception {
+        return HttpRequest.newBuilder(uri("/api/v1/authentication/validate/batch"))
+                .header(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON_VALUE)
+                .header(HttpHeaders.ACCEPT, MediaType.APPLICATION_NDJSON_VALUE + ", " + MediaType.APPLICATION_JSON_VALUE)
+                .POST(HttpRequest.BodyPublishers.ofString(objectMapper.writeValueAsString(Map.of("tokens", List.of("not-a-token")))))
+                .build();
+    }
+
+    private URI uri(String path) {
+        return URI.create("http://localhost:" + port + path);
+    }
+}
@@ -0,0 +1,132 @@
+package org.rossijr.authentication;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.rossijr.authentication.auth.AuthenticationService;
+import org.rossijr.authentication.auth.dto.BatchValidateRequestDTO;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Batch token validation ({@code POST /api/v1/authentication/validate/batch}) under concurrent batches.
+ *
+ * <p>The responses are streamed by a pool of two threads, fewer than the concurrent batches, and the tokens are verified
+ * by two threads with a small queue, so the batches compete for both pools (and some tokens are verified on the
+ * streaming threads).</p>
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+        // A database of its own, as the other contexts of the test run share the default one
+        "spring.datasource.url=jdbc:h2:mem:batchvalidation;MODE=PostgreSQL;DB_CLOSE_DELAY=-1;DB_CLOSE_ON_EXIT=FALSE",
+        "spring.task.execution.pool.core-size=2",
+        "token.validation.batch.threads=2",
+        "token.validation.batch.queue.capacity=16",
+        "token.validation.batch.max.in.flight=" + BatchTokenValidationTest.MAX_BATCHES
+})
+@ActiveProfiles("test")
+class BatchTokenValidationTest {
+    static final int MAX_BATCHES = 8;
+    private static final int TOKENS_PER_BATCH = 200;
+
+    @LocalServerPort
+    private int port;
+    @Autowired
+    private ObjectMapper objectMapper;
+    @Autowired
+    private AuthenticationService authenticationService;
+
+    private final HttpClient client = HttpClient.newHttpClient();
+    private String token;
+
+    @BeforeEach
+    void login() throws Exception {
+        HttpResponse<String> response = client.send(HttpRequest.newBuilder(uri("/api/v1/authentication/login"))
+                .header(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON_VALUE)
+                .POST(HttpRequest.BodyPublishers.ofString("{\"email\": \"user@example.com\", \"password\": \"user123\"}"))
+                .build(), HttpResponse.BodyHandlers.ofString());
+        assertEquals(200, response.statusCode());
+        token = objectMapper.readTree(response.body()).get("token").asText();
+    }
+
+    @Test
+    void concurrentBatchesAreAllValidated() throws Exception {
+        List<String> tokens = new ArrayList<>(Collections.nCopies(TOKENS_PER_BATCH, token));
+        tokens.set(1, "not-a-token");
+
+        List<CompletableFuture<HttpResponse<String>>> responses = new ArrayList<>();
+        for (int i = 0; i < MAX_BATCHES; i++) {
+            responses.add(client.sendAsync(batch(tokens), HttpResponse.BodyHandlers.ofString()));
+        }
+
+        for (CompletableFuture<HttpResponse<String>> future : responses) {
+            // Before the verification had threads of its own, the streaming threads waited for verifications queued
+            // behind them, and the batches never completed
+            HttpResponse<String> response = future.get(30, TimeUnit.SECONDS);
+            assertEquals(200, response.statusCode());
+            String[] lines = response.body().split("\n");
+            assertEquals(TOKENS_PER_BATCH, lines.length);
+            for (int i = 0; i < lines.length; i++) {
+                JsonNode result = objectMapper.readTree(lines[i]);
+                assertEquals(i, result.get("index").asInt());
+                assertEquals(i != 1, result.get("valid").asBoolean());
+            }
+        }
+    }
+
+    @Test
+    void batchesBeyondTheLimitAreRejected() throws Exception {
+        for (int i = 0; i < MAX_BATCHES; i++) {
+            authenticationService.reserveBatch();
+        }
+        try {
+            HttpResponse<String> response = client.send(batch(List.of(token)), HttpResponse.BodyHandlers.ofString());
+
+            assertEquals(503, response.statusCode());
+            assertTrue(response.headers().firstValue(HttpHeaders.RETRY_AFTER).isPresent());
+        } finally {
+            for (int i = 0; i < MAX_BATCHES; i++) {
+                authenticationService.releaseBatch();
+            }
+        }
+
+        assertEquals(200, client.send(batch(List.of(token)), HttpResponse.BodyHandlers.ofString()).statusCode());
+    }
+
+    @Test
+    void oversizedBatchIsRejected() throws Exception {
+        List<String> tokens = Collections.nCopies(BatchValidateRequestDTO.MAX_TOKENS + 1, token);
+
+        assertEquals(400, client.send(batch(tokens), HttpResponse.BodyHandlers.ofString()).statusCode());
+    }
+
+    private HttpRequest batch(List<String> tokens) throws Exception {
+        return HttpRequest.newBuilder(uri("/api/v1/authentication/validate/batch"))
+                .header(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON_VALUE)
+                .header(HttpHeaders.ACCEPT, MediaType.APPLICATION_NDJSON_VALUE + ", " + MediaType.APPLICATION_JSON_VALUE)
+                .POST(HttpRequest.BodyPublishers.ofString(objectMapper.writeValueAsString(Map.of("tokens", tokens))))
+                .build();
+    }
+
+    private URI uri(String path) {
+        return URI.create("http://localhost:" + port + path);
+    }
+}
@@ -0,0 +1,83 @@
+package org.rossijr.authentication;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Enforcement and timing of the {@code @PreAuthorize} and {@code @RequiresPermission} checks, through the interceptors
+ * set up by {@code SecurityConfig}.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class MethodSecurityTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+    @Autowired
+    private ObjectMapper objectMapper;
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Test
+    void preAuthorizeIsEnforcedAndTimed() throws Exception {
+        JsonNode login = login("user@example.com", "user123");
+        String authorization = "Bearer " + login.get("token").asText();
+        long granted = count("expression_check", "granted");
+        long denied = count("expression_check", "denied");
+
+        mockMvc.perform(get("/api/v1/user/" + login.get("userId").asText()).header(HttpHeaders.AUTHORIZATION, authorization))
+                .andExpect(status().isOk());
+        mockMvc.perform(get("/api/v1/user/" + UUID.randomUUID()).header(HttpHeaders.AUTHORIZATION, authorization))
+                .andExpect(status().isForbidden());
+
+        assertEquals(granted + 1, count("expression_check", "granted"));
+        assertEquals(denied + 1, count("expression_check", "denied"));
+    }
+
+    @Test
+    void requiresPermissionIsEnforcedAndTimed() throws Exception {
+        String authorization = "Bearer " + login("user@example.com", "user123").get("token").asText();
+        long granted = count("permission_check", "granted");
+        long denied = count("permission_check", "denied");
+
+        mockMvc.perform(get("/api/v1/health/user").header(HttpHeaders.AUTHORIZATION, authorization))
+                .andExpect(status().isOk());
+        mockMvc.perform(get("/api/v1/health/admin").header(HttpHeaders.AUTHORIZATION, authorization))
+                .andExpect(status().isForbidden());
+
+        assertEquals(granted + 1, count("permission_check", "granted"));
+        assertEquals(denied + 1, count("permission_check", "denied"));
+    }
+
+    private JsonNode login(String email, String password) throws Exception {
+        String response = mockMvc.perform(post("/api/v1/authentication/login")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"email\": \"" + email + "\", \"password\": \"" + password + "\"}"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        return objectMapper.readTree(response);
+    }
+
+    private long count(String phase, String outcome) {
+        Timer timer = meterRegistry.find("security.phase").tag("phase", phase).tag("outcome", outcome).timer();
+        return timer == null ? 0 : timer.count();
+    }
+}
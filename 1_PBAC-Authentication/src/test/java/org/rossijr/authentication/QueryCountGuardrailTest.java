@@ -0,0 +1,150 @@
+package org.rossijr.authentication;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.rossijr.authentication.auth.UserDetailsCache;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Guardrails on the number of SQL statements and entity loads of the key flows, so N+1 regressions (e.g. an eager
+ * association added to {@code User}, {@code Role} or {@code RolePermission}) fail the build.
+ *
+ * <p>Every flow is measured with cold caches (user details and Hibernate second-level cache), which is its worst case.
+ * When a limit is exceeded on purpose, raise it in the same change and explain why.</p>
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class QueryCountGuardrailTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+    @Autowired
+    private ObjectMapper objectMapper;
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+    @Autowired
+    private UserDetailsCache userDetailsCache;
+
+    private Statistics statistics;
+
+    @BeforeEach
+    void setUp() {
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        // Without the statistics every count is 0, and every guardrail would pass
+        assertTrue(statistics.isStatisticsEnabled(), "Hibernate statistics are disabled (hibernate.generate_statistics)");
+    }
+
+    @Test
+    void login() throws Exception {
+        resetCounters();
+
+        login("user@example.com", "user123");
+
+        assertAtMost("login", 1, 0);
+    }
+
+    @Test
+    void filterAuthentication() throws Exception {
+        String token = login("user@example.com", "user123").get("token").asText();
+        resetCounters();
+
+        mockMvc.perform(get("/api/v1/health/user").header(HttpHeaders.AUTHORIZATION, "Bearer " + token))
+                .andExpect(status().isOk());
+
+        assertAtMost("filter authentication", 1, 0);
+    }
+
+    @Test
+    void getUser() throws Exception {
+        JsonNode login = login("user@example.com", "user123");
+        resetCounters();
+
+        mockMvc.perform(get("/api/v1/user/" + login.get("userId").asText())
+                        .header(HttpHeaders.AUTHORIZATION, "Bearer " + login.get("token").asText()))
+                .andExpect(status().isOk());
+
+        assertAtMost("GET /api/v1/user/{id}", 2, 7);
+    }
+
+    /**
+     * Load of {@code GET /api/v1/user/{id}} with warm caches (the steady state): the ownership check reads the
+     * principal set by the filter, so the only statement of a request is the one loading the returned user.
+     */
+    @Test
+    void getUserUnderLoad() throws Exception {
+        JsonNode login = login("user@example.com", "user123");
+        String token = login.get("token").asText();
+        String userId = login.get("userId").asText();
+        mockMvc.perform(get("/api/v1/user/" + userId).header(HttpHeaders.AUTHORIZATION, "Bearer " + token))
+                .andExpect(status().isOk());
+        statistics.clear();
+
+        int requests = 200;
+        for (int i = 0; i < requests; i++) {
+            mockMvc.perform(get("/api/v1/user/" + userId).header(HttpHeaders.AUTHORIZATION, "Bearer " + token))
+                    .andExpect(status().isOk());
+        }
+
+        assertAtMost("GET /api/v1/user/{id} under load", requests, 7L * requests);
+    }
+
+    @Test
+    void createUser() throws Exception {
+        String token = login("admin@example.com", "admin123").get("token").asText();
+        resetCounters();
+
+        mockMvc.perform(post("/api/v1/user")
+                        .header(HttpHeaders.AUTHORIZATION, "Bearer " + token)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"email\": \"guardrail@example.com\", \"password\": \"password1\"}"))
+                .andExpect(status().isCreated());
+
+        // One more statement than before: the row of the new user is locked before its effective permissions are
+        // derived (see EffectivePermissionService)
+        assertAtMost("user creation", 10, 3);
+    }
+
+    private JsonNode login(String email, String password) throws Exception {
+        String response = mockMvc.perform(post("/api/v1/authentication/login")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"email\": \"" + email + "\", \"password\": \"" + password + "\"}"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        return objectMapper.readTree(response);
+    }
+
+    /**
+     * Empties the caches (so the flow is measured in its worst case) and resets the Hibernate statistics.
+     */
+    private void resetCounters() {
+        userDetailsCache.invalidateAll();
+        entityManagerFactory.getCache().evictAll();
+        statistics.clear();
+    }
+
+    private void assertAtMost(String flow, long maxStatements, long maxEntityLoads) {
+        long statements = statistics.getPrepareStatementCount();
+        long entityLoads = statistics.getEntityLoadCount() + statistics.getCollectionLoadCount();
+        assertTrue(statements <= maxStatements,
+                flow + " executed " + statements + " statements, the limit is " + maxStatements);
+        assertTrue(entityLoads <= maxEntityLoads,
+                flow + " loaded " + entityLoads + " entities and collections, the limit is " + maxEntityLoads);
+    }
+}
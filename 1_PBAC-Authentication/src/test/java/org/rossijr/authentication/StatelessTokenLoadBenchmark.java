@@ -0,0 +1,145 @@
+package org.rossijr.authentication;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.distribution.ValueAtPercentile;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Load of {@code GET /api/v1/health/user} (token verification, user loading and permission check, no other work) with
+ * the user loaded from the database on every request, from the user details cache, and from the claims of a stateless
+ * token ({@code jwt.stateless.enabled}).
+ *
+ * <p>The {@code database} mode disables the cache in practice (1 millisecond TTL), which is what a request costs on a
+ * cache miss. Each client sends its next request as soon as it gets the previous response, for {@link #LEVEL_DURATION}
+ * per level, and the throughput and latency percentiles are printed per mode and level.</p>
+ *
+ * <p>Run it with {@code mvn test-compile exec:exec -Dexec.classpathScope=test -Dexec.executable=java
+ * "-Dexec.args=-cp %classpath org.rossijr.authentication.StatelessTokenLoadBenchmark"}, optionally followed by the
+ * levels to run (e.g. {@code 50 200}).</p>
+ */
+public class StatelessTokenLoadBenchmark {
+    private static final int[] DEFAULT_LEVELS = {50, 200};
+    private static final Duration LEVEL_DURATION = Duration.ofSeconds(15);
+    private static final Duration WARMUP_DURATION = Duration.ofSeconds(5);
+
+    private final HttpClient client = HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(30)).build();
+
+    private enum Mode {
+        DATABASE("jwt.stateless.enabled=false", "user.cache.ttl=1"),
+        CACHED("jwt.stateless.enabled=false"),
+        STATELESS("jwt.stateless.enabled=true");
+
+        private final String[] properties;
+
+        Mode(String... properties) {
+            this.properties = properties;
+        }
+    }
+
+    public static void main(String[] args) throws Exception {
+        int[] levels = args.length == 0 ? DEFAULT_LEVELS : Arrays.stream(args).mapToInt(Integer::parseInt).toArray();
+        StatelessTokenLoadBenchmark benchmark = new StatelessTokenLoadBenchmark();
+        System.out.printf("%-9s %8s %10s %9s %9s%n", "mode", "clients", "requests/s", "p50 (ms)", "p99 (ms)");
+        for (Mode mode : Mode.values()) {
+            benchmark.run(mode, levels);
+        }
+        System.exit(0);
+    }
+
+    private void run(Mode mode, int[] levels) throws Exception {
+        try (ConfigurableApplicationContext context = new SpringApplicationBuilder(PBAC_AuthenticationApplication.class)
+                .profiles("test")
+                .properties(mode.properties)
+                .properties(
+                        "server.port=0",
+                        "login.rate.limit.enabled=false",
+                        "security.phase.metrics.enabled=false",
+                        "logging.level.root=WARN",
+                        "spring.main.banner-mode=off")
+                .run()) {
+            String baseUrl = "http://localhost:" + context.getEnvironment().getRequiredProperty("local.server.port");
+            JsonNode login = new ObjectMapper().readTree(client.send(HttpRequest.newBuilder(URI.create(baseUrl + "/api/v1/authentication/login"))
+                    .header(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON_VALUE)
+                    .POST(HttpRequest.BodyPublishers.ofString("{\"email\": \"user@example.com\", \"password\": \"user123\"}"))
+                    .build(), HttpResponse.BodyHandlers.ofString()).body());
+            HttpRequest request = HttpRequest.newBuilder(URI.create(baseUrl + "/api/v1/health/user"))
+                    .header(HttpHeaders.AUTHORIZATION, "Bearer " + login.get("token").asText())
+                    .timeout(Duration.ofSeconds(60))
+                    .build();
+
+            load(request, levels[0], WARMUP_DURATION);
+            for (int clients : levels) {
+                Result result = load(request, clients, LEVEL_DURATION);
+                System.out.printf("%-9s %8d %10.0f %9.2f %9.2f%n", mode.name().toLowerCase(), clients,
+                        result.completed.sum() / (double) LEVEL_DURATION.toSeconds(), result.percentile(0.5), result.percentile(0.99));
+                if (result.failed.sum() > 0) {
+                    System.out.printf("          %d requests failed (other status or I/O error)%n", result.failed.sum());
+                }
+            }
+        }
+    }
+
+    /**
+     * Runs the given number of clients, each one sending the request in a loop until the duration is over.
+     */
+    private Result load(HttpRequest request, int clients, Duration duration) {
+        Result result = new Result();
+        long deadline = System.nanoTime() + duration.toNanos();
+        CompletableFuture<?>[] loops = new CompletableFuture<?>[clients];
+        for (int i = 0; i < clients; i++) {
+            loops[i] = loop(request, deadline, result);
+        }
+        CompletableFuture.allOf(loops).join();
+        return result;
+    }
+
+    private CompletableFuture<Void> loop(HttpRequest request, long deadline, Result result) {
+        if (System.nanoTime() - deadline >= 0) {
+            return CompletableFuture.completedFuture(null);
+        }
+        long start = System.nanoTime();
+        return client.sendAsync(request, HttpResponse.BodyHandlers.discarding())
+                .handle((response, error) -> {
+                    if (error == null && response.statusCode() == 200) {
+                        result.timer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+                        result.completed.increment();
+                    } else {
+                        result.failed.increment();
+                    }
+                    return null;
+                })
+                .thenCompose(ignored -> loop(request, deadline, result));
+    }
+
+    private static final class Result {
+        private final Timer timer = Timer.builder("load").publishPercentiles(0.5, 0.99).register(new SimpleMeterRegistry());
+        // Updated by the callbacks of the HTTP client, which run on different threads
+        private final LongAdder completed = new LongAdder();
+        private final LongAdder failed = new LongAdder();
+
+        private double percentile(double percentile) {
+            for (ValueAtPercentile value : timer.takeSnapshot().percentileValues()) {
+                if (value.percentile() == percentile) {
+                    return value.value(TimeUnit.MILLISECONDS);
+                }
+            }
+            return Double.NaN;
+        }
+    }
+}
@@ -0,0 +1,140 @@
+package org.rossijr.authentication;
+
+import com.auth0.jwt.JWT;
+import com.auth0.jwt.interfaces.DecodedJWT;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.rossijr.authentication.auth.AuthoritiesChangedEvent;
+import org.rossijr.authentication.auth.JwtUtil;
+import org.rossijr.authentication.auth.PermissionIndex;
+import org.rossijr.authentication.auth.UserDetailsCache;
+import org.rossijr.authentication.auth.VerifiedTokenCache;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.web.servlet.MockMvc;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Authentication of requests with and without the stateless token mode ({@code jwt.stateless.enabled}).
+ *
+ * <p>Every request is sent with a cold user details cache, so the number of statements tells whether the user was
+ * built from the token or loaded from the database.</p>
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class StatelessTokenTest {
+
+    @Nested
+    @TestPropertySource(properties = "jwt.stateless.enabled=true")
+    class Enabled extends Mode {
+
+        @Test
+        void statelessTokenAuthenticatesWithoutTheDatabase() throws Exception {
+            DecodedJWT token = JWT.decode(login());
+            assertFalse(token.getClaim(JwtUtil.PERMISSIONS_CLAIM).isMissing());
+
+            assertEquals(0, statementsOfAuthenticatedRequest(token.getToken()));
+        }
+
+        @Test
+        void repeatedRequestsShareTheUserBuiltFromTheToken() throws Exception {
+            String token = login();
+
+            assertEquals(0, statementsOfAuthenticatedRequest(token));
+            VerifiedTokenCache.ClaimsUser claimsUser = verifiedTokenCache.getClaimsUser(jwtUtil.verifyToken(token));
+            assertNotNull(claimsUser);
+            assertTrue(claimsUser.user().getPermissions().contains(permissionIndex.indexOf("VIEW_USER")));
+
+            assertEquals(0, statementsOfAuthenticatedRequest(token));
+            assertSame(claimsUser, verifiedTokenCache.getClaimsUser(jwtUtil.verifyToken(token)));
+        }
+
+        @Test
+        void staleEpochFallsBackToTheUserDetailsService() throws Exception {
+            String token = login();
+            eventPublisher.publishEvent(AuthoritiesChangedEvent.forUser(this, "user@example.com"));
+
+            assertTrue(statementsOfAuthenticatedRequest(token) > 0);
+        }
+    }
+
+    @Nested
+    @TestPropertySource(properties = "jwt.stateless.enabled=false")
+    class Disabled extends Mode {
+
+        @Test
+        void tokenIsVerifiedAgainstTheDatabase() throws Exception {
+            DecodedJWT token = JWT.decode(login());
+            assertTrue(token.getClaim(JwtUtil.PERMISSIONS_CLAIM).isMissing());
+
+            assertTrue(statementsOfAuthenticatedRequest(token.getToken()) > 0);
+        }
+    }
+
+    /**
+     * Beans of the context of each mode (the enclosing instance is injected from the context without the property).
+     */
+    abstract class Mode {
+        @Autowired
+        MockMvc mockMvc;
+        @Autowired
+        ObjectMapper objectMapper;
+        @Autowired
+        EntityManagerFactory entityManagerFactory;
+        @Autowired
+        UserDetailsCache userDetailsCache;
+        @Autowired
+        ApplicationEventPublisher eventPublisher;
+        @Autowired
+        JwtUtil jwtUtil;
+        @Autowired
+        VerifiedTokenCache verifiedTokenCache;
+        @Autowired
+        PermissionIndex permissionIndex;
+
+        String login() throws Exception {
+            String response = mockMvc.perform(post("/api/v1/authentication/login")
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .content("{\"email\": \"user@example.com\", \"password\": \"user123\"}"))
+                    .andExpect(status().isOk())
+                    .andReturn().getResponse().getContentAsString();
+            return objectMapper.readTree(response).get("token").asText();
+        }
+
+        /**
+         * Sends a request that requires the {@code VIEW_USER} permission, with cold caches.
+         *
+         * @return the number of statements executed meanwhile
+         */
+        long statementsOfAuthenticatedRequest(String token) throws Exception {
+            Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+            userDetailsCache.invalidateAll();
+            entityManagerFactory.getCache().evictAll();
+            statistics.clear();
+
+            mockMvc.perform(get("/api/v1/health/user").header(HttpHeaders.AUTHORIZATION, "Bearer " + token))
+                    .andExpect(status().isOk());
+
+            return statistics.getPrepareStatementCount();
+        }
+    }
+}
@@ -0,0 +1,124 @@
+package org.rossijr.authentication;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordedFrame;
+import jdk.jfr.consumer.RecordingFile;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Runs the key flows on virtual threads (over HTTP, so they run on the Tomcat threads) while JFR records the
+ * {@code jdk.VirtualThreadPinned} events, which are emitted when a virtual thread blocks while pinned to its carrier
+ * (e.g. waiting for a connection inside a {@code synchronized} block), and fails if any was emitted.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+        "spring.threads.virtual.enabled=true",
+        // A database of its own, as the other contexts of the test run share the default one
+        "spring.datasource.url=jdbc:h2:mem:pinning;MODE=PostgreSQL;DB_CLOSE_DELAY=-1;DB_CLOSE_ON_EXIT=FALSE",
+        // Fewer connections than concurrent requests, so the requests have to wait for one
+        "spring.datasource.hikari.maximum-pool-size=4",
+        // Every request waits for its connection instead of being rejected, as the test is about pinning, not admission
+        "datasource.admission.timeout=60000"
+})
+@ActiveProfiles("test")
+class VirtualThreadPinningTest {
+    private static final int CONCURRENT_REQUESTS = 500;
+
+    @LocalServerPort
+    private int port;
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    private final HttpClient client = HttpClient.newHttpClient();
+
+    @Test
+    void requestsDoNotPinCarrierThreads() throws Exception {
+        List<RecordedEvent> pinnedEvents;
+        try (Recording recording = new Recording()) {
+            recording.enable("jdk.VirtualThreadPinned").withoutThreshold().withStackTrace();
+            recording.start();
+
+            runLoad();
+
+            recording.stop();
+            Path file = Files.createTempFile("virtual-thread-pinning", ".jfr");
+            try {
+                recording.dump(file);
+                pinnedEvents = RecordingFile.readAllEvents(file);
+            } finally {
+                Files.deleteIfExists(file);
+            }
+        }
+
+        assertTrue(pinnedEvents.isEmpty(), () -> "Virtual threads were pinned:\n" + pinnedEvents.stream()
+                .map(VirtualThreadPinningTest::describe)
+                .collect(Collectors.joining("\n")));
+    }
+
+    /**
+     * Logs in a few times (password hashing) and reads the user concurrently (user loading, JDBC reads).
+     */
+    private void runLoad() throws Exception {
+        List<CompletableFuture<HttpResponse<String>>> logins = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            logins.add(client.sendAsync(HttpRequest.newBuilder(uri("/api/v1/authentication/login"))
+                    .header(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON_VALUE)
+                    .POST(HttpRequest.BodyPublishers.ofString("{\"email\": \"user@example.com\", \"password\": \"user123\"}"))
+                    .build(), HttpResponse.BodyHandlers.ofString()));
+        }
+        JsonNode login = null;
+        for (CompletableFuture<HttpResponse<String>> response : logins) {
+            assertEquals(200, response.get().statusCode());
+            login = objectMapper.readTree(response.get().body());
+        }
+
+        HttpRequest getUser = HttpRequest.newBuilder(uri("/api/v1/user/" + login.get("userId").asText()))
+                .header(HttpHeaders.AUTHORIZATION, "Bearer " + login.get("token").asText())
+                .build();
+        List<CompletableFuture<HttpResponse<String>>> responses = new ArrayList<>();
+        for (int i = 0; i < CONCURRENT_REQUESTS; i++) {
+            responses.add(client.sendAsync(getUser, HttpResponse.BodyHandlers.ofString()));
+        }
+        for (CompletableFuture<HttpResponse<String>> response : responses) {
+            assertEquals(200, response.get().statusCode());
+        }
+    }
+
+    private URI uri(String path) {
+        return URI.create("http://localhost:" + port + path);
+    }
+
+    private static String describe(RecordedEvent event) {
+        StringBuilder description = new StringBuilder(event.getDuration().toString());
+        if (event.getStackTrace() != null) {
+            for (RecordedFrame frame : event.getStackTrace().getFrames()) {
+                description.append("\n\tat ").append(frame.getMethod().getType().getName())
+                        .append('.').append(frame.getMethod().getName())
+                        .append(':').append(frame.getLineNumber());
+            }
+        }
+        return description.toString();
+    }
+}
@@ -0,0 +1,108 @@
+package org.rossijr.authentication.audit;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.h2.jdbcx.JdbcDataSource;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost, on the request thread, of recording an audit event through the {@link AuditLog} (written to memory-mapped files
+ * by its consumer thread), compared to a synchronous insert of the event into the {@code tb_audit_event} table of an
+ * in-memory H2 database (a lower bound of the cost of a real database).
+ *
+ * <p>Run it with {@code mvn test-compile exec:exec -Dexec.classpathScope=test -Dexec.executable=java
+ * "-Dexec.args=-cp %classpath org.rossijr.authentication.audit.AuditLogBenchmark"}. The allocated bytes per event are
+ * reported by the GC profiler ({@code gc.alloc.rate.norm}), and the events dropped because the consumer could not keep
+ * up are printed by the teardown.</p>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class AuditLogBenchmark {
+    private static final String INSERT_EVENT =
+            "INSERT INTO tb_audit_event (occurred_at, type, subject, client_address, detail) VALUES (CURRENT_TIMESTAMP, ?, ?, ?, ?)";
+
+    private JdbcTemplate jdbcTemplate;
+
+    /**
+     * The audit log, writing to memory-mapped files in a temporary directory.
+     */
+    @State(Scope.Benchmark)
+    public static class Audit {
+        // With DROP, the events the consumer can not keep up with are dropped (so the cost is the one of the caller
+        // only). With BLOCK, every event is written, so the cost includes the share of the consumer
+        @Param({"DROP", "BLOCK"})
+        private OverflowPolicy overflowPolicy;
+
+        private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        private Path directory;
+        private AuditLog auditLog;
+
+        @Setup(Level.Trial)
+        public void setUp() throws IOException {
+            directory = Files.createTempDirectory("audit");
+            auditLog = new AuditLog(8192, 512, 200, overflowPolicy, TimeUnit.MINUTES.toMillis(1), 10,
+                    List.of(new MappedFileAuditSink(directory, 64 * 1024 * 1024, 3)), meterRegistry);
+        }
+
+        @TearDown(Level.Trial)
+        public void tearDown() throws IOException {
+            auditLog.shutdown();
+            System.out.printf("%nDropped events (%s): %.0f%n", overflowPolicy, meterRegistry.counter("audit.events.dropped", "reason", "full").count());
+            try (var files = Files.list(directory)) {
+                for (Path file : files.toList()) {
+                    Files.delete(file);
+                }
+            }
+            Files.delete(directory);
+        }
+    }
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        JdbcDataSource dataSource = new JdbcDataSource();
+        dataSource.setURL("jdbc:h2:mem:audit;DB_CLOSE_DELAY=-1");
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        jdbcTemplate.execute("CREATE TABLE tb_audit_event (id BIGINT AUTO_INCREMENT PRIMARY KEY, occurred_at TIMESTAMP WITH TIME ZONE NOT NULL, "
+                + "type VARCHAR(32) NOT NULL, subject TEXT, client_address VARCHAR(64), detail TEXT)");
+    }
+
+    @Benchmark
+    public void record(Audit audit) {
+        audit.auditLog.record(AuditEventType.LOGIN_FAILED, "user@example.com", "10.0.0.1", "Invalid credentials");
+    }
+
+    @Benchmark
+    public int synchronousInsert() {
+        return jdbcTemplate.update(INSERT_EVENT, AuditEventType.LOGIN_FAILED.name(), "user@example.com", "10.0.0.1", "Invalid credentials");
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(AuditLogBenchmark.class.getSimpleName()).addProfiler(GCProfiler.class).build()).run();
+    }
+}
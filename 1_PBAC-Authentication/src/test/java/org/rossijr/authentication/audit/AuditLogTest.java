@@ -0,0 +1,139 @@
+package org.rossijr.authentication.audit;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class AuditLogTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final GatedSink sink = new GatedSink();
+    private AuditLog auditLog;
+
+    @AfterEach
+    void tearDown() {
+        sink.gate.countDown();
+        auditLog.shutdown();
+    }
+
+    @Test
+    void writesEveryEventInOrderOnShutdown() {
+        auditLog = auditLog(1024, OverflowPolicy.DROP, 0);
+        sink.gate.countDown();
+        for (int i = 0; i < 100; i++) {
+            auditLog.record(AuditEventType.LOGIN_SUCCEEDED, "user" + i + "@example.com", "10.0.0.1", null);
+        }
+
+        auditLog.shutdown();
+
+        assertEquals(100, sink.events.size());
+        for (int i = 0; i < 100; i++) {
+            assertEquals("LOGIN_SUCCEEDED user" + i + "@example.com", sink.events.get(i));
+        }
+        assertTrue(sink.closed);
+    }
+
+    @Test
+    void dropsEventsWhenTheBufferIsFull() throws Exception {
+        auditLog = auditLog(4, OverflowPolicy.DROP, 0);
+        fillAndHoldBuffer();
+
+        auditLog.record(AuditEventType.LOGIN_FAILED, "late@example.com", null, "Invalid credentials");
+        auditLog.record(AuditEventType.LOGIN_FAILED, "late@example.com", null, "Invalid credentials");
+
+        assertEquals(2, dropped("full"));
+        sink.gate.countDown();
+        auditLog.shutdown();
+        assertEquals(4, sink.events.size());
+    }
+
+    @Test
+    void blocksUntilThereIsRoomInTheBuffer() throws Exception {
+        auditLog = auditLog(4, OverflowPolicy.BLOCK, TimeUnit.SECONDS.toMillis(30));
+        fillAndHoldBuffer();
+
+        CompletableFuture<Void> blocked = CompletableFuture.runAsync(
+                () -> auditLog.record(AuditEventType.TOKEN_REJECTED, null, null, "The Token has expired"));
+        Thread.sleep(100);
+        assertFalse(blocked.isDone());
+
+        sink.gate.countDown();
+        blocked.get(10, TimeUnit.SECONDS);
+        auditLog.shutdown();
+        assertEquals(5, sink.events.size());
+        assertEquals(0, dropped("full"));
+    }
+
+    @Test
+    void samplesEventsOnceTheBufferIsHalfFull() throws Exception {
+        auditLog = auditLog(8, OverflowPolicy.SAMPLE, 0);
+        fillAndHoldBuffer();
+
+        for (int i = 0; i < 10; i++) {
+            auditLog.record(AuditEventType.TOKEN_VALIDATED, "user@example.com", null, null);
+        }
+
+        // One event in a million is kept
+        assertEquals(10, dropped("sampled"), 1);
+    }
+
+    private AuditLog auditLog(int capacity, OverflowPolicy overflowPolicy, long blockTimeout) {
+        return new AuditLog(capacity, 4, TimeUnit.MINUTES.toMillis(1), overflowPolicy, blockTimeout, 1_000_000,
+                List.of(sink), meterRegistry);
+    }
+
+    /**
+     * Publishes a full batch, which the consumer reads and then holds (without releasing it) until the gate opens.
+     */
+    private void fillAndHoldBuffer() throws InterruptedException {
+        for (int i = 0; i < 4; i++) {
+            auditLog.record(AuditEventType.LOGIN_SUCCEEDED, "user" + i + "@example.com", "10.0.0.1", null);
+        }
+        assertTrue(sink.flushing.await(10, TimeUnit.SECONDS));
+    }
+
+    private double dropped(String reason) {
+        return meterRegistry.counter("audit.events.dropped", "reason", reason).count();
+    }
+
+    /**
+     * Sink keeping a copy of the events, whose flush waits until the gate opens.
+     */
+    private static class GatedSink implements AuditSink {
+        private final CountDownLatch gate = new CountDownLatch(1);
+        private final CountDownLatch flushing = new CountDownLatch(1);
+        private final List<String> events = new CopyOnWriteArrayList<>();
+        private volatile boolean closed;
+
+        @Override
+        public void append(AuditEvent event) {
+            events.add(event.getType() + " " + event.getSubject());
+        }
+
+        @Override
+        public void flush() throws InterruptedException {
+            flushing.countDown();
+            gate.await();
+        }
+
+        @Override
+        public String name() {
+            return "test";
+        }
+
+        @Override
+        public void close() {
+            closed = true;
+        }
+    }
+}
@@ -0,0 +1,66 @@
+package org.rossijr.authentication.audit;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class MappedFileAuditSinkTest {
+
+    @TempDir
+    private Path directory;
+
+    @Test
+    void appendsJsonLinesAndTruncatesTheSegmentOnClose() throws Exception {
+        MappedFileAuditSink sink = new MappedFileAuditSink(directory, 64 * 1024, 10);
+        sink.append(event(AuditEventType.LOGIN_FAILED, "user@example.com", "10.0.0.1", "Invalid \"credentials\""));
+        sink.append(event(AuditEventType.TOKEN_REJECTED, null, null, "line\nbreak"));
+        sink.close();
+
+        List<String> lines = Files.readAllLines(segments().get(0));
+        assertEquals(2, lines.size());
+        assertTrue(lines.get(0).matches("\\{\"timestamp\":\"[^\"]+\",\"type\":\"LOGIN_FAILED\",\"subject\":\"user@example.com\","
+                + "\"clientAddress\":\"10.0.0.1\",\"detail\":\"Invalid \\\\\"credentials\\\\\"\"}"), lines.get(0));
+        assertTrue(lines.get(1).endsWith("\"type\":\"TOKEN_REJECTED\",\"detail\":\"line\\nbreak\"}"), lines.get(1));
+    }
+
+    @Test
+    void rotatesSegmentsAndKeepsOnlyTheLatestOnes() throws Exception {
+        MappedFileAuditSink sink = new MappedFileAuditSink(directory, 64 * 1024, 3);
+        long lines = 0;
+        // About 10 segments of events
+        for (int i = 0; i < 6000; i++) {
+            sink.append(event(AuditEventType.LOGIN_SUCCEEDED, "user" + i + "@example.com", "10.0.0.1", null));
+        }
+        sink.close();
+
+        List<Path> segments = segments();
+        assertEquals(3, segments.size());
+        for (Path segment : segments) {
+            assertTrue(Files.size(segment) <= 64 * 1024);
+            lines += Files.readAllLines(segment).size();
+        }
+        // The last event is in the latest segment, and no event is split across segments
+        List<String> latest = Files.readAllLines(segments.get(2));
+        assertTrue(latest.get(latest.size() - 1).contains("\"subject\":\"user5999@example.com\""));
+        assertTrue(lines < 6000);
+    }
+
+    private List<Path> segments() throws Exception {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.sorted().toList();
+        }
+    }
+
+    private static AuditEvent event(AuditEventType type, String subject, String clientAddress, String detail) {
+        AuditEvent event = new AuditEvent();
+        event.set(type, System.currentTimeMillis(), subject, clientAddress, detail);
+        return event;
+    }
+}
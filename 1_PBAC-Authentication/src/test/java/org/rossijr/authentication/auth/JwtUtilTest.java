@@ -0,0 +1,133 @@
+package org.rossijr.authentication.auth;
+
+import com.auth0.jwt.JWT;
+import com.auth0.jwt.algorithms.Algorithm;
+import com.auth0.jwt.exceptions.SignatureVerificationException;
+import com.auth0.jwt.exceptions.TokenExpiredException;
+import com.auth0.jwt.interfaces.DecodedJWT;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Verification of the tokens through the {@link VerifiedTokenCache} and the per-request memo of {@link JwtUtil}.
+ */
+class JwtUtilTest {
+    private static final String SECRET = "test-secret";
+
+    private VerifiedTokenCache verifiedTokenCache;
+    private TokenRevocationList tokenRevocationList;
+    private JwtUtil jwtUtil;
+
+    @BeforeEach
+    void setUp() {
+        verifiedTokenCache = new VerifiedTokenCache(100);
+        tokenRevocationList = new TokenRevocationList(Duration.ofHours(1).toMillis(), 100, new SimpleMeterRegistry());
+        jwtUtil = jwtUtil(verifiedTokenCache, tokenRevocationList);
+    }
+
+    @AfterEach
+    void tearDown() {
+        RequestContextHolder.resetRequestAttributes();
+        tokenRevocationList.shutdown();
+    }
+
+    @Test
+    void verifiedTokenIsAnsweredByTheCache() {
+        String token = jwtUtil.createToken("user@example.com");
+
+        DecodedJWT verified = jwtUtil.verifyToken(token);
+
+        assertSame(verified, verifiedTokenCache.get(token));
+        assertSame(verified, jwtUtil.verifyToken(token));
+    }
+
+    @Test
+    void revokedTokenIsRejectedOnACacheHit() {
+        String token = jwtUtil.createToken("user@example.com");
+        DecodedJWT verified = jwtUtil.verifyToken(token);
+
+        jwtUtil.revokeToken(verified);
+
+        assertSame(verified, verifiedTokenCache.get(token));
+        assertThrows(TokenRevokedException.class, () -> jwtUtil.verifyToken(token));
+    }
+
+    @Test
+    void expiredCachedTokenIsNotReturned() {
+        String token = JWT.create()
+                .withJWTId(UUID.randomUUID().toString())
+                .withSubject("user@example.com")
+                .withExpiresAt(Instant.now().minusSeconds(60))
+                .sign(Algorithm.HMAC256(SECRET));
+        // Stored as if it had been verified before it expired
+        verifiedTokenCache.put(JWT.decode(token));
+
+        assertNull(verifiedTokenCache.get(token));
+        assertThrows(TokenExpiredException.class, () -> jwtUtil.verifyToken(token));
+    }
+
+    @Test
+    void tamperedTokenIsVerified() {
+        String token = jwtUtil.createToken("user@example.com");
+        jwtUtil.verifyToken(token);
+
+        String forged = JWT.create()
+                .withSubject("admin@example.com")
+                .withExpiresAt(Instant.now().plusSeconds(60))
+                .sign(Algorithm.HMAC256("another-secret"));
+
+        assertThrows(SignatureVerificationException.class, () -> jwtUtil.verifyToken(forged));
+    }
+
+    @Test
+    void tokenIsVerifiedOncePerRequest() {
+        // Without the cache, only the memo can answer a second verification with the same instance
+        JwtUtil uncachedJwtUtil = jwtUtil(new VerifiedTokenCache(1), tokenRevocationList);
+        uncachedJwtUtil.verifyToken(uncachedJwtUtil.createToken("filler@example.com"));
+        String token = uncachedJwtUtil.createToken("user@example.com");
+        String otherToken = uncachedJwtUtil.createToken("admin@example.com");
+
+        assertNotSame(uncachedJwtUtil.verifyToken(token), uncachedJwtUtil.verifyToken(token));
+
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(new MockHttpServletRequest()));
+        DecodedJWT verified = uncachedJwtUtil.verifyToken(token);
+        assertSame(verified, uncachedJwtUtil.verifyToken(token));
+        assertNotSame(verified, uncachedJwtUtil.verifyToken(otherToken));
+
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(new MockHttpServletRequest()));
+        assertNotSame(verified, uncachedJwtUtil.verifyToken(token));
+    }
+
+    @Test
+    void revokedTokenIsRejectedOnAMemoHit() {
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(new MockHttpServletRequest()));
+        String token = jwtUtil.createToken("user@example.com");
+
+        jwtUtil.revokeToken(jwtUtil.verifyToken(token));
+
+        assertThrows(TokenRevokedException.class, () -> jwtUtil.verifyToken(token));
+    }
+
+    static JwtUtil jwtUtil(VerifiedTokenCache verifiedTokenCache, TokenRevocationList tokenRevocationList) {
+        JwtUtil jwtUtil = new JwtUtil(verifiedTokenCache, tokenRevocationList);
+        ReflectionTestUtils.setField(jwtUtil, "SECRET", SECRET);
+        ReflectionTestUtils.setField(jwtUtil, "expireTime", Duration.ofHours(1).toMillis());
+        jwtUtil.init();
+        return jwtUtil;
+    }
+}
@@ -0,0 +1,106 @@
+package org.rossijr.authentication.auth;
+
+import com.auth0.jwt.interfaces.DecodedJWT;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of {@link JwtUtil#verifyToken(String)} for a token that was never seen (cold: signature verification and
+ * parsing), one found in the {@link VerifiedTokenCache} (warm) and one already verified during the request (memo).
+ *
+ * <p>Run it with {@code mvn test-compile exec:exec -Dexec.classpathScope=test -Dexec.executable=java
+ * "-Dexec.args=-cp %classpath org.rossijr.authentication.auth.JwtVerificationBenchmark"}.</p>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class JwtVerificationBenchmark {
+    private static final int TOKENS = 1024;
+
+    private TokenRevocationList revocationList;
+    // Its cache is kept full with a token never looked up, so every token is verified
+    private JwtUtil coldJwtUtil;
+    private JwtUtil warmJwtUtil;
+    private final String[] tokens = new String[TOKENS];
+    private int next;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        revocationList = new TokenRevocationList(Duration.ofHours(1).toMillis(), 1000, new SimpleMeterRegistry());
+        coldJwtUtil = JwtUtilTest.jwtUtil(new VerifiedTokenCache(1), revocationList);
+        coldJwtUtil.verifyToken(coldJwtUtil.createToken("filler@example.com"));
+        warmJwtUtil = JwtUtilTest.jwtUtil(new VerifiedTokenCache(TOKENS), revocationList);
+        for (int i = 0; i < TOKENS; i++) {
+            tokens[i] = warmJwtUtil.createToken("user" + i + "@example.com");
+            warmJwtUtil.verifyToken(tokens[i]);
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        RequestContextHolder.resetRequestAttributes();
+        revocationList.shutdown();
+    }
+
+    @Benchmark
+    public DecodedJWT cold() {
+        return coldJwtUtil.verifyToken(tokens[next++ & (TOKENS - 1)]);
+    }
+
+    @Benchmark
+    public DecodedJWT warm() {
+        return warmJwtUtil.verifyToken(tokens[next++ & (TOKENS - 1)]);
+    }
+
+    /**
+     * The JWT filter and the {@code @PreAuthorize} expressions of the same request verifying the same token.
+     */
+    @Benchmark
+    public DecodedJWT memoized(RequestState request) {
+        return warmJwtUtil.verifyToken(request.token);
+    }
+
+    @State(Scope.Thread)
+    public static class RequestState {
+        private String token;
+
+        @Setup(Level.Iteration)
+        public void setUp(JwtVerificationBenchmark benchmark) {
+            RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(new MockHttpServletRequest()));
+            token = benchmark.tokens[0];
+            benchmark.warmJwtUtil.verifyToken(token);
+        }
+
+        @TearDown(Level.Iteration)
+        public void tearDown() {
+            RequestContextHolder.resetRequestAttributes();
+        }
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(JwtVerificationBenchmark.class.getSimpleName()).build()).run();
+    }
+}
@@ -0,0 +1,106 @@
+package org.rossijr.authentication.auth;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.h2.jdbcx.JdbcDataSource;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class LastLoginWriterTest {
+    private static final long NEVER = TimeUnit.HOURS.toMillis(1);
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final RecordingJdbcTemplate jdbcTemplate = new RecordingJdbcTemplate();
+    private LastLoginWriter writer;
+
+    @AfterEach
+    void shutdown() {
+        writer.shutdown();
+        jdbcTemplate.execute("DROP TABLE tb_user");
+    }
+
+    @Test
+    void writesTheLoginsInBatchesOnceTheThresholdIsReached() throws Exception {
+        writer = new LastLoginWriter(jdbcTemplate, NEVER, 3, meterRegistry);
+
+        writer.record("user0@example.com");
+        writer.record("user1@example.com");
+        // The latest login of a user replaces the pending one
+        writer.record("user1@example.com");
+        assertNull(jdbcTemplate.batches.poll(100, TimeUnit.MILLISECONDS));
+        assertEquals(2, meterRegistry.get("last.login.pending").gauge().value());
+
+        writer.record("user2@example.com");
+        assertEquals(3, jdbcTemplate.batches.poll(10, TimeUnit.SECONDS));
+        for (int i = 0; i < 3; i++) {
+            assertNotNull(lastLogin("user" + i + "@example.com"));
+        }
+        assertNull(lastLogin("user3@example.com"));
+        assertEquals(0, meterRegistry.get("last.login.pending").gauge().value());
+    }
+
+    @Test
+    void writesThePendingLoginsOnSchedule() throws Exception {
+        writer = new LastLoginWriter(jdbcTemplate, 50, 100, meterRegistry);
+
+        writer.record("user0@example.com");
+
+        assertEquals(1, jdbcTemplate.batches.poll(10, TimeUnit.SECONDS));
+        assertNotNull(lastLogin("user0@example.com"));
+    }
+
+    @Test
+    void writesThePendingLoginsOnShutdown() {
+        writer = new LastLoginWriter(jdbcTemplate, NEVER, 2, meterRegistry);
+        writer.record("user0@example.com");
+
+        writer.shutdown();
+        assertEquals(1, jdbcTemplate.batches.size());
+        assertNotNull(lastLogin("user0@example.com"));
+
+        // Once the writer is stopped, a full batch is written on the caller thread instead of failing the login
+        writer.record("user1@example.com");
+        writer.record("user2@example.com");
+        assertEquals(2, jdbcTemplate.batches.size());
+        assertNotNull(lastLogin("user1@example.com"));
+        assertNotNull(lastLogin("user2@example.com"));
+    }
+
+    private Object lastLogin(String email) {
+        return jdbcTemplate.queryForObject("SELECT last_login FROM tb_user WHERE email = ?", Object.class, email);
+    }
+
+    /**
+     * Template on an in-memory H2 database with four users, recording the size of each batch of updates.
+     */
+    private static class RecordingJdbcTemplate extends JdbcTemplate {
+        private final BlockingQueue<Integer> batches = new LinkedBlockingQueue<>();
+
+        RecordingJdbcTemplate() {
+            JdbcDataSource dataSource = new JdbcDataSource();
+            dataSource.setURL("jdbc:h2:mem:lastlogin;DB_CLOSE_DELAY=-1");
+            setDataSource(dataSource);
+            afterPropertiesSet();
+            execute("CREATE TABLE tb_user (email VARCHAR(255) PRIMARY KEY, last_login TIMESTAMP WITH TIME ZONE)");
+            for (int i = 0; i < 4; i++) {
+                update("INSERT INTO tb_user (email) VALUES (?)", "user" + i + "@example.com");
+            }
+        }
+
+        @Override
+        public int[] batchUpdate(String sql, List<Object[]> batchArgs) {
+            int[] counts = super.batchUpdate(sql, batchArgs);
+            batches.add(batchArgs.size());
+            return counts;
+        }
+    }
+}
@@ -0,0 +1,94 @@
+package org.rossijr.authentication.auth;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.rossijr.authentication.exception.TooManyLoginAttemptsException;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class LoginRateLimiterTest {
+
+    private final AtomicLong clock = new AtomicLong(-TimeUnit.HOURS.toNanos(1));
+    private LoginRateLimiter limiter;
+
+    @BeforeEach
+    void setUp() {
+        // 10 attempts per IP and 3 per email, regaining 60 per minute (one per second)
+        limiter = new LoginRateLimiter(true, 10, 60, 3, 60, 1000, 60000, new SimpleMeterRegistry(), clock::get);
+    }
+
+    @AfterEach
+    void tearDown() {
+        limiter.shutdown();
+    }
+
+    @Test
+    void rejectsAttemptsBeyondTheEmailBurstUntilATokenIsRegained() {
+        for (int i = 0; i < 3; i++) {
+            limiter.acquire("10.0.0." + i, "user@example.com");
+        }
+
+        TooManyLoginAttemptsException e = assertThrows(TooManyLoginAttemptsException.class,
+                () -> limiter.acquire("10.0.0.9", " USER@example.com"));
+        assertEquals(1, e.getRetryAfterSeconds());
+        assertDoesNotThrow(() -> limiter.acquire("10.0.0.9", "other@example.com"));
+
+        clock.addAndGet(TimeUnit.SECONDS.toNanos(1));
+        assertDoesNotThrow(() -> limiter.acquire("10.0.0.9", "user@example.com"));
+    }
+
+    @Test
+    void rejectsAttemptsBeyondTheIpBurst() {
+        for (int i = 0; i < 10; i++) {
+            limiter.acquire("10.0.0.1", "user" + i + "@example.com");
+        }
+
+        assertThrows(TooManyLoginAttemptsException.class, () -> limiter.acquire("10.0.0.1", "another@example.com"));
+    }
+
+    @Test
+    void sweepReclaimsOnlyFullBuckets() {
+        limiter.acquire("10.0.0.1", "user@example.com");
+        clock.addAndGet(TimeUnit.MILLISECONDS.toNanos(500));
+        limiter.acquire("10.0.0.2", "other@example.com");
+        clock.addAndGet(TimeUnit.MILLISECONDS.toNanos(600));
+
+        limiter.sweep();
+
+        assertEquals(2, limiter.size());
+    }
+
+    @Test
+    void sprayedKeysDoNotLockOutOtherUsers() {
+        // At most 4 buckets per stripe
+        LoginRateLimiter smallLimiter = new LoginRateLimiter(true, 10, 60, 3, 60, 256, 60000, new SimpleMeterRegistry(), clock::get);
+        try {
+            for (int i = 0; i < 3; i++) {
+                smallLimiter.acquire(null, "victim@example.com");
+            }
+
+            // Every stripe is filled many times over, each sprayed email still gets a bucket of its own
+            for (int i = 0; i < 10_000; i++) {
+                String email = "random" + i + "@example.com";
+                assertDoesNotThrow(() -> smallLimiter.acquire(null, email));
+            }
+            assertTrue(smallLimiter.size() <= 256);
+
+            for (int i = 0; i < 3; i++) {
+                assertDoesNotThrow(() -> smallLimiter.acquire(null, "user@example.com"));
+            }
+            // The drained bucket of the attacked email was kept
+            assertThrows(TooManyLoginAttemptsException.class, () -> smallLimiter.acquire(null, "victim@example.com"));
+        } finally {
+            smallLimiter.shutdown();
+        }
+    }
+}
@@ -0,0 +1,132 @@
+package org.rossijr.authentication.auth;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.rossijr.authentication.config.OverloadExceptionHandler;
+import org.rossijr.authentication.config.dto.ExceptionResponseDTO;
+import org.rossijr.authentication.exception.ServiceOverloadedException;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseEntity;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class OffloadedPasswordEncoderTest {
+
+    private final GatedPasswordEncoder delegate = new GatedPasswordEncoder();
+    private OffloadedPasswordEncoder encoder;
+
+    @AfterEach
+    void tearDown() {
+        delegate.gate.countDown();
+        encoder.destroy();
+    }
+
+    @Test
+    void rejectsOperationsWhenTheQueueIsFull() throws Exception {
+        CompletableFuture<String> running = saturate();
+
+        ServiceOverloadedException encodeRejected = assertThrows(ServiceOverloadedException.class, () -> encoder.encode("rejected"));
+        assertEquals(7, encodeRejected.getRetryAfterSeconds());
+        assertThrows(ServiceOverloadedException.class, () -> encoder.matches("rejected", "encoded:rejected"));
+
+        // Once the queue has room again, the operations are accepted
+        delegate.gate.countDown();
+        assertEquals("encoded:running", running.get(10, TimeUnit.SECONDS));
+        assertTrue(encoder.matches("accepted", "encoded:accepted"));
+    }
+
+    @Test
+    void rejectionIsAnsweredWithServiceUnavailableAndRetryAfter() throws Exception {
+        saturate();
+        ServiceOverloadedException rejected = assertThrows(ServiceOverloadedException.class, () -> encoder.matches("rejected", "encoded:rejected"));
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", "/api/v1/authentication/login");
+
+        ResponseEntity<ExceptionResponseDTO> response = new OverloadExceptionHandler().handleServiceOverloadedException(rejected, request);
+
+        assertEquals(503, response.getStatusCode().value());
+        assertEquals("7", response.getHeaders().getFirst(HttpHeaders.RETRY_AFTER));
+        assertEquals(503, response.getBody().getStatus());
+        assertEquals("/api/v1/authentication/login", response.getBody().getPath());
+    }
+
+    @Test
+    void encodeAllKeepsTheOrderOfThePasswords() {
+        delegate.gate.countDown();
+        // Fewer places in the queue than slices, so some slices are encoded on the calling thread
+        encoder = new OffloadedPasswordEncoder(delegate, 4, 1, 1, new SimpleMeterRegistry());
+        List<String> rawPasswords = IntStream.range(0, 101).mapToObj(i -> "password" + i).toList();
+
+        List<String> encodedPasswords = encoder.encodeAll(rawPasswords);
+
+        List<String> expected = new ArrayList<>();
+        for (String rawPassword : rawPasswords) {
+            expected.add("encoded:" + rawPassword);
+        }
+        assertEquals(expected, encodedPasswords);
+        assertEquals(List.of(), encoder.encodeAll(List.of()));
+    }
+
+    /**
+     * Creates an encoder with one hashing thread and room for one more operation in the queue, and fills both.
+     *
+     * @return the running operation, which completes once the gate of the delegate is opened
+     */
+    private CompletableFuture<String> saturate() throws InterruptedException {
+        encoder = new OffloadedPasswordEncoder(delegate, 1, 1, 7, new SimpleMeterRegistry());
+
+        CompletableFuture<String> running = CompletableFuture.supplyAsync(() -> encoder.encode("running"));
+        assertTrue(delegate.started.await(10, TimeUnit.SECONDS));
+        Thread queued = new Thread(() -> encoder.matches("queued", "encoded:queued"));
+        queued.setDaemon(true);
+        queued.start();
+        awaitWaiting(queued);
+        return running;
+    }
+
+    /**
+     * Waits until the given thread is parked, i.e. its operation was accepted and it waits for the result.
+     */
+    private static void awaitWaiting(Thread thread) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (thread.getState() != Thread.State.WAITING) {
+            assertTrue(System.nanoTime() < deadline, "The operation was not queued");
+            Thread.sleep(10);
+        }
+    }
+
+    /**
+     * Encoder prefixing the passwords with {@code encoded:}, which blocks until its gate is opened.
+     */
+    private static class GatedPasswordEncoder implements PasswordEncoder {
+        private final CountDownLatch started = new CountDownLatch(1);
+        private final CountDownLatch gate = new CountDownLatch(1);
+
+        @Override
+        public String encode(CharSequence rawPassword) {
+            started.countDown();
+            try {
+                gate.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return "encoded:" + rawPassword;
+        }
+
+        @Override
+        public boolean matches(CharSequence rawPassword, String encodedPassword) {
+            return encode(rawPassword).equals(encodedPassword);
+        }
+    }
+}
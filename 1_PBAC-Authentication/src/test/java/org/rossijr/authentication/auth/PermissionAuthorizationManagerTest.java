@@ -0,0 +1,118 @@
+package org.rossijr.authentication.auth;
+
+import org.aopalliance.intercept.MethodInvocation;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.rossijr.authentication.model.Permission;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.util.SimpleMethodInvocation;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class PermissionAuthorizationManagerTest {
+
+    private final List<Permission> permissions = new ArrayList<>();
+    private PermissionIndex index;
+    private PermissionAuthorizationManager manager;
+
+    @BeforeEach
+    void setUp() {
+        addPermission(1L, "VIEW_USER");
+        addPermission(2L, "CREATE_USER");
+        index = new PermissionIndex(() -> permissions);
+        index.refresh();
+        manager = new PermissionAuthorizationManager(() -> index);
+    }
+
+    @Test
+    void grantsAHeldPermission() throws Exception {
+        assertTrue(check(user("VIEW_USER"), "viewUser"));
+    }
+
+    @Test
+    void deniesAPermissionNotHeld() throws Exception {
+        assertFalse(check(user("VIEW_USER"), "createUser"));
+    }
+
+    @Test
+    void deniesAnUnknownPermission() throws Exception {
+        // MANAGE_ROLES is not in the index, so it maps to -1
+        assertFalse(check(user("VIEW_USER", "CREATE_USER", "MANAGE_ROLES"), "manageRoles"));
+    }
+
+    @Test
+    void deniesMissingOrUnauthenticatedAuthentications() throws Exception {
+        assertFalse(check(null, "viewUser"));
+        assertFalse(check(UsernamePasswordAuthenticationToken.unauthenticated("user@example.com", null), "viewUser"));
+    }
+
+    @Test
+    void checksOtherPrincipalsAgainstTheirAuthorities() throws Exception {
+        Authentication authentication = UsernamePasswordAuthenticationToken.authenticated("user@example.com", null,
+                List.of(new SimpleGrantedAuthority("CREATE_USER")));
+
+        assertTrue(check(authentication, "createUser"));
+        assertFalse(check(authentication, "viewUser"));
+    }
+
+    @Test
+    void grantsAPermissionIndexedOnAChangeAffectingAllUsers() throws Exception {
+        addPermission(3L, "MANAGE_ROLES");
+        index.onAuthoritiesChanged(AuthoritiesChangedEvent.forAllUsers(this));
+
+        assertTrue(check(user("MANAGE_ROLES"), "manageRoles"));
+        assertFalse(check(user("VIEW_USER"), "manageRoles"));
+    }
+
+    @Test
+    void rejectsMethodsWithoutTheAnnotation() {
+        assertThrows(IllegalStateException.class, () -> check(user("VIEW_USER"), "notAnnotated"));
+    }
+
+    private boolean check(Authentication authentication, String methodName) throws NoSuchMethodException {
+        MethodInvocation invocation = new SimpleMethodInvocation(new SecuredMethods(),
+                SecuredMethods.class.getMethod(methodName));
+        return manager.authorize(() -> authentication, invocation).isGranted();
+    }
+
+    private Authentication user(String... permissionNames) {
+        List<SimpleGrantedAuthority> authorities = new ArrayList<>();
+        for (String name : permissionNames) {
+            authorities.add(new SimpleGrantedAuthority(name));
+        }
+        AuthenticatedUser user = new AuthenticatedUser(UUID.randomUUID(), "user@example.com", null, authorities,
+                index.compile(List.of(permissionNames)));
+        return UsernamePasswordAuthenticationToken.authenticated(user, null, authorities);
+    }
+
+    private void addPermission(Long id, String name) {
+        Permission permission = new Permission(name, name);
+        permission.setId(id);
+        permissions.add(permission);
+    }
+
+    static class SecuredMethods {
+        @RequiresPermission("VIEW_USER")
+        public void viewUser() {
+        }
+
+        @RequiresPermission("CREATE_USER")
+        public void createUser() {
+        }
+
+        @RequiresPermission("MANAGE_ROLES")
+        public void manageRoles() {
+        }
+
+        public void notAnnotated() {
+        }
+    }
+}
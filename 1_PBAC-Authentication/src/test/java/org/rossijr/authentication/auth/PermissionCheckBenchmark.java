@@ -0,0 +1,104 @@
+package org.rossijr.authentication.auth;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.rossijr.authentication.model.Permission;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.authorization.AuthorityAuthorizationManager;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Cost of a permission check through the {@link PermissionIndex} and the {@link PermissionSet} of the
+ * {@link AuthenticatedUser}, compared to Spring Security's {@code hasAuthority} ({@link AuthorityAuthorizationManager}),
+ * for a user holding 10, 100 or 1000 permissions.
+ *
+ * <p>Run it with {@code mvn test-compile exec:exec -Dexec.classpathScope=test -Dexec.executable=java
+ * "-Dexec.args=-cp %classpath org.rossijr.authentication.auth.PermissionCheckBenchmark"}. Each check asks for one of
+ * the permissions held by the user, in turn.</p>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PermissionCheckBenchmark {
+    private static final int LOOKUP_KEYS = 1024;
+
+    @Param({"10", "100", "1000"})
+    private int permissionCount;
+
+    private PermissionIndex permissionIndex;
+    private AuthenticatedUser user;
+    private Supplier<Authentication> authentication;
+    private final String[] lookups = new String[LOOKUP_KEYS];
+    private final List<AuthorityAuthorizationManager<Object>> hasAuthority = new ArrayList<>(LOOKUP_KEYS);
+    private int next;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        List<Permission> permissions = new ArrayList<>(permissionCount);
+        List<String> names = new ArrayList<>(permissionCount);
+        List<SimpleGrantedAuthority> authorities = new ArrayList<>(permissionCount);
+        for (int i = 0; i < permissionCount; i++) {
+            String name = "PERMISSION_" + i;
+            Permission permission = new Permission(name, name);
+            permission.setId((long) i);
+            permissions.add(permission);
+            names.add(name);
+            authorities.add(new SimpleGrantedAuthority(name));
+        }
+        permissionIndex = new PermissionIndex(() -> permissions);
+        permissionIndex.refresh();
+        user = new AuthenticatedUser(UUID.randomUUID(), "user@example.com", null, authorities, permissionIndex.compile(names));
+        Authentication token = UsernamePasswordAuthenticationToken.authenticated(user, null, user.getAuthorities());
+        authentication = () -> token;
+
+        for (int i = 0; i < LOOKUP_KEYS; i++) {
+            // Distinct instances, as the annotation value read by the managers would be
+            lookups[i] = new String(names.get((i * 7919) % permissionCount));
+            hasAuthority.add(AuthorityAuthorizationManager.hasAuthority(lookups[i]));
+        }
+    }
+
+    /**
+     * What the {@link PermissionAuthorizationManager} does: an index lookup and a bitwise test.
+     */
+    @Benchmark
+    public boolean permissionSet() {
+        return user.getPermissions().contains(permissionIndex.indexOf(lookups[next++ & (LOOKUP_KEYS - 1)]));
+    }
+
+    /**
+     * What {@code @PreAuthorize("hasAuthority('...')")} does once the expression is evaluated: a scan of the
+     * authorities.
+     */
+    @Benchmark
+    public boolean hasAuthority() {
+        return hasAuthority.get(next++ & (LOOKUP_KEYS - 1)).check(authentication, null).isGranted();
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(PermissionCheckBenchmark.class.getSimpleName()).build()).run();
+    }
+}
@@ -0,0 +1,82 @@
+package org.rossijr.authentication.auth;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.rossijr.authentication.model.Permission;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class PermissionIndexTest {
+
+    private final List<Permission> permissions = new ArrayList<>();
+    private PermissionIndex index;
+
+    @BeforeEach
+    void setUp() {
+        addPermission(1L, "VIEW_USER");
+        addPermission(2L, "CREATE_USER");
+        index = new PermissionIndex(() -> permissions);
+        index.refresh();
+    }
+
+    @Test
+    void indexesPermissionsInIdOrder() {
+        assertEquals(0, index.indexOf("VIEW_USER"));
+        assertEquals(1, index.indexOf("CREATE_USER"));
+    }
+
+    @Test
+    void unknownPermissionHasNoIndex() {
+        assertEquals(-1, index.indexOf("MANAGE_ROLES"));
+        assertEquals(-1, index.indexOf(null));
+    }
+
+    @Test
+    void compileIgnoresUnknownPermissions() {
+        PermissionSet set = index.compile(List.of("CREATE_USER", "MANAGE_ROLES"));
+
+        assertTrue(set.contains(index.indexOf("CREATE_USER")));
+        assertFalse(set.contains(index.indexOf("VIEW_USER")));
+        assertFalse(set.contains(index.indexOf("MANAGE_ROLES")));
+    }
+
+    @Test
+    void reindexesOnChangesAffectingAllUsers() {
+        PermissionSet compiledBefore = index.compile(List.of("VIEW_USER", "CREATE_USER"));
+        addPermission(3L, "MANAGE_ROLES");
+
+        index.onAuthoritiesChanged(AuthoritiesChangedEvent.forUser(this, "user@example.com"));
+        assertEquals(-1, index.indexOf("MANAGE_ROLES"));
+
+        index.onAuthoritiesChanged(AuthoritiesChangedEvent.forAllUsers(this));
+        assertEquals(2, index.indexOf("MANAGE_ROLES"));
+        // Existing indexes are kept, so the sets compiled before stay valid
+        assertEquals(0, index.indexOf("VIEW_USER"));
+        assertEquals(1, index.indexOf("CREATE_USER"));
+        assertTrue(compiledBefore.contains(index.indexOf("CREATE_USER")));
+        assertFalse(compiledBefore.contains(index.indexOf("MANAGE_ROLES")));
+    }
+
+    @Test
+    void keepsIndexesOfDeletedPermissions() {
+        permissions.remove(0);
+        addPermission(3L, "MANAGE_ROLES");
+
+        index.onAuthoritiesChanged(AuthoritiesChangedEvent.forAllUsers(this));
+
+        assertEquals(0, index.indexOf("VIEW_USER"));
+        assertEquals(1, index.indexOf("CREATE_USER"));
+        assertEquals(2, index.indexOf("MANAGE_ROLES"));
+    }
+
+    private void addPermission(Long id, String name) {
+        Permission permission = new Permission(name, name);
+        permission.setId(id);
+        permissions.add(permission);
+    }
+}
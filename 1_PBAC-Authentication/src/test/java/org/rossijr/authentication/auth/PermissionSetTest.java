@@ -0,0 +1,31 @@
+package org.rossijr.authentication.auth;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class PermissionSetTest {
+
+    @Test
+    void containsOnlyTheSetBits() {
+        // Bits 0, 63 and 64, across two words
+        PermissionSet set = new PermissionSet(new long[]{1L | 1L << 63, 1L});
+
+        assertTrue(set.contains(0));
+        assertTrue(set.contains(63));
+        assertTrue(set.contains(64));
+        assertFalse(set.contains(1));
+        assertFalse(set.contains(65));
+    }
+
+    @Test
+    void deniesNegativeAndOutOfRangeIndexes() {
+        PermissionSet set = new PermissionSet(new long[]{-1L});
+
+        assertFalse(set.contains(-1));
+        assertFalse(set.contains(64));
+        assertFalse(set.contains(1000));
+        assertFalse(PermissionSet.EMPTY.contains(0));
+    }
+}
@@ -0,0 +1,61 @@
+package org.rossijr.authentication.auth;
+
+import com.auth0.jwt.exceptions.JWTDecodeException;
+import com.auth0.jwt.exceptions.JWTVerificationException;
+import com.auth0.jwt.exceptions.TokenExpiredException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.rossijr.authentication.auth.SecurityPhaseRecorder.Outcome;
+import org.rossijr.authentication.auth.SecurityPhaseRecorder.Phase;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
+
+import java.time.Instant;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class SecurityPhaseRecorderTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @Test
+    void recordsTheLatencyTaggedByPhaseAndOutcome() {
+        SecurityPhaseRecorder recorder = new SecurityPhaseRecorder(meterRegistry, true);
+
+        long start = recorder.start();
+        assertNotEquals(SecurityPhaseRecorder.NOT_TIMED, start);
+        recorder.record(Phase.TOKEN_VERIFICATION, Outcome.VALID, start);
+        recorder.record(Phase.TOKEN_VERIFICATION, Outcome.VALID, recorder.start());
+        recorder.record(Phase.EXPRESSION_CHECK, Outcome.DENIED, recorder.start());
+
+        assertEquals(2, meterRegistry.get("security.phase")
+                .tag("phase", "token_verification").tag("outcome", "valid").timer().count());
+        assertEquals(1, meterRegistry.get("security.phase")
+                .tag("phase", "expression_check").tag("outcome", "denied").timer().count());
+        assertNull(meterRegistry.find("security.phase").tag("outcome", "granted").timer());
+    }
+
+    @Test
+    void recordsNothingWhenDisabled() {
+        // No JFR recording is running in the tests
+        SecurityPhaseRecorder recorder = new SecurityPhaseRecorder(meterRegistry, false);
+
+        long start = recorder.start();
+        recorder.record(Phase.USER_LOADING, Outcome.VALID, start);
+
+        assertEquals(SecurityPhaseRecorder.NOT_TIMED, start);
+        assertTrue(meterRegistry.find("security.phase").timers().isEmpty());
+    }
+
+    @Test
+    void mapsExceptionsToOutcomes() {
+        assertEquals(Outcome.REVOKED, SecurityPhaseRecorder.outcomeOf(new TokenRevokedException("revoked")));
+        assertEquals(Outcome.EXPIRED, SecurityPhaseRecorder.outcomeOf(new TokenExpiredException("expired", Instant.now())));
+        assertEquals(Outcome.MALFORMED, SecurityPhaseRecorder.outcomeOf(new JWTDecodeException("malformed")));
+        assertEquals(Outcome.INVALID, SecurityPhaseRecorder.outcomeOf(new JWTVerificationException("bad signature")));
+        assertEquals(Outcome.USER_MISSING, SecurityPhaseRecorder.outcomeOf(new UsernameNotFoundException("missing")));
+        assertEquals(Outcome.ERROR, SecurityPhaseRecorder.outcomeOf(new IllegalStateException("unexpected")));
+    }
+}
@@ -0,0 +1,85 @@
+package org.rossijr.authentication.auth;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.aopalliance.intercept.MethodInvocation;
+import org.junit.jupiter.api.Test;
+import org.rossijr.authentication.auth.SecurityPhaseRecorder.Phase;
+import org.springframework.security.authorization.AuthorizationDecision;
+import org.springframework.security.authorization.AuthorizationDeniedException;
+import org.springframework.security.authorization.AuthorizationManager;
+import org.springframework.security.authorization.AuthorizationResult;
+import org.springframework.security.authorization.method.MethodAuthorizationDeniedHandler;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.util.SimpleMethodInvocation;
+
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class TimedAuthorizationManagerTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final SecurityPhaseRecorder recorder = new SecurityPhaseRecorder(meterRegistry, true);
+
+    @Test
+    void recordsTheOutcomeOfTheDelegate() {
+        TimedAuthorizationManager<Object> granting = timed((authentication, object) -> new AuthorizationDecision(true));
+        TimedAuthorizationManager<Object> denying = timed((authentication, object) -> new AuthorizationDecision(false));
+
+        assertTrue(granting.authorize(() -> null, new Object()).isGranted());
+        assertFalse(denying.authorize(() -> null, new Object()).isGranted());
+        assertFalse(denying.check(() -> null, new Object()).isGranted());
+
+        assertEquals(1, count("granted"));
+        assertEquals(2, count("denied"));
+    }
+
+    @Test
+    void recordsFailuresOfTheDelegate() {
+        TimedAuthorizationManager<Object> failing = timed((authentication, object) -> {
+            throw new IllegalStateException("failure");
+        });
+
+        assertThrows(IllegalStateException.class, () -> failing.authorize(() -> null, new Object()));
+        assertEquals(1, count("error"));
+    }
+
+    @Test
+    void handlesDeniedInvocationsThroughTheDelegate() throws NoSuchMethodException {
+        MethodInvocation invocation = new SimpleMethodInvocation(this, Object.class.getMethod("toString"));
+        AuthorizationDecision denied = new AuthorizationDecision(false);
+
+        TimedAuthorizationManager<MethodInvocation> handling = timed(new HandlingManager());
+        TimedAuthorizationManager<MethodInvocation> throwing = timed((authentication, object) -> denied);
+
+        assertEquals("fallback", handling.handleDeniedInvocation(invocation, denied));
+        assertThrows(AuthorizationDeniedException.class, () -> throwing.handleDeniedInvocation(invocation, denied));
+    }
+
+    private <T> TimedAuthorizationManager<T> timed(AuthorizationManager<T> delegate) {
+        return new TimedAuthorizationManager<>(delegate, Phase.EXPRESSION_CHECK, () -> recorder);
+    }
+
+    private long count(String outcome) {
+        return meterRegistry.get("security.phase").tag("phase", "expression_check").tag("outcome", outcome).timer().count();
+    }
+
+    /**
+     * Denies every invocation, and replaces the denied ones by a fallback value (as {@code @HandleAuthorizationDenied}
+     * does).
+     */
+    private static class HandlingManager implements AuthorizationManager<MethodInvocation>, MethodAuthorizationDeniedHandler {
+        @Override
+        public AuthorizationDecision check(Supplier<Authentication> authentication, MethodInvocation object) {
+            return new AuthorizationDecision(false);
+        }
+
+        @Override
+        public Object handleDeniedInvocation(MethodInvocation methodInvocation, AuthorizationResult authorizationResult) {
+            return "fallback";
+        }
+    }
+}
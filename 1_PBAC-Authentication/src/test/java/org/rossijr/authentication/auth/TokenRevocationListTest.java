@@ -0,0 +1,64 @@
+package org.rossijr.authentication.auth;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class TokenRevocationListTest {
+
+    // Small filters, so the exact sets have to reject the false positives and grow
+    private final TokenRevocationList revocationList =
+            new TokenRevocationList(Duration.ofHours(1).toMillis(), 10, new SimpleMeterRegistry());
+
+    @AfterEach
+    void tearDown() {
+        revocationList.shutdown();
+    }
+
+    @Test
+    void onlyRevokedTokensAreReported() {
+        Instant expiresAt = Instant.now().plus(Duration.ofHours(5));
+        for (int i = 0; i < 1000; i++) {
+            revocationList.revoke(UUID.randomUUID().toString(), expiresAt);
+        }
+        String revoked = UUID.randomUUID().toString();
+        revocationList.revoke(revoked, expiresAt);
+        revocationList.revoke(revoked, expiresAt);
+
+        assertTrue(revocationList.isRevoked(revoked, expiresAt));
+        assertEquals(1001, revocationList.size());
+        for (int i = 0; i < 1000; i++) {
+            assertFalse(revocationList.isRevoked(UUID.randomUUID().toString(), expiresAt));
+        }
+        assertFalse(revocationList.isRevoked(null, expiresAt));
+        assertFalse(revocationList.isRevoked("not-a-uuid", expiresAt));
+    }
+
+    @Test
+    void expiredTokensAreNeitherKeptNorRevocable() {
+        String expired = UUID.randomUUID().toString();
+        revocationList.revoke(expired, Instant.now().minusSeconds(1));
+
+        assertEquals(0, revocationList.size());
+        assertThrows(IllegalArgumentException.class, () -> revocationList.revoke("not-a-uuid", Instant.now().plusSeconds(60)));
+        assertThrows(IllegalArgumentException.class, () -> revocationList.revoke(UUID.randomUUID().toString(), null));
+    }
+
+    @Test
+    void purgeDropsOnlyExpiredBuckets() {
+        revocationList.revoke(UUID.randomUUID().toString(), Instant.now().plus(Duration.ofHours(2)));
+
+        revocationList.purgeExpired();
+
+        assertEquals(1, revocationList.size());
+    }
+}
@@ -0,0 +1,93 @@
+package org.rossijr.authentication.auth;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+class UserDetailsCacheTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final AtomicLong clock = new AtomicLong(1_000_000);
+    // 1 second TTL, at most 3 users
+    private final UserDetailsCache cache = new UserDetailsCache(1000, 3, meterRegistry, clock::get);
+
+    @Test
+    void returnsCachedUsersUntilTheyExpire() {
+        AuthenticatedUser user = user("user@example.com");
+        cache.put(user, cache.generation("user@example.com"));
+
+        assertSame(user, cache.get("user@example.com"));
+        assertNull(cache.get("other@example.com"));
+
+        clock.addAndGet(999);
+        assertSame(user, cache.get("user@example.com"));
+        clock.addAndGet(1);
+        assertNull(cache.get("user@example.com"));
+
+        assertEquals(2, meterRegistry.get("user.details.cache.requests").tag("result", "hit").functionCounter().count());
+        assertEquals(2, meterRegistry.get("user.details.cache.requests").tag("result", "miss").functionCounter().count());
+        assertEquals(1, meterRegistry.get("user.details.cache.evictions").functionCounter().count());
+    }
+
+    @Test
+    void evictsTheOldestUsersWhenFull() {
+        for (int i = 0; i < 4; i++) {
+            cache.put(user("user" + i + "@example.com"), cache.generation("user" + i + "@example.com"));
+        }
+
+        assertEquals(3, cache.size());
+        assertNull(cache.get("user0@example.com"));
+        for (int i = 1; i < 4; i++) {
+            assertEquals("user" + i + "@example.com", cache.get("user" + i + "@example.com").getUsername());
+        }
+        assertEquals(1, meterRegistry.get("user.details.cache.evictions").functionCounter().count());
+    }
+
+    @Test
+    void invalidationDropsTheAffectedUsers() {
+        cache.put(user("user@example.com"), cache.generation("user@example.com"));
+        cache.put(user("admin@example.com"), cache.generation("admin@example.com"));
+
+        cache.onAuthoritiesChanged(AuthoritiesChangedEvent.forUser(this, "user@example.com"));
+        assertNull(cache.get("user@example.com"));
+        assertEquals("admin@example.com", cache.get("admin@example.com").getUsername());
+
+        cache.onAuthoritiesChanged(AuthoritiesChangedEvent.forAllUsers(this));
+        assertEquals(0, cache.size());
+    }
+
+    @Test
+    void userLoadedBeforeAnInvalidationIsNotStored() {
+        long generation = cache.generation("user@example.com");
+        long otherGeneration = cache.generation("admin@example.com");
+        // The authorities change while the user is being loaded
+        cache.onAuthoritiesChanged(AuthoritiesChangedEvent.forUser(this, "user@example.com"));
+
+        cache.put(user("user@example.com"), generation);
+        cache.put(user("admin@example.com"), otherGeneration);
+
+        assertNull(cache.get("user@example.com"));
+        // The other users are not affected by the change
+        assertEquals("admin@example.com", cache.get("admin@example.com").getUsername());
+
+        long globalGeneration = cache.generation("admin@example.com");
+        cache.onAuthoritiesChanged(AuthoritiesChangedEvent.forAllUsers(this));
+        cache.put(user("admin@example.com"), globalGeneration);
+        assertNull(cache.get("admin@example.com"));
+
+        // Loaded after the change, so it is stored
+        cache.put(user("user@example.com"), cache.generation("user@example.com"));
+        assertEquals("user@example.com", cache.get("user@example.com").getUsername());
+    }
+
+    private static AuthenticatedUser user(String email) {
+        return new AuthenticatedUser(UUID.randomUUID(), email, null, List.of(), PermissionSet.EMPTY);
+    }
+}
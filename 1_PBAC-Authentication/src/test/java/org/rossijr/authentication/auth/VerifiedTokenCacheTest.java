@@ -0,0 +1,106 @@
+package org.rossijr.authentication.auth;
+
+import com.auth0.jwt.JWT;
+import com.auth0.jwt.algorithms.Algorithm;
+import com.auth0.jwt.interfaces.DecodedJWT;
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+class VerifiedTokenCacheTest {
+
+    private static final Algorithm ALGORITHM = Algorithm.HMAC256("test-secret");
+
+    private final AtomicLong clock = new AtomicLong(Instant.parse("2025-01-01T00:00:00Z").toEpochMilli());
+    private final VerifiedTokenCache cache = new VerifiedTokenCache(2, clock::get);
+
+    @Test
+    void returnsTokensUntilTheyExpire() {
+        DecodedJWT token = token(1000);
+        cache.put(token);
+
+        assertSame(token, cache.get(token.getToken()));
+        clock.addAndGet(999);
+        assertSame(token, cache.get(token.getToken()));
+
+        clock.addAndGet(1);
+        assertNull(cache.get(token.getToken()));
+        // The expired entry was removed
+        assertEquals(0, cache.size());
+    }
+
+    @Test
+    void onlyTheSameTokenMatches() {
+        DecodedJWT token = token(1000);
+        cache.put(token);
+
+        String tampered = token.getToken().substring(0, token.getToken().length() - 2) + "xx";
+        assertNull(cache.get(tampered));
+        assertNull(cache.get(token(1000).getToken()));
+    }
+
+    @Test
+    void tokensWithoutExpirationAreNotCached() {
+        DecodedJWT token = JWT.decode(JWT.create().withSubject("user@example.com").sign(ALGORITHM));
+        cache.put(token);
+
+        assertNull(cache.get(token.getToken()));
+    }
+
+    @Test
+    void fullCachePurgesExpiredTokensOrSkipsNewOnes() {
+        DecodedJWT shortLived = token(1000);
+        DecodedJWT longLived = token(60_000);
+        cache.put(shortLived);
+        cache.put(longLived);
+
+        // Full and nothing expired: the new token is not cached
+        DecodedJWT skipped = token(60_000);
+        cache.put(skipped);
+        assertNull(cache.get(skipped.getToken()));
+
+        // Once a token expired, the purge makes room (at most once per second)
+        clock.addAndGet(1000);
+        DecodedJWT added = token(60_000);
+        cache.put(added);
+        assertSame(added, cache.get(added.getToken()));
+        assertSame(longLived, cache.get(longLived.getToken()));
+        assertEquals(2, cache.size());
+    }
+
+    @Test
+    void claimsUserIsKeptWithTheCachedTokenOnly() {
+        DecodedJWT token = token(1000);
+        VerifiedTokenCache.ClaimsUser claimsUser = new VerifiedTokenCache.ClaimsUser(
+                new AuthenticatedUser(UUID.randomUUID(), "user@example.com", null, List.of(), PermissionSet.EMPTY), 1);
+
+        // Not kept while the token is not cached
+        cache.putClaimsUser(token, claimsUser);
+        assertNull(cache.getClaimsUser(token));
+
+        cache.put(token);
+        cache.putClaimsUser(token, claimsUser);
+        assertSame(claimsUser, cache.getClaimsUser(cache.get(token.getToken())));
+        // Another instance of the same token was not verified through the cache
+        assertNull(cache.getClaimsUser(JWT.decode(token.getToken())));
+
+        clock.addAndGet(1000);
+        assertNull(cache.get(token.getToken()));
+        assertNull(cache.getClaimsUser(token));
+    }
+
+    private DecodedJWT token(long expiresIn) {
+        return JWT.decode(JWT.create()
+                .withJWTId(UUID.randomUUID().toString())
+                .withSubject("user@example.com")
+                .withExpiresAt(Instant.ofEpochMilli(clock.get() + expiresIn))
+                .sign(ALGORITHM));
+    }
+}
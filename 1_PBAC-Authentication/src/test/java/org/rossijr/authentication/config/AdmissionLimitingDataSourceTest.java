@@ -0,0 +1,52 @@
+package org.rossijr.authentication.config;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.h2.jdbcx.JdbcDataSource;
+import org.junit.jupiter.api.Test;
+
+import java.sql.Connection;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class AdmissionLimitingDataSourceTest {
+
+    private final JdbcDataSource database = database();
+
+    @Test
+    void refusesRightAwayWhenTheQueueIsFull() throws Exception {
+        AdmissionLimitingDataSource dataSource = new AdmissionLimitingDataSource(database, 1, 0, 60000, 3, new SimpleMeterRegistry());
+
+        Connection connection = dataSource.getConnection();
+        ConnectionAdmissionException e = assertThrows(ConnectionAdmissionException.class, dataSource::getConnection);
+        assertEquals(3, e.getRetryAfterSeconds());
+
+        // Closing twice gives the permit back only once
+        connection.close();
+        connection.close();
+        assertEquals(0, dataSource.getActive());
+        try (Connection other = dataSource.getConnection()) {
+            assertEquals(1, dataSource.getActive());
+        }
+    }
+
+    @Test
+    void refusesAfterWaitingUntilTheTimeout() throws Exception {
+        AdmissionLimitingDataSource dataSource = new AdmissionLimitingDataSource(database, 1, 1, 50, 1, new SimpleMeterRegistry());
+
+        try (Connection connection = dataSource.getConnection()) {
+            long start = System.nanoTime();
+            assertThrows(ConnectionAdmissionException.class, dataSource::getConnection);
+            assertTrue(System.nanoTime() - start >= TimeUnit.MILLISECONDS.toNanos(50));
+        }
+        assertEquals(0, dataSource.getActive());
+    }
+
+    private static JdbcDataSource database() {
+        JdbcDataSource database = new JdbcDataSource();
+        database.setURL("jdbc:h2:mem:admission");
+        return database;
+    }
+}
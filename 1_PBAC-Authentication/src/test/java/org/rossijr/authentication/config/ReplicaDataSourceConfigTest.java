@@ -0,0 +1,59 @@
+package org.rossijr.authentication.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.hibernate.cfg.AvailableSettings;
+import org.hibernate.resource.jdbc.spi.PhysicalConnectionHandlingMode;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.boot.test.context.runner.ApplicationContextRunner;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Activation of the replica routing, and of the Hibernate connection handling it needs, by
+ * {@code datasource.replica.urls}.
+ */
+class ReplicaDataSourceConfigTest {
+
+    private final ApplicationContextRunner contextRunner = new ApplicationContextRunner()
+            .withUserConfiguration(ReplicaDataSourceConfig.class)
+            .withBean(DataSourceProperties.class, () -> {
+                DataSourceProperties properties = new DataSourceProperties();
+                properties.setUrl("jdbc:h2:mem:primary-config;DB_CLOSE_DELAY=-1");
+                return properties;
+            })
+            .withBean(MeterRegistry.class, SimpleMeterRegistry::new)
+            .withPropertyValues(
+                    "datasource.replica.pool.size=1",
+                    "datasource.replica.max.lag=1000",
+                    "datasource.replica.check.interval=60000",
+                    "datasource.replica.lag.query=SELECT 0");
+
+    @Test
+    void releasesConnectionsAfterEachTransactionWithReplicas() {
+        contextRunner.withPropertyValues("datasource.replica.urls=jdbc:h2:mem:replica-config;DB_CLOSE_DELAY=-1")
+                .run(context -> {
+                    Map<String, Object> properties = new HashMap<>();
+                    context.getBean(HibernatePropertiesCustomizer.class).customize(properties);
+
+                    assertEquals(PhysicalConnectionHandlingMode.DELAYED_ACQUISITION_AND_RELEASE_AFTER_TRANSACTION,
+                            properties.get(AvailableSettings.CONNECTION_HANDLING));
+                    assertEquals(1, context.getBeansOfType(ReplicaRoutingDataSource.class).size());
+                });
+    }
+
+    @Test
+    void keepsTheDefaultsWithoutReplicas() {
+        contextRunner.withPropertyValues("datasource.replica.urls=")
+                .run(context -> {
+                    assertTrue(context.getBeansOfType(HibernatePropertiesCustomizer.class).isEmpty());
+                    assertTrue(context.getBeansOfType(ReplicaRoutingDataSource.class).isEmpty());
+                });
+    }
+}
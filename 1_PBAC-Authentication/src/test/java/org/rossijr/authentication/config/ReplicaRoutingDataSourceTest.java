@@ -0,0 +1,98 @@
+package org.rossijr.authentication.config;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.h2.jdbcx.JdbcDataSource;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.jdbc.datasource.SingleConnectionDataSource;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Connection;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Routing between two embedded databases, each one answering with its own name.
+ */
+class ReplicaRoutingDataSourceTest {
+
+    private JdbcTemplate primary;
+    private JdbcTemplate replica;
+    private ReplicaRoutingDataSource replicaDataSource;
+    private JdbcTemplate jdbcTemplate;
+    private TransactionTemplate readWriteTransaction;
+    private TransactionTemplate readOnlyTransaction;
+
+    @BeforeEach
+    void setUp() {
+        primary = new JdbcTemplate(database("primary"));
+        replica = new JdbcTemplate(database("replica"));
+        // The replica reports the lag stored in tb_lag
+        replica.execute("CREATE TABLE tb_lag (lag BIGINT)");
+        replica.execute("INSERT INTO tb_lag VALUES (0)");
+
+        replicaDataSource = new ReplicaRoutingDataSource(primary.getDataSource(), List.of(replica.getDataSource()),
+                1000, "SELECT lag FROM tb_lag", 60000, new SimpleMeterRegistry());
+        LazyConnectionDataSourceProxy dataSource = new LazyConnectionDataSourceProxy(primary.getDataSource());
+        dataSource.setReadOnlyDataSource(replicaDataSource);
+
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        DataSourceTransactionManager transactionManager = new DataSourceTransactionManager(dataSource);
+        readWriteTransaction = new TransactionTemplate(transactionManager);
+        readOnlyTransaction = new TransactionTemplate(transactionManager);
+        readOnlyTransaction.setReadOnly(true);
+    }
+
+    @AfterEach
+    void tearDown() {
+        replicaDataSource.destroy();
+        primary.execute("DROP ALL OBJECTS");
+        replica.execute("DROP ALL OBJECTS");
+    }
+
+    @Test
+    void routesReadOnlyTransactionsToTheReplica() {
+        assertEquals("replica", readOnlyTransaction.execute(status -> databaseName()));
+        assertEquals("primary", readWriteTransaction.execute(status -> databaseName()));
+        assertEquals("primary", databaseName());
+    }
+
+    @Test
+    void fallsBackToThePrimaryWhenTheReplicaLags() {
+        replica.update("UPDATE tb_lag SET lag = 5000");
+        replicaDataSource.checkReplicas();
+
+        assertEquals("primary", readOnlyTransaction.execute(status -> databaseName()));
+
+        replica.update("UPDATE tb_lag SET lag = 10");
+        replicaDataSource.checkReplicas();
+
+        assertEquals("replica", readOnlyTransaction.execute(status -> databaseName()));
+    }
+
+    @Test
+    void takesConnectionsWithExplicitCredentialsFromThePrimary() throws Exception {
+        try (Connection connection = replicaDataSource.getConnection("", "")) {
+            assertEquals("primary", new JdbcTemplate(new SingleConnectionDataSource(connection, true))
+                    .queryForObject("SELECT name FROM tb_database", String.class));
+        }
+    }
+
+    private String databaseName() {
+        return jdbcTemplate.queryForObject("SELECT name FROM tb_database", String.class);
+    }
+
+    private static JdbcDataSource database(String name) {
+        JdbcDataSource dataSource = new JdbcDataSource();
+        dataSource.setURL("jdbc:h2:mem:" + name + "-routing;DB_CLOSE_DELAY=-1");
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+        jdbcTemplate.execute("CREATE TABLE tb_database (name VARCHAR(20))");
+        jdbcTemplate.update("INSERT INTO tb_database VALUES (?)", name);
+        return dataSource;
+    }
+}
@@ -0,0 +1,90 @@
+package org.rossijr.authentication.repository;
+
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.rossijr.authentication.model.Role;
+import org.rossijr.authentication.model.User;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.ZonedDateTime;
+import java.util.HashSet;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Runs outside of a test transaction, as cached query results are only used once the writes of the tables they read
+ * are committed.
+ */
+@DataJpaTest
+@ActiveProfiles("test")
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class RoleRepositoryTest {
+
+    @Autowired
+    private RoleRepository roleRepository;
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private Statistics statistics;
+    private User user;
+    private Role role;
+
+    @BeforeEach
+    void setUp() {
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+
+        user = new User();
+        user.setEmail("role.cache@example.com");
+        user.setPassword("hash");
+        user.setCreatedAt(ZonedDateTime.now());
+        user.setRoles(new HashSet<>());
+        user = userRepository.save(user);
+
+        role = new Role("ROLE_CACHED");
+        role.setCreatedBy(user);
+        role = roleRepository.save(role);
+    }
+
+    @AfterEach
+    void tearDown() {
+        roleRepository.delete(role);
+        userRepository.delete(user);
+    }
+
+    @Test
+    void findByNameIsServedFromSecondLevelCache() {
+        roleRepository.findByName("ROLE_CACHED");
+        statistics.clear();
+
+        Role cachedRole = roleRepository.findByName("ROLE_CACHED");
+
+        assertEquals(role.getId(), cachedRole.getId());
+        assertEquals(1, statistics.getQueryCacheHitCount());
+        assertEquals(0, statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    void savingRoleInvalidatesCachedResults() {
+        roleRepository.findByName("ROLE_CACHED");
+        role.setDescription("Updated");
+        role = roleRepository.save(role);
+        statistics.clear();
+
+        Role updatedRole = roleRepository.findByName("ROLE_CACHED");
+
+        assertEquals("Updated", updatedRole.getDescription());
+        assertEquals(0, statistics.getQueryCacheHitCount());
+    }
+}
@@ -0,0 +1,90 @@
+package org.rossijr.authentication.repository;
+
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.rossijr.authentication.model.Permission;
+import org.rossijr.authentication.model.Role;
+import org.rossijr.authentication.model.RolePermission;
+import org.rossijr.authentication.model.User;
+import org.rossijr.authentication.model.UserRole;
+import org.rossijr.authentication.repository.projection.UserAuthorities;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.ZonedDateTime;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+@DataJpaTest
+@ActiveProfiles("test")
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+class UserRepositoryTest {
+
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private UserEffectivePermissionRepository effectivePermissionRepository;
+    @Autowired
+    private TestEntityManager entityManager;
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private User user;
+
+    @BeforeEach
+    void setUp() {
+        user = new User();
+        user.setEmail("user@example.com");
+        user.setPassword("hash");
+        user.setCreatedAt(ZonedDateTime.now());
+        user.setRoles(new HashSet<>());
+        entityManager.persist(user);
+
+        Role role = new Role("ROLE_USER");
+        role.setCreatedBy(user);
+        entityManager.persist(role);
+
+        for (String name : Set.of("VIEW_USER", "HEALTH_CHECK")) {
+            Permission permission = entityManager.persist(new Permission(name, name));
+            RolePermission rolePermission = new RolePermission(role, permission);
+            rolePermission.setAssignedBy(user);
+            entityManager.persist(rolePermission);
+        }
+        entityManager.persist(new UserRole(user, role));
+
+        entityManager.flush();
+        effectivePermissionRepository.insertMissingForUsers(List.of(user.getId()));
+        entityManager.clear();
+    }
+
+    @Test
+    void findAuthoritiesByEmailUsesSingleStatement() {
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+
+        UserAuthorities authorities = userRepository.findAuthoritiesByEmail("user@example.com");
+
+        assertNotNull(authorities);
+        assertEquals(user.getId(), authorities.getId());
+        assertEquals("hash", authorities.getPassword());
+        assertEquals(Set.of("VIEW_USER", "HEALTH_CHECK"), authorities.getPermissions());
+        assertEquals(1, statistics.getPrepareStatementCount());
+        assertEquals(0, statistics.getEntityLoadCount());
+    }
+
+    @Test
+    void findAuthoritiesByEmailReturnsNullForUnknownUser() {
+        assertNull(userRepository.findAuthoritiesByEmail("unknown@example.com"));
+    }
+}
@@ -0,0 +1,199 @@
+package org.rossijr.authentication.service;
+
+import org.junit.jupiter.api.Test;
+import org.rossijr.authentication.auth.AuthenticatedUser;
+import org.rossijr.authentication.auth.PermissionChecker;
+import org.rossijr.authentication.auth.PermissionSet;
+import org.rossijr.authentication.dto.RolePermissionsDeltaDTO;
+import org.rossijr.authentication.exception.ObjectNotFoundException;
+import org.rossijr.authentication.model.Permission;
+import org.rossijr.authentication.model.Role;
+import org.rossijr.authentication.model.RolePermission;
+import org.rossijr.authentication.model.User;
+import org.rossijr.authentication.model.UserRole;
+import org.rossijr.authentication.repository.UserRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.ZonedDateTime;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest
+@ActiveProfiles("test")
+class RoleServiceTest {
+
+    @Autowired
+    private RoleService roleService;
+    @Autowired
+    private PermissionService permissionService;
+    @Autowired
+    private EffectivePermissionService effectivePermissionService;
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private PermissionChecker permissionChecker;
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Test
+    void assignAndRevokeReturnOnlyTheDelta() {
+        Role userRole = roleService.getRoleByName("ROLE_USER");
+        Long healthCheckId = permissionService.findByName("HEALTH_CHECK").getId();
+        Long viewUserId = permissionService.findByName("VIEW_USER").getId();
+        User admin = userRepository.findByEmail("admin@example.com");
+        User user = userRepository.findByEmail("user@example.com");
+
+        RolePermissionsDeltaDTO assigned = roleService.assignPermissionsToRole(userRole.getId(), Set.of(healthCheckId, viewUserId), admin.getId());
+        RolePermissionsDeltaDTO assignedAgain = roleService.assignPermissionsToRole(userRole.getId(), Set.of(healthCheckId), admin.getId());
+
+        assertEquals(Set.of(healthCheckId), assigned.getAdded());
+        assertTrue(assignedAgain.isEmpty());
+        assertEquals(Set.of("VIEW_USER", "HEALTH_CHECK"), permissionNames("ROLE_USER"));
+        assertTrue(effectivePermissionService.hasPermission(user.getId(), "HEALTH_CHECK"));
+
+        RolePermissionsDeltaDTO revoked = roleService.revokePermissionsFromRole(userRole.getId(), Set.of(healthCheckId));
+        RolePermissionsDeltaDTO revokedAgain = roleService.revokePermissionsFromRole(userRole.getId(), Set.of(healthCheckId));
+
+        assertEquals(Set.of(healthCheckId), revoked.getRemoved());
+        assertTrue(revokedAgain.isEmpty());
+        assertEquals(Set.of("VIEW_USER"), permissionNames("ROLE_USER"));
+        assertFalse(effectivePermissionService.hasPermission(user.getId(), "HEALTH_CHECK"));
+        assertTrue(effectivePermissionService.hasPermission(user.getId(), "VIEW_USER"));
+        assertTrue(effectivePermissionService.hasPermission(admin.getId(), "HEALTH_CHECK"));
+    }
+
+    @Test
+    void permissionCheckerReadsTheStoredPermissions() {
+        Role userRole = roleService.getRoleByName("ROLE_USER");
+        Long healthCheckId = permissionService.findByName("HEALTH_CHECK").getId();
+        User admin = userRepository.findByEmail("admin@example.com");
+        User user = userRepository.findByEmail("user@example.com");
+        // The permissions carried by the principal are ignored
+        Authentication authentication = UsernamePasswordAuthenticationToken.authenticated(
+                new AuthenticatedUser(user.getId(), user.getEmail(), null, List.of(), PermissionSet.EMPTY), null, List.of());
+
+        assertFalse(permissionChecker.hasPermission(authentication, "HEALTH_CHECK"));
+        roleService.assignPermissionsToRole(userRole.getId(), Set.of(healthCheckId), admin.getId());
+        assertTrue(permissionChecker.hasPermission(authentication, "HEALTH_CHECK"));
+        roleService.revokePermissionsFromRole(userRole.getId(), Set.of(healthCheckId));
+        assertFalse(permissionChecker.hasPermission(authentication, "HEALTH_CHECK"));
+        assertFalse(permissionChecker.hasPermission(null, "HEALTH_CHECK"));
+    }
+
+    @Test
+    void sharedLockRequiresAnExistingRole() {
+        Long userRoleId = roleService.getRoleByName("ROLE_USER").getId();
+
+        transactionTemplate.executeWithoutResult(status -> roleService.lockRoleShared(userRoleId));
+        assertThrows(ObjectNotFoundException.class,
+                () -> transactionTemplate.executeWithoutResult(status -> roleService.lockRoleShared(-1L)));
+    }
+
+    /**
+     * Changes the permissions of two roles held by the same user at the same time: each change must see the other one,
+     * or the user keeps a permission no role grants anymore, or loses one another role still grants.
+     */
+    @Test
+    void concurrentChangesToTwoRolesOfAUserKeepItsPermissionsExact() throws Exception {
+        User admin = userRepository.findByEmail("admin@example.com");
+        Role first = roleService.save(newRole("ROLE_CONCURRENT_FIRST", admin));
+        Role second = roleService.save(newRole("ROLE_CONCURRENT_SECOND", admin));
+        Long permissionId = permissionService.save(new Permission("CONCURRENT_CHECK", "Permission changed concurrently")).getId();
+        User user = createUser("two-roles@example.com", first, second);
+
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            for (int i = 0; i < 20; i++) {
+                // Moves the permission from one role to the other, the user holds it all along
+                roleService.assignPermissionsToRole(first.getId(), Set.of(permissionId), admin.getId());
+                runTogether(executor,
+                        () -> roleService.assignPermissionsToRole(second.getId(), Set.of(permissionId), admin.getId()),
+                        () -> roleService.revokePermissionsFromRole(first.getId(), Set.of(permissionId)));
+                assertTrue(effectivePermissionService.hasPermission(user.getId(), "CONCURRENT_CHECK"), "Moved, iteration " + i);
+
+                // Revokes the permission from both roles, the user does not hold it anymore
+                roleService.assignPermissionsToRole(first.getId(), Set.of(permissionId), admin.getId());
+                runTogether(executor,
+                        () -> roleService.revokePermissionsFromRole(first.getId(), Set.of(permissionId)),
+                        () -> roleService.revokePermissionsFromRole(second.getId(), Set.of(permissionId)));
+                assertFalse(effectivePermissionService.hasPermission(user.getId(), "CONCURRENT_CHECK"), "Revoked, iteration " + i);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void startupDataHasNoDuplicatePermissions() {
+        assertEquals(4, roleService.getRoleByName("ROLE_ADMIN").getPermissions().size());
+    }
+
+    private Set<String> permissionNames(String roleName) {
+        return roleService.getRoleByName(roleName).getPermissions().stream()
+                .map(RolePermission::getPermission)
+                .map(Permission::getName)
+                .collect(Collectors.toSet());
+    }
+
+    private Role newRole(String name, User createdBy) {
+        Role role = new Role(name);
+        role.setDescription("Role changed concurrently");
+        role.setCreatedBy(createdBy);
+        return role;
+    }
+
+    private User createUser(String email, Role... roles) {
+        User user = new User();
+        user.setEmail(email);
+        user.setPassword("not-a-hash");
+        user.setCreatedAt(ZonedDateTime.now());
+        user.setUpdatedAt(ZonedDateTime.now());
+        user.setRoles(new HashSet<>());
+        for (Role role : roles) {
+            user.getRoles().add(new UserRole(user, role));
+        }
+        return transactionTemplate.execute(status -> {
+            for (Role role : roles) {
+                roleService.lockRoleShared(role.getId());
+            }
+            User saved = userRepository.save(user);
+            effectivePermissionService.userRolesChanged(List.of(saved.getId()));
+            return saved;
+        });
+    }
+
+    /**
+     * Runs both changes at the same time, and waits for them.
+     */
+    private void runTogether(ExecutorService executor, Callable<?> firstChange, Callable<?> secondChange) throws Exception {
+        CyclicBarrier barrier = new CyclicBarrier(2);
+        Future<?> first = executor.submit(() -> {
+            barrier.await();
+            return firstChange.call();
+        });
+        Future<?> second = executor.submit(() -> {
+            barrier.await();
+            return secondChange.call();
+        });
+        first.get(30, TimeUnit.SECONDS);
+        second.get(30, TimeUnit.SECONDS);
+    }
+}
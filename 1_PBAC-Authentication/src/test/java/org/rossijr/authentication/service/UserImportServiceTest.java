@@ -0,0 +1,157 @@
+package org.rossijr.authentication.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.validation.Validator;
+import org.junit.jupiter.api.Test;
+import org.rossijr.authentication.auth.OffloadedPasswordEncoder;
+import org.rossijr.authentication.dto.BulkCreateUserResultDTO;
+import org.rossijr.authentication.model.User;
+import org.rossijr.authentication.model.UserRole;
+import org.rossijr.authentication.repository.UserRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.StringReader;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.time.OffsetDateTime;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest
+@ActiveProfiles("test")
+class UserImportServiceTest {
+
+    @Autowired
+    private UserImportService userImportService;
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private OffloadedPasswordEncoder passwordEncoder;
+    @Autowired
+    private RoleService roleService;
+    @Autowired
+    private EffectivePermissionService effectivePermissionService;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+    @Autowired
+    private ObjectMapper objectMapper;
+    @Autowired
+    private Validator validator;
+
+    @Test
+    @Transactional
+    void importsCsvRowsAndReportsRejectedOnes() throws Exception {
+        String csv = """
+                email,password
+                csv.one@example.com,"pass,word1"
+                csv.two@example.com,password2
+                csv.one@example.com,password3
+                admin@example.com,password4
+                not-an-email,password5
+                csv.three@example.com
+                """;
+        List<BulkCreateUserResultDTO> results = new ArrayList<>();
+
+        userImportService.importUsers(new StringReader(csv), UserImportService.Format.CSV, results::add);
+
+        assertEquals(List.of(2L, 3L, 4L, 5L, 6L, 7L), results.stream().map(BulkCreateUserResultDTO::getLine).toList());
+        assertTrue(results.get(0).isCreated());
+        assertTrue(results.get(1).isCreated());
+        assertEquals("Duplicate email in the import", results.get(2).getError());
+        assertEquals("This email is already in use", results.get(3).getError());
+        assertFalse(results.get(4).isCreated());
+        assertFalse(results.get(5).isCreated());
+
+        User user = userRepository.findByEmail("csv.one@example.com");
+        assertNotNull(user);
+        assertEquals(results.get(0).getId(), user.getId());
+        assertTrue(passwordEncoder.matches("pass,word1", user.getPassword()));
+        assertEquals("ROLE_USER", user.getRoles().stream().map(UserRole::getRole).findFirst().orElseThrow().getName());
+        assertEquals(Set.of("VIEW_USER"), userRepository.findAuthoritiesByEmail("csv.one@example.com").getPermissions());
+    }
+
+    @Test
+    @Transactional
+    void importsNdjsonRows() throws Exception {
+        String ndjson = """
+                {"email": "json.one@example.com", "password": "password1"}
+                {"email": "json.two@example.com", "password": "short"}
+                {"email": "json.three@example.com"
+                """;
+        List<BulkCreateUserResultDTO> results = new ArrayList<>();
+
+        userImportService.importUsers(new StringReader(ndjson), UserImportService.Format.NDJSON, results::add);
+
+        assertEquals(3, results.size());
+        assertTrue(results.get(0).isCreated());
+        assertEquals("Password must be at least 8 characters long", results.get(1).getError());
+        assertEquals("Malformed JSON line", results.get(2).getError());
+        assertNotNull(userRepository.findByEmail("json.one@example.com"));
+        assertNull(userRepository.findByEmail("json.two@example.com"));
+    }
+
+    /**
+     * Emails taken by another request between the check of a chunk and its insert, and again between the check of its
+     * retry and the retry, are rejected instead of failing the import.
+     */
+    @Test
+    void rejectsEmailsTakenConcurrently() throws Exception {
+        Deque<String> concurrentEmails = new ArrayDeque<>(List.of("race.one@example.com", "race.two@example.com"));
+        // Each check of the emails is followed by the creation of one of them by "another request"
+        UserRepository racingRepository = (UserRepository) Proxy.newProxyInstance(UserRepository.class.getClassLoader(),
+                new Class<?>[]{UserRepository.class}, (proxy, method, args) -> {
+                    Object result;
+                    try {
+                        result = method.invoke(userRepository, args);
+                    } catch (InvocationTargetException e) {
+                        throw e.getCause();
+                    }
+                    if (method.getName().equals("findExistingEmails") && !concurrentEmails.isEmpty()) {
+                        OffsetDateTime now = OffsetDateTime.now();
+                        jdbcTemplate.update("INSERT INTO tb_user (id, email, password, created_at, updated_at) VALUES (?, ?, ?, ?, ?)",
+                                UUID.randomUUID(), concurrentEmails.poll(), "not-a-hash", now, now);
+                    }
+                    return result;
+                });
+        UserImportService racingImportService = new UserImportService(racingRepository, roleService,
+                effectivePermissionService, passwordEncoder, jdbcTemplate, transactionTemplate,
+                objectMapper, validator, 10);
+        String csv = """
+                race.one@example.com,password1
+                race.created.one@example.com,password2
+                race.two@example.com,password3
+                race.created.two@example.com,password4
+                """;
+        List<BulkCreateUserResultDTO> results = new ArrayList<>();
+
+        racingImportService.importUsers(new StringReader(csv), UserImportService.Format.CSV, results::add);
+
+        assertEquals(List.of(1L, 2L, 3L, 4L), results.stream().map(BulkCreateUserResultDTO::getLine).toList());
+        assertEquals("This email is already in use", results.get(0).getError());
+        assertTrue(results.get(1).isCreated());
+        assertEquals("This email is already in use", results.get(2).getError());
+        assertTrue(results.get(3).isCreated());
+        assertEquals(results.get(1).getId(), userRepository.findByEmail("race.created.one@example.com").getId());
+        assertEquals(results.get(3).getId(), userRepository.findByEmail("race.created.two@example.com").getId());
+        assertEquals(Set.of("VIEW_USER"), userRepository.findAuthoritiesByEmail("race.created.two@example.com").getPermissions());
+        // The users created by the other request are kept as they are
+        assertEquals("not-a-hash", userRepository.findByEmail("race.two@example.com").getPassword());
+    }
+}
@@ -0,0 +1,13 @@
+package org.rossijr.authentication;
+
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.autoconfigure.SpringBootApplication;
+
+@SpringBootApplication
+public class RbacReactiveAuthenticationApplication {
+
+    public static void main(String[] args) {
+        SpringApplication.run(RbacReactiveAuthenticationApplication.class, args);
+    }
+
+}
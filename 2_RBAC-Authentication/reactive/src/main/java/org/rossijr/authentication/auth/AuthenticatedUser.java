@@ -0,0 +1,24 @@
+package org.rossijr.authentication.auth;
+
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.userdetails.User;
+
+import java.util.Collection;
+import java.util.UUID;
+
+/**
+ * The {@link org.springframework.security.core.userdetails.UserDetails} of the application, which also holds the ID of
+ * the user, so the login and the ownership checks do not need to read the user again.
+ */
+public class AuthenticatedUser extends User {
+    private final UUID id;
+
+    public AuthenticatedUser(UUID id, String username, String password, Collection<? extends GrantedAuthority> authorities) {
+        super(username, password, authorities);
+        this.id = id;
+    }
+
+    public UUID getId() {
+        return id;
+    }
+}
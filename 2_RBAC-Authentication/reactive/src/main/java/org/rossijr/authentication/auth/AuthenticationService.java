@@ -0,0 +1,109 @@
+package org.rossijr.authentication.auth;
+
+import com.auth0.jwt.exceptions.JWTVerificationException;
+import org.rossijr.authentication.auth.dto.AuthenticationRequestDTO;
+import org.rossijr.authentication.auth.dto.AuthenticationResponseDTO;
+import org.rossijr.authentication.repository.UserRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.security.authentication.BadCredentialsException;
+import org.springframework.security.authentication.ReactiveAuthenticationManager;
+import org.springframework.security.authentication.UserDetailsRepositoryReactiveAuthenticationManager;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.AuthenticationException;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
+
+@Service
+public class AuthenticationService {
+    private final Logger logger = LoggerFactory.getLogger(AuthenticationService.class);
+
+    private final ReactiveAuthenticationManager authenticationManager;
+    private final JwtUtil jwtUtil;
+    private final UserRepository userRepository;
+
+    /**
+     * The password check of the {@link UserDetailsRepositoryReactiveAuthenticationManager} (BCrypt, tens of
+     * milliseconds of CPU) runs on the bounded password hashing scheduler, so it never blocks the event loop threads.
+     */
+    @Autowired
+    public AuthenticationService(CustomReactiveUserDetailsService userDetailsService, PasswordEncoder passwordEncoder,
+                                 @Qualifier("passwordHashingScheduler") Scheduler passwordHashingScheduler,
+                                 JwtUtil jwtUtil, UserRepository userRepository) {
+        UserDetailsRepositoryReactiveAuthenticationManager authenticationManager =
+                new UserDetailsRepositoryReactiveAuthenticationManager(userDetailsService);
+        authenticationManager.setPasswordEncoder(passwordEncoder);
+        authenticationManager.setScheduler(passwordHashingScheduler);
+        this.authenticationManager = authenticationManager;
+        this.jwtUtil = jwtUtil;
+        this.userRepository = userRepository;
+    }
+
+    /**
+     * Updates the last login date for the user with the provided email.
+     *
+     * @param email the email of the user
+     */
+    private Mono<Integer> updateLastLogin(String email) {
+        return userRepository.updateLastLogin(email)
+                .doOnError(e -> logger.error("An unexpected error occurred while updating the last login for user: {}", email));
+    }
+
+    /**
+     * Authenticates the user with the provided email and password.
+     * <p>The login logic is handled by the {@link ReactiveAuthenticationManager} and the
+     * {@link CustomReactiveUserDetailsService} classes.</p>
+     * <p>Here, the method first authenticates the user, which loads the user (with its ID) and checks the password. If
+     * the user is successfully authenticated, the method creates a JWT token by invoking the {@link JwtUtil#createToken}
+     * method, updates the last login date for the user, and returns the token and user ID wrapped inside the
+     * {@link AuthenticationResponseDTO} class. If the authentication fails, the returned {@link Mono} fails with a
+     * {@link BadCredentialsException}.</p>
+     *
+     * @param authenticationRequestDTO the authentication request containing the user email and password
+     * @return an {@link AuthenticationResponseDTO} containing the JWT token and user ID
+     */
+    public Mono<AuthenticationResponseDTO> authenticate(AuthenticationRequestDTO authenticationRequestDTO) {
+        return authenticationManager.authenticate(
+                        new UsernamePasswordAuthenticationToken(authenticationRequestDTO.getEmail(), authenticationRequestDTO.getPassword()))
+                .flatMap(authentication -> {
+                    AuthenticatedUser user = (AuthenticatedUser) authentication.getPrincipal();
+                    String jwt = jwtUtil.createToken(user.getUsername());
+                    return updateLastLogin(user.getUsername())
+                            .thenReturn(new AuthenticationResponseDTO(jwt, user.getId()));
+                })
+                .onErrorMap(BadCredentialsException.class, e -> {
+                    logger.warn("Invalid credentials for user: {}", authenticationRequestDTO.getEmail());
+                    return new BadCredentialsException(e.getMessage());
+                })
+                .doOnError(e -> !(e instanceof BadCredentialsException) && e instanceof AuthenticationException,
+                        e -> logger.error("Authentication failed for user: {}", authenticationRequestDTO.getEmail()));
+    }
+
+    /**
+     * Validates the provided JWT token.
+     *
+     * <p>The method validates the provided JWT token by invoking the {@link JwtUtil#verifyToken} method. If the token is valid,
+     * the method returns a success message. If the token is invalid, the method throws an exception.</p>
+     *
+     * @param jwtToken the JWT token to be validated
+     * @return a success message if the token is valid
+     */
+    public String validateToken(String jwtToken) {
+        try {
+            if (jwtToken == null || jwtToken.trim().isEmpty()) {
+                throw new IllegalArgumentException("Token is required");
+            }
+            jwtUtil.verifyToken(jwtToken);
+            return "Token is valid";
+        } catch (IllegalArgumentException e) {
+            throw e;
+        } catch (JWTVerificationException e) {
+            logger.warn("Token validation failed: {}", e.getMessage());
+            throw e;
+        }
+    }
+}
@@ -0,0 +1,55 @@
+package org.rossijr.authentication.auth;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.rossijr.authentication.config.dto.ExceptionResponseDTO;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.security.core.AuthenticationException;
+import org.springframework.security.web.server.ServerAuthenticationEntryPoint;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Mono;
+
+import java.time.ZonedDateTime;
+
+@Component
+public class CustomAuthenticationEntryPoint implements ServerAuthenticationEntryPoint {
+    private final ObjectMapper objectMapper;
+
+    @Autowired
+    public CustomAuthenticationEntryPoint(ObjectMapper objectMapper) {
+        this.objectMapper = objectMapper;
+    }
+
+    /**
+     * This method is called whenever an exception is thrown due to an unauthenticated user trying to access a resource that requires authentication.
+     *
+     * <p>Important, this is not part of the exception handler of the controllers, this is a specific handler for authentication exceptions.</p>
+     *
+     * @param exchange *Not important to describe for this context*
+     * @param ex       *Not important to describe for this context*
+     * @return *Not important to describe for this context*
+     */
+    @Override
+    public Mono<Void> commence(ServerWebExchange exchange, AuthenticationException ex) {
+        ExceptionResponseDTO exceptionResponseDTO = new ExceptionResponseDTO(
+                ZonedDateTime.now(),
+                HttpStatus.UNAUTHORIZED.value(),
+                HttpStatus.UNAUTHORIZED.getReasonPhrase(),
+                "Invalid username or password",
+                exchange.getRequest().getPath().value()
+        );
+
+        ServerHttpResponse response = exchange.getResponse();
+        response.setStatusCode(HttpStatus.UNAUTHORIZED);
+        response.getHeaders().setContentType(MediaType.APPLICATION_JSON);
+        try {
+            return response.writeWith(Mono.just(response.bufferFactory().wrap(objectMapper.writeValueAsBytes(exceptionResponseDTO))));
+        } catch (JsonProcessingException e) {
+            return Mono.error(e);
+        }
+    }
+}
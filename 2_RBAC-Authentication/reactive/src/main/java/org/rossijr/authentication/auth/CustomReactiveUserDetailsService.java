@@ -0,0 +1,62 @@
+package org.rossijr.authentication.auth;
+
+import org.rossijr.authentication.model.User;
+import org.rossijr.authentication.repository.RoleRepository;
+import org.rossijr.authentication.repository.UserRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.userdetails.ReactiveUserDetailsService;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Mono;
+
+/**
+ * Custom implementation of {@link ReactiveUserDetailsService} to load user-specific data for authentication.
+ *
+ * <p>This service retrieves user details from the application's {@link UserRepository} by email
+ * (used as the username) and the user's roles from the {@link RoleRepository}. It integrates with Spring Security by
+ * providing a {@link UserDetails} object containing the user's credentials and authorities for authentication and
+ * authorization.</p>
+ *
+ * <h3>Key Responsibilities:</h3>
+ * <ul>
+ *   <li>Validates the input username (email).</li>
+ *   <li>Fetches the user and its roles from the database, without blocking.</li>
+ *   <li>Converts the {@link User} entity into an {@link AuthenticatedUser} object.</li>
+ *   <li>Completes empty if the user is not found (Spring Security turns it into a bad credentials failure).</li>
+ * </ul>
+ *
+ * @see ReactiveUserDetailsService
+ * @see UserRepository
+ **/
+@Service
+public class CustomReactiveUserDetailsService implements ReactiveUserDetailsService {
+
+    private final UserRepository userRepository;
+    private final RoleRepository roleRepository;
+
+    @Autowired
+    public CustomReactiveUserDetailsService(UserRepository userRepository, RoleRepository roleRepository) {
+        this.userRepository = userRepository;
+        this.roleRepository = roleRepository;
+    }
+
+    /**
+     * Finds the user details by username (email) for authentication purposes.
+     *
+     * @param username the email of the user to load
+     * @return a {@link Mono} with the user's credentials and authorities, or empty if no user has the given email
+     * @throws IllegalArgumentException if the username is null, blank or too long (signalled as an error)
+     */
+    @Override
+    public Mono<UserDetails> findByUsername(String username) {
+        if (username == null || username.trim().isEmpty() || username.length() > 255) {
+            return Mono.error(new IllegalArgumentException("Invalid username format"));
+        }
+        return userRepository.findByEmail(username)
+                .flatMap(user -> roleRepository.findByUserId(user.getId())
+                        .map(role -> new SimpleGrantedAuthority(role.getName()))
+                        .collectList()
+                        .map(authorities -> new AuthenticatedUser(user.getId(), user.getEmail(), user.getPassword(), authorities)));
+    }
+}
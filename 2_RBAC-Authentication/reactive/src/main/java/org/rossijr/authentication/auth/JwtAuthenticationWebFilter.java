@@ -0,0 +1,65 @@
+package org.rossijr.authentication.auth;
+
+import com.auth0.jwt.exceptions.JWTVerificationException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.ReactiveSecurityContextHolder;
+import org.springframework.security.core.userdetails.ReactiveUserDetailsService;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.server.WebFilter;
+import org.springframework.web.server.WebFilterChain;
+import reactor.core.publisher.Mono;
+import reactor.util.context.Context;
+
+/**
+ * The reactive counterpart of the servlet {@code JwtRequestFilter}: reads the JWT from the "Authorization" header,
+ * verifies it and sets the authenticated user in the {@link ReactiveSecurityContextHolder} (the Reactor context of the
+ * request) before continuing the chain.
+ *
+ * <p>If the token is missing, the request proceeds without authentication (this is important when having public
+ * endpoints). If it is invalid, the request is answered with {@code 401}.</p>
+ *
+ * <p>It is not a component, so that it is only added to the security chain (see {@code SecurityConfig}) and not
+ * registered as a second, global, web filter.</p>
+ */
+public class JwtAuthenticationWebFilter implements WebFilter {
+
+    private final Logger logger = LoggerFactory.getLogger(JwtAuthenticationWebFilter.class);
+
+    private final ReactiveUserDetailsService userDetailsService;
+    private final JwtUtil jwtUtil;
+
+    public JwtAuthenticationWebFilter(ReactiveUserDetailsService userDetailsService, JwtUtil jwtUtil) {
+        this.userDetailsService = userDetailsService;
+        this.jwtUtil = jwtUtil;
+    }
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, WebFilterChain chain) {
+        final String authorizationHeader = exchange.getRequest().getHeaders().getFirst(HttpHeaders.AUTHORIZATION);
+        if (authorizationHeader == null || !authorizationHeader.startsWith("Bearer ")) {
+            return chain.filter(exchange);
+        }
+
+        String username;
+        try {
+            // Skips the "Bearer " part of the header to extract the token
+            username = jwtUtil.verifyToken(authorizationHeader.substring(7)).getSubject();
+        } catch (JWTVerificationException | IllegalArgumentException e) {
+            logger.error("Invalid JWT: {}", e.getMessage());
+            exchange.getResponse().setStatusCode(HttpStatus.UNAUTHORIZED);
+            return exchange.getResponse().setComplete();
+        }
+
+        return userDetailsService.findByUsername(username)
+                // "credentials" must be null, as there's no need (and it is not safe) to store the password in the token
+                .map(userDetails -> ReactiveSecurityContextHolder.withAuthentication(
+                        new UsernamePasswordAuthenticationToken(userDetails, null, userDetails.getAuthorities())))
+                // A token of a user that no longer exists continues without authentication, as in the servlet version
+                .defaultIfEmpty(Context.empty())
+                .flatMap(context -> chain.filter(exchange).contextWrite(context));
+    }
+}
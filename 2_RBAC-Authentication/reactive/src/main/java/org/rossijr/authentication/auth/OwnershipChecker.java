@@ -0,0 +1,34 @@
+package org.rossijr.authentication.auth;
+
+import org.springframework.security.core.Authentication;
+import org.springframework.stereotype.Component;
+
+import java.util.UUID;
+
+/**
+ * Checks, in the {@code @PreAuthorize} expressions, whether a request targets the data of the authenticated user.
+ *
+ * <p>The ID is compared with the one of the {@link AuthenticatedUser} principal set by the
+ * {@link JwtAuthenticationWebFilter}, so it does not decode the token or read the database again.</p>
+ */
+@Component
+public class OwnershipChecker {
+
+    /**
+     * Checks whether the given user ID is the ID of the authenticated user.
+     *
+     * @param authentication the authentication of the request
+     * @param userId         the ID of the user whose data is requested
+     * @return {@code true} if the IDs match, {@code false} otherwise (including an invalid ID)
+     */
+    public boolean isAuthenticatedUser(Authentication authentication, String userId) {
+        if (authentication == null || !(authentication.getPrincipal() instanceof AuthenticatedUser user) || userId == null) {
+            return false;
+        }
+        try {
+            return user.getId().equals(UUID.fromString(userId));
+        } catch (IllegalArgumentException e) {
+            return false;
+        }
+    }
+}
@@ -0,0 +1,63 @@
+package org.rossijr.authentication.config;
+
+import com.auth0.jwt.exceptions.JWTVerificationException;
+import org.rossijr.authentication.config.dto.ExceptionResponseDTO;
+import org.rossijr.authentication.exception.ApplicationWebGeneralException;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.AuthenticationException;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.RestControllerAdvice;
+import org.springframework.web.server.ServerWebExchange;
+
+import java.time.ZonedDateTime;
+import java.util.concurrent.RejectedExecutionException;
+
+/**
+ * Maps the exceptions of the controllers to the same responses as the servlet version.
+ *
+ * <p>In the servlet version, the authentication failures of the login reach the authentication entry point through the
+ * error page. WebFlux has no error page, so they are mapped here.</p>
+ */
+@RestControllerAdvice
+public class GlobalExceptionHandler {
+
+    @ExceptionHandler(AuthenticationException.class)
+    public ResponseEntity<ExceptionResponseDTO> handleAuthenticationException(AuthenticationException ex, ServerWebExchange exchange) {
+        return response(HttpStatus.UNAUTHORIZED, "Invalid username or password", exchange);
+    }
+
+    @ExceptionHandler(JWTVerificationException.class)
+    public ResponseEntity<ExceptionResponseDTO> handleJwtVerificationException(JWTVerificationException ex, ServerWebExchange exchange) {
+        return response(HttpStatus.UNAUTHORIZED, ex.getMessage(), exchange);
+    }
+
+    @ExceptionHandler(ApplicationWebGeneralException.class)
+    public ResponseEntity<ExceptionResponseDTO> handleApplicationException(ApplicationWebGeneralException ex, ServerWebExchange exchange) {
+        return response(ex.getStatus(), ex.getMessage(), exchange);
+    }
+
+    /**
+     * Handles the password hashing rejected because the queue of the password hashing scheduler is full (load
+     * shedding), answering quickly with {@code 503} and a {@code Retry-After} header, so that clients back off instead
+     * of retrying immediately.
+     */
+    @ExceptionHandler(RejectedExecutionException.class)
+    public ResponseEntity<ExceptionResponseDTO> handleRejectedExecutionException(RejectedExecutionException ex, ServerWebExchange exchange) {
+        ResponseEntity<ExceptionResponseDTO> response = response(HttpStatus.SERVICE_UNAVAILABLE, "The server is overloaded, please try again later", exchange);
+        return ResponseEntity.status(response.getStatusCode())
+                .header(HttpHeaders.RETRY_AFTER, "1")
+                .body(response.getBody());
+    }
+
+    private static ResponseEntity<ExceptionResponseDTO> response(HttpStatus status, String message, ServerWebExchange exchange) {
+        return ResponseEntity.status(status).body(new ExceptionResponseDTO(
+                ZonedDateTime.now(),
+                status.value(),
+                status.getReasonPhrase(),
+                message,
+                exchange.getRequest().getPath().value()
+        ));
+    }
+}
@@ -0,0 +1,134 @@
+package org.rossijr.authentication.config;
+
+import org.rossijr.authentication.auth.CustomAuthenticationEntryPoint;
+import org.rossijr.authentication.auth.CustomReactiveUserDetailsService;
+import org.rossijr.authentication.auth.JwtAuthenticationWebFilter;
+import org.rossijr.authentication.auth.JwtUtil;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.HttpMethod;
+import org.springframework.security.config.annotation.method.configuration.EnableReactiveMethodSecurity;
+import org.springframework.security.config.annotation.web.reactive.EnableWebFluxSecurity;
+import org.springframework.security.config.web.server.SecurityWebFiltersOrder;
+import org.springframework.security.config.web.server.ServerHttpSecurity;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.security.web.server.SecurityWebFilterChain;
+import org.springframework.security.web.server.context.NoOpServerSecurityContextRepository;
+import org.springframework.web.cors.CorsConfiguration;
+import org.springframework.web.cors.reactive.CorsConfigurationSource;
+import org.springframework.web.cors.reactive.UrlBasedCorsConfigurationSource;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+
+import java.util.Arrays;
+import java.util.List;
+
+@Configuration
+@EnableWebFluxSecurity
+@EnableReactiveMethodSecurity
+public class SecurityConfig {
+
+    // Inject the allowed origins from the application.properties
+    @Value("${cors.allowed.origins}")
+    private String allowedOrigins;
+
+    private final CustomAuthenticationEntryPoint customAuthenticationEntryPoint;
+
+    @Autowired
+    public SecurityConfig(CustomAuthenticationEntryPoint customAuthenticationEntryPoint) {
+        this.customAuthenticationEntryPoint = customAuthenticationEntryPoint;
+    }
+
+    @Bean
+    public PasswordEncoder passwordEncoder() {
+        return new BCryptPasswordEncoder();
+    }
+
+    /**
+     * The scheduler running the password hashing (BCrypt), which takes tens of milliseconds of CPU and must not run on
+     * the event loop threads.
+     *
+     * <p>It has one thread per core (more threads would not hash faster, only make every login slower) and a bounded
+     * queue of {@code password.hashing.queue.capacity} tasks. When the queue is full, the hashing is rejected and the
+     * request is answered with {@code 503} and a {@code Retry-After} header (see {@link GlobalExceptionHandler}).</p>
+     *
+     * @param queueCapacity the maximum number of hashing tasks waiting for a thread
+     * @return the password hashing scheduler
+     */
+    @Bean(destroyMethod = "dispose")
+    public Scheduler passwordHashingScheduler(@Value("${password.hashing.queue.capacity}") int queueCapacity) {
+        return Schedulers.newBoundedElastic(Runtime.getRuntime().availableProcessors(), queueCapacity, "password-hashing");
+    }
+
+    /**
+     * Method to configure the security pattern (filter chain) for the application.
+     * This configuration includes the following <b>(IN THIS APPLICATION)</b>:
+     * <ul>
+     *     <li>CSRF protection disabled - As stateless authentication is being used</li>
+     *     <li>Authorization for the endpoints - This includes:
+     *     <ul>
+     *         <li>Not requiring authentication for the authentication endpoint and the validation one</li>
+     *         <li>Defining the endpoints which will need authentication</li>
+     *     </ul>
+     *     <li>Security context - As the application is stateless, it is not stored between requests</li>
+     *     <li>Adding the JWT Filter</li>
+     *     <li>Exception handling - Custom authentication entry point</li>
+     * </ul>
+     *
+     * @param http                  - The configuration object
+     * @param userDetailsService    - Loads the user of the token
+     * @param jwtUtil               - Verifies the token
+     * @return The security filter chain already configured
+     */
+    @Bean
+    public SecurityWebFilterChain securityWebFilterChain(ServerHttpSecurity http, CustomReactiveUserDetailsService userDetailsService,
+                                                         JwtUtil jwtUtil) {
+        return http
+                .csrf(ServerHttpSecurity.CsrfSpec::disable)
+                .httpBasic(ServerHttpSecurity.HttpBasicSpec::disable)
+                .formLogin(ServerHttpSecurity.FormLoginSpec::disable)
+                .headers(headers -> headers.frameOptions(ServerHttpSecurity.HeaderSpec.FrameOptionsSpec::disable))
+                .cors(cors -> cors.configurationSource(corsConfigurationSource()))
+                .authorizeExchange(auth -> auth
+                        // Matches the authentication endpoint and the validation endpoint
+                        .pathMatchers("/api/v1/authentication/login", "/api/v1/authentication/validate").permitAll()
+                        .pathMatchers(HttpMethod.OPTIONS, "/**").permitAll()
+                        .anyExchange().authenticated()          // Require authentication for all other requests
+                )
+                .exceptionHandling(exceptions -> exceptions.authenticationEntryPoint(customAuthenticationEntryPoint))
+                .securityContextRepository(NoOpServerSecurityContextRepository.getInstance())
+                .addFilterAt(new JwtAuthenticationWebFilter(userDetailsService, jwtUtil), SecurityWebFiltersOrder.AUTHENTICATION)
+                .build();
+    }
+
+    /**
+     * Configures the Cross-Origin Resource Sharing (CORS) policy for the application.
+     *
+     * <h3>In This Application:</h3>
+     * <ul>
+     *     <li><b>Allowed Origins:</b> Configured dynamically based on the application environment.</li>
+     *     <li><b>Allowed Methods:</b> GET, POST, PUT, DELETE, OPTIONS.</li>
+     *     <li><b>Allowed Headers:</b> Authorization, Content-Type, Access-Control-Allow-Origin.</li>
+     *     <li><b>Allow Credentials:</b> Supports credentials like cookies or tokens.</li>
+     *     <li><b>Max Age:</b> Preflight request caching duration (3600 seconds).</li>
+     * </ul>
+     *
+     * @return A configured {@link CorsConfigurationSource} defining the application's CORS policy.
+     */
+    @Bean
+    public CorsConfigurationSource corsConfigurationSource() {
+        CorsConfiguration configuration = new CorsConfiguration();
+        configuration.setAllowedOrigins(Arrays.asList(allowedOrigins.split(","))); // Support multiple origins from config
+        configuration.setAllowedMethods(List.of("GET", "POST", "PUT", "DELETE", "OPTIONS"));
+        configuration.setAllowedHeaders(List.of("Authorization", "Content-Type", "Access-Control-Allow-Origin"));
+        configuration.setAllowCredentials(true); // Enable cookies or tokens
+        configuration.setMaxAge(3600L); // Cache preflight responses for 3600 seconds (1 hour)
+
+        UrlBasedCorsConfigurationSource source = new UrlBasedCorsConfigurationSource();
+        source.registerCorsConfiguration("/api/v1/**", configuration);
+        return source;
+    }
+}
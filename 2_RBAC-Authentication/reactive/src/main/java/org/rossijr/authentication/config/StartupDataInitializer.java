@@ -0,0 +1,79 @@
+package org.rossijr.authentication.config;
+
+import org.rossijr.authentication.model.Role;
+import org.rossijr.authentication.model.User;
+import org.rossijr.authentication.model.UserRole;
+import org.rossijr.authentication.repository.RoleRepository;
+import org.rossijr.authentication.repository.UserRepository;
+import org.rossijr.authentication.repository.UserRoleRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.CommandLineRunner;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.r2dbc.core.R2dbcEntityTemplate;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import reactor.core.publisher.Mono;
+
+import java.time.OffsetDateTime;
+import java.util.UUID;
+
+@Configuration
+public class StartupDataInitializer {
+    private final RoleRepository roleRepository;
+    private final UserRepository userRepository;
+    private final UserRoleRepository userRoleRepository;
+    private final R2dbcEntityTemplate entityTemplate;
+    private final PasswordEncoder passwordEncoder;
+
+    @Autowired
+    public StartupDataInitializer(RoleRepository roleRepository,
+                                  UserRepository userRepository,
+                                  UserRoleRepository userRoleRepository,
+                                  R2dbcEntityTemplate entityTemplate,
+                                  PasswordEncoder passwordEncoder) {
+        this.roleRepository = roleRepository;
+        this.userRepository = userRepository;
+        this.userRoleRepository = userRoleRepository;
+        this.entityTemplate = entityTemplate;
+        this.passwordEncoder = passwordEncoder;
+    }
+
+    /**
+     * Creates the roles and the example users. It blocks until they are created, which is fine at startup (before the
+     * server accepts requests).
+     */
+    @Bean
+    public CommandLineRunner initializeData() {
+        return args -> createRole("ROLE_USER")
+                .then(createRole("ROLE_ADMIN"))
+                .then(createUser("admin@example.com", "admin123", "ROLE_ADMIN"))
+                .then(createUser("user@example.com", "user123", "ROLE_USER"))
+                .block();
+    }
+
+    // Create role if it doesn't exist
+    private Mono<Void> createRole(String name) {
+        return roleRepository.existsByName(name)
+                .filter(exists -> !exists)
+                .flatMap(exists -> roleRepository.save(new Role(name)))
+                .then();
+    }
+
+    // Create user if it doesn't exist
+    private Mono<Void> createUser(String email, String password, String roleName) {
+        return userRepository.existsByEmail(email)
+                .filter(exists -> !exists)
+                .flatMap(exists -> {
+                    User user = new User();
+                    user.setId(UUID.randomUUID());
+                    user.setEmail(email);
+                    user.setPassword(passwordEncoder.encode(password));
+                    user.setCreatedAt(OffsetDateTime.now());
+                    user.setUpdatedAt(OffsetDateTime.now());
+                    return entityTemplate.insert(user);
+                })
+                .flatMap(user -> roleRepository.findByName(roleName)
+                        .flatMap(role -> userRoleRepository.save(new UserRole(user.getId(), role.getId()))))
+                .then();
+    }
+}
@@ -0,0 +1,63 @@
+package org.rossijr.authentication.config.dto;
+
+import java.time.ZonedDateTime;
+
+
+/**
+ * DTO for exception responses, used to standardize the response format for exceptions.
+ */
+public class ExceptionResponseDTO {
+    private ZonedDateTime timestamp;
+    private int status;
+    private String error;
+    private String message;
+    private String path;
+
+    public ExceptionResponseDTO(ZonedDateTime timestamp, int status, String error, String message, String path) {
+        this.timestamp = timestamp;
+        this.status = status;
+        this.error = error;
+        this.message = message;
+        this.path = path;
+    }
+
+    public ZonedDateTime getTimestamp() {
+        return timestamp;
+    }
+
+    public void setTimestamp(ZonedDateTime timestamp) {
+        this.timestamp = timestamp;
+    }
+
+    public int getStatus() {
+        return status;
+    }
+
+    public void setStatus(int status) {
+        this.status = status;
+    }
+
+    public String getPath() {
+        return path;
+    }
+
+    public void setPath(String path) {
+        this.path = path;
+    }
+
+    public String getMessage() {
+        return message;
+    }
+
+    public void setMessage(String message) {
+        this.message = message;
+    }
+
+    public String getError() {
+        return error;
+    }
+
+    public void setError(String error) {
+        this.error = error;
+    }
+}
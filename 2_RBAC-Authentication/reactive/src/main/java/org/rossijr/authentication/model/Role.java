@@ -0,0 +1,113 @@
+package org.rossijr.authentication.model;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.relational.core.mapping.Column;
+import org.springframework.data.relational.core.mapping.Table;
+
+import java.time.OffsetDateTime;
+import java.util.UUID;
+
+/**
+ * Represents a role entity in the authentication system.
+ *
+ * <p>This class maps to the <b>tb_role</b> table in the database (the same table as the servlet version). Roles
+ * determine the authorities of a user and are associated with users through the {@link UserRole} entity.</p>
+ *
+ * <h3>Database Mapping:</h3>
+ * <ul>
+ *   <li><b>Table Name:</b> tb_role</li>
+ *   <li><b>Primary Key:</b> id (auto-generated)</li>
+ *   <li><b>Fields:</b>
+ *     <ul>
+ *       <li><b>name:</b> Unique name of the role (e.g., ROLE_ADMIN, ROLE_USER).</li>
+ *       <li><b>description:</b> Optional description of the role's purpose.</li>
+ *       <li><b>createdAt:</b> Timestamp indicating when the role was created.</li>
+ *       <li><b>updatedAt:</b> Timestamp indicating when the role was last updated.</li>
+ *       <li><b>createdBy:</b> ID of the user who created the role.</li>
+ *     </ul>
+ *   </li>
+ * </ul>
+ *
+ * @see UserRole
+ */
+@Table("tb_role")
+public class Role {
+
+    @Id
+    private Long id;
+
+    @Column("name")
+    private String name;
+
+    @Column("description")
+    private String description;
+
+    @JsonIgnore
+    @Column("created_at")
+    private OffsetDateTime createdAt;
+
+    // The column name is kept as created by the servlet version, so both versions can share the database
+    @JsonIgnore
+    @Column("udpated_at")
+    private OffsetDateTime updatedAt;
+
+    @JsonIgnore
+    @Column("created_by")
+    private UUID createdBy;
+
+    public Role(String name) {
+        this.name = name;
+    }
+
+    public Role() {
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public void setName(String name) {
+        this.name = name;
+    }
+
+    public String getDescription() {
+        return description;
+    }
+
+    public void setDescription(String description) {
+        this.description = description;
+    }
+
+    public OffsetDateTime getCreatedAt() {
+        return createdAt;
+    }
+
+    public void setCreatedAt(OffsetDateTime createdAt) {
+        this.createdAt = createdAt;
+    }
+
+    public OffsetDateTime getUpdatedAt() {
+        return updatedAt;
+    }
+
+    public void setUpdatedAt(OffsetDateTime updatedAt) {
+        this.updatedAt = updatedAt;
+    }
+
+    public UUID getCreatedBy() {
+        return createdBy;
+    }
+
+    public void setCreatedBy(UUID createdBy) {
+        this.createdBy = createdBy;
+    }
+}
@@ -0,0 +1,93 @@
+package org.rossijr.authentication.model;
+
+import org.springframework.data.annotation.Id;
+import org.springframework.data.relational.core.mapping.Column;
+import org.springframework.data.relational.core.mapping.Table;
+
+import java.time.OffsetDateTime;
+import java.util.UUID;
+
+/**
+ * Represents a user entity in the authentication system.
+ *
+ * <h3>Database Mapping:</h3>
+ * <ul>
+ *   <li>Maps to the table <b>tb_user</b> in the database (the same table as the servlet version).</li>
+ *   <li>Each user has an unique ID and email, password, creation timestamp and last login.</li>
+ *   <li>The roles are not mapped (R2DBC has no associations), they are read through {@link UserRole}.</li>
+ * </ul>
+ *
+ * <p>The ID is generated by the application, so new users are inserted with
+ * {@link org.springframework.data.r2dbc.core.R2dbcEntityTemplate#insert(Object)}.</p>
+ */
+@Table("tb_user")
+public class User {
+    @Id
+    private UUID id;
+
+    @Column("email")
+    private String email;
+
+    @Column("password")
+    private String password;
+
+    @Column("created_at")
+    private OffsetDateTime createdAt;
+
+    @Column("updated_at")
+    private OffsetDateTime updatedAt;
+
+    @Column("last_login")
+    private OffsetDateTime lastLogin;
+
+    public User() {
+    }
+
+    public UUID getId() {
+        return id;
+    }
+
+    public void setId(UUID id) {
+        this.id = id;
+    }
+
+    public String getEmail() {
+        return email;
+    }
+
+    public void setEmail(String email) {
+        this.email = email;
+    }
+
+    public String getPassword() {
+        return password;
+    }
+
+    public void setPassword(String password) {
+        this.password = password;
+    }
+
+    public OffsetDateTime getCreatedAt() {
+        return createdAt;
+    }
+
+    public void setCreatedAt(OffsetDateTime createdAt) {
+        this.createdAt = createdAt;
+    }
+
+    public OffsetDateTime getUpdatedAt() {
+        return updatedAt;
+    }
+
+    public void setUpdatedAt(OffsetDateTime updatedAt) {
+        this.updatedAt = updatedAt;
+    }
+
+    public OffsetDateTime getLastLogin() {
+        return lastLogin;
+    }
+
+    public void setLastLogin(OffsetDateTime lastLogin) {
+        this.lastLogin = lastLogin;
+    }
+}
@@ -0,0 +1,73 @@
+package org.rossijr.authentication.model;
+
+import org.springframework.data.annotation.Id;
+import org.springframework.data.relational.core.mapping.Column;
+import org.springframework.data.relational.core.mapping.Table;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * Represents the association between a user and a role in the authentication system.
+ *
+ * <p>This entity maps to the <b>tb_mm_user_role</b> table (the same table as the servlet version) and holds the IDs of
+ * the {@link User} and of the {@link Role}, as R2DBC does not map associations.</p>
+ *
+ * @see User
+ * @see Role
+ */
+@Table("tb_mm_user_role")
+public class UserRole {
+    @Id
+    private Long id;
+
+    @Column("user_id")
+    private UUID userId;
+
+    @Column("role_id")
+    private Long roleId;
+
+    @Column("assigned_at")
+    private LocalDateTime assignedAt;
+
+    public UserRole(UUID userId, Long roleId) {
+        this.userId = userId;
+        this.roleId = roleId;
+        this.assignedAt = LocalDateTime.now();
+    }
+
+    public UserRole() {
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public UUID getUserId() {
+        return userId;
+    }
+
+    public void setUserId(UUID userId) {
+        this.userId = userId;
+    }
+
+    public Long getRoleId() {
+        return roleId;
+    }
+
+    public void setRoleId(Long roleId) {
+        this.roleId = roleId;
+    }
+
+    public LocalDateTime getAssignedAt() {
+        return assignedAt;
+    }
+
+    public void setAssignedAt(LocalDateTime assignedAt) {
+        this.assignedAt = assignedAt;
+    }
+}
@@ -0,0 +1,29 @@
+package org.rossijr.authentication.repository;
+
+import org.rossijr.authentication.model.Role;
+import org.springframework.data.r2dbc.repository.Query;
+import org.springframework.data.repository.reactive.ReactiveCrudRepository;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.UUID;
+
+/**
+ * Repository for Role entity
+ */
+@Repository
+public interface RoleRepository extends ReactiveCrudRepository<Role, Long> {
+    Mono<Role> findByName(String name);
+
+    Mono<Boolean> existsByName(String name);
+
+    /**
+     * Finds the roles of a user, through the {@code tb_mm_user_role} table.
+     *
+     * @param userId the ID of the user
+     * @return the roles of the user
+     */
+    @Query("SELECT r.* FROM tb_role r JOIN tb_mm_user_role ur ON ur.role_id = r.id WHERE ur.user_id = :userId")
+    Flux<Role> findByUserId(UUID userId);
+}
@@ -0,0 +1,24 @@
+package org.rossijr.authentication.repository;
+
+import org.rossijr.authentication.model.User;
+import org.springframework.data.r2dbc.repository.Modifying;
+import org.springframework.data.r2dbc.repository.Query;
+import org.springframework.data.repository.reactive.ReactiveCrudRepository;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Mono;
+
+import java.util.UUID;
+
+/**
+ * Repository for User entity
+ */
+@Repository
+public interface UserRepository extends ReactiveCrudRepository<User, UUID> {
+    Mono<User> findByEmail(String email);
+
+    Mono<Boolean> existsByEmail(String email);
+
+    @Modifying
+    @Query("UPDATE tb_user SET last_login = CURRENT_TIMESTAMP WHERE email = :email")
+    Mono<Integer> updateLastLogin(String email);
+}
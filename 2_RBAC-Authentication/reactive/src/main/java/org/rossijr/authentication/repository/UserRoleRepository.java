@@ -0,0 +1,12 @@
+package org.rossijr.authentication.repository;
+
+import org.rossijr.authentication.model.UserRole;
+import org.springframework.data.repository.reactive.ReactiveCrudRepository;
+import org.springframework.stereotype.Repository;
+
+/**
+ * Repository for UserRole entity
+ */
+@Repository
+public interface UserRoleRepository extends ReactiveCrudRepository<UserRole, Long> {
+}
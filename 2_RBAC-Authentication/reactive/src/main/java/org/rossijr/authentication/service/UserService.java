@@ -0,0 +1,118 @@
+package org.rossijr.authentication.service;
+
+import org.rossijr.authentication.dto.CreateUserRequestDTO;
+import org.rossijr.authentication.dto.CreateUserResponseDTO;
+import org.rossijr.authentication.dto.GetUserResponseDTO;
+import org.rossijr.authentication.exception.EmailAlreadyInUseExceptionWeb;
+import org.rossijr.authentication.exception.ObjectNotFoundException;
+import org.rossijr.authentication.model.User;
+import org.rossijr.authentication.model.UserRole;
+import org.rossijr.authentication.repository.RoleRepository;
+import org.rossijr.authentication.repository.UserRepository;
+import org.rossijr.authentication.repository.UserRoleRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.data.r2dbc.core.R2dbcEntityTemplate;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
+
+import java.time.OffsetDateTime;
+import java.time.ZonedDateTime;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+@Service
+public class UserService {
+    private final Logger logger = LoggerFactory.getLogger(UserService.class);
+
+    private final UserRepository userRepository;
+    private final RoleRepository roleRepository;
+    private final UserRoleRepository userRoleRepository;
+    private final R2dbcEntityTemplate entityTemplate;
+    private final PasswordEncoder passwordEncoder;
+    private final Scheduler passwordHashingScheduler;
+    private final RoleService roleService;
+
+    @Autowired
+    public UserService(UserRepository userRepository, RoleRepository roleRepository, UserRoleRepository userRoleRepository,
+                       R2dbcEntityTemplate entityTemplate, PasswordEncoder passwordEncoder,
+                       @Qualifier("passwordHashingScheduler") Scheduler passwordHashingScheduler, RoleService roleService) {
+        this.userRepository = userRepository;
+        this.roleRepository = roleRepository;
+        this.userRoleRepository = userRoleRepository;
+        this.entityTemplate = entityTemplate;
+        this.passwordEncoder = passwordEncoder;
+        this.passwordHashingScheduler = passwordHashingScheduler;
+        this.roleService = roleService;
+    }
+
+    // BCrypt takes tens of milliseconds of CPU, so it runs on the password hashing scheduler instead of the event loop
+    private Mono<String> hashPassword(String password) {
+        return Mono.fromCallable(() -> passwordEncoder.encode(password)).subscribeOn(passwordHashingScheduler);
+    }
+
+    /**
+     * Creates a new user with the provided details.
+     *
+     * @param userRequestDTO the data transfer object containing user details
+     * @return a data transfer object containing the created user's details
+     * @throws IllegalArgumentException      if the provided user details are invalid
+     * @throws EmailAlreadyInUseExceptionWeb if the email is already associated with an existing user
+     */
+    @Transactional
+    public Mono<CreateUserResponseDTO> createUser(CreateUserRequestDTO userRequestDTO) {
+        if (userRequestDTO == null) {
+            return Mono.error(new IllegalArgumentException("The user cannot be null"));
+        }
+        return userRepository.existsByEmail(userRequestDTO.getEmail())
+                .flatMap(exists -> exists
+                        ? Mono.<String>error(new EmailAlreadyInUseExceptionWeb("This email is already in use"))
+                        : hashPassword(userRequestDTO.getPassword()))
+                .flatMap(password -> {
+                    // Map DTO to entity
+                    User user = new User();
+                    user.setId(UUID.randomUUID());
+                    user.setEmail(userRequestDTO.getEmail());
+                    user.setPassword(password);
+                    user.setCreatedAt(OffsetDateTime.now());
+                    user.setUpdatedAt(OffsetDateTime.now());
+                    // The ID is already set, so the user is inserted through the template (save would update it)
+                    return entityTemplate.insert(user);
+                })
+                // Assign roles
+                .flatMap(user -> roleService.getRoleByName("ROLE_USER")
+                        .flatMap(role -> userRoleRepository.save(new UserRole(user.getId(), role.getId())))
+                        .thenReturn(new CreateUserResponseDTO(user.getId(), user.getEmail(), user.getCreatedAt().toZonedDateTime())))
+                .doOnError(e -> !(e instanceof IllegalArgumentException || e instanceof EmailAlreadyInUseExceptionWeb),
+                        e -> logger.error("An unexpected error occurred while creating the user: {}", e.getMessage()));
+    }
+
+    /**
+     * Retrieves a user by their ID.
+     *
+     * @param id the ID of the user to retrieve
+     * @return a data transfer object containing the user's details
+     * @throws ObjectNotFoundException if the user with the provided ID does not exist
+     */
+    public Mono<GetUserResponseDTO> getUser(UUID id) {
+        return userRepository.findById(id)
+                .switchIfEmpty(Mono.error(new ObjectNotFoundException("User not found")))
+                .flatMap(user -> roleRepository.findByUserId(user.getId())
+                        .collect(Collectors.toSet())
+                        .map(roles -> new GetUserResponseDTO(user.getId(), user.getEmail(), toZonedDateTime(user.getCreatedAt()),
+                                toZonedDateTime(user.getUpdatedAt()), roles)));
+    }
+
+    public Mono<User> getUserByEmail(String email) {
+        return userRepository.findByEmail(email);
+    }
+
+    private static ZonedDateTime toZonedDateTime(OffsetDateTime dateTime) {
+        return dateTime == null ? null : dateTime.toZonedDateTime();
+    }
+}
@@ -0,0 +1,30 @@
+-- The same tables as the ones created by the servlet version (JPA), so both versions can share the database
+CREATE TABLE IF NOT EXISTS tb_user
+(
+    id         UUID PRIMARY KEY,
+    email      TEXT NOT NULL UNIQUE,
+    password   TEXT NOT NULL,
+    created_at TIMESTAMP WITH TIME ZONE,
+    updated_at TIMESTAMP WITH TIME ZONE,
+    last_login TIMESTAMP WITH TIME ZONE
+);
+
+CREATE TABLE IF NOT EXISTS tb_role
+(
+    id          BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    name        VARCHAR(50) NOT NULL UNIQUE,
+    description VARCHAR(255),
+    created_at  TIMESTAMP WITH TIME ZONE,
+    udpated_at  TIMESTAMP WITH TIME ZONE,
+    created_by  UUID REFERENCES tb_user (id)
+);
+
+CREATE TABLE IF NOT EXISTS tb_mm_user_role
+(
+    id          BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    user_id     UUID REFERENCES tb_user (id),
+    role_id     BIGINT REFERENCES tb_role (id),
+    assigned_at TIMESTAMP
+);
+
+CREATE INDEX IF NOT EXISTS idx_user_role_user_id ON tb_mm_user_role (user_id);
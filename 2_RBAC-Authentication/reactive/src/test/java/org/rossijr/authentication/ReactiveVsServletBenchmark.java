@@ -0,0 +1,205 @@
+package org.rossijr.authentication;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Side by side load of the servlet version (Spring MVC, JPA) and of the reactive version (WebFlux, R2DBC) on
+ * {@code GET /api/v1/user/{id}} (token verification, ownership check and the reads of the user and of its roles).
+ *
+ * <p>Both applications run as separate processes with the same JVM flags and an in-memory H2 database, one after the
+ * other. Each client sends its next request as soon as it gets the previous response, for {@link #LEVEL_DURATION} per
+ * level. The throughput, the latency percentiles, and the highest resident memory (VmRSS) and thread count of the
+ * application process during the level are printed per version and level (the memory and threads are read from
+ * {@code /proc}, so on Linux only).</p>
+ *
+ * <p>Build the servlet jar first ({@code mvn package -DskipTests} in the parent folder), then run, in this folder,
+ * {@code mvn package -DskipTests exec:exec -Dexec.classpathScope=test -Dexec.executable=java "-Dexec.args=-cp %classpath
+ * org.rossijr.authentication.ReactiveVsServletBenchmark"}, optionally followed by the levels to run (e.g.
+ * {@code 100 1000}).</p>
+ */
+public class ReactiveVsServletBenchmark {
+    private static final int[] DEFAULT_LEVELS = {100, 500, 1000, 2000};
+    private static final Duration LEVEL_DURATION = Duration.ofSeconds(15);
+    private static final Duration WARMUP_DURATION = Duration.ofSeconds(10);
+    private static final List<String> JVM_FLAGS = List.of("-Xms256m", "-Xmx512m", "-XX:+UseG1GC");
+
+    private final HttpClient client = HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(30)).build();
+
+    public static void main(String[] args) throws Exception {
+        int[] levels = args.length == 0 ? DEFAULT_LEVELS : Arrays.stream(args).mapToInt(Integer::parseInt).toArray();
+        ReactiveVsServletBenchmark benchmark = new ReactiveVsServletBenchmark();
+        System.out.printf("%-9s %8s %10s %9s %9s %10s %8s%n", "version", "clients", "requests/s", "p50 (ms)", "p99 (ms)", "RSS (MiB)", "threads");
+        benchmark.run("servlet", Path.of("../target/RBAC-Authentication-0.0.1-SNAPSHOT.jar"), 18081, levels,
+                "--spring.datasource.url=jdbc:h2:mem:benchmark;MODE=PostgreSQL;DB_CLOSE_DELAY=-1",
+                "--spring.datasource.driver-class-name=org.h2.Driver",
+                "--spring.datasource.username=sa",
+                "--spring.datasource.password=",
+                "--spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect");
+        benchmark.run("reactive", Path.of("target/RBAC-Authentication-Reactive-0.0.1-SNAPSHOT.jar"), 18082, levels,
+                "--spring.r2dbc.url=r2dbc:h2:mem:///benchmark;MODE=PostgreSQL;DB_CLOSE_DELAY=-1",
+                "--spring.r2dbc.username=sa",
+                "--spring.r2dbc.password=");
+        System.exit(0);
+    }
+
+    private void run(String version, Path jar, int port, int[] levels, String... databaseArgs) throws Exception {
+        if (!Files.exists(jar)) {
+            throw new IllegalStateException(jar.toAbsolutePath() + " not found, build it first");
+        }
+        List<String> command = new ArrayList<>();
+        command.add(Path.of(System.getProperty("java.home"), "bin", "java").toString());
+        command.addAll(JVM_FLAGS);
+        command.addAll(List.of("-jar", jar.toString(), "--server.port=" + port, "--logging.level.root=WARN", "--spring.main.banner-mode=off"));
+        command.addAll(Arrays.asList(databaseArgs));
+        Process process = new ProcessBuilder(command)
+                .redirectErrorStream(true)
+                .redirectOutput(File.createTempFile(version, ".log"))
+                .start();
+        try {
+            String baseUrl = "http://localhost:" + port;
+            JsonNode login = waitForLogin(baseUrl, process);
+            HttpRequest request = HttpRequest.newBuilder(URI.create(baseUrl + "/api/v1/user/" + login.get("userId").asText()))
+                    .header("Authorization", "Bearer " + login.get("token").asText())
+                    .timeout(Duration.ofSeconds(60))
+                    .build();
+
+            // At the highest level, so the connections are already open when measuring (otherwise the connection bursts
+            // overflow the accept backlog and the retried connections dominate the high percentiles)
+            load(request, Arrays.stream(levels).max().getAsInt(), WARMUP_DURATION, process);
+            for (int clients : levels) {
+                Result result = load(request, clients, LEVEL_DURATION, process);
+                System.out.printf("%-9s %8d %10.0f %9d %9d %10d %8d%n", version, clients,
+                        result.completed.sum() / (double) LEVEL_DURATION.toSeconds(), result.percentile(0.5),
+                        result.percentile(0.99), result.maxRssKib / 1024, result.maxThreads);
+                if (result.failed.sum() > 0) {
+                    System.out.printf("          %d requests failed (other status or I/O error)%n", result.failed.sum());
+                }
+            }
+        } finally {
+            process.destroy();
+            process.waitFor(30, TimeUnit.SECONDS);
+        }
+    }
+
+    /**
+     * Logs in (as the regular user) as soon as the application accepts requests.
+     */
+    private JsonNode waitForLogin(String baseUrl, Process process) throws Exception {
+        HttpRequest login = HttpRequest.newBuilder(URI.create(baseUrl + "/api/v1/authentication/login"))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString("{\"email\": \"user@example.com\", \"password\": \"user123\"}"))
+                .build();
+        long deadline = System.nanoTime() + TimeUnit.MINUTES.toNanos(2);
+        while (System.nanoTime() - deadline < 0 && process.isAlive()) {
+            try {
+                HttpResponse<String> response = client.send(login, HttpResponse.BodyHandlers.ofString());
+                if (response.statusCode() == 200) {
+                    return new ObjectMapper().readTree(response.body());
+                }
+            } catch (IOException e) {
+                // Not started yet
+            }
+            Thread.sleep(500);
+        }
+        throw new IllegalStateException("The application did not start (see the log in the temporary folder)");
+    }
+
+    /**
+     * Runs the given number of clients, each one sending the request in a loop until the duration is over, while
+     * sampling the memory and the threads of the application process.
+     */
+    private Result load(HttpRequest request, int clients, Duration duration, Process process) {
+        Result result = new Result();
+        long deadline = System.nanoTime() + duration.toNanos();
+        CompletableFuture<?>[] loops = new CompletableFuture<?>[clients];
+        for (int i = 0; i < clients; i++) {
+            loops[i] = loop(request, deadline, result);
+        }
+        CompletableFuture<Void> all = CompletableFuture.allOf(loops);
+        while (!all.isDone()) {
+            result.sample(process.pid());
+            try {
+                all.get(500, TimeUnit.MILLISECONDS);
+            } catch (Exception e) {
+                // Still running
+            }
+        }
+        return result;
+    }
+
+    private CompletableFuture<Void> loop(HttpRequest request, long deadline, Result result) {
+        if (System.nanoTime() - deadline >= 0) {
+            return CompletableFuture.completedFuture(null);
+        }
+        long start = System.nanoTime();
+        return client.sendAsync(request, HttpResponse.BodyHandlers.discarding())
+                .handle((response, error) -> {
+                    if (error == null && response.statusCode() == 200) {
+                        result.record(System.nanoTime() - start);
+                    } else {
+                        result.failed.increment();
+                    }
+                    return null;
+                })
+                .thenCompose(ignored -> loop(request, deadline, result));
+    }
+
+    private static final class Result {
+        // Latencies in buckets of 1 ms (the last one holds everything above)
+        private final AtomicLongArray latencies = new AtomicLongArray(60_000);
+        // Updated by the callbacks of the HTTP client, which run on different threads
+        private final LongAdder completed = new LongAdder();
+        private final LongAdder failed = new LongAdder();
+        private long maxRssKib;
+        private long maxThreads;
+
+        private void record(long nanos) {
+            latencies.incrementAndGet((int) Math.min(TimeUnit.NANOSECONDS.toMillis(nanos), latencies.length() - 1));
+            completed.increment();
+        }
+
+        private long percentile(double percentile) {
+            long rank = (long) Math.ceil(completed.sum() * percentile);
+            long count = 0;
+            for (int millis = 0; millis < latencies.length(); millis++) {
+                count += latencies.get(millis);
+                if (count >= rank && count > 0) {
+                    return millis;
+                }
+            }
+            return -1;
+        }
+
+        private void sample(long pid) {
+            try {
+                for (String line : Files.readAllLines(Path.of("/proc", String.valueOf(pid), "status"))) {
+                    if (line.startsWith("VmRSS:")) {
+                        maxRssKib = Math.max(maxRssKib, Long.parseLong(line.replaceAll("\\D", "")));
+                    } else if (line.startsWith("Threads:")) {
+                        maxThreads = Math.max(maxThreads, Long.parseLong(line.replaceAll("\\D", "")));
+                    }
+                }
+            } catch (IOException e) {
+                // Not on Linux, the memory and threads are reported as 0
+            }
+        }
+    }
+}
@@ -0,0 +1,108 @@
+package org.rossijr.authentication.auth;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.reactive.server.WebTestClient;
+
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+
+/**
+ * The login, the token verification and the role and ownership checks over HTTP, against H2.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@ActiveProfiles("test")
+class AuthenticationFlowTest {
+
+    @Autowired
+    private WebTestClient webTestClient;
+
+    @Test
+    void loginSucceeds() {
+        JsonNode login = login("user@example.com", "user123");
+
+        assertNotNull(login.get("token").asText(null));
+        assertNotNull(login.get("userId").asText(null));
+    }
+
+    @Test
+    void loginFailsWithAWrongPassword() {
+        webTestClient.post().uri("/api/v1/authentication/login")
+                .bodyValue(Map.of("email", "user@example.com", "password", "wrong"))
+                .exchange()
+                .expectStatus().isUnauthorized()
+                .expectBody()
+                .jsonPath("$.status").isEqualTo(401)
+                .jsonPath("$.message").isEqualTo("Invalid username or password");
+    }
+
+    @Test
+    void loginFailsWithAnUnknownEmail() {
+        webTestClient.post().uri("/api/v1/authentication/login")
+                .bodyValue(Map.of("email", "nobody@example.com", "password", "user123"))
+                .exchange()
+                .expectStatus().isUnauthorized();
+    }
+
+    @Test
+    void invalidTokenIsRejected() {
+        webTestClient.get().uri("/api/v1/health/user")
+                .header(HttpHeaders.AUTHORIZATION, "Bearer not-a-token")
+                .exchange()
+                .expectStatus().isUnauthorized();
+    }
+
+    @Test
+    void missingTokenIsRejected() {
+        webTestClient.get().uri("/api/v1/health/user")
+                .exchange()
+                .expectStatus().isUnauthorized()
+                .expectBody()
+                .jsonPath("$.status").isEqualTo(401);
+    }
+
+    @Test
+    void rolesAreChecked() {
+        String token = login("user@example.com", "user123").get("token").asText();
+
+        get("/api/v1/health/user", token).expectStatus().isOk();
+        get("/api/v1/health/admin", token).expectStatus().isForbidden();
+    }
+
+    @Test
+    void usersCanOnlyReadTheirOwnData() {
+        JsonNode user = login("user@example.com", "user123");
+        JsonNode admin = login("admin@example.com", "admin123");
+        String token = user.get("token").asText();
+
+        get("/api/v1/user/" + user.get("userId").asText(), token)
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$.email").isEqualTo("user@example.com");
+        get("/api/v1/user/" + admin.get("userId").asText(), token).expectStatus().isForbidden();
+        get("/api/v1/user/not-a-uuid", token).expectStatus().isForbidden();
+    }
+
+    private JsonNode login(String email, String password) {
+        JsonNode body = webTestClient.post().uri("/api/v1/authentication/login")
+                .bodyValue(Map.of("email", email, "password", password))
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody(JsonNode.class)
+                .returnResult()
+                .getResponseBody();
+        assertNotNull(body);
+        return body;
+    }
+
+    private WebTestClient.ResponseSpec get(String path, String token) {
+        return webTestClient.get().uri(path)
+                .header(HttpHeaders.AUTHORIZATION, "Bearer " + token)
+                .exchange();
+    }
+}
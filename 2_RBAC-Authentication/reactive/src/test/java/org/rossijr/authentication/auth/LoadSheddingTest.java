@@ -0,0 +1,52 @@
+package org.rossijr.authentication.auth;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.bean.override.convention.TestBean;
+import org.springframework.test.web.reactive.server.WebTestClient;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+
+import java.util.Map;
+import java.util.concurrent.RejectedExecutionException;
+
+/**
+ * A login rejected by the password hashing scheduler (its queue is full) is answered with {@code 503} and a
+ * {@code Retry-After} header.
+ *
+ * <p>The scheduler is replaced by one that rejects every task: filling the real one from the test races with the
+ * release of the workers of the previous logins, which can still queue a task past the capacity.</p>
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@ActiveProfiles("test")
+class LoadSheddingTest {
+
+    @Autowired
+    private WebTestClient webTestClient;
+
+    @TestBean
+    private Scheduler passwordHashingScheduler;
+
+    static Scheduler passwordHashingScheduler() {
+        return Schedulers.fromExecutor(task -> {
+            throw new RejectedExecutionException("Password hashing queue is full");
+        });
+    }
+
+    @Test
+    void loginIsShedWhenTheHashingQueueIsFull() {
+        webTestClient.post().uri("/api/v1/authentication/login")
+                .bodyValue(Map.of("email", "user@example.com", "password", "user123"))
+                .exchange()
+                .expectStatus().isEqualTo(HttpStatus.SERVICE_UNAVAILABLE)
+                .expectHeader().valueEquals(HttpHeaders.RETRY_AFTER, "1")
+                .expectBody()
+                .jsonPath("$.status").isEqualTo(503)
+                .jsonPath("$.path").isEqualTo("/api/v1/authentication/login");
+    }
+
+}
@@ -1,9 +1,12 @@
 package org.rossijr.authentication;
 
+import org.rossijr.authentication.config.NativeRuntimeHints;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.context.annotation.ImportRuntimeHints;
 
 @SpringBootApplication
+@ImportRuntimeHints(NativeRuntimeHints.class)
 public class RbacAuthenticationApplication {
 
     public static void main(String[] args) {
@@ -0,0 +1,54 @@
+package org.rossijr.authentication.auth;
+
+import org.springframework.security.core.CredentialsContainer;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.userdetails.UserDetails;
+
+import java.util.Collection;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * The {@link UserDetails} built by the {@link CustomUserDetailsService}.
+ *
+ * <p>Unlike {@link org.springframework.security.core.userdetails.User}, which copies the authorities into a new sorted
+ * set, it keeps the given set, so principals share the sets of the {@link RoleAuthorityRegistry}.</p>
+ */
+public class AuthenticatedUser implements UserDetails, CredentialsContainer {
+    private final UUID id;
+    private final String email;
+    private String password;
+    private final Set<GrantedAuthority> authorities;
+
+    public AuthenticatedUser(UUID id, String email, String password, Set<GrantedAuthority> authorities) {
+        this.id = id;
+        this.email = email;
+        this.password = password;
+        this.authorities = authorities;
+    }
+
+    @Override
+    public Collection<? extends GrantedAuthority> getAuthorities() {
+        return authorities;
+    }
+
+    @Override
+    public String getPassword() {
+        return password;
+    }
+
+    @Override
+    public String getUsername() {
+        return email;
+    }
+
+    public UUID getId() {
+        return id;
+    }
+
+    // Called by Spring Security after the login, so the password does not stay in memory with the principal
+    @Override
+    public void eraseCredentials() {
+        this.password = null;
+    }
+}
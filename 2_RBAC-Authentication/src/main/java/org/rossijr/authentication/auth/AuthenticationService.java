@@ -3,6 +3,7 @@ package org.rossijr.authentication.auth;
 import com.auth0.jwt.exceptions.JWTVerificationException;
 import org.rossijr.authentication.auth.dto.AuthenticationRequestDTO;
 import org.rossijr.authentication.auth.dto.AuthenticationResponseDTO;
+import org.rossijr.authentication.model.User;
 import org.rossijr.authentication.repository.UserRepository;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -23,14 +24,37 @@ public class AuthenticationService {
     private final CustomUserDetailsService customUserDetailsService;
     private final JwtUtil jwtUtil;
     private final UserRepository userRepository;
+    private final RoleAuthorityRegistry roleAuthorityRegistry;
+    private final UserRoleVersionRegistry userRoleVersionRegistry;
 
     @Autowired
     public AuthenticationService(AuthenticationManager authenticationManager, CustomUserDetailsService customUserDetailsService,
-                                 JwtUtil jwtUtil, UserRepository userRepository) {
+                                 JwtUtil jwtUtil, UserRepository userRepository, RoleAuthorityRegistry roleAuthorityRegistry,
+                                 UserRoleVersionRegistry userRoleVersionRegistry) {
         this.authenticationManager = authenticationManager;
         this.customUserDetailsService = customUserDetailsService;
         this.jwtUtil = jwtUtil;
         this.userRepository = userRepository;
+        this.roleAuthorityRegistry = roleAuthorityRegistry;
+        this.userRoleVersionRegistry = userRoleVersionRegistry;
+    }
+
+    /**
+     * Creates the token of the user: a stateless one, carrying the roles of the user, when the stateless token mode is
+     * enabled (and the roles fit in the mask), otherwise one carrying only the email.
+     *
+     * @param user        the authenticated user
+     * @param roleVersion the role version of the user, read before the user (and its roles) was loaded
+     * @return the JWT token
+     */
+    private String createToken(User user, long roleVersion) {
+        if (jwtUtil.isStatelessEnabled()) {
+            long roleMask = roleAuthorityRegistry.maskOf(user.getRoles());
+            if (roleMask >= 0) {
+                return jwtUtil.createToken(user.getUsername(), user.getId(), roleMask, roleVersion);
+            }
+        }
+        return jwtUtil.createToken(user.getUsername());
     }
 
     /**
@@ -65,9 +89,12 @@ public class AuthenticationService {
                     new UsernamePasswordAuthenticationToken(authenticationRequestDTO.getEmail(), authenticationRequestDTO.getPassword())
             );
             UserDetails userDetails = customUserDetailsService.loadUserByUsername(authenticationRequestDTO.getEmail());
-            String jwt = jwtUtil.createToken(userDetails.getUsername());
+            // Read before the roles, so a role change made while loading them leaves the token already stale
+            long roleVersion = userRoleVersionRegistry.currentVersion(userDetails.getUsername());
+            User user = userRepository.findByEmail(userDetails.getUsername());
+            String jwt = createToken(user, roleVersion);
             updateLastLogin(userDetails.getUsername());
-            return new AuthenticationResponseDTO(jwt, userRepository.findByEmail(userDetails.getUsername()).getId());
+            return new AuthenticationResponseDTO(jwt, user.getId());
         } catch (IllegalArgumentException e) {
             throw e;
         } catch (BadCredentialsException | UsernameNotFoundException e) {
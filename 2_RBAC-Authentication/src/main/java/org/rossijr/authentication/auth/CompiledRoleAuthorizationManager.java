@@ -0,0 +1,223 @@
+package org.rossijr.authentication.auth;
+
+import org.aopalliance.intercept.MethodInvocation;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.aop.support.AopUtils;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.context.ApplicationContext;
+import org.springframework.core.annotation.AnnotationUtils;
+import org.springframework.security.access.expression.method.MethodSecurityExpressionHandler;
+import org.springframework.security.access.hierarchicalroles.NullRoleHierarchy;
+import org.springframework.security.access.hierarchicalroles.RoleHierarchy;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.security.authorization.AuthorizationDecision;
+import org.springframework.security.authorization.AuthorizationManager;
+import org.springframework.security.authorization.AuthorizationResult;
+import org.springframework.security.authorization.method.MethodAuthorizationDeniedHandler;
+import org.springframework.security.authorization.method.MethodInvocationResult;
+import org.springframework.security.authorization.method.ThrowingMethodAuthorizationDeniedHandler;
+import org.springframework.security.config.core.GrantedAuthorityDefaults;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.util.ClassUtils;
+import org.springframework.util.ReflectionUtils;
+
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * {@link AuthorizationManager} enforcing {@code @PreAuthorize}, which compiles the simple role expressions into direct
+ * checks and leaves the other ones to SpEL.
+ *
+ * <p>Evaluating an expression through SpEL creates an evaluation context (and its root object) on every call, even for
+ * {@code hasRole('ADMIN')}. The expressions made only of {@code hasRole}, {@code hasAnyRole}, {@code hasAuthority} or
+ * {@code hasAnyAuthority} with literal arguments are instead compiled into the list of authorities they accept, which
+ * is then checked against the authorities of the user without allocating.</p>
+ *
+ * <h3>Compilation:</h3>
+ * <ul>
+ *   <li>The {@code @PreAuthorize} methods of all the beans are compiled at startup, once all the singletons exist.</li>
+ *   <li>Methods that were not compiled at startup (e.g. beans created later) are compiled on their first call.</li>
+ *   <li>Any other expression (e.g. with bean references or method arguments) is evaluated by the SpEL delegate.</li>
+ *   <li>The compiled checks follow the configuration of the context as SpEL does: the role prefix of the
+ *   {@link GrantedAuthorityDefaults} ({@code ROLE_} by default) and the {@link RoleHierarchy}, if defined. Nothing is
+ *   compiled when the context defines its own {@link MethodSecurityExpressionHandler}, as it may give the expressions
+ *   another meaning.</li>
+ * </ul>
+ *
+ * <p>Denied invocations are handled by the SpEL delegate (for {@code @HandleAuthorizationDenied}), whichever manager
+ * denied them.</p>
+ */
+public class CompiledRoleAuthorizationManager implements AuthorizationManager<MethodInvocation>,
+        MethodAuthorizationDeniedHandler, SmartInitializingSingleton {
+    private static final AuthorizationDecision GRANTED = new AuthorizationDecision(true);
+    private static final AuthorizationDecision DENIED = new AuthorizationDecision(false);
+    private static final MethodAuthorizationDeniedHandler THROWING_HANDLER = new ThrowingMethodAuthorizationDeniedHandler();
+
+    // The prefix added by hasRole and hasAnyRole, as in the default expression handler
+    private static final String DEFAULT_ROLE_PREFIX = "ROLE_";
+    private static final Pattern SIMPLE_EXPRESSION =
+            Pattern.compile("\\s*(hasRole|hasAnyRole|hasAuthority|hasAnyAuthority)\\(\\s*('[^']*'(?:\\s*,\\s*'[^']*')*)\\s*\\)\\s*");
+    private static final Pattern LITERAL = Pattern.compile("'([^']*)'");
+
+    private final Logger logger = LoggerFactory.getLogger(CompiledRoleAuthorizationManager.class);
+
+    private final AuthorizationManager<MethodInvocation> expressionManager;
+    private final ApplicationContext applicationContext;
+    private final Map<Method, AuthorizationManager<MethodInvocation>> managers = new ConcurrentHashMap<>();
+
+    /**
+     * @param expressionManager  the SpEL based manager, used for the expressions that are not compiled
+     * @param applicationContext the context whose beans are scanned at startup
+     */
+    public CompiledRoleAuthorizationManager(AuthorizationManager<MethodInvocation> expressionManager,
+                                            ApplicationContext applicationContext) {
+        this.expressionManager = expressionManager;
+        this.applicationContext = applicationContext;
+    }
+
+    @Override
+    public AuthorizationResult authorize(Supplier<Authentication> authentication, MethodInvocation invocation) {
+        return manager(invocation).authorize(authentication, invocation);
+    }
+
+    @Override
+    @SuppressWarnings("deprecation")
+    public AuthorizationDecision check(Supplier<Authentication> authentication, MethodInvocation invocation) {
+        return manager(invocation).check(authentication, invocation);
+    }
+
+    @Override
+    public Object handleDeniedInvocation(MethodInvocation methodInvocation, AuthorizationResult authorizationResult) {
+        if (expressionManager instanceof MethodAuthorizationDeniedHandler handler) {
+            return handler.handleDeniedInvocation(methodInvocation, authorizationResult);
+        }
+        return THROWING_HANDLER.handleDeniedInvocation(methodInvocation, authorizationResult);
+    }
+
+    @Override
+    public Object handleDeniedInvocationResult(MethodInvocationResult methodInvocationResult,
+                                               AuthorizationResult authorizationResult) {
+        if (expressionManager instanceof MethodAuthorizationDeniedHandler handler) {
+            return handler.handleDeniedInvocationResult(methodInvocationResult, authorizationResult);
+        }
+        return THROWING_HANDLER.handleDeniedInvocationResult(methodInvocationResult, authorizationResult);
+    }
+
+    private AuthorizationManager<MethodInvocation> manager(MethodInvocation invocation) {
+        AuthorizationManager<MethodInvocation> manager = managers.get(invocation.getMethod());
+        if (manager == null) {
+            Class<?> targetClass = invocation.getThis() != null ? AopUtils.getTargetClass(invocation.getThis()) : invocation.getMethod().getDeclaringClass();
+            manager = managers.computeIfAbsent(invocation.getMethod(), method -> compile(method, targetClass));
+        }
+        return manager;
+    }
+
+    /**
+     * Compiles the {@code @PreAuthorize} expressions of the beans of the context.
+     */
+    @Override
+    public void afterSingletonsInstantiated() {
+        int compiled = 0;
+        int delegated = 0;
+        for (String beanName : applicationContext.getBeanDefinitionNames()) {
+            Class<?> beanType = applicationContext.getType(beanName, false);
+            if (beanType == null) {
+                continue;
+            }
+            Class<?> targetClass = ClassUtils.getUserClass(beanType);
+            for (Method method : ReflectionUtils.getUniqueDeclaredMethods(targetClass, ReflectionUtils.USER_DECLARED_METHODS)) {
+                if (findPreAuthorize(method, targetClass) == null) {
+                    continue;
+                }
+                AuthorizationManager<MethodInvocation> manager = managers.computeIfAbsent(method, m -> compile(m, targetClass));
+                if (manager == expressionManager) {
+                    delegated++;
+                } else {
+                    compiled++;
+                }
+            }
+        }
+        logger.info("Compiled {} @PreAuthorize expressions into role checks, {} left to SpEL", compiled, delegated);
+    }
+
+    private AuthorizationManager<MethodInvocation> compile(Method method, Class<?> targetClass) {
+        PreAuthorize preAuthorize = findPreAuthorize(method, targetClass);
+        if (preAuthorize == null) {
+            return expressionManager;
+        }
+        Matcher matcher = SIMPLE_EXPRESSION.matcher(preAuthorize.value());
+        if (!matcher.matches() || applicationContext.getBeanNamesForType(MethodSecurityExpressionHandler.class).length > 0) {
+            return expressionManager;
+        }
+        boolean roles = matcher.group(1).endsWith("Role");
+        String rolePrefix = applicationContext.getBeanProvider(GrantedAuthorityDefaults.class)
+                .getIfUnique(() -> new GrantedAuthorityDefaults(DEFAULT_ROLE_PREFIX)).getRolePrefix();
+        Matcher literals = LITERAL.matcher(matcher.group(2));
+        List<GrantedAuthority> authorities = new ArrayList<>();
+        while (literals.find()) {
+            String value = literals.group(1);
+            // Same prefixing as the expression root of SpEL
+            boolean prefixed = roles && rolePrefix != null && !rolePrefix.isEmpty() && !value.startsWith(rolePrefix);
+            authorities.add(new SimpleGrantedAuthority(prefixed ? rolePrefix + value : value));
+        }
+        RoleHierarchy roleHierarchy = applicationContext.getBeanProvider(RoleHierarchy.class).getIfUnique(NullRoleHierarchy::new);
+        return new AnyAuthorityManager(authorities.toArray(new GrantedAuthority[0]), roleHierarchy);
+    }
+
+    // Same lookup as Spring Security: the method first, then its class
+    private static PreAuthorize findPreAuthorize(Method method, Class<?> targetClass) {
+        Method specificMethod = ClassUtils.getMostSpecificMethod(method, targetClass);
+        PreAuthorize preAuthorize = AnnotationUtils.findAnnotation(specificMethod, PreAuthorize.class);
+        return preAuthorize != null ? preAuthorize : AnnotationUtils.findAnnotation(specificMethod.getDeclaringClass(), PreAuthorize.class);
+    }
+
+    /**
+     * Grants access if the user has any of the given authorities, directly or through the role hierarchy.
+     */
+    private static final class AnyAuthorityManager implements AuthorizationManager<MethodInvocation> {
+        private final GrantedAuthority[] authorities;
+        private final RoleHierarchy roleHierarchy;
+
+        private AnyAuthorityManager(GrantedAuthority[] authorities, RoleHierarchy roleHierarchy) {
+            this.authorities = authorities;
+            this.roleHierarchy = roleHierarchy;
+        }
+
+        @Override
+        public AuthorizationResult authorize(Supplier<Authentication> authentication, MethodInvocation invocation) {
+            return decide(authentication);
+        }
+
+        @Override
+        @SuppressWarnings("deprecation")
+        public AuthorizationDecision check(Supplier<Authentication> authentication, MethodInvocation invocation) {
+            return decide(authentication);
+        }
+
+        private AuthorizationDecision decide(Supplier<Authentication> authentication) {
+            Authentication auth = authentication.get();
+            if (auth == null) {
+                return DENIED;
+            }
+            // The authorities of the authentication, not of the principal, as SpEL checks them (the null hierarchy
+            // returns them as they are)
+            for (GrantedAuthority granted : roleHierarchy.getReachableGrantedAuthorities(auth.getAuthorities())) {
+                for (GrantedAuthority authority : authorities) {
+                    if (authority.getAuthority().equals(granted.getAuthority())) {
+                        return GRANTED;
+                    }
+                }
+            }
+            return DENIED;
+        }
+    }
+}
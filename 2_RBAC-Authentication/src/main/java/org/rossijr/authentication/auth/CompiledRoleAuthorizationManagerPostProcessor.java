@@ -0,0 +1,60 @@
+package org.rossijr.authentication.auth;
+
+import org.aopalliance.intercept.MethodInvocation;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.context.ApplicationContext;
+import org.springframework.security.authorization.AuthorizationManager;
+import org.springframework.security.config.ObjectPostProcessor;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Post processor of the {@code @PreAuthorize} manager of Spring Security, which wraps it into a
+ * {@link CompiledRoleAuthorizationManager}.
+ *
+ * <p>Spring Security only applies a post processor if it is the only one (or the primary one) in the context, so this
+ * one also applies the others (e.g. the observation of the checks), around the compiled manager, so the compiled checks
+ * are observed as well.</p>
+ *
+ * <p>The expressions of the compiled managers are compiled at startup, once all the singletons exist.</p>
+ */
+public class CompiledRoleAuthorizationManagerPostProcessor
+        implements ObjectPostProcessor<AuthorizationManager<MethodInvocation>>, SmartInitializingSingleton {
+    private final ObjectProvider<ObjectPostProcessor<AuthorizationManager<MethodInvocation>>> postProcessors;
+    private final ApplicationContext applicationContext;
+    private final List<CompiledRoleAuthorizationManager> compiledManagers = new CopyOnWriteArrayList<>();
+
+    /**
+     * @param postProcessors     the post processors of the context, this one included
+     * @param applicationContext the context whose beans are scanned at startup
+     */
+    public CompiledRoleAuthorizationManagerPostProcessor(
+            ObjectProvider<ObjectPostProcessor<AuthorizationManager<MethodInvocation>>> postProcessors,
+            ApplicationContext applicationContext) {
+        this.postProcessors = postProcessors;
+        this.applicationContext = applicationContext;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <O extends AuthorizationManager<MethodInvocation>> O postProcess(O manager) {
+        CompiledRoleAuthorizationManager compiledManager = new CompiledRoleAuthorizationManager(manager, applicationContext);
+        compiledManagers.add(compiledManager);
+        AuthorizationManager<MethodInvocation> processed = compiledManager;
+        for (ObjectPostProcessor<AuthorizationManager<MethodInvocation>> postProcessor : postProcessors) {
+            if (postProcessor != this) {
+                processed = postProcessor.postProcess(processed);
+            }
+        }
+        return (O) processed;
+    }
+
+    @Override
+    public void afterSingletonsInstantiated() {
+        for (CompiledRoleAuthorizationManager compiledManager : compiledManagers) {
+            compiledManager.afterSingletonsInstantiated();
+        }
+    }
+}
@@ -3,16 +3,11 @@ package org.rossijr.authentication.auth;
 import org.rossijr.authentication.model.User;
 import org.rossijr.authentication.repository.UserRepository;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.security.core.GrantedAuthority;
-import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.stereotype.Service;
 
-import java.util.List;
-import java.util.stream.Collectors;
-
 /**
  * Custom implementation of {@link UserDetailsService} to load user-specific data for authentication.
  *
@@ -24,7 +19,8 @@ import java.util.stream.Collectors;
  * <ul>
  *   <li>Validates the input username (email).</li>
  *   <li>Fetches the user details from the database using the {@link UserRepository}.</li>
- *   <li>Converts the {@link User} entity into a {@link UserDetails} object.</li>
+ *   <li>Converts the {@link User} entity into a {@link UserDetails} object, with the authority set shared by the users
+ *   with the same roles (see {@link RoleAuthorityRegistry}).</li>
  *   <li>Throws a {@link UsernameNotFoundException} if the user is not found.</li>
  * </ul>
  *
@@ -35,15 +31,18 @@ import java.util.stream.Collectors;
 public class CustomUserDetailsService implements UserDetailsService {
 
     private final UserRepository userRepository;
+    private final RoleAuthorityRegistry roleAuthorityRegistry;
 
     /**
-     * Constructor for injecting the {@link UserRepository}.
+     * Constructor for injecting the {@link UserRepository} and the {@link RoleAuthorityRegistry}.
      *
-     * @param userRepository the repository used to fetch user data
+     * @param userRepository        the repository used to fetch user data
+     * @param roleAuthorityRegistry the registry of the shared authority sets
      */
     @Autowired
-    public CustomUserDetailsService(UserRepository userRepository) {
+    public CustomUserDetailsService(UserRepository userRepository, RoleAuthorityRegistry roleAuthorityRegistry) {
         this.userRepository = userRepository;
+        this.roleAuthorityRegistry = roleAuthorityRegistry;
     }
 
     /**
@@ -70,11 +69,8 @@ public class CustomUserDetailsService implements UserDetailsService {
             throw new UsernameNotFoundException("Invalid credentials");
         }
 
-        List<GrantedAuthority> authorities = user.getRoles().stream()
-                .map(role -> new SimpleGrantedAuthority(role.getRole().getName()))
-                .collect(Collectors.toList());
-
-        return new org.springframework.security.core.userdetails.User(user.getUsername(), user.getPassword(), authorities);
+        return new AuthenticatedUser(user.getId(), user.getUsername(), user.getPassword(),
+                roleAuthorityRegistry.authoritiesOf(user.getRoles()));
     }
 
 }
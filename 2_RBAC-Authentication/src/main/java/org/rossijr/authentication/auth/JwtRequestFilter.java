@@ -1,14 +1,18 @@
 package org.rossijr.authentication.auth;
 
 import com.auth0.jwt.exceptions.JWTVerificationException;
+import com.auth0.jwt.interfaces.Claim;
 import com.auth0.jwt.interfaces.DecodedJWT;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
+import org.rossijr.authentication.config.ConnectionAdmissionException;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.GrantedAuthority;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.core.userdetails.UserDetailsService;
@@ -17,6 +21,8 @@ import org.springframework.stereotype.Component;
 import org.springframework.web.filter.OncePerRequestFilter;
 
 import java.io.IOException;
+import java.util.Set;
+import java.util.UUID;
 
 @Component
 public class JwtRequestFilter extends OncePerRequestFilter {
@@ -25,12 +31,18 @@ public class JwtRequestFilter extends OncePerRequestFilter {
 
     private final UserDetailsService userDetailsService;
     private final JwtUtil jwtUtil;
+    private final RoleAuthorityRegistry roleAuthorityRegistry;
+    private final UserRoleVersionRegistry userRoleVersionRegistry;
 
     @Autowired
     public JwtRequestFilter(UserDetailsService userDetailsService,
-                            JwtUtil jwtUtil) {
+                            JwtUtil jwtUtil,
+                            RoleAuthorityRegistry roleAuthorityRegistry,
+                            UserRoleVersionRegistry userRoleVersionRegistry) {
         this.userDetailsService = userDetailsService;
         this.jwtUtil = jwtUtil;
+        this.roleAuthorityRegistry = roleAuthorityRegistry;
+        this.userRoleVersionRegistry = userRoleVersionRegistry;
     }
 
     /**
@@ -41,6 +53,10 @@ public class JwtRequestFilter extends OncePerRequestFilter {
      * If the token is invalid or missing, the filter simply allows the request to proceed without authentication (this is important when having public endpoints).
      * </p>
      *
+     * <p>When the stateless token mode is enabled and the token carries up-to-date role claims, the user is built
+     * straight from them (see {@link #loadUserFromClaims(DecodedJWT)}), otherwise it is loaded through the
+     * {@link UserDetailsService}.</p>
+     *
      * @param request  the incoming HTTP request
      * @param response the outgoing HTTP response
      * @param chain    the filter chain to pass the request and response to the next filter
@@ -53,6 +69,7 @@ public class JwtRequestFilter extends OncePerRequestFilter {
 
         String username = null;
         String jwt;
+        DecodedJWT decodedJWT = null;
 
         try {
             // Check if Authorization header exists and starts with "Bearer "
@@ -61,13 +78,17 @@ public class JwtRequestFilter extends OncePerRequestFilter {
                 jwt = authorizationHeader.substring(7);
 
                 // Verify and decode the JWT
-                DecodedJWT decodedJWT = jwtUtil.verifyToken(jwt);
+                decodedJWT = jwtUtil.verifyToken(jwt);
                 username = decodedJWT.getSubject();
             }
 
             // Checks if the username exists and ensures the user is not authenticated more than one time (other parts of the chain may rely on this object, so it's important to keep it consistent)
             if (username != null && SecurityContextHolder.getContext().getAuthentication() == null) {
-                UserDetails userDetails = this.userDetailsService.loadUserByUsername(username);
+                // Stateless tokens are trusted as they are, the other ones (or stale stateless ones) need the database
+                UserDetails userDetails = loadUserFromClaims(decodedJWT);
+                if (userDetails == null) {
+                    userDetails = this.userDetailsService.loadUserByUsername(username);
+                }
 
                 // If the user exists, creates an authentication token and sets it in the Security Context
                 if (userDetails != null) {
@@ -86,10 +107,48 @@ public class JwtRequestFilter extends OncePerRequestFilter {
             logger.error("Invalid JWT: {}", e.getMessage());
             response.sendError(HttpServletResponse.SC_UNAUTHORIZED, "Invalid JWT token");
         } catch (Exception e) {
+            ConnectionAdmissionException admissionException = ConnectionAdmissionException.findIn(e);
+            if (admissionException != null) {
+                // The user could not be loaded due to overload, the client should try again later
+                response.setHeader(HttpHeaders.RETRY_AFTER, String.valueOf(admissionException.getRetryAfterSeconds()));
+                response.sendError(HttpServletResponse.SC_SERVICE_UNAVAILABLE, admissionException.getMessage());
+                return;
+            }
             // Handle general errors
             logger.error("Unexpected error during authentication: {}", e.getMessage());
             response.sendError(HttpServletResponse.SC_INTERNAL_SERVER_ERROR, "Authentication processing error, please contact the administrator");
         }
     }
 
+    /**
+     * Builds the user straight from the claims of a stateless token, without querying the database.
+     *
+     * <p>The claims are only trusted if the stateless token mode is enabled, the roles of the user did not change after
+     * the token was issued (checked against the {@link UserRoleVersionRegistry}) and every role of the mask still
+     * exists. The authorities are the set shared by all the users with the same roles.</p>
+     *
+     * @param decodedJWT the verified token
+     * @return the user described by the token, or {@code null} if the token is not stateless or its claims are stale
+     */
+    private UserDetails loadUserFromClaims(DecodedJWT decodedJWT) {
+        if (!jwtUtil.isStatelessEnabled()) {
+            return null;
+        }
+        Claim userId = decodedJWT.getClaim(JwtUtil.USER_ID_CLAIM);
+        Claim roles = decodedJWT.getClaim(JwtUtil.ROLES_CLAIM);
+        Claim roleVersion = decodedJWT.getClaim(JwtUtil.ROLE_VERSION_CLAIM);
+        if (userId.isMissing() || roles.isMissing() || roleVersion.isMissing()) {
+            return null;
+        }
+        if (!userRoleVersionRegistry.isCurrent(decodedJWT.getSubject(), roleVersion.asLong())) {
+            logger.debug("Stale roles in token for user: {}", decodedJWT.getSubject());
+            return null;
+        }
+        Set<GrantedAuthority> authorities = roleAuthorityRegistry.authoritiesOf(roles.asLong());
+        if (authorities == null) {
+            return null;
+        }
+        return new AuthenticatedUser(UUID.fromString(userId.asString()), decodedJWT.getSubject(), null, authorities);
+    }
+
 }
@@ -10,15 +10,23 @@ import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
 import java.util.Date;
+import java.util.UUID;
 
 @Component
 public class JwtUtil {
 
+    // Claims written by the stateless token mode
+    public static final String USER_ID_CLAIM = "uid";
+    public static final String ROLES_CLAIM = "roles";
+    public static final String ROLE_VERSION_CLAIM = "rv";
+
     // Inject the secret and expiration time from the application.properties file
     @Value("${jwt.secret}")
     private String SECRET;
     @Value("${jwt.expire.time}")
     private long expireTime;
+    @Value("${jwt.stateless.enabled}")
+    private boolean statelessEnabled;
 
     private Algorithm algorithm;
 
@@ -70,4 +78,48 @@ public class JwtUtil {
                 .withExpiresAt(expiresAt)
                 .sign(algorithm);
     }
+
+    /**
+     * Creates a self-contained (stateless) JWT token, which carries everything needed to authorize the user.
+     *
+     * <p>Besides the subject, the token carries the user ID, the roles of the user as a bitmask of role IDs (a single
+     * number, see {@link RoleAuthorityRegistry#maskOf(java.util.Collection)}) and the role version of the user (see
+     * {@link UserRoleVersionRegistry}). This allows the {@link JwtRequestFilter} to build the authentication straight
+     * from the claims, without querying the database.</p>
+     *
+     * @param subject     the subject for the token (the email of the user)
+     * @param userId      the ID of the user
+     * @param roleMask    the bitmask of the roles of the user
+     * @param roleVersion the role version of the user at the moment the token is issued
+     * @return the generated JWT token as a String
+     * @throws IllegalArgumentException if the subject is null or blank, or the user ID is null
+     */
+    public String createToken(String subject, UUID userId, long roleMask, long roleVersion) {
+        if (subject == null || subject.trim().isEmpty()) {
+            throw new IllegalArgumentException("Subject cannot be null or blank");
+        }
+        if (userId == null) {
+            throw new IllegalArgumentException("User ID cannot be null");
+        }
+        Date issuedAt = new Date();
+        Date expiresAt = new Date(issuedAt.getTime() + expireTime);
+
+        return JWT.create()
+                .withSubject(subject)
+                .withClaim(USER_ID_CLAIM, userId.toString())
+                .withClaim(ROLES_CLAIM, roleMask)
+                .withClaim(ROLE_VERSION_CLAIM, roleVersion)
+                .withIssuedAt(issuedAt)
+                .withExpiresAt(expiresAt)
+                .sign(algorithm);
+    }
+
+    /**
+     * Checks if the stateless token mode is enabled (property {@code jwt.stateless.enabled}).
+     *
+     * @return {@code true} if tokens must be created through {@link #createToken(String, UUID, long, long)}
+     */
+    public boolean isStatelessEnabled() {
+        return statelessEnabled;
+    }
 }
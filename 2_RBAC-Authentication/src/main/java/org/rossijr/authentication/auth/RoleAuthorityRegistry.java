@@ -0,0 +1,167 @@
+package org.rossijr.authentication.auth;
+
+import jakarta.annotation.PostConstruct;
+import org.rossijr.authentication.model.Role;
+import org.rossijr.authentication.model.UserRole;
+import org.rossijr.authentication.repository.RoleRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.event.EventListener;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.stereotype.Component;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Interns the authorities of the users: one immutable {@link GrantedAuthority} per role, and one immutable set of
+ * authorities per distinct combination of roles, shared by every principal holding that combination.
+ *
+ * <p>There are only a few roles (e.g. ROLE_USER, ROLE_ADMIN) and even fewer combinations of them in use, but the
+ * authorities are resolved on every authenticated request. Sharing the sets means a request no longer allocates an
+ * authority per role and a collection to hold them.</p>
+ *
+ * <p>The roles of a user can also be encoded as a bitmask of role IDs (role {@code n} is bit {@code n - 1}), which is
+ * what the tokens carry when the stateless token mode is enabled. Role IDs are never reassigned, so a mask keeps its
+ * meaning across restarts, and it is mapped to the current role names on every use.</p>
+ *
+ * <h3>Lifecycle:</h3>
+ * <ul>
+ *   <li>The roles are loaded from the {@code tb_role} table at startup and reloaded whenever a
+ *   {@link RolesChangedEvent} is published (e.g. a role is created through the {@code RoleService}).</li>
+ *   <li>The sets of combinations (and of masks) are built on first use and dropped on every reload.</li>
+ *   <li>A role that is not loaded yet (e.g. saved directly through the repository) still gets an authority, it is only
+ *   not shared until the next reload.</li>
+ * </ul>
+ */
+@Component
+public class RoleAuthorityRegistry {
+
+    // Role IDs above it do not fit in the (positive) mask
+    private static final long MAX_MASK_ROLE_ID = 63;
+
+    private final RoleRepository roleRepository;
+
+    // Replaced as a whole on every refresh, so readers never need to lock
+    private volatile Map<String, GrantedAuthority> authorities = Map.of();
+    private volatile Map<Long, GrantedAuthority> authoritiesById = Map.of();
+    // The sets of the users with a single role, the usual case, looked up without building a key
+    private volatile Map<String, Set<GrantedAuthority>> singleRoleSets = Map.of();
+    private final Map<Set<String>, Set<GrantedAuthority>> combinationSets = new ConcurrentHashMap<>();
+    private final Map<Long, Set<GrantedAuthority>> maskSets = new ConcurrentHashMap<>();
+
+    @Autowired
+    public RoleAuthorityRegistry(RoleRepository roleRepository) {
+        this.roleRepository = roleRepository;
+    }
+
+    /**
+     * Loads the roles, keeping the authority instances of the roles that were already loaded.
+     */
+    @PostConstruct
+    public synchronized void refresh() {
+        Map<String, GrantedAuthority> refreshedAuthorities = new HashMap<>();
+        Map<Long, GrantedAuthority> refreshedAuthoritiesById = new HashMap<>();
+        Map<String, Set<GrantedAuthority>> refreshedSingleRoleSets = new HashMap<>();
+        for (Role role : roleRepository.findAll()) {
+            GrantedAuthority authority = authorities.getOrDefault(role.getName(), new SimpleGrantedAuthority(role.getName()));
+            refreshedAuthorities.put(role.getName(), authority);
+            refreshedAuthoritiesById.put(role.getId(), authority);
+            refreshedSingleRoleSets.put(role.getName(), Set.of(authority));
+        }
+        authorities = Map.copyOf(refreshedAuthorities);
+        authoritiesById = Map.copyOf(refreshedAuthoritiesById);
+        singleRoleSets = Map.copyOf(refreshedSingleRoleSets);
+        combinationSets.clear();
+        maskSets.clear();
+    }
+
+    @EventListener
+    public void onRolesChanged(RolesChangedEvent event) {
+        refresh();
+    }
+
+    /**
+     * Returns the shared authority set of the given roles.
+     *
+     * @param userRoles the roles of a user
+     * @return the immutable set with the authorities of the roles
+     */
+    public Set<GrantedAuthority> authoritiesOf(Collection<UserRole> userRoles) {
+        if (userRoles == null || userRoles.isEmpty()) {
+            return Set.of();
+        }
+        if (userRoles.size() == 1) {
+            Set<GrantedAuthority> set = singleRoleSets.get(userRoles.iterator().next().getRole().getName());
+            if (set != null) {
+                return set;
+            }
+        }
+        Set<String> names = new HashSet<>();
+        for (UserRole userRole : userRoles) {
+            names.add(userRole.getRole().getName());
+        }
+        Set<GrantedAuthority> set = combinationSets.get(names);
+        return set != null ? set : combinationSets.computeIfAbsent(Set.copyOf(names), this::build);
+    }
+
+    /**
+     * Encodes the given roles as a bitmask of role IDs.
+     *
+     * @param userRoles the roles of a user
+     * @return the mask of the roles, or {@code -1} if a role ID does not fit in the mask
+     */
+    public long maskOf(Collection<UserRole> userRoles) {
+        long mask = 0;
+        if (userRoles != null) {
+            for (UserRole userRole : userRoles) {
+                Long id = userRole.getRole().getId();
+                if (id == null || id < 1 || id > MAX_MASK_ROLE_ID) {
+                    return -1;
+                }
+                mask |= 1L << (id - 1);
+            }
+        }
+        return mask;
+    }
+
+    /**
+     * Returns the shared authority set of the roles encoded in the given mask.
+     *
+     * @param mask the mask of the roles (see {@link #maskOf(Collection)})
+     * @return the immutable set with the authorities of the roles, or {@code null} if the mask holds a role that is not
+     * loaded (e.g. it was removed)
+     */
+    public Set<GrantedAuthority> authoritiesOf(long mask) {
+        Set<GrantedAuthority> set = maskSets.get(mask);
+        // Not cached when null (computeIfAbsent does not store null), so a role loaded later is found
+        return set != null ? set : maskSets.computeIfAbsent(mask, this::buildFromMask);
+    }
+
+    private Set<GrantedAuthority> buildFromMask(long mask) {
+        Map<Long, GrantedAuthority> current = authoritiesById;
+        Set<GrantedAuthority> set = new HashSet<>();
+        for (long bits = mask; bits != 0; bits &= bits - 1) {
+            GrantedAuthority authority = current.get((long) Long.numberOfTrailingZeros(bits) + 1);
+            if (authority == null) {
+                return null;
+            }
+            set.add(authority);
+        }
+        return Set.copyOf(set);
+    }
+
+    private Set<GrantedAuthority> build(Set<String> names) {
+        Map<String, GrantedAuthority> current = authorities;
+        Set<GrantedAuthority> set = new HashSet<>();
+        for (String name : names) {
+            GrantedAuthority authority = current.get(name);
+            set.add(authority != null ? authority : new SimpleGrantedAuthority(name));
+        }
+        return Set.copyOf(set);
+    }
+}
@@ -0,0 +1,16 @@
+package org.rossijr.authentication.auth;
+
+import org.springframework.context.ApplicationEvent;
+
+/**
+ * Event published whenever a role is created, renamed or removed.
+ *
+ * <p>Components that keep role data in memory (e.g. {@link RoleAuthorityRegistry}) listen to this event to reload
+ * it.</p>
+ */
+public class RolesChangedEvent extends ApplicationEvent {
+
+    public RolesChangedEvent(Object source) {
+        super(source);
+    }
+}
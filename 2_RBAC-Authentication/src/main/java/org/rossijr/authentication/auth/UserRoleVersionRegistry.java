@@ -0,0 +1,58 @@
+package org.rossijr.authentication.auth;
+
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * In-memory table of the role versions of the users, used to detect stale role claims in the tokens.
+ *
+ * <p>A token carrying the roles of the user (see {@link JwtUtil#createToken(String, java.util.UUID, long, long)}) also
+ * carries the version returned by {@link #currentVersion(String)} when it was issued. Whenever the roles of a user
+ * change, the version of that user is bumped, so the tokens issued before the change carry an older version and their
+ * role claim is no longer trusted by the {@link JwtRequestFilter}.</p>
+ *
+ * <p>Only the role assignments need a version: a role claim holds role IDs, which are mapped to the current role names
+ * on every request (see {@link RoleAuthorityRegistry#authoritiesOf(long)}).</p>
+ *
+ * <p><b>Important:</b> the table lives in the memory of a single instance. When running more than one instance, the
+ * changes must be propagated between them (e.g. through a message broker) for the check to be reliable.</p>
+ */
+@Component
+public class UserRoleVersionRegistry {
+
+    // Starts from the startup time, so tokens issued by a previous run of the application are never trusted (the table
+    // of that run is lost on restart)
+    private final AtomicLong counter = new AtomicLong(System.currentTimeMillis());
+    private final long startupVersion = counter.get();
+    private final Map<String, Long> userVersions = new ConcurrentHashMap<>();
+
+    /**
+     * Returns the version that tokens issued now for the given user must carry.
+     *
+     * @param email the email of the user
+     * @return the current role version of the user
+     */
+    public long currentVersion(String email) {
+        return userVersions.getOrDefault(email, startupVersion);
+    }
+
+    /**
+     * Checks if a token issued with the given version still reflects the current roles of the user.
+     *
+     * @param email        the email of the user
+     * @param tokenVersion the version carried by the token
+     * @return {@code true} if the roles of the user did not change after the token was issued
+     */
+    public boolean isCurrent(String email, long tokenVersion) {
+        return tokenVersion >= currentVersion(email);
+    }
+
+    @EventListener
+    public void onUserRolesChanged(UserRolesChangedEvent event) {
+        userVersions.put(event.getEmail(), counter.incrementAndGet());
+    }
+}
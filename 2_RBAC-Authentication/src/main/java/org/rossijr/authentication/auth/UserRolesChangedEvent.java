@@ -0,0 +1,22 @@
+package org.rossijr.authentication.auth;
+
+import org.springframework.context.ApplicationEvent;
+
+/**
+ * Event published whenever the roles of a user are assigned or changed.
+ *
+ * <p>The {@link UserRoleVersionRegistry} listens to this event to bump the role version of the user, so the tokens
+ * issued with the previous roles are no longer trusted.</p>
+ */
+public class UserRolesChangedEvent extends ApplicationEvent {
+    private final String email;
+
+    public UserRolesChangedEvent(Object source, String email) {
+        super(source);
+        this.email = email;
+    }
+
+    public String getEmail() {
+        return email;
+    }
+}
@@ -0,0 +1,40 @@
+package org.rossijr.authentication.config;
+
+import java.sql.SQLTransientConnectionException;
+
+/**
+ * Exception thrown by the {@link AdmissionLimitingDataSource} when a connection is refused because too many threads are
+ * already using or waiting for one. Requests failing with it are answered with {@code 503} and a {@code Retry-After}
+ * header.
+ */
+public class ConnectionAdmissionException extends SQLTransientConnectionException {
+    private final long retryAfterSeconds;
+
+    public ConnectionAdmissionException(String message, long retryAfterSeconds) {
+        super(message);
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+
+    public long getRetryAfterSeconds() {
+        return retryAfterSeconds;
+    }
+
+    /**
+     * Finds the admission refusal behind a failure, as JPA and Spring wrap the exceptions of the data source (e.g. in a
+     * {@code CannotCreateTransactionException}).
+     *
+     * @param throwable the failure
+     * @return the refusal in the causes of the failure, or {@code null} if it was not caused by one
+     */
+    public static ConnectionAdmissionException findIn(Throwable throwable) {
+        for (Throwable cause = throwable; cause != null; cause = cause.getCause()) {
+            if (cause instanceof ConnectionAdmissionException admissionException) {
+                return admissionException;
+            }
+            if (cause.getCause() == cause) {
+                break;
+            }
+        }
+        return null;
+    }
+}
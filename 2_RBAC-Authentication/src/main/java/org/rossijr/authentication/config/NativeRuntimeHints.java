@@ -0,0 +1,82 @@
+package org.rossijr.authentication.config;
+
+import org.rossijr.authentication.auth.dto.AuthenticationRequestDTO;
+import org.rossijr.authentication.auth.dto.AuthenticationResponseDTO;
+import org.rossijr.authentication.auth.dto.ValidateRequestDTO;
+import org.rossijr.authentication.config.dto.ExceptionResponseDTO;
+import org.rossijr.authentication.dto.CreateUserRequestDTO;
+import org.rossijr.authentication.dto.CreateUserResponseDTO;
+import org.rossijr.authentication.dto.GetUserResponseDTO;
+import org.rossijr.authentication.model.Role;
+import org.rossijr.authentication.model.User;
+import org.rossijr.authentication.model.UserRole;
+import org.springframework.aot.hint.BindingReflectionHintsRegistrar;
+import org.springframework.aot.hint.MemberCategory;
+import org.springframework.aot.hint.RuntimeHints;
+import org.springframework.aot.hint.RuntimeHintsRegistrar;
+import org.springframework.aot.hint.TypeReference;
+
+/**
+ * Reflection hints of the native image (built with the {@code native} profile), for what Spring AOT cannot find by
+ * itself.
+ *
+ * <p>The AOT processing only sees the beans and the controller signatures, not the types reached through reflection at
+ * runtime, which a native image leaves out unless they are registered here.</p>
+ *
+ * <h3>Hints:</h3>
+ * <ul>
+ *   <li>The entities ({@link User}, {@link Role}, {@link UserRole}): instantiated and populated through their fields by
+ *   Hibernate.</li>
+ *   <li>The DTOs: (de)serialized by Jackson, including {@link ExceptionResponseDTO}, which is written directly with the
+ *   {@code ObjectMapper} of the {@link JacksonConfig} and not returned by a controller. The {@code ZonedDateTime}
+ *   fields are handled by its {@code JavaTimeModule}, which is instantiated directly and needs no hint.</li>
+ *   <li>The internals of the Auth0 {@code java-jwt} library: the header and the payload of the tokens are read and
+ *   written by its own Jackson (de)serializers.</li>
+ * </ul>
+ *
+ * <p>No resource hint is needed: the only resource, {@code application.properties}, is registered by Spring Boot.</p>
+ */
+public class NativeRuntimeHints implements RuntimeHintsRegistrar {
+    private static final String[] JWT_TYPES = {
+            "com.auth0.jwt.impl.JWTParser",
+            "com.auth0.jwt.impl.BasicHeader",
+            "com.auth0.jwt.impl.PayloadImpl",
+            "com.auth0.jwt.impl.JsonNodeClaim",
+            "com.auth0.jwt.impl.HeaderDeserializer",
+            "com.auth0.jwt.impl.PayloadDeserializer",
+            "com.auth0.jwt.impl.ClaimsHolder",
+            "com.auth0.jwt.impl.HeaderClaimsHolder",
+            "com.auth0.jwt.impl.PayloadClaimsHolder",
+            "com.auth0.jwt.impl.ClaimsSerializer",
+            "com.auth0.jwt.impl.HeaderSerializer",
+            "com.auth0.jwt.impl.PayloadSerializer"
+    };
+
+    private final BindingReflectionHintsRegistrar bindingRegistrar = new BindingReflectionHintsRegistrar();
+
+    @Override
+    public void registerHints(RuntimeHints hints, ClassLoader classLoader) {
+        for (Class<?> entity : new Class<?>[]{User.class, Role.class, UserRole.class}) {
+            hints.reflection().registerType(entity,
+                    MemberCategory.DECLARED_FIELDS,
+                    MemberCategory.INVOKE_DECLARED_CONSTRUCTORS,
+                    MemberCategory.INVOKE_PUBLIC_METHODS);
+        }
+
+        bindingRegistrar.registerReflectionHints(hints.reflection(),
+                AuthenticationRequestDTO.class,
+                AuthenticationResponseDTO.class,
+                ValidateRequestDTO.class,
+                CreateUserRequestDTO.class,
+                CreateUserResponseDTO.class,
+                GetUserResponseDTO.class,
+                ExceptionResponseDTO.class);
+
+        for (String type : JWT_TYPES) {
+            hints.reflection().registerType(TypeReference.of(type),
+                    MemberCategory.INVOKE_DECLARED_CONSTRUCTORS,
+                    MemberCategory.INVOKE_DECLARED_METHODS,
+                    MemberCategory.DECLARED_FIELDS);
+        }
+    }
+}
@@ -0,0 +1,44 @@
+package org.rossijr.authentication.config;
+
+import jakarta.servlet.http.HttpServletRequest;
+import org.rossijr.authentication.config.dto.ExceptionResponseDTO;
+import org.springframework.dao.DataAccessException;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.transaction.TransactionException;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.RestControllerAdvice;
+
+import java.time.ZonedDateTime;
+
+/**
+ * Handles the requests rejected due to overload (load shedding), answering them quickly with {@code 503} and a
+ * {@code Retry-After} header, so that clients back off instead of retrying immediately.
+ *
+ * <p>Database connections refused by the {@link AdmissionLimitingDataSource} reach the controllers wrapped by JPA and
+ * Spring, so they are looked for in the causes of the data access and transaction failures.</p>
+ */
+@RestControllerAdvice
+public class OverloadExceptionHandler {
+
+    @ExceptionHandler({DataAccessException.class, TransactionException.class})
+    public ResponseEntity<ExceptionResponseDTO> handleConnectionAdmissionException(RuntimeException ex, HttpServletRequest request) {
+        ConnectionAdmissionException admissionException = ConnectionAdmissionException.findIn(ex);
+        if (admissionException == null) {
+            // Not an overload, left to the default handling
+            throw ex;
+        }
+        HttpStatus status = HttpStatus.SERVICE_UNAVAILABLE;
+        ExceptionResponseDTO response = new ExceptionResponseDTO(
+                ZonedDateTime.now(),
+                status.value(),
+                status.getReasonPhrase(),
+                admissionException.getMessage(),
+                request.getRequestURI()
+        );
+        return ResponseEntity.status(status)
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(admissionException.getRetryAfterSeconds()))
+                .body(response);
+    }
+}
@@ -1,13 +1,23 @@
 package org.rossijr.authentication.config;
 
+import org.aopalliance.intercept.MethodInvocation;
+import org.rossijr.authentication.auth.CompiledRoleAuthorizationManager;
+import org.rossijr.authentication.auth.CompiledRoleAuthorizationManagerPostProcessor;
 import org.rossijr.authentication.auth.CustomAuthenticationEntryPoint;
 import org.rossijr.authentication.auth.JwtRequestFilter;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.beans.factory.config.BeanDefinition;
+import org.springframework.context.ApplicationContext;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.context.annotation.Role;
 import org.springframework.http.HttpMethod;
 import org.springframework.security.authentication.AuthenticationManager;
+import org.springframework.security.authorization.AuthorizationManager;
+import org.springframework.security.config.ObjectPostProcessor;
 import org.springframework.security.config.annotation.authentication.configuration.AuthenticationConfiguration;
 import org.springframework.security.config.annotation.method.configuration.EnableMethodSecurity;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
@@ -48,6 +58,28 @@ public class SecurityConfig {
         return authenticationConfiguration.getAuthenticationManager();
     }
 
+    /**
+     * Wraps the manager enforcing {@code @PreAuthorize} (the one of Spring Security, with its expression handler and
+     * advisor) into a {@link CompiledRoleAuthorizationManager}, so the simple role expressions are compiled into direct
+     * checks at startup and the other ones are still evaluated through SpEL.
+     *
+     * <p>The method is static because the method security infrastructure is created very early. The post processor is
+     * primary, as Spring Security only applies a unique one, and applies the other ones itself.</p>
+     *
+     * @param postProcessors     the post processors of the {@code @PreAuthorize} manager, this one included
+     * @param applicationContext the context used to resolve the role configuration, and scanned for the expressions to
+     *                           compile
+     * @return the post processor of the manager enforcing {@code @PreAuthorize}
+     */
+    @Bean
+    @Primary
+    @Role(BeanDefinition.ROLE_INFRASTRUCTURE)
+    static CompiledRoleAuthorizationManagerPostProcessor preAuthorizeAuthorizationManagerPostProcessor(
+            ObjectProvider<ObjectPostProcessor<AuthorizationManager<MethodInvocation>>> postProcessors,
+            ApplicationContext applicationContext) {
+        return new CompiledRoleAuthorizationManagerPostProcessor(postProcessors, applicationContext);
+    }
+
 
     /**
      * Method to configure the security pattern (filter chain) for the application.
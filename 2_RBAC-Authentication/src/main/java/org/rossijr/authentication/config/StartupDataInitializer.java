@@ -5,6 +5,7 @@ import org.rossijr.authentication.model.User;
 import org.rossijr.authentication.model.UserRole;
 import org.rossijr.authentication.repository.RoleRepository;
 import org.rossijr.authentication.repository.UserRepository;
+import org.rossijr.authentication.service.RoleService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.CommandLineRunner;
 import org.springframework.context.annotation.Bean;
@@ -19,26 +20,29 @@ public class StartupDataInitializer {
     private final RoleRepository roleRepository;
     private final UserRepository userRepository;
     private final PasswordEncoder passwordEncoder;
+    private final RoleService roleService;
 
     @Autowired
     public StartupDataInitializer(RoleRepository roleRepository,
                                   UserRepository userRepository,
-                                  PasswordEncoder passwordEncoder) {
+                                  PasswordEncoder passwordEncoder,
+                                  RoleService roleService) {
         this.roleRepository = roleRepository;
         this.userRepository = userRepository;
         this.passwordEncoder = passwordEncoder;
+        this.roleService = roleService;
     }
 
     @Bean
     public CommandLineRunner initializeData() {
         return args -> {
-            // Create roles if they don't exist
+            // Create roles if they don't exist (through the service, so the role authorities are reloaded)
             if (!roleRepository.existsByName("ROLE_USER")) {
-                roleRepository.save(new Role("ROLE_USER"));
+                roleService.save(new Role("ROLE_USER"));
             }
 
             if (!roleRepository.existsByName("ROLE_ADMIN")) {
-                roleRepository.save(new Role("ROLE_ADMIN"));
+                roleService.save(new Role("ROLE_ADMIN"));
             }
 
             // Create admin user if not exists
@@ -1,8 +1,10 @@
 package org.rossijr.authentication.service;
 
+import org.rossijr.authentication.auth.RolesChangedEvent;
 import org.rossijr.authentication.model.Role;
 import org.rossijr.authentication.repository.RoleRepository;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 
 /**
@@ -11,10 +13,12 @@ import org.springframework.stereotype.Service;
 @Service
 public class RoleService {
     private final RoleRepository roleRepository;
+    private final ApplicationEventPublisher eventPublisher;
 
     @Autowired
-    public RoleService(RoleRepository roleRepository) {
+    public RoleService(RoleRepository roleRepository, ApplicationEventPublisher eventPublisher) {
         this.roleRepository = roleRepository;
+        this.eventPublisher = eventPublisher;
     }
 
     /**
@@ -31,12 +35,14 @@ public class RoleService {
     }
 
     /**
-     * Save role
+     * Save role, publishing a {@link RolesChangedEvent}
      *
      * @param role role to be saved
      * @return saved role
      */
     public Role save(Role role) {
-        return roleRepository.save(role);
+        Role savedRole = roleRepository.save(role);
+        eventPublisher.publishEvent(new RolesChangedEvent(this));
+        return savedRole;
     }
 }
@@ -1,5 +1,6 @@
 package org.rossijr.authentication.service;
 
+import org.rossijr.authentication.auth.UserRolesChangedEvent;
 import org.rossijr.authentication.dto.CreateUserRequestDTO;
 import org.rossijr.authentication.dto.CreateUserResponseDTO;
 import org.rossijr.authentication.dto.GetUserResponseDTO;
@@ -11,6 +12,7 @@ import org.rossijr.authentication.repository.UserRepository;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 
@@ -29,6 +31,8 @@ public class UserService {
     PasswordEncoder passwordEncoder;
     @Autowired
     private RoleService roleService;
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
 
     private boolean isEmailUnique(String email) {
         return userRepository.findByEmail(email) == null;
@@ -70,6 +74,8 @@ public class UserService {
 
             // Map entity to DTO
             User savedUser = userRepository.save(user);
+            // Tokens carry the email, so tokens of a former user with the same email must not keep its roles
+            eventPublisher.publishEvent(new UserRolesChangedEvent(this, savedUser.getEmail()));
             return new CreateUserResponseDTO(savedUser.getId(), savedUser.getUsername(), savedUser.getCreatedAt());
         } catch (IllegalArgumentException | EmailAlreadyInUseExceptionWeb e) {
             throw e;
@@ -0,0 +1,67 @@
+package org.rossijr.authentication;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+
+/**
+ * Smoke test of the main flows over HTTP, against H2: login, token verification, role checks, JPA reads and the JSON
+ * bodies (including the error one written by the entry point).
+ *
+ * <p>It runs on the JVM with the other tests, and as a native binary with {@code mvn -PnativeTest test}, which is where
+ * a missing hint of {@link org.rossijr.authentication.config.NativeRuntimeHints} shows up.</p>
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@ActiveProfiles("test")
+class NativeSmokeTest {
+
+    @Autowired
+    private TestRestTemplate restTemplate;
+
+    @Test
+    void mainFlows() {
+        JsonNode login = login("user@example.com", "user123");
+        String token = login.get("token").asText();
+
+        assertEquals(HttpStatus.OK, get("/api/v1/health/user", token, String.class).getStatusCode());
+        assertEquals(HttpStatus.UNAUTHORIZED, get("/api/v1/health/admin", token, String.class).getStatusCode());
+
+        ResponseEntity<JsonNode> user = get("/api/v1/user/" + login.get("userId").asText(), token, JsonNode.class);
+        assertEquals(HttpStatus.OK, user.getStatusCode());
+        assertEquals("user@example.com", user.getBody().get("email").asText());
+        assertEquals("ROLE_USER", user.getBody().get("roles").get(0).get("name").asText());
+
+        ResponseEntity<JsonNode> unauthenticated = get("/api/v1/health/user", null, JsonNode.class);
+        assertEquals(HttpStatus.UNAUTHORIZED, unauthenticated.getStatusCode());
+        assertEquals(401, unauthenticated.getBody().get("status").asInt());
+    }
+
+    private JsonNode login(String email, String password) {
+        ResponseEntity<JsonNode> response = restTemplate.postForEntity("/api/v1/authentication/login",
+                Map.of("email", email, "password", password), JsonNode.class);
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertNotNull(response.getBody());
+        return response.getBody();
+    }
+
+    private <T> ResponseEntity<T> get(String path, String token, Class<T> responseType) {
+        HttpHeaders headers = new HttpHeaders();
+        if (token != null) {
+            headers.setBearerAuth(token);
+        }
+        return restTemplate.exchange(path, HttpMethod.GET, new HttpEntity<>(headers), responseType);
+    }
+}
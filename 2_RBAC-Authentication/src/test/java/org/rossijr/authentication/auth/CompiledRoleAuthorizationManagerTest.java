@@ -0,0 +1,247 @@
+package org.rossijr.authentication.auth;
+
+import org.aopalliance.intercept.MethodInvocation;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.context.support.StaticApplicationContext;
+import org.springframework.core.ResolvableType;
+import org.springframework.security.access.expression.method.DefaultMethodSecurityExpressionHandler;
+import org.springframework.security.access.hierarchicalroles.RoleHierarchy;
+import org.springframework.security.access.hierarchicalroles.RoleHierarchyImpl;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.authorization.AuthorizationDecision;
+import org.springframework.security.authorization.AuthorizationManager;
+import org.springframework.security.authorization.AuthorizationResult;
+import org.springframework.security.authorization.method.PreAuthorizeAuthorizationManager;
+import org.springframework.security.config.ObjectPostProcessor;
+import org.springframework.security.config.core.GrantedAuthorityDefaults;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.authority.AuthorityUtils;
+import org.springframework.security.util.SimpleMethodInvocation;
+
+import java.lang.reflect.Method;
+import java.util.List;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+/**
+ * Checks that every decision of the {@link CompiledRoleAuthorizationManager} is the one SpEL takes, and that only the
+ * simple role expressions skip it.
+ */
+class CompiledRoleAuthorizationManagerTest {
+
+    private static final List<List<String>> AUTHORITY_SETS = List.of(
+            List.of(),
+            List.of("ROLE_USER"),
+            List.of("ROLE_ADMIN"),
+            List.of("ADMIN"),
+            List.of("READ"),
+            List.of("ROLE_USER", "WRITE"),
+            List.of("ROLE_ROLE_ADMIN"));
+
+    private StaticApplicationContext applicationContext;
+    private DefaultMethodSecurityExpressionHandler expressionHandler;
+    private CountingManager expressionManager;
+
+    /**
+     * The compiled expressions.
+     */
+    static class RoleEndpoints {
+        @PreAuthorize("hasRole('ADMIN')")
+        public void hasRole() {
+        }
+
+        @PreAuthorize("hasRole('ROLE_ADMIN')")
+        public void hasPrefixedRole() {
+        }
+
+        @PreAuthorize(" hasAnyRole( 'USER' ,'ADMIN' ) ")
+        public void hasAnyRole() {
+        }
+
+        @PreAuthorize("hasAuthority('ADMIN')")
+        public void hasAuthority() {
+        }
+
+        @PreAuthorize("hasAuthority('ROLE_ADMIN')")
+        public void hasPrefixedAuthority() {
+        }
+
+        @PreAuthorize("hasAnyAuthority('READ', 'WRITE')")
+        public void hasAnyAuthority() {
+        }
+    }
+
+    /**
+     * The expressions left to SpEL.
+     */
+    static class ExpressionEndpoints {
+        @PreAuthorize("hasRole('USER') and hasAuthority('WRITE')")
+        public void combined() {
+        }
+
+        @PreAuthorize("@ownershipChecker.isOwner(authentication)")
+        public void owned() {
+        }
+
+        @PreAuthorize("hasRole(\"ADMIN\")")
+        public void doubleQuoted() {
+        }
+    }
+
+    @PreAuthorize("hasRole('ADMIN')")
+    static class ClassLevelEndpoints {
+        public void inherited() {
+        }
+
+        @PreAuthorize("hasAuthority('READ')")
+        public void overridden() {
+        }
+    }
+
+    public static class OwnershipChecker {
+        public boolean isOwner(Authentication authentication) {
+            return authentication.getAuthorities().stream().anyMatch(authority -> authority.getAuthority().equals("WRITE"));
+        }
+    }
+
+    @BeforeEach
+    void setUp() {
+        applicationContext = new StaticApplicationContext();
+        applicationContext.getBeanFactory().registerSingleton("ownershipChecker", new OwnershipChecker());
+        expressionHandler = new DefaultMethodSecurityExpressionHandler();
+        expressionHandler.setApplicationContext(applicationContext);
+        PreAuthorizeAuthorizationManager preAuthorizeManager = new PreAuthorizeAuthorizationManager();
+        preAuthorizeManager.setExpressionHandler(expressionHandler);
+        expressionManager = new CountingManager(preAuthorizeManager);
+    }
+
+    @Test
+    void simpleRoleExpressionsAreCompiled() throws Exception {
+        CompiledRoleAuthorizationManager compiledManager = new CompiledRoleAuthorizationManager(expressionManager, applicationContext);
+
+        for (Method method : RoleEndpoints.class.getDeclaredMethods()) {
+            assertSameDecisions(compiledManager, new RoleEndpoints(), method);
+        }
+        assertEquals(0, expressionManager.calls, "Compiled expressions must not be evaluated by SpEL");
+    }
+
+    @Test
+    void otherExpressionsAreLeftToSpel() throws Exception {
+        CompiledRoleAuthorizationManager compiledManager = new CompiledRoleAuthorizationManager(expressionManager, applicationContext);
+
+        for (Method method : ExpressionEndpoints.class.getDeclaredMethods()) {
+            expressionManager.calls = 0;
+            assertSameDecisions(compiledManager, new ExpressionEndpoints(), method);
+            assertEquals(AUTHORITY_SETS.size(), expressionManager.calls, method.getName() + " must be evaluated by SpEL");
+        }
+    }
+
+    @Test
+    void classLevelExpressionsAreCompiled() throws Exception {
+        CompiledRoleAuthorizationManager compiledManager = new CompiledRoleAuthorizationManager(expressionManager, applicationContext);
+
+        assertSameDecisions(compiledManager, new ClassLevelEndpoints(), ClassLevelEndpoints.class.getMethod("inherited"));
+        assertSameDecisions(compiledManager, new ClassLevelEndpoints(), ClassLevelEndpoints.class.getMethod("overridden"));
+        assertEquals(0, expressionManager.calls);
+    }
+
+    @Test
+    void customRolePrefixIsApplied() throws Exception {
+        applicationContext.getBeanFactory().registerSingleton("grantedAuthorityDefaults", new GrantedAuthorityDefaults(""));
+        expressionHandler.setDefaultRolePrefix("");
+        CompiledRoleAuthorizationManager compiledManager = new CompiledRoleAuthorizationManager(expressionManager, applicationContext);
+
+        for (Method method : RoleEndpoints.class.getDeclaredMethods()) {
+            assertSameDecisions(compiledManager, new RoleEndpoints(), method);
+        }
+        assertEquals(0, expressionManager.calls);
+    }
+
+    @Test
+    void roleHierarchyIsApplied() throws Exception {
+        RoleHierarchy roleHierarchy = RoleHierarchyImpl.fromHierarchy("ROLE_USER > ROLE_ADMIN\nROLE_ADMIN > READ");
+        applicationContext.getBeanFactory().registerSingleton("roleHierarchy", roleHierarchy);
+        expressionHandler.setRoleHierarchy(roleHierarchy);
+        CompiledRoleAuthorizationManager compiledManager = new CompiledRoleAuthorizationManager(expressionManager, applicationContext);
+
+        for (Method method : RoleEndpoints.class.getDeclaredMethods()) {
+            assertSameDecisions(compiledManager, new RoleEndpoints(), method);
+        }
+        assertEquals(0, expressionManager.calls);
+    }
+
+    @Test
+    void nothingIsCompiledWithACustomExpressionHandler() throws Exception {
+        applicationContext.getBeanFactory().registerSingleton("methodSecurityExpressionHandler", expressionHandler);
+        CompiledRoleAuthorizationManager compiledManager = new CompiledRoleAuthorizationManager(expressionManager, applicationContext);
+
+        assertSameDecisions(compiledManager, new RoleEndpoints(), RoleEndpoints.class.getMethod("hasRole"));
+        assertEquals(AUTHORITY_SETS.size(), expressionManager.calls);
+    }
+
+    @Test
+    void postProcessorWrapsTheManagerBeforeTheOtherPostProcessors() {
+        CountingManager observed = new CountingManager(expressionManager);
+        applicationContext.getBeanFactory().registerSingleton("observationPostProcessor",
+                new ObjectPostProcessor<AuthorizationManager<MethodInvocation>>() {
+                    @Override
+                    @SuppressWarnings("unchecked")
+                    public <O extends AuthorizationManager<MethodInvocation>> O postProcess(O manager) {
+                        observed.delegate = manager;
+                        return (O) observed;
+                    }
+                });
+        ResolvableType type = ResolvableType.forClassWithGenerics(ObjectPostProcessor.class,
+                ResolvableType.forClassWithGenerics(AuthorizationManager.class, MethodInvocation.class));
+        CompiledRoleAuthorizationManagerPostProcessor postProcessor =
+                new CompiledRoleAuthorizationManagerPostProcessor(applicationContext.getBeanProvider(type), applicationContext);
+        applicationContext.getBeanFactory().registerSingleton("compiledPostProcessor", postProcessor);
+
+        AuthorizationManager<MethodInvocation> processed = postProcessor.postProcess(expressionManager);
+
+        assertSame(observed, processed);
+        assertEquals(CompiledRoleAuthorizationManager.class, observed.delegate.getClass());
+    }
+
+    private void assertSameDecisions(CompiledRoleAuthorizationManager compiledManager, Object target, Method method) {
+        MethodInvocation invocation = new SimpleMethodInvocation(target, method);
+        for (List<String> authorities : AUTHORITY_SETS) {
+            Authentication authentication = new UsernamePasswordAuthenticationToken("user", null,
+                    AuthorityUtils.createAuthorityList(authorities));
+            Supplier<Authentication> supplier = () -> authentication;
+            // Evaluated by the SpEL manager itself, so it is not counted
+            boolean expected = expressionManager.delegate.authorize(supplier, invocation).isGranted();
+            assertEquals(expected, compiledManager.authorize(supplier, invocation).isGranted(),
+                    method.getName() + " with " + authorities);
+        }
+    }
+
+    /**
+     * Counts the checks it delegates.
+     */
+    private static final class CountingManager implements AuthorizationManager<MethodInvocation> {
+        private AuthorizationManager<MethodInvocation> delegate;
+        private int calls;
+
+        private CountingManager(AuthorizationManager<MethodInvocation> delegate) {
+            this.delegate = delegate;
+        }
+
+        @Override
+        public AuthorizationResult authorize(Supplier<Authentication> authentication, MethodInvocation invocation) {
+            calls++;
+            return delegate.authorize(authentication, invocation);
+        }
+
+        @Override
+        @SuppressWarnings("deprecation")
+        public AuthorizationDecision check(Supplier<Authentication> authentication, MethodInvocation invocation) {
+            calls++;
+            return delegate.check(authentication, invocation);
+        }
+    }
+}
@@ -0,0 +1,142 @@
+package org.rossijr.authentication.auth;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.rossijr.authentication.model.Role;
+import org.rossijr.authentication.model.User;
+import org.rossijr.authentication.model.UserRole;
+import org.rossijr.authentication.repository.RoleRepository;
+import org.rossijr.authentication.repository.UserRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.authority.AuthorityUtils;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+
+/**
+ * Checks when the {@link JwtRequestFilter} trusts the role claims of a stateless token, and when it falls back to the
+ * database.
+ *
+ * <p>The tokens carry a random user ID: the principal has that ID only if it was built from the claims, and the ID
+ * stored in the database if it was loaded through the {@code UserDetailsService}.</p>
+ */
+@SpringBootTest(properties = "jwt.stateless.enabled=true")
+@ActiveProfiles("test")
+class JwtRequestFilterTest {
+    private static final String EMAIL = "user@example.com";
+
+    @Autowired
+    private JwtRequestFilter jwtRequestFilter;
+
+    @Autowired
+    private JwtUtil jwtUtil;
+
+    @Autowired
+    private UserRoleVersionRegistry userRoleVersionRegistry;
+
+    @Autowired
+    private RoleAuthorityRegistry roleAuthorityRegistry;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private RoleRepository roleRepository;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    private UUID storedId;
+    private long userRoleMask;
+
+    @BeforeEach
+    void setUp() {
+        storedId = userRepository.findByEmail(EMAIL).getId();
+        userRoleMask = 1L << (roleRepository.findByName("ROLE_USER").getId() - 1);
+    }
+
+    @AfterEach
+    void clearContext() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void currentClaimsAreTrusted() throws Exception {
+        UUID claimedId = UUID.randomUUID();
+        String token = jwtUtil.createToken(EMAIL, claimedId, userRoleMask, userRoleVersionRegistry.currentVersion(EMAIL));
+
+        AuthenticatedUser user = authenticate(token);
+
+        assertEquals(claimedId, user.getId());
+        assertEquals(Set.copyOf(AuthorityUtils.createAuthorityList("ROLE_USER")), Set.copyOf(user.getAuthorities()));
+    }
+
+    @Test
+    void staleRoleVersionFallsBackToTheDatabase() throws Exception {
+        String token = jwtUtil.createToken(EMAIL, UUID.randomUUID(), userRoleMask, userRoleVersionRegistry.currentVersion(EMAIL) - 1);
+
+        assertEquals(storedId, authenticate(token).getId());
+    }
+
+    @Test
+    void roleChangeMakesIssuedTokensStale() throws Exception {
+        String token = jwtUtil.createToken(EMAIL, UUID.randomUUID(), userRoleMask, userRoleVersionRegistry.currentVersion(EMAIL));
+
+        eventPublisher.publishEvent(new UserRolesChangedEvent(this, EMAIL));
+
+        assertEquals(storedId, authenticate(token).getId());
+    }
+
+    @Test
+    void removedRoleFallsBackToTheDatabase() throws Exception {
+        long unknownRoleMask = userRoleMask | (1L << 40);
+        String token = jwtUtil.createToken(EMAIL, UUID.randomUUID(), unknownRoleMask, userRoleVersionRegistry.currentVersion(EMAIL));
+
+        AuthenticatedUser user = authenticate(token);
+
+        assertEquals(storedId, user.getId());
+        assertEquals(Set.copyOf(AuthorityUtils.createAuthorityList("ROLE_USER")), Set.copyOf(user.getAuthorities()));
+    }
+
+    @Test
+    void roleIdOutsideTheMaskFallsBackToTheDatabase() throws Exception {
+        Role role = new Role("ROLE_AUDITOR");
+        role.setId(64L);
+        User user = new User();
+        assertEquals(-1, roleAuthorityRegistry.maskOf(List.of(new UserRole(user, role))));
+
+        // -1 (all the bits) is what a token built from that mask would carry, and role 64 does not exist
+        String token = jwtUtil.createToken(EMAIL, UUID.randomUUID(), -1, userRoleVersionRegistry.currentVersion(EMAIL));
+
+        assertEquals(storedId, authenticate(token).getId());
+    }
+
+    @Test
+    void tokenWithoutClaimsFallsBackToTheDatabase() throws Exception {
+        assertEquals(storedId, authenticate(jwtUtil.createToken(EMAIL)).getId());
+    }
+
+    private AuthenticatedUser authenticate(String token) throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/v1/health/user");
+        request.addHeader("Authorization", "Bearer " + token);
+        Authentication[] authentication = new Authentication[1];
+
+        jwtRequestFilter.doFilter(request, new MockHttpServletResponse(),
+                (req, res) -> authentication[0] = SecurityContextHolder.getContext().getAuthentication());
+
+        assertNotNull(authentication[0]);
+        return (AuthenticatedUser) authentication[0].getPrincipal();
+    }
+}
@@ -0,0 +1,112 @@
+package org.rossijr.authentication.auth;
+
+import org.aopalliance.intercept.MethodInvocation;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.context.support.StaticApplicationContext;
+import org.springframework.security.access.expression.method.DefaultMethodSecurityExpressionHandler;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.authorization.AuthorizationResult;
+import org.springframework.security.authorization.method.PreAuthorizeAuthorizationManager;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.util.SimpleMethodInvocation;
+
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Per-call cost of the {@code @PreAuthorize} checks of the controllers, evaluated through SpEL (as Spring Security does)
+ * and compiled by the {@link CompiledRoleAuthorizationManager}, for a user with the {@code ROLE_USER} role.
+ *
+ * <p>Run it with {@code mvn test-compile exec:exec -Dexec.classpathScope=test -Dexec.executable=java
+ * "-Dexec.args=-cp %classpath org.rossijr.authentication.auth.PreAuthorizeBenchmark"}. The allocated bytes per call are
+ * reported by the GC profiler ({@code gc.alloc.rate.norm}).</p>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PreAuthorizeBenchmark {
+
+    private PreAuthorizeAuthorizationManager expressionManager;
+    private CompiledRoleAuthorizationManager compiledManager;
+    private Supplier<Authentication> authentication;
+    private MethodInvocation hasRole;
+    private MethodInvocation hasAnyRole;
+
+    /**
+     * The expressions of the controllers.
+     */
+    public static class Endpoints {
+        @PreAuthorize("hasRole('ADMIN')")
+        public void admin() {
+        }
+
+        @PreAuthorize("hasAnyRole('USER', 'ADMIN')")
+        public void user() {
+        }
+    }
+
+    @Setup(Level.Trial)
+    public void setUp() throws NoSuchMethodException {
+        StaticApplicationContext applicationContext = new StaticApplicationContext();
+        DefaultMethodSecurityExpressionHandler expressionHandler = new DefaultMethodSecurityExpressionHandler();
+        expressionHandler.setApplicationContext(applicationContext);
+        expressionManager = new PreAuthorizeAuthorizationManager();
+        expressionManager.setExpressionHandler(expressionHandler);
+        compiledManager = new CompiledRoleAuthorizationManager(expressionManager, applicationContext);
+
+        // As built by the JwtRequestFilter
+        AuthenticatedUser user = new AuthenticatedUser(UUID.randomUUID(), "user@example.com", null,
+                Set.of(new SimpleGrantedAuthority("ROLE_USER")));
+        Authentication token = new UsernamePasswordAuthenticationToken(user, null, user.getAuthorities());
+        authentication = () -> token;
+
+        Endpoints endpoints = new Endpoints();
+        hasRole = new SimpleMethodInvocation(endpoints, Endpoints.class.getMethod("admin"));
+        hasAnyRole = new SimpleMethodInvocation(endpoints, Endpoints.class.getMethod("user"));
+    }
+
+    @Benchmark
+    public AuthorizationResult hasRoleSpel() {
+        return expressionManager.authorize(authentication, hasRole);
+    }
+
+    @Benchmark
+    public AuthorizationResult hasRoleCompiled() {
+        return compiledManager.authorize(authentication, hasRole);
+    }
+
+    @Benchmark
+    public AuthorizationResult hasAnyRoleSpel() {
+        return expressionManager.authorize(authentication, hasAnyRole);
+    }
+
+    @Benchmark
+    public AuthorizationResult hasAnyRoleCompiled() {
+        return compiledManager.authorize(authentication, hasAnyRole);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(PreAuthorizeBenchmark.class.getSimpleName()).addProfiler(GCProfiler.class).build()).run();
+    }
+}
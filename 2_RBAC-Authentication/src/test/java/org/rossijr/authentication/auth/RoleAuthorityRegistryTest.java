@@ -0,0 +1,129 @@
+package org.rossijr.authentication.auth;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.rossijr.authentication.model.Role;
+import org.rossijr.authentication.model.User;
+import org.rossijr.authentication.model.UserRole;
+import org.rossijr.authentication.repository.RoleRepository;
+import org.springframework.security.core.GrantedAuthority;
+
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+class RoleAuthorityRegistryTest {
+
+    private final Role userRole = role(1, "ROLE_USER");
+    private final Role adminRole = role(2, "ROLE_ADMIN");
+    private final Role auditorRole = role(3, "ROLE_AUDITOR");
+    // The rows of the tb_role table
+    private final List<Role> storedRoles = new ArrayList<>(List.of(userRole, adminRole));
+    private RoleAuthorityRegistry registry;
+
+    @BeforeEach
+    void setUp() {
+        // Only findAll is used by the registry
+        RoleRepository roleRepository = (RoleRepository) Proxy.newProxyInstance(RoleRepository.class.getClassLoader(),
+                new Class<?>[]{RoleRepository.class}, (proxy, method, args) -> {
+                    if (method.getName().equals("findAll") && method.getParameterCount() == 0) {
+                        return List.copyOf(storedRoles);
+                    }
+                    throw new UnsupportedOperationException(method.getName());
+                });
+        registry = new RoleAuthorityRegistry(roleRepository);
+        registry.refresh();
+    }
+
+    @Test
+    void usersWithTheSameRolesShareTheSameSet() {
+        Set<GrantedAuthority> user = registry.authoritiesOf(userRoles(userRole));
+        Set<GrantedAuthority> admin = registry.authoritiesOf(userRoles(userRole, adminRole));
+
+        assertSame(user, registry.authoritiesOf(userRoles(userRole)));
+        // The order of the roles does not matter
+        assertSame(admin, registry.authoritiesOf(userRoles(adminRole, userRole)));
+        assertEquals(Set.of("ROLE_USER", "ROLE_ADMIN"), names(admin));
+        // The authority of a role is the same instance in every set
+        assertSame(user.iterator().next(), authority(admin, "ROLE_USER"));
+
+        long mask = registry.maskOf(userRoles(userRole, adminRole));
+        assertEquals(0b11, mask);
+        assertSame(registry.authoritiesOf(mask), registry.authoritiesOf(mask));
+        assertEquals(admin, registry.authoritiesOf(mask));
+        assertSame(user.iterator().next(), authority(registry.authoritiesOf(mask), "ROLE_USER"));
+        assertEquals(Set.of(), registry.authoritiesOf(List.of()));
+    }
+
+    @Test
+    void rolesChangedEventClearsTheCombinationAndMaskSets() {
+        Set<GrantedAuthority> admin = registry.authoritiesOf(userRoles(userRole, adminRole));
+        long mask = registry.maskOf(userRoles(userRole, adminRole));
+        assertEquals(admin, registry.authoritiesOf(mask));
+
+        // ROLE_ADMIN is removed and ROLE_AUDITOR created
+        storedRoles.remove(adminRole);
+        storedRoles.add(auditorRole);
+        registry.onRolesChanged(new RolesChangedEvent(this));
+
+        Set<GrantedAuthority> rebuilt = registry.authoritiesOf(userRoles(userRole, adminRole));
+        assertNotSame(admin, rebuilt);
+        assertEquals(Set.of("ROLE_USER", "ROLE_ADMIN"), names(rebuilt));
+        // The authorities of the roles still loaded are kept
+        assertSame(authority(admin, "ROLE_USER"), authority(rebuilt, "ROLE_USER"));
+        // The cached set of the mask is dropped, as it holds a role that is not loaded anymore
+        assertNull(registry.authoritiesOf(mask));
+        assertEquals(Set.of("ROLE_USER", "ROLE_AUDITOR"), names(registry.authoritiesOf(registry.maskOf(userRoles(userRole, auditorRole)))));
+    }
+
+    @Test
+    void roleNotLoadedYetFallsBackToAnAuthorityOfItsOwn() {
+        Set<GrantedAuthority> auditor = registry.authoritiesOf(userRoles(auditorRole));
+        long mask = registry.maskOf(userRoles(auditorRole));
+
+        assertEquals(Set.of("ROLE_AUDITOR"), names(auditor));
+        assertEquals(Set.of("ROLE_USER", "ROLE_AUDITOR"), names(registry.authoritiesOf(userRoles(userRole, auditorRole))));
+        assertNull(registry.authoritiesOf(mask));
+
+        // Once the roles are reloaded, the role is shared and found by its mask
+        storedRoles.add(auditorRole);
+        registry.onRolesChanged(new RolesChangedEvent(this));
+
+        Set<GrantedAuthority> loaded = registry.authoritiesOf(userRoles(auditorRole));
+        assertSame(loaded, registry.authoritiesOf(userRoles(auditorRole)));
+        assertSame(authority(loaded, "ROLE_AUDITOR"),
+                authority(registry.authoritiesOf(userRoles(userRole, auditorRole)), "ROLE_AUDITOR"));
+        assertEquals(loaded, registry.authoritiesOf(mask));
+    }
+
+    private static Role role(long id, String name) {
+        Role role = new Role(name);
+        role.setId(id);
+        return role;
+    }
+
+    private static Collection<UserRole> userRoles(Role... roles) {
+        User user = new User();
+        List<UserRole> userRoles = new ArrayList<>();
+        for (Role role : roles) {
+            userRoles.add(new UserRole(user, role));
+        }
+        return userRoles;
+    }
+
+    private static Set<String> names(Set<GrantedAuthority> authorities) {
+        return authorities.stream().map(GrantedAuthority::getAuthority).collect(Collectors.toSet());
+    }
+
+    private static GrantedAuthority authority(Set<GrantedAuthority> authorities, String name) {
+        return authorities.stream().filter(authority -> name.equals(authority.getAuthority())).findFirst().orElseThrow();
+    }
+}
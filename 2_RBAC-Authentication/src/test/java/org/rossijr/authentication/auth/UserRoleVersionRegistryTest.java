@@ -0,0 +1,47 @@
+package org.rossijr.authentication.auth;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class UserRoleVersionRegistryTest {
+
+    private final UserRoleVersionRegistry registry = new UserRoleVersionRegistry();
+
+    @Test
+    void tokensIssuedBeforeStartupAreStale() {
+        long version = registry.currentVersion("user@example.com");
+
+        assertTrue(registry.isCurrent("user@example.com", version));
+        assertFalse(registry.isCurrent("user@example.com", version - 1));
+    }
+
+    @Test
+    void roleChangeBumpsTheVersionOfTheUser() {
+        long before = registry.currentVersion("user@example.com");
+        long other = registry.currentVersion("admin@example.com");
+
+        registry.onUserRolesChanged(new UserRolesChangedEvent(this, "user@example.com"));
+
+        long after = registry.currentVersion("user@example.com");
+        assertTrue(after > before);
+        assertFalse(registry.isCurrent("user@example.com", before));
+        assertTrue(registry.isCurrent("user@example.com", after));
+        // The other users keep their version
+        assertEquals(other, registry.currentVersion("admin@example.com"));
+        assertTrue(registry.isCurrent("admin@example.com", other));
+    }
+
+    @Test
+    void everyChangeGetsANewVersion() {
+        registry.onUserRolesChanged(new UserRolesChangedEvent(this, "user@example.com"));
+        long first = registry.currentVersion("user@example.com");
+        registry.onUserRolesChanged(new UserRolesChangedEvent(this, "admin@example.com"));
+        registry.onUserRolesChanged(new UserRolesChangedEvent(this, "user@example.com"));
+
+        assertTrue(registry.currentVersion("user@example.com") > first);
+        assertFalse(registry.isCurrent("user@example.com", first));
+    }
+}